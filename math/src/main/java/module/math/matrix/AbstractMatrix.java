@@ -0,0 +1,367 @@
+package module.math.matrix;
+
+import java.util.Random;
+
+/**
+ * Common base class of all matrix types (i.e., dense matrices, represented by {@link Matrix}, and sparse matrices,
+ * represented by {@link SparseMatrix}). It contains the operations that can be performed efficiently for all storage
+ * formats, which are the operations that functions and solvers need when they only use a matrix to multiply vectors
+ * with (e.g., quadratic and linear least squares functions and the conjugate gradient solver). Operations that require
+ * dense storage, such as matrix decompositions, can be performed on the matrix returned by {@link #toDenseMatrix()}.
+ * All matrices are also {@link LinearOperator}s, whose application is equivalent to multiplication.
+ *
+ * @author Andriy Chekhovych
+ */
+public abstract class AbstractMatrix implements LinearOperator {
+    /** The default maximum number of power iterations performed by {@link #estimateL2Norm(double)}. */
+    private static final int DEFAULT_MAXIMUM_NUMBER_OF_L2_NORM_ITERATIONS = 1000;
+    /** The seed of the random number generator used for the starting vector of the power iteration, so that the
+     * estimates are reproducible. */
+    private static final long L2_NORM_ESTIMATION_SEED = 0;
+
+    /**
+     * Gets the row dimension of this matrix (that is, the number of rows of this matrix).
+     *
+     * @return  The row dimension of this matrix.
+     */
+    @Override
+    public abstract int getRowDimension();
+
+    /**
+     * Gets the column dimension of this matrix (that is, the number of columns of this matrix).
+     *
+     * @return  The column dimension of this matrix.
+     */
+    @Override
+    public abstract int getColumnDimension();
+
+    /**
+     * Gets the value of the matrix element at the provided position.
+     *
+     * @param   row     The row index of the element.
+     * @param   column  The column index of the element.
+     * @return          The value of the element at the provided position.
+     */
+    public abstract double getElement(int row, int column);
+
+    /**
+     * Gets the transpose of this matrix.
+     *
+     * @return  The transpose of this matrix.
+     */
+    public abstract AbstractMatrix transpose();
+
+    /**
+     * Gets a dense matrix holding the same elements as this matrix. Dense matrices return themselves and so the returned
+     * matrix should be copied before being modified.
+     *
+     * @return  A dense matrix holding the same elements as this matrix.
+     */
+    @Override
+    public abstract Matrix toDenseMatrix();
+
+    /**
+     * Computes the squared L2 norms of the columns of this matrix (i.e., the diagonal elements of \(A^TA\)).
+     *
+     * @return  An array holding the squared L2 norm of each column of this matrix.
+     */
+    public abstract double[] computeSquaredColumnNorms();
+
+    /**
+     * Computes the squared L2 norms of the rows of this matrix (i.e., the diagonal elements of \(AA^T\)).
+     *
+     * @return  An array holding the squared L2 norm of each row of this matrix.
+     */
+    public double[] computeSquaredRowNorms() {
+        return transpose().computeSquaredColumnNorms();
+    }
+
+    /** {@inheritDoc} This is equivalent to {@link #multiply(Vector)}. */
+    @Override
+    public Vector apply(Vector vector) {
+        return multiply(vector);
+    }
+
+    /** {@inheritDoc} This is equivalent to {@link #multiply(Vector, Vector)}. */
+    @Override
+    public Vector apply(Vector vector, Vector resultVector) {
+        return multiply(vector, resultVector);
+    }
+
+    /** {@inheritDoc} This is equivalent to {@link #transMult(Vector)}. */
+    @Override
+    public Vector applyTranspose(Vector vector) {
+        return transMult(vector);
+    }
+
+    /** {@inheritDoc} This is equivalent to {@link #transMult(Vector, Vector)}. */
+    @Override
+    public Vector applyTranspose(Vector vector, Vector resultVector) {
+        return transMult(vector, resultVector);
+    }
+
+    /**
+     * Multiplies the current matrix with a vector and returns the result in a new vector. The resulting vector type
+     * (i.e., dense, sparse, etc.) is the same as the type of the provided vector. The multiplication is specialized for
+     * each vector type, so that, for example, only the nonzero elements of sparse vectors are accessed.
+     *
+     * @param   vector  The vector with which to multiply the current matrix.
+     * @return          A new vector holding the result of the multiplication.
+     *
+     * @throws  IllegalArgumentException    The column dimension of the matrix must agree with the size of the vector.
+     */
+    public Vector multiply(Vector vector) {
+        if (vector.size() != getColumnDimension()) {
+            throw new IllegalArgumentException(
+                    "The column dimension of the matrix must agree with the dimension of the vector."
+            );
+        }
+        if (vector.type() == VectorType.DENSE) {
+            DenseVector resultVector = new DenseVector(getRowDimension());
+            multiply(vector, resultVector.array, 0);
+            return resultVector;
+        }
+        double[] resultArray = new double[getRowDimension()];
+        multiply(vector, resultArray, 0);
+        return buildVector(resultArray, vector.type());
+    }
+
+    /**
+     * Multiplies the current matrix with a vector and stores the result in the provided result vector, overwriting its
+     * contents. No memory is allocated when the result vector is dense, and so this method is preferable to
+     * {@link #multiply(Vector)} when the same product is computed repeatedly (e.g., within an iterative solver).
+     *
+     * @param   vector          The vector with which to multiply the current matrix.
+     * @param   resultVector    The vector in which to store the result of the multiplication.
+     * @return                  The result vector.
+     *
+     * @throws  IllegalArgumentException    The column dimension of the matrix must agree with the size of the vector,
+     *                                      the row dimension of the matrix must agree with the size of the result
+     *                                      vector and the result vector must be different from the vector being
+     *                                      multiplied.
+     */
+    public Vector multiply(Vector vector, Vector resultVector) {
+        if (vector.size() != getColumnDimension()) {
+            throw new IllegalArgumentException(
+                    "The column dimension of the matrix must agree with the dimension of the vector."
+            );
+        }
+        if (resultVector.size() != getRowDimension()) {
+            throw new IllegalArgumentException(
+                    "The row dimension of the matrix must agree with the dimension of the result vector."
+            );
+        }
+        if (resultVector == vector) {
+            throw new IllegalArgumentException(
+                    "The result vector must be different from the vector being multiplied."
+            );
+        }
+        if (resultVector instanceof DenseVector) {
+            multiply(vector, ((DenseVector) resultVector).array, ((DenseVector) resultVector).offset);
+        } else {
+            double[] resultArray = new double[getRowDimension()];
+            multiply(vector, resultArray, 0);
+            copyToVector(resultArray, resultVector);
+        }
+        return resultVector;
+    }
+
+    /**
+     * Multiplies the transpose of the current matrix with a vector (i.e., computes \(A^Tx\)) and returns the result in
+     * a new vector, without forming the transpose. The resulting vector type is the same as the type of the provided
+     * vector.
+     *
+     * @param   vector  The vector with which to multiply the transpose of the current matrix.
+     * @return          A new vector holding the result of the multiplication.
+     *
+     * @throws  IllegalArgumentException    The row dimension of the matrix must agree with the size of the vector.
+     */
+    public Vector transMult(Vector vector) {
+        if (vector.size() != getRowDimension()) {
+            throw new IllegalArgumentException(
+                    "The row dimension of the matrix must agree with the dimension of the vector."
+            );
+        }
+        if (vector.type() == VectorType.DENSE) {
+            DenseVector resultVector = new DenseVector(getColumnDimension());
+            transMult(vector, resultVector.array, 0);
+            return resultVector;
+        }
+        double[] resultArray = new double[getColumnDimension()];
+        transMult(vector, resultArray, 0);
+        return buildVector(resultArray, vector.type());
+    }
+
+    /**
+     * Multiplies the transpose of the current matrix with a vector and stores the result in the provided result
+     * vector, overwriting its contents.
+     *
+     * @param   vector          The vector with which to multiply the transpose of the current matrix.
+     * @param   resultVector    The vector in which to store the result of the multiplication.
+     * @return                  The result vector.
+     *
+     * @throws  IllegalArgumentException    The row dimension of the matrix must agree with the size of the vector, the
+     *                                      column dimension of the matrix must agree with the size of the result
+     *                                      vector and the result vector must be different from the vector being
+     *                                      multiplied.
+     */
+    public Vector transMult(Vector vector, Vector resultVector) {
+        if (vector.size() != getRowDimension()) {
+            throw new IllegalArgumentException(
+                    "The row dimension of the matrix must agree with the dimension of the vector."
+            );
+        }
+        if (resultVector.size() != getColumnDimension()) {
+            throw new IllegalArgumentException(
+                    "The column dimension of the matrix must agree with the dimension of the result vector."
+            );
+        }
+        if (resultVector == vector) {
+            throw new IllegalArgumentException(
+                    "The result vector must be different from the vector being multiplied."
+            );
+        }
+        if (resultVector instanceof DenseVector) {
+            transMult(vector, ((DenseVector) resultVector).array, ((DenseVector) resultVector).offset);
+        } else {
+            double[] resultArray = new double[getColumnDimension()];
+            transMult(vector, resultArray, 0);
+            copyToVector(resultArray, resultVector);
+        }
+        return resultVector;
+    }
+
+    /**
+     * Estimates the \(L_2\) norm of this matrix (i.e., its largest singular value) using the power iteration on
+     * \(A^TA\), stopping when the relative change of the estimate becomes smaller than the provided tolerance, or
+     * after {@value #DEFAULT_MAXIMUM_NUMBER_OF_L2_NORM_ITERATIONS} iterations.
+     *
+     * @param   tolerance   The relative tolerance used as the stopping criterion.
+     * @return              The estimate of the \(L_2\) norm of this matrix.
+     *
+     * @see #estimateL2Norm(double, int)
+     */
+    public double estimateL2Norm(double tolerance) {
+        return estimateL2Norm(tolerance, DEFAULT_MAXIMUM_NUMBER_OF_L2_NORM_ITERATIONS);
+    }
+
+    /**
+     * Estimates the \(L_2\) norm of this matrix (i.e., its largest singular value) using the power iteration on
+     * \(A^TA\). Each iteration requires one product with this matrix and one product with its transpose and so it
+     * costs \(O(mn)\) operations for dense matrices (and it is proportional to the number of nonzero elements for
+     * sparse matrices), as opposed to the \(O(mn\min\{m,n\})\) operations required by a singular value
+     * decomposition. Denoting by \(\boldsymbol{x}_k\) the current unit length iterate, the estimate is
+     * \(\sqrt{\|A^TA\boldsymbol{x}_k\|}\), which is a lower bound for the \(L_2\) norm and converges to it at a rate
+     * that depends on the ratio of the two largest singular values. The starting vector is random, but the random
+     * number generator is seeded with a constant, so that the estimates are reproducible.
+     *
+     * @param   tolerance                   The relative tolerance used as the stopping criterion (i.e., the iteration
+     *                                      stops when the relative change of the estimate is not greater than it).
+     * @param   maximumNumberOfIterations   The maximum number of power iterations to perform.
+     * @return                              The estimate of the \(L_2\) norm of this matrix.
+     *
+     * @throws  IllegalArgumentException    The tolerance must be non-negative and the maximum number of iterations must
+     *                                      be positive.
+     */
+    public double estimateL2Norm(double tolerance, int maximumNumberOfIterations) {
+        if (tolerance < 0)
+            throw new IllegalArgumentException("The tolerance must be non-negative.");
+        if (maximumNumberOfIterations < 1)
+            throw new IllegalArgumentException("The maximum number of iterations must be positive.");
+        int rowDimension = getRowDimension();
+        int columnDimension = getColumnDimension();
+        if (rowDimension == 0 || columnDimension == 0)
+            return 0;
+        DenseVector x = new DenseVector(columnDimension);
+        DenseVector y = new DenseVector(rowDimension);
+        Random random = new Random(L2_NORM_ESTIMATION_SEED);
+        double xNorm = 0;
+        for (int j = 0; j < columnDimension; j++) {
+            x.array[j] = random.nextGaussian();
+            xNorm += x.array[j] * x.array[j];
+        }
+        xNorm = Math.sqrt(xNorm);
+        double estimate = 0;
+        for (int iteration = 0; iteration < maximumNumberOfIterations; iteration++) {
+            for (int j = 0; j < columnDimension; j++)
+                x.array[j] /= xNorm;
+            multiply(x, y.array, 0);
+            transMult(y, x.array, 0);
+            xNorm = 0;
+            for (int j = 0; j < columnDimension; j++)
+                xNorm += x.array[j] * x.array[j];
+            xNorm = Math.sqrt(xNorm);
+            double previousEstimate = estimate;
+            estimate = Math.sqrt(xNorm);
+            if (xNorm == 0 || Math.abs(estimate - previousEstimate) <= tolerance * estimate)
+                break;
+        }
+        return estimate;
+    }
+
+    /**
+     * Multiplies the current matrix with a vector and stores the result in the provided array, starting at the provided
+     * offset and overwriting the existing values. The vector sizes are assumed to have already been checked.
+     *
+     * @param   vector          The vector with which to multiply the current matrix.
+     * @param   resultArray     The array in which to store the result of the multiplication.
+     * @param   resultOffset    The index in the result array at which to store the first element of the result.
+     */
+    abstract void multiply(Vector vector, double[] resultArray, int resultOffset);
+
+    /**
+     * Multiplies the transpose of the current matrix with a vector and stores the result in the provided array,
+     * starting at the provided offset and overwriting the existing values. The vector sizes are assumed to have already
+     * been checked.
+     *
+     * @param   vector          The vector with which to multiply the transpose of the current matrix.
+     * @param   resultArray     The array in which to store the result of the multiplication.
+     * @param   resultOffset    The index in the result array at which to store the first element of the result.
+     */
+    abstract void transMult(Vector vector, double[] resultArray, int resultOffset);
+
+    /**
+     * Builds a new vector of the provided type, holding the values of the provided array.
+     *
+     * @param   array   The array holding the vector values.
+     * @param   type    The type of the vector to build.
+     * @return          The new vector.
+     */
+    static Vector buildVector(double[] array, VectorType type) {
+        if (type == VectorType.DENSE)
+            return new DenseVector(array);
+        if (type == VectorType.SPARSE) {
+            int numberOfNonzeroEntries = 0;
+            for (double value : array)
+                if (value != 0)
+                    numberOfNonzeroEntries++;
+            int[] indexes = new int[numberOfNonzeroEntries];
+            double[] values = new double[numberOfNonzeroEntries];
+            for (int i = 0, k = 0; i < array.length; i++) {
+                if (array[i] != 0) {
+                    indexes[k] = i;
+                    values[k++] = array[i];
+                }
+            }
+            return new SparseVector(array.length, numberOfNonzeroEntries, indexes, values);
+        }
+        Vector vector = Vectors.build(array.length, type);
+        for (int i = 0; i < array.length; i++)
+            if (array[i] != 0)
+                vector.set(i, array[i]);
+        return vector;
+    }
+
+    /**
+     * Copies the values of the provided array to the provided vector, avoiding explicitly storing zeros in vectors that
+     * only store their nonzero elements.
+     *
+     * @param   array   The array holding the values to copy.
+     * @param   vector  The vector to copy the values to.
+     */
+    private static void copyToVector(double[] array, Vector vector) {
+        for (int i = 0; i < array.length; i++)
+            if (array[i] != 0 || vector.get(i) != 0)
+                vector.set(i, array[i]);
+    }
+}
@@ -6,14 +6,28 @@ package module.math.matrix;
  * and the decomposition is actually only possible is \(A\) is symmetric and positive definite. If it is not, the result
  * is meaningless and should not be used in further computations.
  *
+ * The factorization is right-looking and blocked: for each block column, the diagonal block is factored with an
+ * unblocked kernel, the panel below it is obtained with a triangular solve and the lower triangular part of the
+ * trailing matrix is updated using the cache-blocked matrix multiplication kernel. The block rows of the panel and of
+ * the trailing matrix are independent and so they are processed in parallel, as specified by the provided
+ * {@link MatrixMultiplyOptions}. Systems with multiple right-hand sides are also solved block by block, so that most of
+ * the work of {@link #solve(Matrix)} is done by the matrix multiplication kernel as well.
+ *
  * @author Andriy Chekhovych
  */
 public class CholeskyDecomposition {
-    /** The lower triangular Cholesky factor represented as a two-dimensional array. */
-    private final double[][] L;
+    /** The block size used by the blocked factorization and triangular solves. */
+    private static final int BLOCK_SIZE = 128;
+
+    /** The lower triangular Cholesky factor, stored in a flat array in row-major order. */
+    private final double[] L;
     /** The dimension of the matrix whose decomposition is being computed (that is, \(A\)). The Cholesky decomposition
      * requires a square matrix and so the row dimension and the column dimension of \(A\) are equal. */
     private final int dimension;
+    /** The options used for the matrix multiplications and the parallel block updates. */
+    private final MatrixMultiplyOptions options;
+    /** The \(L_1\) norm of the matrix whose decomposition is being computed (used for condition number estimation). */
+    private final double l1Norm;
 
     /** A boolean computeValue indicating whether the matrix whose decomposition is computed is symmetric. */
     private boolean isSymmetric;
@@ -22,42 +36,141 @@ public class CholeskyDecomposition {
 
     /**
      * Constructs a Cholesky decomposition object for the provided matrix. The actual decomposition is computed within
-     * this constructor.
+     * this constructor, using {@link MatrixMultiplyOptions#DEFAULT}.
      *
      * @param   matrix  The matrix whose Cholesky decomposition is being computed.
      */
     public CholeskyDecomposition(Matrix matrix) {
+        this(matrix, MatrixMultiplyOptions.DEFAULT);
+    }
+
+    /**
+     * Constructs a Cholesky decomposition object for the provided matrix, using the provided options for the block
+     * updates (e.g., in order to limit the number of threads used). The actual decomposition is computed within this
+     * constructor. Only the lower triangular part of the matrix is used for the factorization and the factorization
+     * stops as soon as a non-positive pivot is encountered.
+     *
+     * @param   matrix  The matrix whose Cholesky decomposition is being computed.
+     * @param   options The options to use for the block updates.
+     */
+    public CholeskyDecomposition(Matrix matrix, MatrixMultiplyOptions options) {
         dimension = matrix.getRowDimension();
-        isSymmetric = matrix.getColumnDimension() == dimension;
-        isPositiveDefinite = isSymmetric;
-        if (!isSymmetric) {
+        this.options = options;
+        if (matrix.getColumnDimension() != dimension) {
             throw new IllegalArgumentException("The matrix has to be square.");
         }
-        double[][] matrixArray = matrix.getArray();
-        L = new double[dimension][dimension];
-        for (int i = 0; i < dimension; i++) {
-            double diagonalEntrySquare = 0.0;
-            for (int j = 0; j < i; j++) {
-                double temporarySum = 0.0;
-                for (int k = 0; k < j; k++) {
-                    temporarySum += L[j][k] * L[i][k];
+        L = matrix.getRowPackedArrayCopy();
+        double[] columnSums = new double[dimension];
+        for (int i = 0; i < dimension; i++)
+            for (int j = 0; j < dimension; j++)
+                columnSums[j] += Math.abs(L[i * dimension + j]);
+        double maximumColumnSum = 0;
+        for (double columnSum : columnSums)
+            maximumColumnSum = Math.max(maximumColumnSum, columnSum);
+        l1Norm = maximumColumnSum;
+        isSymmetric = true;
+        for (int i = 0; i < dimension && isSymmetric; i++)
+            for (int j = 0; j < i; j++)
+                if (L[j * dimension + i] != L[i * dimension + j]) {
+                    isSymmetric = false;
+                    break;
                 }
-                L[i][j] = (matrixArray[i][j] - temporarySum)/L[j][j];
-                diagonalEntrySquare += L[i][j] * L[i][j];
-                isSymmetric &= (matrixArray[j][i] == matrixArray[i][j]);
+        isPositiveDefinite = true;
+        Matrix factor = Matrix.wrap(L, dimension, dimension);
+        int numberOfThreads = (long) dimension * dimension * dimension / 3 < options.getParallelismThreshold() ?
+                1 : options.getMaximumNumberOfThreads();
+        for (int k0 = 0; k0 < dimension && isPositiveDefinite; k0 += BLOCK_SIZE) {
+            int kb = Math.min(BLOCK_SIZE, dimension - k0);
+            isPositiveDefinite = factorDiagonalBlock(k0, kb);
+            if (isPositiveDefinite && k0 + kb < dimension)
+                updateTrailingMatrix(factor, k0, kb, numberOfThreads);
+        }
+        for (int i = 0; i < dimension; i++)
+            for (int j = i + 1; j < dimension; j++)
+                L[i * dimension + j] = 0.0;
+    }
+
+    /**
+     * Factors the diagonal block that starts at the provided index in place, using an unblocked kernel. The updates
+     * from all previous block columns have already been applied to the block.
+     *
+     * @param   k0  The index of the first row and column of the diagonal block.
+     * @param   kb  The dimension of the diagonal block.
+     * @return      {@code false} if a non-positive (or NaN) pivot was encountered and {@code true} otherwise.
+     */
+    private boolean factorDiagonalBlock(int k0, int kb) {
+        for (int i = k0; i < k0 + kb; i++) {
+            int rowI = i * dimension;
+            for (int j = k0; j < i; j++) {
+                int rowJ = j * dimension;
+                double sum = L[rowI + j];
+                for (int p = k0; p < j; p++)
+                    sum -= L[rowI + p] * L[rowJ + p];
+                L[rowI + j] = sum / L[rowJ + j];
+            }
+            double diagonalEntrySquare = L[rowI + i];
+            for (int p = k0; p < i; p++)
+                diagonalEntrySquare -= L[rowI + p] * L[rowI + p];
+            if (!(diagonalEntrySquare > 0.0)) {
+                L[rowI + i] = 0.0;
+                return false;
             }
-            diagonalEntrySquare -= matrixArray[i][i];
-            isPositiveDefinite &= (diagonalEntrySquare < 0.0);
-            L[i][i] = Math.sqrt(Math.max(-diagonalEntrySquare, 0.0));
-            for (int k = i+1; k < dimension; k++) {
-                L[i][k] = 0.0;
+            L[rowI + i] = Math.sqrt(diagonalEntrySquare);
+        }
+        return true;
+    }
+
+    /**
+     * Computes the panel below the diagonal block that starts at the provided index and then subtracts its
+     * contribution from the block lower triangular part of the trailing matrix (i.e., \(A_{22}=A_{22}-L_{21}L_{21}^T\)).
+     * Both steps are split in block rows, which are processed in parallel.
+     *
+     * @param   factor          Matrix wrapping the array that holds the factor.
+     * @param   k0              The index of the first row and column of the diagonal block.
+     * @param   kb              The dimension of the diagonal block.
+     * @param   numberOfThreads The maximum number of threads to use.
+     */
+    private void updateTrailingMatrix(Matrix factor, int k0, int kb, int numberOfThreads) {
+        int trailingRowIndex = k0 + kb;
+        int numberOfBlocks = (dimension - trailingRowIndex + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        MatrixMultiplication.parallelFor(numberOfBlocks, numberOfThreads, options, block -> {
+            int i0 = trailingRowIndex + block * BLOCK_SIZE;
+            solvePanelRows(k0, kb, i0, Math.min(i0 + BLOCK_SIZE, dimension));
+        });
+        MatrixMultiplication.parallelFor(numberOfBlocks, numberOfThreads, options, block -> {
+            int i0 = trailingRowIndex + block * BLOCK_SIZE;
+            int ib = Math.min(BLOCK_SIZE, dimension - i0);
+            MatrixMultiplication.gemm(false, true, ib, i0 + ib - trailingRowIndex, kb,
+                                      -1, factor, i0, k0, factor, trailingRowIndex, k0,
+                                      1, factor, i0, trailingRowIndex, MatrixMultiplication.SEQUENTIAL);
+        });
+    }
+
+    /**
+     * Computes rows \([i0, i1)\) of the panel below a diagonal block, by solving \(L_{21}L_{11}^T=A_{21}\) in place.
+     *
+     * @param   k0  The index of the first row and column of the diagonal block.
+     * @param   kb  The dimension of the diagonal block.
+     * @param   i0  The index of the first panel row to compute (inclusive).
+     * @param   i1  The index of the last panel row to compute (exclusive).
+     */
+    private void solvePanelRows(int k0, int kb, int i0, int i1) {
+        for (int i = i0; i < i1; i++) {
+            int rowI = i * dimension;
+            for (int j = k0; j < k0 + kb; j++) {
+                int rowJ = j * dimension;
+                double sum = L[rowI + j];
+                for (int p = k0; p < j; p++)
+                    sum -= L[rowI + p] * L[rowJ + p];
+                L[rowI + j] = sum / L[rowJ + j];
             }
         }
     }
 
     /**
      * Solves the linear system of equations \(A\boldsymbol{x}=\boldsymbol{b}\) for \(\boldsymbol{x}\) and returns the
-     * result as a new vector. The solution is obtained efficiently by using the Cholesky factor, \(L\).
+     * result as a new vector. The solution is obtained efficiently by using the Cholesky factor, \(L\). Both the
+     * forward and the backward substitution access the factor with unit stride.
      *
      * @param   vector  Vector \(\boldsymbol{b}\) in equation \(A\boldsymbol{x}=\boldsymbol{b}\).
      * @return          The solution of the system of equations.
@@ -66,37 +179,44 @@ public class CholeskyDecomposition {
         if (vector.size() != dimension) {
             throw new IllegalArgumentException("Matrix row dimensions must agree.");
         }
-        if (!isSymmetric) {
-            throw new NonSymmetricMatrixException(
-                    "Non symmetric matrix! A solution cannot be obtained using the Cholesky decomposition!"
-            );
-        }
-        if (!isPositiveDefinite) {
-            throw new NonPositiveDefiniteMatrixException(
-                    "Non positive definite matrix! A solution cannot be obtained using the Cholesky decomposition!"
-            );
-        }
-        Vector resultVector = vector.copy();
+        checkDecomposition();
+        double[] x = vector.getDenseArray();
+        solveInPlace(x);
+        return AbstractMatrix.buildVector(x, vector.type());
+    }
+
+    /**
+     * Solves the linear system of equations \(A\boldsymbol{x}=\boldsymbol{b}\) in place, using a forward and a
+     * backward substitution.
+     *
+     * @param   x   Vector \(\boldsymbol{b}\), which is overwritten by the solution.
+     */
+    private void solveInPlace(double[] x) {
         // Forward substitution solution.
         for (int k = 0; k < dimension; k++) {
-            for (int i = 0; i < k ; i++) {
-                resultVector.set(k, resultVector.get(k) - resultVector.get(i) * L[k][i]);
+            int rowK = k * dimension;
+            double sum = x[k];
+            for (int i = 0; i < k; i++) {
+                sum -= L[rowK + i] * x[i];
             }
-            resultVector.set(k, resultVector.get(k) / L[k][k]);
+            x[k] = sum / L[rowK + k];
         }
-        // Backward substitution solution.
+        // Backward substitution solution (column-oriented, so that the rows of the factor are accessed contiguously).
         for (int k = dimension - 1; k >= 0; k--) {
-            for (int i = k + 1; i < dimension; i++) {
-                resultVector.set(k, resultVector.get(k) - resultVector.get(i) * L[i][k]);
+            int rowK = k * dimension;
+            x[k] /= L[rowK + k];
+            double xK = x[k];
+            for (int i = 0; i < k; i++) {
+                x[i] -= L[rowK + i] * xK;
             }
-            resultVector.set(k, resultVector.get(k) / L[k][k]);
         }
-        return resultVector;
     }
 
     /**
      * Solves the linear system of equations \(AX=B\) for \(X\) and returns the result as a new matrix. The solution is
-     * obtained efficiently by using the Cholesky factor, \(L\).
+     * obtained efficiently by using the Cholesky factor, \(L\). The triangular solves are blocked: the contribution of
+     * all previously solved block rows to the current block row is subtracted with a single matrix multiplication and
+     * only the small triangular solves with the diagonal blocks of \(L\) are performed row by row.
      *
      * @param   matrix  Matrix \(B\) in equation \(AX=B\).
      * @return          The solution of the system of linear equations.
@@ -105,6 +225,62 @@ public class CholeskyDecomposition {
         if (matrix.getRowDimension() != dimension) {
             throw new IllegalArgumentException("Matrix row dimensions must agree.");
         }
+        checkDecomposition();
+        int numberOfColumns = matrix.getColumnDimension();
+        double[] x = matrix.getRowPackedArrayCopy();
+        Matrix factor = Matrix.wrap(L, dimension, dimension);
+        Matrix solution = Matrix.wrap(x, dimension, numberOfColumns);
+        // Forward substitution solution.
+        for (int k0 = 0; k0 < dimension; k0 += BLOCK_SIZE) {
+            int kb = Math.min(BLOCK_SIZE, dimension - k0);
+            MatrixMultiplication.gemm(false, false, kb, numberOfColumns, k0,
+                                      -1, factor, k0, 0, solution, 0, 0,
+                                      1, solution, k0, 0, options);
+            for (int k = k0; k < k0 + kb; k++) {
+                int rowK = k * dimension;
+                int solutionRowK = k * numberOfColumns;
+                for (int i = k0; i < k; i++) {
+                    double lKI = L[rowK + i];
+                    int solutionRowI = i * numberOfColumns;
+                    for (int j = 0; j < numberOfColumns; j++)
+                        x[solutionRowK + j] -= lKI * x[solutionRowI + j];
+                }
+                double lKK = L[rowK + k];
+                for (int j = 0; j < numberOfColumns; j++)
+                    x[solutionRowK + j] /= lKK;
+            }
+        }
+        // Backward substitution solution.
+        int lastBlockStart = (dimension - 1) / BLOCK_SIZE * BLOCK_SIZE;
+        for (int k0 = lastBlockStart; k0 >= 0; k0 -= BLOCK_SIZE) {
+            int kb = Math.min(BLOCK_SIZE, dimension - k0);
+            MatrixMultiplication.gemm(true, false, kb, numberOfColumns, dimension - k0 - kb,
+                                      -1, factor, k0 + kb, k0, solution, k0 + kb, 0,
+                                      1, solution, k0, 0, options);
+            for (int k = k0 + kb - 1; k >= k0; k--) {
+                int rowK = k * dimension;
+                int solutionRowK = k * numberOfColumns;
+                double lKK = L[rowK + k];
+                for (int j = 0; j < numberOfColumns; j++)
+                    x[solutionRowK + j] /= lKK;
+                for (int i = k0; i < k; i++) {
+                    double lKI = L[rowK + i];
+                    int solutionRowI = i * numberOfColumns;
+                    for (int j = 0; j < numberOfColumns; j++)
+                        x[solutionRowI + j] -= lKI * x[solutionRowK + j];
+                }
+            }
+        }
+        return solution;
+    }
+
+    /**
+     * Checks whether the decomposition can be used to solve linear systems of equations.
+     *
+     * @throws  NonSymmetricMatrixException         If the decomposed matrix is not symmetric.
+     * @throws  NonPositiveDefiniteMatrixException  If the decomposed matrix is not positive definite.
+     */
+    private void checkDecomposition() throws NonSymmetricMatrixException, NonPositiveDefiniteMatrixException {
         if (!isSymmetric) {
             throw new NonSymmetricMatrixException(
                     "Non symmetric matrix! A solution cannot be obtained using the Cholesky decomposition!"
@@ -115,27 +291,23 @@ public class CholeskyDecomposition {
                     "Non positive definite matrix! A solution cannot be obtained using the Cholesky decomposition!"
             );
         }
-        double[][] rightHandSideMatrixArray = matrix.getArrayCopy();
-        int resultMatrixColumnDimension = matrix.getColumnDimension();
-        // Forward substitution solution.
-        for (int k = 0; k < dimension; k++) {
-            for (int j = 0; j < resultMatrixColumnDimension; j++) {
-                for (int i = 0; i < k ; i++) {
-                    rightHandSideMatrixArray[k][j] -= rightHandSideMatrixArray[i][j] * L[k][i];
-                }
-                rightHandSideMatrixArray[k][j] /= L[k][k];
-            }
-        }
-        // Backward substitution solution.
-        for (int k = dimension - 1; k >= 0; k--) {
-            for (int j = 0; j < resultMatrixColumnDimension; j++) {
-                for (int i = k + 1; i < dimension; i++) {
-                    rightHandSideMatrixArray[k][j] -= rightHandSideMatrixArray[i][j] * L[i][k];
-                }
-                rightHandSideMatrixArray[k][j] /= L[k][k];
-            }
-        }
-        return new Matrix(rightHandSideMatrixArray, dimension, resultMatrixColumnDimension);
+    }
+
+    /**
+     * Estimates the \(L_1\) condition number of the matrix whose decomposition is being computed, \(A\) (i.e.,
+     * \(\kappa_1(A)=\|A\|_1\|A^{-1}\|_1\)), using Hager's algorithm, as refined by Higham, in order to estimate
+     * \(\|A^{-1}\|_1\). Since \(A\) is symmetric, the estimate only requires a few solves with \(A\) using the
+     * existing factor and so it costs \(O(n^2)\) operations. The estimate is a lower bound for the actual condition
+     * number and it is almost always within a factor of 3 of it.
+     *
+     * @return  The estimate of the \(L_1\) condition number.
+     *
+     * @throws  NonSymmetricMatrixException         If the decomposed matrix is not symmetric.
+     * @throws  NonPositiveDefiniteMatrixException  If the decomposed matrix is not positive definite.
+     */
+    public double estimateConditionNumber() throws NonSymmetricMatrixException, NonPositiveDefiniteMatrixException {
+        checkDecomposition();
+        return l1Norm * NormEstimators.estimateL1Norm(dimension, this::solveInPlace, this::solveInPlace);
     }
 
     /**
@@ -144,7 +316,7 @@ public class CholeskyDecomposition {
      * @return  The Cholesky factor, \(L\), as a new matrix.
      */
     public Matrix getL() {
-        return new Matrix(L, dimension, dimension);
+        return Matrix.wrap(L.clone(), dimension, dimension);
     }
 
     /**
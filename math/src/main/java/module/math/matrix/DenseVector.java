@@ -12,12 +12,13 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.StringJoiner;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * Implements a class representing dense vectors and supporting operations related to them. The dense vectors are stored
- * in an internal one-dimensional array.
+ * in an internal one-dimensional array, starting at some offset in that array. The offset is only nonzero for views
+ * created using {@link #getView(int, int)}, which share their storage with the vector they were created from.
  * TODO: Add toSparseVector() method (or appropriate constructors).
  * TODO: Add Builder class and remove constructors.
  *
@@ -29,6 +30,8 @@ public class DenseVector extends Vector {
 
     /** Array for internal storage of the vector elements. */
     protected double[] array;
+    /** The index of the first vector element in {@link #array}. */
+    protected int offset;
 
     /**
      * Constructs a dense vector of the given size and fills it with zeros.
@@ -64,6 +67,19 @@ public class DenseVector extends Vector {
         array = Arrays.copyOf(elements, size);
     }
 
+    /**
+     * Constructs a dense vector that uses a range of the provided array as its internal storage, without copying it.
+     *
+     * @param   array   The array holding the vector elements.
+     * @param   offset  The index of the first vector element in the array.
+     * @param   size    The size of the vector.
+     */
+    private DenseVector(double[] array, int offset, int size) {
+        this.array = array;
+        this.offset = offset;
+        this.size = size;
+    }
+
     /** {@inheritDoc} */
     @Override
     public VectorType type() {
@@ -73,14 +89,16 @@ public class DenseVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public DenseVector copy() {
-        return new DenseVector(array);
+        DenseVector resultVector = new DenseVector(size);
+        System.arraycopy(array, offset, resultVector.array, 0, size);
+        return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
     public double[] getDenseArray() {
         double[] resultArray = new double[size];
-        System.arraycopy(array, 0, resultArray, 0, size);
+        System.arraycopy(array, offset, resultArray, 0, size);
         return resultArray;
     }
 
@@ -94,8 +112,8 @@ public class DenseVector extends Vector {
     @Override
     public int cardinality() {
         int numberOfNonzeroElements = 0;
-        for (double element : array)
-            if (element <= epsilon)
+        for (int i = 0; i < size; i++)
+            if (array[offset + i] <= epsilon)
                 numberOfNonzeroElements++;
         return numberOfNonzeroElements;
     }
@@ -108,7 +126,7 @@ public class DenseVector extends Vector {
                     "The provided index must be between 0 (inclusive) and the size of the vector (exclusive)."
             );
         }
-        return array[index];
+        return array[offset + index];
     }
 
     /** {@inheritDoc} */
@@ -124,10 +142,36 @@ public class DenseVector extends Vector {
         }
         DenseVector resultVector = new DenseVector(finalIndex - initialIndex + 1);
         double[] resultVectorArray = resultVector.getArray();
-        System.arraycopy(array, initialIndex, resultVectorArray, 0, finalIndex + 1 - initialIndex);
+        System.arraycopy(array, offset + initialIndex, resultVectorArray, 0, finalIndex + 1 - initialIndex);
         return resultVector;
     }
 
+    /**
+     * Gets a view of a contiguous range of elements of this vector, in constant time. The returned vector shares its
+     * storage with this vector, and so changes to the elements of either vector are visible in the other one. Use
+     * {@link #copy()} on the returned vector if an independent sub-vector is needed. Operations that change the size of
+     * a view (i.e., {@link #prepend(double)} and {@link #append(double)}) detach it from this vector.
+     *
+     * @param   initialIndex    The initial index.
+     * @param   finalIndex      The final index (inclusive).
+     * @return                  A view of the sub-vector corresponding to the provided indexes.
+     *
+     * @throws  java.lang.IllegalArgumentException  The provided indexes must be between 0 (inclusive) and the size of
+     *                                              the vector (exclusive) and the initial index must be smaller or
+     *                                              equal to the final index.
+     */
+    public DenseVector getView(int initialIndex, int finalIndex) {
+        if (initialIndex < 0 || initialIndex >= size || finalIndex < 0 || finalIndex >= size) {
+            throw new IllegalArgumentException(
+                    "The provided indexes must be between 0 (inclusive) and the size of the vector (exclusive)."
+            );
+        }
+        if (initialIndex > finalIndex) {
+            throw new IllegalArgumentException("The initial index must be smaller or equal to the final index.");
+        }
+        return new DenseVector(array, offset + initialIndex, finalIndex - initialIndex + 1);
+    }
+
     /** {@inheritDoc} */
     @Override
     public DenseVector get(int... indexes) {
@@ -139,7 +183,7 @@ public class DenseVector extends Vector {
                         "The provided indexes must be between 0 (inclusive) and the size of the vector (exclusive)."
                 );
             }
-            resultVectorArray[i] = array[indexes[i]];
+            resultVectorArray[i] = array[offset + indexes[i]];
         }
         return resultVector;
     }
@@ -152,7 +196,7 @@ public class DenseVector extends Vector {
                     "The provided index must be between 0 (inclusive) and the size of the vector (exclusive)."
             );
         }
-        array[index] = value;
+        array[offset + index] = value;
     }
 
     /** {@inheritDoc} */
@@ -167,7 +211,7 @@ public class DenseVector extends Vector {
             throw new IllegalArgumentException("The initial index must be smaller or equal to the final index");
         }
         for (int i = initialIndex; i <= finalIndex; i++) {
-            array[i] = vector.get(i - initialIndex);
+            array[offset + i] = vector.get(i - initialIndex);
         }
     }
 
@@ -180,7 +224,7 @@ public class DenseVector extends Vector {
                         "The provided indexes must be between 0 (inclusive) and the size of the vector (exclusive)."
                 );
             }
-            array[indexes[i]] = vector.get(i);
+            array[offset + indexes[i]] = vector.get(i);
         }
     }
 
@@ -189,23 +233,23 @@ public class DenseVector extends Vector {
     public void set(Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++)
-            array[i] = vector.get(i);
+            array[offset + i] = vector.get(i);
     }
 
     /** {@inheritDoc} */
     @Override
     public void setAll(double value) {
         for (int i = 0; i < size; i++) {
-            array[i] = value;
+            array[offset + i] = value;
         }
     }
 
     /** {@inheritDoc} */
     @Override
     public double max() {
-        double maxValue = array[0];
+        double maxValue = array[offset];
         for (int i = 1; i < size; i++) {
-            maxValue = Math.max(maxValue, array[i]);
+            maxValue = Math.max(maxValue, array[offset + i]);
         }
         return maxValue;
     }
@@ -216,7 +260,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++)
-            resultVectorArray[i] = Math.max(array[i], value);
+            resultVectorArray[i] = Math.max(array[offset + i], value);
         return resultVector;
     }
 
@@ -224,7 +268,7 @@ public class DenseVector extends Vector {
     @Override
     public Vector maxElementwiseInPlace(double value) {
         for (int i = 0; i < size; i++)
-            array[i] = Math.max(array[i], value);
+            array[offset + i] = Math.max(array[offset + i], value);
         return this;
     }
 
@@ -235,7 +279,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++)
-            resultVectorArray[i] = Math.max(array[i], vector.get(i));
+            resultVectorArray[i] = Math.max(array[offset + i], vector.get(i));
         return resultVector;
     }
 
@@ -244,16 +288,16 @@ public class DenseVector extends Vector {
     public Vector maxElementwiseInPlace(Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++)
-            array[i] = Math.max(array[i], vector.get(i));
+            array[offset + i] = Math.max(array[offset + i], vector.get(i));
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
     public double min() {
-        double minValue = array[0];
+        double minValue = array[offset];
         for (int i = 1; i < size; i++) {
-            minValue = Math.min(minValue, array[i]);
+            minValue = Math.min(minValue, array[offset + i]);
         }
         return minValue;
     }
@@ -264,7 +308,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++)
-            resultVectorArray[i] = Math.min(array[i], value);
+            resultVectorArray[i] = Math.min(array[offset + i], value);
         return resultVector;
     }
 
@@ -272,7 +316,7 @@ public class DenseVector extends Vector {
     @Override
     public Vector minElementwiseInPlace(double value) {
         for (int i = 0; i < size; i++)
-            array[i] = Math.min(array[i], value);
+            array[offset + i] = Math.min(array[offset + i], value);
         return this;
     }
 
@@ -283,7 +327,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++)
-            resultVectorArray[i] = Math.min(array[i], vector.get(i));
+            resultVectorArray[i] = Math.min(array[offset + i], vector.get(i));
         return resultVector;
     }
 
@@ -292,16 +336,29 @@ public class DenseVector extends Vector {
     public Vector minElementwiseInPlace(Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++)
-            array[i] = Math.min(array[i], vector.get(i));
+            array[offset + i] = Math.min(array[offset + i], vector.get(i));
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
     public double sum() {
-        double sum = array[0];
+        return sum(VectorOperationOptions.getDefault());
+    }
+
+    /**
+     * Computes the sum of all the elements of this vector, splitting the computation across multiple threads if this
+     * vector is large enough according to the provided options.
+     *
+     * @param   options The options controlling whether and how the computation is parallelized.
+     * @return          The sum of all the elements of this vector.
+     */
+    public double sum(VectorOperationOptions options) {
+        if (ParallelVectorOperations.isChunked(size, options))
+            return ParallelVectorOperations.sum(array, offset, size, options);
+        double sum = array[offset];
         for (int i = 1; i < size; i++) {
-            sum += array[i];
+            sum += array[offset + i];
         }
         return sum;
     }
@@ -309,7 +366,21 @@ public class DenseVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public double norm(VectorNorm normType) {
-        return normType.compute(array);
+        return norm(normType, VectorOperationOptions.getDefault());
+    }
+
+    /**
+     * Computes the specified norm of this vector, splitting the computation across multiple threads if this vector is
+     * large enough according to the provided options.
+     *
+     * @param   normType    The type of norm to compute.
+     * @param   options     The options controlling whether and how the computation is parallelized.
+     * @return              The specified norm of this vector.
+     */
+    public double norm(VectorNorm normType, VectorOperationOptions options) {
+        if (ParallelVectorOperations.isChunked(size, options))
+            return ParallelVectorOperations.norm(array, offset, size, normType, options);
+        return normType.compute(array, offset, offset + size);
     }
 
     /** {@inheritDoc} */
@@ -318,7 +389,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = array[i] + scalar;
+            resultVectorArray[i] = array[offset + i] + scalar;
         }
         return resultVector;
     }
@@ -327,7 +398,7 @@ public class DenseVector extends Vector {
     @Override
     public DenseVector addInPlace(double scalar) {
         for (int i = 0; i < size; i++) {
-            array[i] += scalar;
+            array[offset + i] += scalar;
         }
         return this;
     }
@@ -339,7 +410,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = array[i] + vector.get(i);
+            resultVectorArray[i] = array[offset + i] + vector.get(i);
         }
         return resultVector;
     }
@@ -349,7 +420,7 @@ public class DenseVector extends Vector {
     public DenseVector addInPlace(Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] += vector.get(i);
+            array[offset + i] += vector.get(i);
         }
         return this;
     }
@@ -360,7 +431,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = array[i] - scalar;
+            resultVectorArray[i] = array[offset + i] - scalar;
         }
         return resultVector;
     }
@@ -369,7 +440,7 @@ public class DenseVector extends Vector {
     @Override
     public DenseVector subInPlace(double scalar) {
         for (int i = 0; i < size; i++) {
-            array[i] -= scalar;
+            array[offset + i] -= scalar;
         }
         return this;
     }
@@ -381,7 +452,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = array[i] - vector.get(i);
+            resultVectorArray[i] = array[offset + i] - vector.get(i);
         }
         return resultVector;
     }
@@ -391,7 +462,7 @@ public class DenseVector extends Vector {
     public DenseVector subInPlace(Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] -= vector.get(i);
+            array[offset + i] -= vector.get(i);
         }
         return this;
     }
@@ -403,7 +474,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = array[i] * vector.get(i);
+            resultVectorArray[i] = array[offset + i] * vector.get(i);
         }
         return resultVector;
     }
@@ -413,7 +484,7 @@ public class DenseVector extends Vector {
     public DenseVector multElementwiseInPlace(Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] *= vector.get(i);
+            array[offset + i] *= vector.get(i);
         }
         return this;
     }
@@ -425,7 +496,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = array[i] / vector.get(i);
+            resultVectorArray[i] = array[offset + i] / vector.get(i);
         }
         return resultVector;
     }
@@ -435,7 +506,7 @@ public class DenseVector extends Vector {
     public DenseVector divElementwiseInPlace(Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] /= vector.get(i);
+            array[offset + i] /= vector.get(i);
         }
         return this;
     }
@@ -446,7 +517,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = array[i] * scalar;
+            resultVectorArray[i] = array[offset + i] * scalar;
         }
         return resultVector;
     }
@@ -455,7 +526,7 @@ public class DenseVector extends Vector {
     @Override
     public DenseVector multInPlace(double scalar) {
         for (int i = 0; i < size; i++) {
-            array[i] *= scalar;
+            array[offset + i] *= scalar;
         }
         return this;
     }
@@ -466,7 +537,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = array[i] / scalar;
+            resultVectorArray[i] = array[offset + i] / scalar;
         }
         return resultVector;
     }
@@ -475,7 +546,7 @@ public class DenseVector extends Vector {
     @Override
     public DenseVector divInPlace(double scalar) {
         for (int i = 0; i < size; i++) {
-            array[i] /= scalar;
+            array[offset + i] /= scalar;
         }
         return this;
     }
@@ -487,7 +558,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = array[i] + scalar * vector.get(i);
+            resultVectorArray[i] = array[offset + i] + scalar * vector.get(i);
         }
         return resultVector;
     }
@@ -495,9 +566,28 @@ public class DenseVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public DenseVector saxpyInPlace(double scalar, Vector vector) {
+        return saxpyInPlace(scalar, vector, VectorOperationOptions.getDefault());
+    }
+
+    /**
+     * Adds the provided vector multiplied by the provided scalar to this vector and stores the result in this vector,
+     * splitting the computation across multiple threads if both vectors are dense and large enough according to the
+     * provided options.
+     *
+     * @param   scalar  The scalar by which to multiply the provided vector.
+     * @param   vector  The vector to add to this vector.
+     * @param   options The options controlling whether and how the computation is parallelized.
+     * @return          The current vector holding the result of the operation.
+     */
+    public DenseVector saxpyInPlace(double scalar, Vector vector, VectorOperationOptions options) {
         checkVectorSize(vector);
+        if (vector instanceof DenseVector && ParallelVectorOperations.isParallel(size, options)) {
+            DenseVector denseVector = (DenseVector) vector;
+            ParallelVectorOperations.saxpy(array, offset, scalar, denseVector.array, denseVector.offset, size, options);
+            return this;
+        }
         for (int i = 0; i < size; i++) {
-            array[i] += scalar * vector.get(i);
+            array[offset + i] += scalar * vector.get(i);
         }
         return this;
     }
@@ -510,8 +600,8 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size - 1; i++)
-            resultVectorArray[i] = array[i] + scalar * vector.get(i);
-        resultVectorArray[size - 1] = array[size - 1] + scalar;
+            resultVectorArray[i] = array[offset + i] + scalar * vector.get(i);
+        resultVectorArray[size - 1] = array[offset + size - 1] + scalar;
         return resultVector;
     }
 
@@ -521,21 +611,123 @@ public class DenseVector extends Vector {
         if (vector.size() + 1 != this.size())
             throw new IllegalArgumentException("The provided vector size must be 1 less than the current vector size.");
         for (int i = 0; i < size - 1; i++)
-            array[i] += scalar * vector.get(i);
-        array[size - 1] += scalar;
+            array[offset + i] += scalar * vector.get(i);
+        array[offset + size - 1] += scalar;
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
     public double inner(Vector vector) {
+        return inner(vector, VectorOperationOptions.getDefault());
+    }
+
+    /**
+     * Computes the inner product of this vector with the provided vector, splitting the computation across multiple
+     * threads if both vectors are dense and large enough according to the provided options.
+     *
+     * @param   vector  The vector with which to compute the inner product.
+     * @param   options The options controlling whether and how the computation is parallelized.
+     * @return          The inner product of the two vectors.
+     */
+    public double inner(Vector vector, VectorOperationOptions options) {
         checkVectorSize(vector);
+        if (vector instanceof DenseVector && ParallelVectorOperations.isChunked(size, options))
+            return ParallelVectorOperations.inner(
+                    array, offset, ((DenseVector) vector).array, ((DenseVector) vector).offset, size, options
+            );
         double dotProduct = 0;
         for (int i = 0; i < size; i++)
-            dotProduct += array[i] * vector.get(i);
+            dotProduct += array[offset + i] * vector.get(i);
         return dotProduct;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public DenseVector axpbyInPlace(double a, Vector x, double b) {
+        checkVectorSize(x);
+        if (x instanceof DenseVector) {
+            double[] xArray = ((DenseVector) x).array;
+            int xOffset = ((DenseVector) x).offset;
+            for (int i = 0; i < size; i++)
+                array[offset + i] = a * xArray[xOffset + i] + b * array[offset + i];
+        } else if (x instanceof SparseVector) {
+            SparseVector sparseVector = (SparseVector) x;
+            if (b != 1)
+                for (int i = 0; i < size; i++)
+                    array[offset + i] *= b;
+            for (int i = 0; i < sparseVector.numberOfNonzeroEntries; i++)
+                array[offset + sparseVector.indexes[i]] += a * sparseVector.values[i];
+        } else {
+            for (int i = 0; i < size; i++)
+                array[offset + i] = a * x.get(i) + b * array[offset + i];
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] innerAndNormSquared(Vector vector) {
+        checkVectorSize(vector);
+        double dotProduct = 0;
+        double normSquared = 0;
+        if (vector instanceof DenseVector) {
+            double[] vectorArray = ((DenseVector) vector).array;
+            int vectorOffset = ((DenseVector) vector).offset;
+            for (int i = 0; i < size; i++) {
+                dotProduct += array[offset + i] * vectorArray[vectorOffset + i];
+                normSquared += array[offset + i] * array[offset + i];
+            }
+        } else if (vector instanceof SparseVector) {
+            SparseVector sparseVector = (SparseVector) vector;
+            for (int i = 0; i < sparseVector.numberOfNonzeroEntries; i++)
+                dotProduct += array[offset + sparseVector.indexes[i]] * sparseVector.values[i];
+            for (int i = 0; i < size; i++)
+                normSquared += array[offset + i] * array[offset + i];
+        } else {
+            for (int i = 0; i < size; i++) {
+                dotProduct += array[offset + i] * vector.get(i);
+                normSquared += array[offset + i] * array[offset + i];
+            }
+        }
+        return new double[] { dotProduct, normSquared };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] multiInner(Vector... vectors) {
+        double[] dotProducts = new double[vectors.length];
+        double[][] denseArrays = new double[vectors.length][];
+        int[] denseOffsets = new int[vectors.length];
+        int[] denseVectorIndexes = new int[vectors.length];
+        int numberOfDenseVectors = 0;
+        for (int j = 0; j < vectors.length; j++) {
+            checkVectorSize(vectors[j]);
+            if (vectors[j] instanceof DenseVector) {
+                denseArrays[numberOfDenseVectors] = ((DenseVector) vectors[j]).array;
+                denseOffsets[numberOfDenseVectors] = ((DenseVector) vectors[j]).offset;
+                denseVectorIndexes[numberOfDenseVectors++] = j;
+            } else if (vectors[j] instanceof SparseVector) {
+                SparseVector sparseVector = (SparseVector) vectors[j];
+                for (int i = 0; i < sparseVector.numberOfNonzeroEntries; i++)
+                    dotProducts[j] += array[offset + sparseVector.indexes[i]] * sparseVector.values[i];
+            } else {
+                dotProducts[j] = inner(vectors[j]);
+            }
+        }
+        if (numberOfDenseVectors > 0) {
+            double[] denseDotProducts = new double[numberOfDenseVectors];
+            for (int i = 0; i < size; i++) {
+                double value = array[offset + i];
+                for (int j = 0; j < numberOfDenseVectors; j++)
+                    denseDotProducts[j] += value * denseArrays[j][denseOffsets[j] + i];
+            }
+            for (int j = 0; j < numberOfDenseVectors; j++)
+                dotProducts[denseVectorIndexes[j]] = denseDotProducts[j];
+        }
+        return dotProducts;
+    }
+
     /** {@inheritDoc} */
     @Override
     public double innerPlusConstant(Vector vector) {
@@ -543,8 +735,8 @@ public class DenseVector extends Vector {
             throw new IllegalArgumentException("The provided vector size must be 1 less than the current vector size.");
         double dotProduct = 0;
         for (int i = 0; i < size - 1; i++)
-            dotProduct += array[i] * vector.get(i);
-        return dotProduct + array[size - 1];
+            dotProduct += array[offset + i] * vector.get(i);
+        return dotProduct + array[offset + size - 1];
     }
 
     /** {@inheritDoc} */
@@ -554,7 +746,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = MathUtilities.computeHypotenuse(array[i], vector.get(i));
+            resultVectorArray[i] = MathUtilities.computeHypotenuse(array[offset + i], vector.get(i));
         }
         return resultVector;
     }
@@ -564,7 +756,7 @@ public class DenseVector extends Vector {
     public DenseVector hypotenuseInPlace(Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] = MathUtilities.computeHypotenuse(array[i], vector.get(i));
+            array[offset + i] = MathUtilities.computeHypotenuse(array[offset + i], vector.get(i));
         }
         return this;
     }
@@ -576,7 +768,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = Math.sqrt(array[i] * array[i] + vector.get(i) * vector.get(i));
+            resultVectorArray[i] = Math.sqrt(array[offset + i] * array[offset + i] + vector.get(i) * vector.get(i));
         }
         return resultVector;
     }
@@ -586,137 +778,137 @@ public class DenseVector extends Vector {
     public DenseVector hypotenuseFastInPlace(Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] = Math.sqrt(array[i] * array[i] + vector.get(i) * vector.get(i));
+            array[offset + i] = Math.sqrt(array[offset + i] * array[offset + i] + vector.get(i) * vector.get(i));
         }
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector map(Function<Double, Double> function) {
+    public DenseVector map(DoubleUnaryOperator function) {
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = function.apply(array[i]);
+            resultVectorArray[i] = function.applyAsDouble(array[offset + i]);
         }
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapInPlace(Function<Double, Double> function) {
+    public DenseVector mapInPlace(DoubleUnaryOperator function) {
         for (int i = 0; i < size; i++) {
-            array[i] = function.apply(array[i]);
+            array[offset + i] = function.applyAsDouble(array[offset + i]);
         }
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapBiFunction(BiFunction<Double, Double, Double> function, Vector vector) { // TODO: Check other vector type.
+    public DenseVector mapBiFunction(DoubleBinaryOperator function, Vector vector) { // TODO: Check other vector type.
         checkVectorSize(vector);
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = function.apply(array[i], vector.get(i));
+            resultVectorArray[i] = function.applyAsDouble(array[offset + i], vector.get(i));
         }
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapBiFunctionInPlace(BiFunction<Double, Double, Double> function, Vector vector) { // TODO: Check other vector type.
+    public DenseVector mapBiFunctionInPlace(DoubleBinaryOperator function, Vector vector) { // TODO: Check other vector type.
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] = function.apply(array[i], vector.get(i));
+            array[offset + i] = function.applyAsDouble(array[offset + i], vector.get(i));
         }
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapAdd(Function<Double, Double> function, Vector vector) {
+    public DenseVector mapAdd(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = function.apply(array[i]) + vector.get(i);
+            resultVectorArray[i] = function.applyAsDouble(array[offset + i]) + vector.get(i);
         }
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapAddInPlace(Function<Double, Double> function, Vector vector) {
+    public DenseVector mapAddInPlace(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] = function.apply(array[i]) + vector.get(i);
+            array[offset + i] = function.applyAsDouble(array[offset + i]) + vector.get(i);
         }
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapSub(Function<Double, Double> function, Vector vector) {
+    public DenseVector mapSub(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = function.apply(array[i]) - vector.get(i);
+            resultVectorArray[i] = function.applyAsDouble(array[offset + i]) - vector.get(i);
         }
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapSubInPlace(Function<Double, Double> function, Vector vector) {
+    public DenseVector mapSubInPlace(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] = function.apply(array[i]) - vector.get(i);
+            array[offset + i] = function.applyAsDouble(array[offset + i]) - vector.get(i);
         }
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapMultElementwise(Function<Double, Double> function, Vector vector) {
+    public DenseVector mapMultElementwise(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = function.apply(array[i]) * vector.get(i);
+            resultVectorArray[i] = function.applyAsDouble(array[offset + i]) * vector.get(i);
         }
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapMultElementwiseInPlace(Function<Double, Double> function, Vector vector) {
+    public DenseVector mapMultElementwiseInPlace(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] = function.apply(array[i]) * vector.get(i);
+            array[offset + i] = function.applyAsDouble(array[offset + i]) * vector.get(i);
         }
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapDivElementwise(Function<Double, Double> function, Vector vector) {
+    public DenseVector mapDivElementwise(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         DenseVector resultVector = new DenseVector(size);
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < size; i++) {
-            resultVectorArray[i] = function.apply(array[i]) / vector.get(i);
+            resultVectorArray[i] = function.applyAsDouble(array[offset + i]) / vector.get(i);
         }
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
-    public DenseVector mapDivElementwiseInPlace(Function<Double, Double> function, Vector vector) {
+    public DenseVector mapDivElementwiseInPlace(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         for (int i = 0; i < size; i++) {
-            array[i] = function.apply(array[i]) / vector.get(i);
+            array[offset + i] = function.applyAsDouble(array[offset + i]) / vector.get(i);
         }
         return this;
     }
@@ -725,14 +917,7 @@ public class DenseVector extends Vector {
     @Override
     public Matrix outer(Vector vector) {
         checkVectorSize(vector);
-        Matrix resultMatrix = new Matrix(size, size);
-        double[][] resultMatrixArray = resultMatrix.getArray();
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                resultMatrixArray[i][j] = array[i] * vector.get(j);
-            }
-        }
-        return resultMatrix;
+        return new Matrix(size, size).rankOneUpdateInPlace(1, this, vector);
     }
 
     /** {@inheritDoc} */
@@ -751,7 +936,7 @@ public class DenseVector extends Vector {
         DenseVector resultVector = new DenseVector(matrix.getColumnDimension());
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < matrix.getRowDimension(); i++) {
-            resultVectorArray[i] = array[i];
+            resultVectorArray[i] = array[offset + i];
             for (int j = 0; j < vector.size(); j++) {
                 resultVectorArray[i] += vector.get(j) * matrix.getElement(i, j);
             }
@@ -774,7 +959,7 @@ public class DenseVector extends Vector {
         }
         for (int i = 0; i < matrix.getRowDimension(); i++) {
             for (int j = 0; j < vector.size(); j++) {
-                array[i] += vector.get(j) * matrix.getElement(i, j);
+                array[offset + i] += vector.get(j) * matrix.getElement(i, j);
             }
         }
         return this;
@@ -792,7 +977,7 @@ public class DenseVector extends Vector {
         double[] resultVectorArray = resultVector.getArray();
         for (int i = 0; i < matrix.getRowDimension(); i++) {
             for (int j = 0; j < matrix.getColumnDimension(); j++) {
-                resultVectorArray[j] += array[i] * matrix.getElement(i, j);
+                resultVectorArray[j] += array[offset + i] * matrix.getElement(i, j);
             }
         }
         return resultVector;
@@ -801,20 +986,22 @@ public class DenseVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public DenseVector prepend(double value) {
-        size += 1;
         double[] temporaryArray = array;
-        array = new double[size];
-        System.arraycopy(temporaryArray, 0, array, 1, size - 1);
+        array = new double[size + 1];
+        System.arraycopy(temporaryArray, offset, array, 1, size);
         array[0] = value;
+        offset = 0;
+        size += 1;
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
     public DenseVector append(double value) {
+        array = Arrays.copyOfRange(array, offset, offset + size + 1);
+        array[size] = value;
+        offset = 0;
         size += 1;
-        array = Arrays.copyOf(array, size);
-        array[size - 1] = value;
         return this;
     }
 
@@ -889,7 +1076,7 @@ public class DenseVector extends Vector {
                 throw new NoSuchElementException();
 
             Element element = new Element(nextElementIndex,
-                                          DenseVector.this.array[nextElementIndex]);
+                                          DenseVector.this.array[DenseVector.this.offset + nextElementIndex]);
             nextElementIndex++;
 
             return element;
@@ -902,6 +1089,58 @@ public class DenseVector extends Vector {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Cursor cursor() {
+        return new DenseVectorCursor();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void forEachNonzero(IntDoubleConsumer consumer) {
+        for (int i = 0; i < size; i++)
+            if (array[offset + i] != 0)
+                consumer.accept(i, array[offset + i]);
+    }
+
+    /**
+     * A cursor class used for iterating over all {@link DenseVector} elements.
+     */
+    private class DenseVectorCursor implements Cursor {
+        /** Current element index in the vector. */
+        private int index = -1;
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean advance() {
+            return ++index < size;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int index() {
+            return index;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double value() {
+            return array[offset + index];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setValue(double value) {
+            array[offset + index] = value;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void reset() {
+            index = -1;
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean equals(Object object) {
@@ -913,21 +1152,22 @@ public class DenseVector extends Vector {
         DenseVector that = (DenseVector) object;
 
         return Objects.equal(size, that.size)
+                && Objects.equal(offset, that.offset)
                 && Objects.equal(array, that.array);
     }
 
     /** {@inheritDoc} */
     @Override
     public int hashCode() {
-        return Objects.hashCode(size, array);
+        return Objects.hashCode(size, offset, array);
     }
 
     /** {@inheritDoc} */
     @Override
     public String toString() {
         StringJoiner stringJoiner = new StringJoiner(",", "[", "]");
-        for (double element : array)
-            stringJoiner.add(String.valueOf(element));
+        for (int i = 0; i < size; i++)
+            stringJoiner.add(String.valueOf(array[offset + i]));
         return stringJoiner.toString();
     }
 
@@ -937,7 +1177,7 @@ public class DenseVector extends Vector {
         if (includeType)
             UnsafeSerializationUtilities.writeInt(outputStream, type().ordinal());
         UnsafeSerializationUtilities.writeInt(outputStream, size);
-        UnsafeSerializationUtilities.writeDoubleArray(outputStream, array);
+        UnsafeSerializationUtilities.writeDoubleArray(outputStream, array, offset, size);
     }
 
     /**
@@ -1029,8 +1269,8 @@ public class DenseVector extends Vector {
                     }
                 case SIZE:
                     if (position == endPosition) {
-                        position = DOUBLE_ARRAY_OFFSET;
-                        endPosition = DOUBLE_ARRAY_OFFSET + (size << 3);
+                        position = DOUBLE_ARRAY_OFFSET + ((long) DenseVector.this.offset << 3);
+                        endPosition = position + ((long) size << 3);
                         state = EncoderState.ARRAY;
                     } else {
                         return UNSAFE.getByte(DenseVector.this, position++);
@@ -1073,8 +1313,8 @@ public class DenseVector extends Vector {
                     if (bytesRead != -1) {
                         return bytesRead;
                     } else {
-                        position = DOUBLE_ARRAY_OFFSET;
-                        endPosition = DOUBLE_ARRAY_OFFSET + (size << 3);
+                        position = DOUBLE_ARRAY_OFFSET + ((long) DenseVector.this.offset << 3);
+                        endPosition = position + ((long) size << 3);
                         state = EncoderState.ARRAY;
                     }
                 case ARRAY:
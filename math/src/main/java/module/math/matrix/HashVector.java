@@ -1,7 +1,5 @@
 package module.math.matrix;
 
-import cern.colt.list.IntArrayList;
-import cern.colt.map.OpenIntDoubleHashMap;
 import com.google.common.base.Objects;
 import module.utilities.UnsafeSerializationUtilities;
 
@@ -11,15 +9,14 @@ import java.io.InvalidObjectException;
 import java.io.OutputStream;
 import java.util.Iterator;
 import java.util.StringJoiner;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * Implements a class representing sparse vectors and supporting operations related to them. The sparse vectors are
  * stored in an internal hash map.
  *
  * TODO: Add toDenseVector() method (or appropriate constructors).
- * TODO: Make this implementation faster by iterating over key-computeValue pairs instead of iterating over keys and then retrieving values.
  * TODO: Add Builder class and remove constructors.
  * TODO: Serialization can become much faster and lower memory "heavy" by storing pairs of indexes and values sequentially, instead of all indexes and then all values.
  * TODO: Serialization is currently broken for this class.
@@ -27,13 +24,15 @@ import java.util.function.Function;
  * @author Andriy Chekhovych
  */
 public class HashVector extends Vector {
-    /** The size which the internal hash map uses as its initial capacity. */
-    protected int initialSize = 128;
+    /** The maximum number of nonzero elements for which space is allocated when a new vector is constructed. The
+     * internal hash map grows as needed beyond that. */
+    private static final int DEFAULT_EXPECTED_NUMBER_OF_NONZERO_ENTRIES = 16;
+
     /** The size of the vector. */
     protected int size;
 
     /** Hash map for internal storage of the vector elements. */
-    protected OpenIntDoubleHashMap hashMap;
+    protected IntDoubleHashMap hashMap;
 
     /**
      * Constructs a sparse vector of the given size and fills it with zeros.
@@ -41,8 +40,19 @@ public class HashVector extends Vector {
      * @param   size    The size of the vector.
      */
     protected HashVector(int size) {
+        this(size, Math.min(size, DEFAULT_EXPECTED_NUMBER_OF_NONZERO_ENTRIES));
+    }
+
+    /**
+     * Constructs a sparse vector of the given size and fills it with zeros, allocating enough space for the provided
+     * number of nonzero elements so that the internal hash map does not need to be resized while they are set.
+     *
+     * @param   size                            The size of the vector.
+     * @param   expectedNumberOfNonzeroEntries  The expected number of nonzero elements.
+     */
+    protected HashVector(int size, int expectedNumberOfNonzeroEntries) {
         this.size = size;
-        hashMap = new OpenIntDoubleHashMap(initialSize);
+        hashMap = new IntDoubleHashMap(expectedNumberOfNonzeroEntries);
     }
 
     /**
@@ -52,9 +62,9 @@ public class HashVector extends Vector {
      * @param   elements    Hash map containing the indexes of elements as keys and the values of the corresponding
      *                      elements as values.
      */
-    protected HashVector(int size, OpenIntDoubleHashMap elements) {
+    protected HashVector(int size, IntDoubleHashMap elements) {
         this.size = size;
-        hashMap = (OpenIntDoubleHashMap) elements.copy();
+        hashMap = elements.copy();
     }
 
     /** {@inheritDoc} */
@@ -73,7 +83,9 @@ public class HashVector extends Vector {
     @Override
     public double[] getDenseArray() {
         double[] resultArray = new double[size];
-        hashMap.forEachPair((key, value) -> { resultArray[key] = value; return true; });
+        IntDoubleHashMap.Cursor cursor = hashMap.cursor();
+        while (cursor.advance())
+            resultArray[cursor.key()] = cursor.value();
         return resultArray;
     }
 
@@ -86,7 +98,7 @@ public class HashVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public int cardinality() {
-        return hashMap.keys().size();
+        return hashMap.size();
     }
 
     /** {@inheritDoc} */
@@ -111,9 +123,19 @@ public class HashVector extends Vector {
         if (initialIndex > finalIndex) {
             throw new IllegalArgumentException("The initial index must be smaller or equal to the final index.");
         }
-        HashVector resultVector = new HashVector(finalIndex - initialIndex + 1);
-        for (int i = initialIndex; i <= finalIndex; i++) {
-            resultVector.set(i - initialIndex, hashMap.get(i));
+        int length = finalIndex - initialIndex + 1;
+        HashVector resultVector = new HashVector(length, Math.min(length, hashMap.size()));
+        if (hashMap.size() < length) {
+            IntDoubleHashMap.Cursor cursor = hashMap.cursor();
+            while (cursor.advance())
+                if (cursor.key() >= initialIndex && cursor.key() <= finalIndex)
+                    resultVector.hashMap.put(cursor.key() - initialIndex, cursor.value());
+        } else {
+            for (int i = initialIndex; i <= finalIndex; i++) {
+                int slot = hashMap.slot(i);
+                if (slot >= 0)
+                    resultVector.hashMap.put(i - initialIndex, hashMap.valueTable[slot]);
+            }
         }
         return resultVector;
     }
@@ -144,7 +166,7 @@ public class HashVector extends Vector {
         if (Math.abs(value) >= epsilon) {
             hashMap.put(index, value);
         } else {
-            hashMap.removeKey(index);
+            hashMap.remove(index);
         }
     }
 
@@ -164,7 +186,7 @@ public class HashVector extends Vector {
             if (Math.abs(value) >= epsilon) {
                 hashMap.put(i, value);
             } else {
-                hashMap.removeKey(i);
+                hashMap.remove(i);
             }
         }
     }
@@ -182,7 +204,7 @@ public class HashVector extends Vector {
             if (Math.abs(value) >= epsilon) {
                 hashMap.put(indexes[i], value);
             } else {
-                hashMap.removeKey(indexes[i]);
+                hashMap.remove(indexes[i]);
             }
         }
     }
@@ -197,6 +219,7 @@ public class HashVector extends Vector {
     @Override
     public void setAll(double value) {
         if (Math.abs(value) >= epsilon) {
+            hashMap.ensureCapacity(size);
             for (int i = 0; i < size; i++) {
                 hashMap.put(i, value);
             }
@@ -208,10 +231,13 @@ public class HashVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public double max() {
-        double[] values = hashMap.values().elements();
-        double maxValue = values[0];
-        for (int i = 1; i < size; i++) {
-            maxValue = Math.max(maxValue, values[i]);
+        double maxValue = hashMap.size() < size ? 0 : Double.NEGATIVE_INFINITY;
+        int[] keyTable = hashMap.keyTable;
+        double[] valueTable = hashMap.valueTable;
+        for (int slot = 0; slot < keyTable.length; slot++) {
+            if (keyTable[slot] != IntDoubleHashMap.FREE_KEY) {
+                maxValue = Math.max(maxValue, valueTable[slot]);
+            }
         }
         return maxValue;
     }
@@ -245,10 +271,13 @@ public class HashVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public double min() {
-        double[] values = hashMap.values().elements();
-        double minValue = values[0];
-        for (int i = 1; i < size; i++) {
-            minValue = Math.min(minValue, values[i]);
+        double minValue = hashMap.size() < size ? 0 : Double.POSITIVE_INFINITY;
+        int[] keyTable = hashMap.keyTable;
+        double[] valueTable = hashMap.valueTable;
+        for (int slot = 0; slot < keyTable.length; slot++) {
+            if (keyTable[slot] != IntDoubleHashMap.FREE_KEY) {
+                minValue = Math.min(minValue, valueTable[slot]);
+            }
         }
         return minValue;
     }
@@ -282,10 +311,13 @@ public class HashVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public double sum() {
-        double[] values = hashMap.values().elements();
-        double sum = values[0];
-        for (int i = 1; i < size; i++) {
-            sum += values[i];
+        double sum = 0;
+        int[] keyTable = hashMap.keyTable;
+        double[] valueTable = hashMap.valueTable;
+        for (int slot = 0; slot < keyTable.length; slot++) {
+            if (keyTable[slot] != IntDoubleHashMap.FREE_KEY) {
+                sum += valueTable[slot];
+            }
         }
         return sum;
     }
@@ -293,21 +325,21 @@ public class HashVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public double norm(VectorNorm normType) {
-        return normType.compute(hashMap.values().elements());
+        return normType.compute(hashMap.values());
     }
 
     /** {@inheritDoc} */
     @Override
     public HashVector add(double scalar) {
         HashVector resultVector = new HashVector(size, hashMap);
-        resultVector.hashMap.assign(element -> element + scalar);
+        resultVector.hashMap.mapValues(element -> element + scalar);
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
     public HashVector addInPlace(double scalar) {
-        hashMap.assign(element -> element + scalar);
+        hashMap.mapValues(element -> element + scalar);
         return this;
     }
 
@@ -316,17 +348,7 @@ public class HashVector extends Vector {
     public HashVector add(Vector vector) {
         checkVectorSize(vector);
         HashVector resultVector = new HashVector(size, hashMap);
-        if (vector.type() != VectorType.SPARSE) {
-            for (int i = 0; i < size; i++) {
-                resultVector.set(i, this.get(i) + vector.get(i));
-            }
-        } else {
-            IntArrayList keysUnion = new IntArrayList(hashMap.keys().elements());
-            keysUnion.addAllOf(((HashVector) vector).hashMap.keys());
-            for (int key : keysUnion.elements()) {
-                resultVector.set(key, this.get(key) + vector.get(key));
-            }
-        }
+        resultVector.accumulate(1, vector);
         return resultVector;
     }
 
@@ -334,17 +356,7 @@ public class HashVector extends Vector {
     @Override
     public HashVector addInPlace(Vector vector) {
         checkVectorSize(vector);
-        if (vector.type() != VectorType.SPARSE) {
-            for (int i = 0; i < size; i++) {
-                this.set(i, this.get(i) + vector.get(i));
-            }
-        } else {
-            IntArrayList keysUnion = new IntArrayList(hashMap.keys().elements());
-            keysUnion.addAllOf(((HashVector) vector).hashMap.keys());
-            for (int key : keysUnion.elements()) {
-                this.set(key, this.get(key) + vector.get(key));
-            }
-        }
+        accumulate(1, vector);
         return this;
     }
 
@@ -352,14 +364,14 @@ public class HashVector extends Vector {
     @Override
     public HashVector sub(double scalar) {
         HashVector resultVector = new HashVector(size, hashMap);
-        resultVector.hashMap.assign(element -> element - scalar);
+        resultVector.hashMap.mapValues(element -> element - scalar);
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
     public HashVector subInPlace(double scalar) {
-        hashMap.assign(element -> element - scalar);
+        hashMap.mapValues(element -> element - scalar);
         return this;
     }
 
@@ -368,17 +380,7 @@ public class HashVector extends Vector {
     public HashVector sub(Vector vector) {
         checkVectorSize(vector);
         HashVector resultVector = new HashVector(size, hashMap);
-        if (vector.type() != VectorType.SPARSE) {
-            for (int i = 0; i < size; i++) {
-                resultVector.set(i, this.get(i) - vector.get(i));
-            }
-        } else {
-            IntArrayList keysUnion = new IntArrayList(hashMap.keys().elements());
-            keysUnion.addAllOf(((HashVector) vector).hashMap.keys());
-            for (int key : keysUnion.elements()) {
-                resultVector.set(key, this.get(key) - vector.get(key));
-            }
-        }
+        resultVector.accumulate(-1, vector);
         return resultVector;
     }
 
@@ -386,17 +388,7 @@ public class HashVector extends Vector {
     @Override
     public HashVector subInPlace(Vector vector) {
         checkVectorSize(vector);
-        if (vector.type() != VectorType.SPARSE) {
-            for (int i = 0; i < size; i++) {
-                this.set(i, this.get(i) - vector.get(i));
-            }
-        } else {
-            IntArrayList keysUnion = new IntArrayList(hashMap.keys().elements());
-            keysUnion.addAllOf(((HashVector) vector).hashMap.keys());
-            for (int key : keysUnion.elements()) {
-                this.set(key, this.get(key) - vector.get(key));
-            }
-        }
+        accumulate(-1, vector);
         return this;
     }
 
@@ -404,19 +396,19 @@ public class HashVector extends Vector {
     @Override
     public HashVector multElementwise(Vector vector) {
         checkVectorSize(vector);
-        HashVector resultVector = new HashVector(size);
-        if (vector.type() != VectorType.SPARSE) {
-            for (int key : hashMap.keys().elements()) {
-                resultVector.set(key, hashMap.get(key) * vector.get(key));
-            }
+        HashVector resultVector;
+        if (vector instanceof HashVector && ((HashVector) vector).hashMap.size() < hashMap.size()) {
+            resultVector = ((HashVector) vector).multElementwiseByMap(hashMap);
         } else {
-            if (hashMap.keys().size() <= ((HashVector) vector).hashMap.keys().size()) {
-                for (int key : hashMap.keys().elements()) {
-                    resultVector.set(key, hashMap.get(key) * vector.get(key));
-                }
-            } else {
-                for (int key : ((HashVector) vector).hashMap.keys().elements()) {
-                    resultVector.set(key, hashMap.get(key) * vector.get(key));
+            resultVector = new HashVector(size, hashMap.size());
+            int[] keyTable = hashMap.keyTable;
+            double[] valueTable = hashMap.valueTable;
+            for (int slot = 0; slot < keyTable.length; slot++) {
+                int key = keyTable[slot];
+                if (key != IntDoubleHashMap.FREE_KEY) {
+                    double value = valueTable[slot] * vector.get(key);
+                    if (Math.abs(value) >= epsilon)
+                        resultVector.hashMap.put(key, value);
                 }
             }
         }
@@ -427,21 +419,19 @@ public class HashVector extends Vector {
     @Override
     public HashVector multElementwiseInPlace(Vector vector) {
         checkVectorSize(vector);
-        if (vector.type() != VectorType.SPARSE) {
-            for (int key : hashMap.keys().elements()) {
-                this.set(key, hashMap.get(key) * vector.get(key));
-            }
+        int[] keyTable = hashMap.keyTable;
+        double[] valueTable = hashMap.valueTable;
+        if (vector instanceof HashVector) {
+            IntDoubleHashMap otherHashMap = ((HashVector) vector).hashMap;
+            for (int slot = 0; slot < keyTable.length; slot++)
+                if (keyTable[slot] != IntDoubleHashMap.FREE_KEY)
+                    valueTable[slot] *= otherHashMap.get(keyTable[slot]);
         } else {
-            if (this.cardinality() <= vector.cardinality()) {
-                for (int key : hashMap.keys().elements()) {
-                    this.set(key, hashMap.get(key) * vector.get(key));
-                }
-            } else {
-                for (int key : ((HashVector) vector).hashMap.keys().elements()) {
-                    this.set(key, hashMap.get(key) * vector.get(key));
-                }
-            }
+            for (int slot = 0; slot < keyTable.length; slot++)
+                if (keyTable[slot] != IntDoubleHashMap.FREE_KEY)
+                    valueTable[slot] *= vector.get(keyTable[slot]);
         }
+        hashMap.removeSmallValues(epsilon);
         return this;
     }
 
@@ -450,9 +440,7 @@ public class HashVector extends Vector {
     public HashVector divElementwise(Vector vector) {
         checkVectorSize(vector); // TODO: Need to check whether any element of vector is zero.
         HashVector resultVector = new HashVector(size, hashMap);
-        for (int key : hashMap.keys().elements()) {
-            resultVector.set(key, hashMap.get(key) / vector.get(key));
-        }
+        resultVector.divElementwiseInPlace(vector);
         return resultVector;
     }
 
@@ -460,9 +448,12 @@ public class HashVector extends Vector {
     @Override
     public HashVector divElementwiseInPlace(Vector vector) {
         checkVectorSize(vector); // TODO: Need to check whether any element of vector is zero.
-        for (int key : hashMap.keys().elements()) {
-            this.set(key, hashMap.get(key) / vector.get(key));
-        }
+        int[] keyTable = hashMap.keyTable;
+        double[] valueTable = hashMap.valueTable;
+        for (int slot = 0; slot < keyTable.length; slot++)
+            if (keyTable[slot] != IntDoubleHashMap.FREE_KEY)
+                valueTable[slot] /= vector.get(keyTable[slot]);
+        hashMap.removeSmallValues(epsilon);
         return this;
     }
 
@@ -470,14 +461,14 @@ public class HashVector extends Vector {
     @Override
     public HashVector mult(double scalar) {
         HashVector resultVector = new HashVector(size, hashMap);
-        resultVector.hashMap.assign(element -> element * scalar);
+        resultVector.hashMap.mapValues(element -> element * scalar);
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
     public HashVector multInPlace(double scalar) {
-        hashMap.assign(element -> element * scalar);
+        hashMap.mapValues(element -> element * scalar);
         return this;
     }
 
@@ -485,14 +476,14 @@ public class HashVector extends Vector {
     @Override
     public HashVector div(double scalar) {
         HashVector resultVector = new HashVector(size, hashMap);
-        resultVector.hashMap.assign(element -> element / scalar);
+        resultVector.hashMap.mapValues(element -> element / scalar);
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
     public HashVector divInPlace(double scalar) {
-        hashMap.assign(element -> element / scalar);
+        hashMap.mapValues(element -> element / scalar);
         return this;
     }
 
@@ -501,17 +492,7 @@ public class HashVector extends Vector {
     public HashVector saxpy(double scalar, Vector vector) {
         checkVectorSize(vector);
         HashVector resultVector = new HashVector(size, hashMap);
-        if (vector.type() != VectorType.SPARSE) {
-            for (int i = 0; i < size; i++) {
-                resultVector.set(i, this.get(i) + scalar * vector.get(i));
-            }
-        } else {
-            IntArrayList keysUnion = new IntArrayList(hashMap.keys().elements());
-            keysUnion.addAllOf(((HashVector) vector).hashMap.keys());
-            for (int key : keysUnion.elements()) {
-                resultVector.set(key, this.get(key) + scalar * vector.get(key));
-            }
-        }
+        resultVector.accumulate(scalar, vector);
         return resultVector;
     }
 
@@ -519,17 +500,7 @@ public class HashVector extends Vector {
     @Override
     public HashVector saxpyInPlace(double scalar, Vector vector) {
         checkVectorSize(vector);
-        if (vector.type() != VectorType.SPARSE) {
-            for (int i = 0; i < size; i++) {
-                this.set(i, this.get(i) + scalar * vector.get(i));
-            }
-        } else {
-            IntArrayList keysUnion = new IntArrayList(hashMap.keys().elements());
-            keysUnion.addAllOf(((HashVector) vector).hashMap.keys());
-            for (int key : keysUnion.elements()) {
-                this.set(key, this.get(key) + scalar * vector.get(key));
-            }
-        }
+        accumulate(scalar, vector);
         return this;
     }
 
@@ -550,24 +521,151 @@ public class HashVector extends Vector {
     public double inner(Vector vector) {
         checkVectorSize(vector);
         double result = 0;
-        if (vector.type() != VectorType.SPARSE) {
-            for (int key : hashMap.keys().elements()) {
-                result += hashMap.get(key) * vector.get(key);
+        int[] keyTable = hashMap.keyTable;
+        double[] valueTable = hashMap.valueTable;
+        if (vector instanceof HashVector) {
+            IntDoubleHashMap otherHashMap = ((HashVector) vector).hashMap;
+            if (otherHashMap.size() < hashMap.size())
+                return vector.inner(this);
+            for (int slot = 0; slot < keyTable.length; slot++) {
+                int key = keyTable[slot];
+                if (key != IntDoubleHashMap.FREE_KEY) {
+                    int otherSlot = otherHashMap.slot(key);
+                    if (otherSlot >= 0)
+                        result += valueTable[slot] * otherHashMap.valueTable[otherSlot];
+                }
+            }
+        } else if (vector instanceof SparseVector
+                && ((SparseVector) vector).numberOfNonzeroEntries < hashMap.size()) {
+            SparseVector sparseVector = (SparseVector) vector;
+            for (int i = 0; i < sparseVector.numberOfNonzeroEntries; i++) {
+                int slot = hashMap.slot(sparseVector.indexes[i]);
+                if (slot >= 0)
+                    result += valueTable[slot] * sparseVector.values[i];
+            }
+        } else if (vector instanceof DenseVector) {
+            double[] vectorArray = ((DenseVector) vector).array;
+            int vectorOffset = ((DenseVector) vector).offset;
+            for (int slot = 0; slot < keyTable.length; slot++) {
+                int key = keyTable[slot];
+                if (key != IntDoubleHashMap.FREE_KEY)
+                    result += valueTable[slot] * vectorArray[vectorOffset + key];
             }
         } else {
-            if (this.cardinality() <= vector.cardinality()) {
-                for (int key : hashMap.keys().elements()) {
-                    result += hashMap.get(key) * vector.get(key);
-                }
-            } else {
-                for (int key : ((HashVector) vector).hashMap.keys().elements()) {
-                    result += hashMap.get(key) * vector.get(key);
-                }
+            for (int slot = 0; slot < keyTable.length; slot++) {
+                int key = keyTable[slot];
+                if (key != IntDoubleHashMap.FREE_KEY)
+                    result += valueTable[slot] * vector.get(key);
             }
         }
         return result;
     }
 
+    /**
+     * Adds the provided vector, multiplied by the provided scalar, to this vector, visiting only the nonzero elements
+     * of the provided vector when it is sparse. Elements whose resulting absolute value falls below {@link #epsilon}
+     * are removed from the internal hash map.
+     *
+     * @param   scalar  The scalar by which to multiply the provided vector.
+     * @param   vector  The vector to add to this vector.
+     */
+    private void accumulate(double scalar, Vector vector) {
+        if (vector == this) {
+            multInPlace(1 + scalar);
+            hashMap.removeSmallValues(epsilon);
+        } else if (vector instanceof HashVector) {
+            IntDoubleHashMap otherHashMap = ((HashVector) vector).hashMap;
+            int[] otherKeyTable = otherHashMap.keyTable;
+            double[] otherValueTable = otherHashMap.valueTable;
+            for (int slot = 0; slot < otherKeyTable.length; slot++)
+                if (otherKeyTable[slot] != IntDoubleHashMap.FREE_KEY)
+                    accumulate(otherKeyTable[slot], scalar * otherValueTable[slot]);
+        } else if (vector instanceof SparseVector) {
+            SparseVector sparseVector = (SparseVector) vector;
+            for (int i = 0; i < sparseVector.numberOfNonzeroEntries; i++)
+                accumulate(sparseVector.indexes[i], scalar * sparseVector.values[i]);
+        } else {
+            for (int i = 0; i < size; i++) {
+                double value = vector.get(i);
+                if (value != 0)
+                    accumulate(i, scalar * value);
+            }
+        }
+    }
+
+    /**
+     * Adds the provided increment to the element at the provided index, removing that element from the internal hash
+     * map if its resulting absolute value falls below {@link #epsilon}.
+     *
+     * @param   index       The index of the element.
+     * @param   increment   The value to add to the element.
+     */
+    private void accumulate(int index, double increment) {
+        if (Math.abs(hashMap.addTo(index, increment)) < epsilon)
+            hashMap.remove(index);
+    }
+
+    /**
+     * Multiplies this vector element-wise with the vector stored in the provided hash map, by probing that hash map
+     * for each nonzero element of this vector, and returns the result in a new vector.
+     *
+     * @param   otherHashMap    The hash map holding the elements of the other vector.
+     * @return                  The element-wise product.
+     */
+    private HashVector multElementwiseByMap(IntDoubleHashMap otherHashMap) {
+        HashVector resultVector = new HashVector(size, hashMap.size());
+        int[] keyTable = hashMap.keyTable;
+        double[] valueTable = hashMap.valueTable;
+        for (int slot = 0; slot < keyTable.length; slot++) {
+            int key = keyTable[slot];
+            if (key != IntDoubleHashMap.FREE_KEY) {
+                double value = valueTable[slot] * otherHashMap.get(key);
+                if (Math.abs(value) >= epsilon)
+                    resultVector.hashMap.put(key, value);
+            }
+        }
+        return resultVector;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public HashVector axpbyInPlace(double a, Vector x, double b) {
+        checkVectorSize(x);
+        if (x == this) {
+            multInPlace(a + b);
+            hashMap.removeSmallValues(epsilon);
+        } else {
+            if (b != 1)
+                multInPlace(b);
+            accumulate(a, x);
+            if (b != 1)
+                hashMap.removeSmallValues(epsilon);
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] innerAndNormSquared(Vector vector) {
+        double dotProduct = inner(vector);
+        double normSquared = 0;
+        int[] keyTable = hashMap.keyTable;
+        double[] valueTable = hashMap.valueTable;
+        for (int slot = 0; slot < keyTable.length; slot++)
+            if (keyTable[slot] != IntDoubleHashMap.FREE_KEY)
+                normSquared += valueTable[slot] * valueTable[slot];
+        return new double[] { dotProduct, normSquared };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] multiInner(Vector... vectors) {
+        double[] dotProducts = new double[vectors.length];
+        for (int j = 0; j < vectors.length; j++)
+            dotProducts[j] = inner(vectors[j]);
+        return dotProducts;
+    }
+
     /** {@inheritDoc} */
     @Override
     public double innerPlusConstant(Vector vector) {
@@ -600,76 +698,76 @@ public class HashVector extends Vector {
 
     /** {@inheritDoc} */
     @Override
-    public HashVector map(Function<Double, Double> function) {
+    public HashVector map(DoubleUnaryOperator function) {
         HashVector resultVector = new HashVector(size, hashMap); // TODO: What happens when the function is applied to zeros?
-        resultVector.hashMap.assign(function::apply);
+        resultVector.hashMap.mapValues(function);
         return resultVector;
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapInPlace(Function<Double, Double> function) { // TODO: What happens when the function is applied to zeros?
-        hashMap.assign(function::apply);
+    public HashVector mapInPlace(DoubleUnaryOperator function) { // TODO: What happens when the function is applied to zeros?
+        hashMap.mapValues(function);
         return this;
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapBiFunction(BiFunction<Double, Double, Double> function, Vector vector) {
+    public HashVector mapBiFunction(DoubleBinaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapBiFunctionInPlace(BiFunction<Double, Double, Double> function, Vector vector) {
+    public HashVector mapBiFunctionInPlace(DoubleBinaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapAdd(Function<Double, Double> function, Vector vector) {
+    public HashVector mapAdd(DoubleUnaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapAddInPlace(Function<Double, Double> function, Vector vector) {
+    public HashVector mapAddInPlace(DoubleUnaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapSub(Function<Double, Double> function, Vector vector) {
+    public HashVector mapSub(DoubleUnaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapSubInPlace(Function<Double, Double> function, Vector vector) {
+    public HashVector mapSubInPlace(DoubleUnaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapMultElementwise(Function<Double, Double> function, Vector vector) {
+    public HashVector mapMultElementwise(DoubleUnaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapMultElementwiseInPlace(Function<Double, Double> function, Vector vector) {
+    public HashVector mapMultElementwiseInPlace(DoubleUnaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapDivElementwise(Function<Double, Double> function, Vector vector) {
+    public HashVector mapDivElementwise(DoubleUnaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
     /** {@inheritDoc} */
     @Override
-    public HashVector mapDivElementwiseInPlace(Function<Double, Double> function, Vector vector) {
+    public HashVector mapDivElementwiseInPlace(DoubleUnaryOperator function, Vector vector) {
         throw new UnsupportedOperationException();
     }
 
@@ -715,6 +813,65 @@ public class HashVector extends Vector {
         throw new UnsupportedOperationException();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Cursor cursor() {
+        return new HashVectorCursor();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void forEachNonzero(IntDoubleConsumer consumer) {
+        int[] keyTable = hashMap.keyTable;
+        double[] valueTable = hashMap.valueTable;
+        for (int slot = 0; slot < keyTable.length; slot++)
+            if (keyTable[slot] != IntDoubleHashMap.FREE_KEY && valueTable[slot] != 0)
+                consumer.accept(keyTable[slot], valueTable[slot]);
+    }
+
+    /**
+     * A cursor class used for iterating over the elements stored in the internal hash map of a {@link HashVector}, in
+     * hash table order.
+     */
+    private class HashVectorCursor implements Cursor {
+        /** Current slot in the internal hash map tables. */
+        private int slot = -1;
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean advance() {
+            int[] keyTable = hashMap.keyTable;
+            while (++slot < keyTable.length)
+                if (keyTable[slot] != IntDoubleHashMap.FREE_KEY)
+                    return true;
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int index() {
+            return hashMap.keyTable[slot];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double value() {
+            return hashMap.valueTable[slot];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setValue(double value) {
+            hashMap.valueTable[slot] = value;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void reset() {
+            slot = -1;
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean equals(Object object) {
@@ -739,10 +896,9 @@ public class HashVector extends Vector {
     @Override
     public String toString() {
         StringJoiner stringJoiner = new StringJoiner(",", "[", "]");
-        hashMap.forEachPair((i, v) -> {
-            stringJoiner.add(i + ":" + v);
-            return true;
-        });
+        IntDoubleHashMap.Cursor cursor = hashMap.cursor();
+        while (cursor.advance())
+            stringJoiner.add(cursor.key() + ":" + cursor.value());
         return stringJoiner.toString();
     }
 
@@ -752,9 +908,9 @@ public class HashVector extends Vector {
         if (includeType)
             UnsafeSerializationUtilities.writeInt(outputStream, type().ordinal());
         UnsafeSerializationUtilities.writeInt(outputStream, size);
-        UnsafeSerializationUtilities.writeInt(outputStream, hashMap.keys().size());
-        UnsafeSerializationUtilities.writeIntArray(outputStream, hashMap.keys().elements());
-        UnsafeSerializationUtilities.writeDoubleArray(outputStream, hashMap.values().elements());
+        UnsafeSerializationUtilities.writeInt(outputStream, hashMap.size());
+        UnsafeSerializationUtilities.writeIntArray(outputStream, hashMap.keys());
+        UnsafeSerializationUtilities.writeDoubleArray(outputStream, hashMap.values());
     }
     
     /**
@@ -778,8 +934,7 @@ public class HashVector extends Vector {
         double[] values = UnsafeSerializationUtilities.readDoubleArray(inputStream,
                                                                        numberOfNonzeroEntries,
                                                                        Math.min(numberOfNonzeroEntries, 1024 * 1024));
-        HashVector vector = new HashVector(size);
-        vector.hashMap = new OpenIntDoubleHashMap(Integer.highestOneBit(numberOfNonzeroEntries) << 1);
+        HashVector vector = new HashVector(size, numberOfNonzeroEntries);
         for (int i = 0; i < numberOfNonzeroEntries; i++)
             vector.hashMap.put(indexes[i], values[i]);
         return vector;
@@ -853,8 +1008,8 @@ public class HashVector extends Vector {
                 endPosition = typeFieldOffset + 4;
                 state = EncoderState.TYPE;
             }
-            indexes = hashMap.keys().elements();
-            values = hashMap.values().elements();
+            indexes = hashMap.keys();
+            values = hashMap.values();
             numberOfNonzeroEntries = indexes.length;
             type = VectorType.SPARSE.ordinal();
             this.includeType = includeType;
@@ -0,0 +1,461 @@
+package module.math.matrix;
+
+import java.util.Arrays;
+
+/**
+ * Implements the incomplete Cholesky factorization of a sparse symmetric positive definite matrix \(A\). This
+ * factorization finds a sparse lower triangular matrix \(L\), such that \(A\approx LL^T\), by performing the Cholesky
+ * factorization while discarding some of the fill (i.e., some of the elements of \(L\) whose corresponding elements
+ * in \(A\) are zero). It is mainly used as a preconditioner for the conjugate gradient method, where solving systems
+ * with \(LL^T\) costs two sparse triangular solves (i.e., time proportional to the number of nonzero elements of
+ * \(L\)). Two variants are supported:
+ * <ul>
+ *     <li><b>IC(0)</b>: The sparsity pattern of \(L\) is the same as that of the lower triangular part of \(A\) and so
+ *     all fill is discarded.</li>
+ *     <li><b>ICT</b>: The fill is computed, but the off-diagonal elements of each row of \(L\) whose absolute value is
+ *     smaller than a drop tolerance times the norm of the corresponding row of \(A\) are discarded, and only the
+ *     largest ones are kept if their number exceeds a limit. This usually results in a much better preconditioner
+ *     than IC(0), at the cost of more memory.</li>
+ * </ul>
+ *
+ * Only the lower triangular part of \(A\) is used. The factorization is computed row by row: each row of \(L\) is
+ * obtained by a sparse forward substitution with the rows already computed, which are also accessed by column through
+ * linked lists. The incomplete factorization may break down (i.e., encounter a non-positive pivot) even if \(A\) is
+ * positive definite. In that case, the factorization is restarted for \(A+\alpha\,\mathrm{diag}(A)\), with increasing
+ * values of the shift \(\alpha\), as proposed by Manteuffel.
+ *
+ * @author Andriy Chekhovych
+ */
+public class IncompleteCholeskyFactorization {
+    /** The first diagonal shift tried after a breakdown (relative to the diagonal elements). */
+    private static final double INITIAL_DIAGONAL_SHIFT = 1e-3;
+    /** The maximum number of diagonal shifts tried before giving up (i.e., the largest shift tried is about 0.5). */
+    private static final int MAXIMUM_NUMBER_OF_DIAGONAL_SHIFTS = 10;
+
+    /** The dimension of the matrix whose factorization is being computed. */
+    private final int dimension;
+    /** The drop tolerance (zero for the IC(0) variant). */
+    private final double dropTolerance;
+    /** The maximum number of off-diagonal elements kept in each row of \(L\) by the ICT variant. */
+    private final int maximumFillPerRow;
+
+    /** The indexes at which the elements of each row of \(L\) start, followed by the total number of elements. */
+    private int[] rowPointers;
+    /** The column indexes of the off-diagonal elements of \(L\), sorted in increasing order within each row. */
+    private int[] columnIndexes;
+    /** The values of the off-diagonal elements of \(L\). */
+    private double[] values;
+    /** The diagonal elements of \(L\). */
+    private double[] diagonal;
+    /** The diagonal shift that was used in order to avoid breakdowns. */
+    private double diagonalShift;
+
+    /**
+     * Constructs the IC(0) factorization (i.e., with no fill) of the provided matrix.
+     *
+     * @param   matrix  The symmetric positive definite matrix whose incomplete factorization is being computed.
+     *
+     * @throws  IllegalArgumentException            The matrix must be square.
+     * @throws  NonPositiveDefiniteMatrixException  If a diagonal element of the matrix is not positive, or if the
+     *                                              factorization breaks down even after shifting the diagonal.
+     */
+    public IncompleteCholeskyFactorization(AbstractMatrix matrix) throws NonPositiveDefiniteMatrixException {
+        this(matrix, 0, 0);
+    }
+
+    /**
+     * Constructs the ICT factorization (i.e., with threshold dropping) of the provided matrix. If the drop tolerance is
+     * zero, then the IC(0) factorization is constructed instead.
+     *
+     * @param   matrix              The symmetric positive definite matrix whose incomplete factorization is being
+     *                              computed.
+     * @param   dropTolerance       The relative drop tolerance. Off-diagonal elements of each row of \(L\) whose
+     *                              absolute value is smaller than this tolerance times the norm of the corresponding
+     *                              row of the lower triangular part of the matrix are discarded.
+     * @param   maximumFillPerRow   The maximum number of off-diagonal elements kept in each row of \(L\), in addition
+     *                              to the number of off-diagonal elements in the corresponding row of the lower
+     *                              triangular part of the matrix.
+     *
+     * @throws  IllegalArgumentException            The matrix must be square, the drop tolerance must be non-negative
+     *                                              and the maximum fill per row must be non-negative.
+     * @throws  NonPositiveDefiniteMatrixException  If a diagonal element of the matrix is not positive, or if the
+     *                                              factorization breaks down even after shifting the diagonal.
+     */
+    public IncompleteCholeskyFactorization(AbstractMatrix matrix, double dropTolerance, int maximumFillPerRow)
+            throws NonPositiveDefiniteMatrixException {
+        if (matrix.getRowDimension() != matrix.getColumnDimension())
+            throw new IllegalArgumentException("The matrix has to be square.");
+        if (dropTolerance < 0)
+            throw new IllegalArgumentException("The drop tolerance must be non-negative.");
+        if (maximumFillPerRow < 0)
+            throw new IllegalArgumentException("The maximum fill per row must be non-negative.");
+        dimension = matrix.getRowDimension();
+        this.dropTolerance = dropTolerance;
+        this.maximumFillPerRow = maximumFillPerRow;
+        SparseMatrix lowerTriangularPart = extractLowerTriangularPart(matrix);
+        for (int i = 0; i < dimension; i++) {
+            int diagonalPosition = lowerTriangularPart.pointers[i + 1] - 1;
+            if (diagonalPosition < lowerTriangularPart.pointers[i]
+                    || lowerTriangularPart.indexes[diagonalPosition] != i
+                    || !(lowerTriangularPart.values[diagonalPosition] > 0))
+                throw new NonPositiveDefiniteMatrixException(
+                        "Non positive diagonal element! The incomplete Cholesky factorization cannot be computed!"
+                );
+        }
+        diagonalShift = 0;
+        for (int attempt = 0; !factor(lowerTriangularPart); attempt++) {
+            if (attempt == MAXIMUM_NUMBER_OF_DIAGONAL_SHIFTS)
+                throw new NonPositiveDefiniteMatrixException(
+                        "The incomplete Cholesky factorization broke down, even after shifting the diagonal!"
+                );
+            diagonalShift = diagonalShift == 0 ? INITIAL_DIAGONAL_SHIFT : 2 * diagonalShift;
+        }
+    }
+
+    /**
+     * Extracts the lower triangular part (including the diagonal) of the provided matrix, as a sparse matrix stored in
+     * the CSR format.
+     *
+     * @param   matrix  The matrix.
+     * @return          The lower triangular part of the matrix.
+     */
+    private static SparseMatrix extractLowerTriangularPart(AbstractMatrix matrix) {
+        int n = matrix.getRowDimension();
+        int[] pointers = new int[n + 1];
+        int[] indexes;
+        double[] values;
+        if (matrix instanceof SparseMatrix) {
+            SparseMatrix sparseMatrix = ((SparseMatrix) matrix).toCompressedRows();
+            for (int i = 0; i < n; i++) {
+                int k = sparseMatrix.pointers[i];
+                while (k < sparseMatrix.pointers[i + 1] && sparseMatrix.indexes[k] <= i)
+                    k++;
+                pointers[i + 1] = pointers[i] + k - sparseMatrix.pointers[i];
+            }
+            indexes = new int[pointers[n]];
+            values = new double[pointers[n]];
+            for (int i = 0; i < n; i++) {
+                int length = pointers[i + 1] - pointers[i];
+                System.arraycopy(sparseMatrix.indexes, sparseMatrix.pointers[i], indexes, pointers[i], length);
+                System.arraycopy(sparseMatrix.values, sparseMatrix.pointers[i], values, pointers[i], length);
+            }
+        } else {
+            IntArrayList indexesList = new IntArrayList(n);
+            DoubleArrayList valuesList = new DoubleArrayList(n);
+            for (int i = 0; i < n; i++) {
+                if (matrix instanceof Matrix) {
+                    double[] rowI = ((Matrix) matrix).rowArray(i);
+                    int rowIOffset = ((Matrix) matrix).rowOffset(i);
+                    for (int j = 0; j <= i; j++) {
+                        if (rowI[rowIOffset + j] != 0) {
+                            indexesList.add(j);
+                            valuesList.add(rowI[rowIOffset + j]);
+                        }
+                    }
+                } else {
+                    for (int j = 0; j <= i; j++) {
+                        double value = matrix.getElement(i, j);
+                        if (value != 0) {
+                            indexesList.add(j);
+                            valuesList.add(value);
+                        }
+                    }
+                }
+                pointers[i + 1] = indexesList.size;
+            }
+            indexes = Arrays.copyOf(indexesList.elements, indexesList.size);
+            values = Arrays.copyOf(valuesList.elements, valuesList.size);
+        }
+        return new SparseMatrix(n, n, pointers, indexes, values);
+    }
+
+    /**
+     * Attempts to compute the incomplete factorization using the current diagonal shift.
+     *
+     * @param   lowerTriangularPart The lower triangular part of the matrix, stored in the CSR format.
+     * @return                      {@code false} if a non-positive (or NaN) pivot was encountered and {@code true}
+     *                              otherwise.
+     */
+    private boolean factor(SparseMatrix lowerTriangularPart) {
+        int[] aPointers = lowerTriangularPart.pointers;
+        int[] aIndexes = lowerTriangularPart.indexes;
+        double[] aValues = lowerTriangularPart.values;
+        boolean isThresholdVariant = dropTolerance > 0;
+        rowPointers = new int[dimension + 1];
+        diagonal = new double[dimension];
+        IntArrayList lIndexes = new IntArrayList(aIndexes.length);
+        DoubleArrayList lValues = new DoubleArrayList(aIndexes.length);
+        // The elements of the rows of L that have already been computed, accessed by column (i.e., for each column k,
+        // the rows r for which L(r, k) is nonzero, along with the corresponding values).
+        IntArrayList[] columnRows = new IntArrayList[dimension];
+        DoubleArrayList[] columnValues = new DoubleArrayList[dimension];
+        // Dense work arrays holding the current row, along with a marker of its nonzero positions.
+        double[] x = new double[dimension];
+        boolean[] isNonzero = new boolean[dimension];
+        IntHeap positions = new IntHeap(dimension);
+        int[] rowPattern = new int[dimension];
+        for (int i = 0; i < dimension; i++) {
+            int rowStart = aPointers[i];
+            int rowEnd = aPointers[i + 1] - 1;
+            double aII = aValues[rowEnd] * (1 + diagonalShift);
+            double rowNorm = aII * aII;
+            for (int k = rowStart; k < rowEnd; k++) {
+                int j = aIndexes[k];
+                x[j] = aValues[k];
+                isNonzero[j] = true;
+                positions.push(j);
+                rowNorm += aValues[k] * aValues[k];
+            }
+            int numberOfOriginalElements = rowEnd - rowStart;
+            // Sparse forward substitution with the already computed rows of L, in increasing column order.
+            int patternSize = 0;
+            while (!positions.isEmpty()) {
+                int k = positions.pop();
+                rowPattern[patternSize++] = k;
+                double xK = x[k] /= diagonal[k];
+                if (xK == 0 || columnRows[k] == null)
+                    continue;
+                int[] rows = columnRows[k].elements;
+                double[] columnKValues = columnValues[k].elements;
+                for (int p = 0, size = columnRows[k].size; p < size; p++) {
+                    int r = rows[p];
+                    if (isNonzero[r]) {
+                        x[r] -= columnKValues[p] * xK;
+                    } else if (isThresholdVariant) {
+                        x[r] = -columnKValues[p] * xK;
+                        isNonzero[r] = true;
+                        positions.push(r);
+                    }
+                }
+            }
+            // The work array does not need to be cleared, since its elements are always set before being updated.
+            for (int p = 0; p < patternSize; p++)
+                isNonzero[rowPattern[p]] = false;
+            int numberOfKeptElements = patternSize;
+            if (isThresholdVariant)
+                numberOfKeptElements = dropElements(x, rowPattern, patternSize, dropTolerance * Math.sqrt(rowNorm),
+                                                    numberOfOriginalElements + maximumFillPerRow);
+            double pivot = aII;
+            for (int p = 0; p < numberOfKeptElements; p++) {
+                int k = rowPattern[p];
+                double value = x[k];
+                pivot -= value * value;
+                lIndexes.add(k);
+                lValues.add(value);
+                if (columnRows[k] == null) {
+                    columnRows[k] = new IntArrayList(4);
+                    columnValues[k] = new DoubleArrayList(4);
+                }
+                columnRows[k].add(i);
+                columnValues[k].add(value);
+            }
+            if (!(pivot > 0))
+                return false;
+            diagonal[i] = Math.sqrt(pivot);
+            rowPointers[i + 1] = lIndexes.size;
+        }
+        columnIndexes = Arrays.copyOf(lIndexes.elements, lIndexes.size);
+        values = Arrays.copyOf(lValues.elements, lValues.size);
+        return true;
+    }
+
+    /**
+     * Drops the elements of the current row whose absolute value is smaller than the provided threshold and keeps at
+     * most the provided number of the largest remaining elements. The kept positions are moved to the beginning of the
+     * pattern array, sorted in increasing order.
+     *
+     * @param   x                       The dense work array holding the current row.
+     * @param   pattern                 The positions of the nonzero elements of the current row, in increasing order.
+     * @param   patternSize             The number of nonzero elements of the current row.
+     * @param   threshold               The absolute drop threshold.
+     * @param   maximumNumberOfElements The maximum number of elements to keep.
+     * @return                          The number of kept elements.
+     */
+    private static int dropElements(double[] x,
+                                    int[] pattern,
+                                    int patternSize,
+                                    double threshold,
+                                    int maximumNumberOfElements) {
+        int numberOfKeptElements = 0;
+        for (int p = 0; p < patternSize; p++)
+            if (Math.abs(x[pattern[p]]) >= threshold)
+                pattern[numberOfKeptElements++] = pattern[p];
+        if (numberOfKeptElements > maximumNumberOfElements) {
+            double[] absoluteValues = new double[numberOfKeptElements];
+            for (int p = 0; p < numberOfKeptElements; p++)
+                absoluteValues[p] = Math.abs(x[pattern[p]]);
+            Arrays.sort(absoluteValues);
+            double largestThreshold = absoluteValues[numberOfKeptElements - maximumNumberOfElements];
+            int numberOfLargerElements = 0;
+            for (int p = 0; p < numberOfKeptElements; p++)
+                if (Math.abs(x[pattern[p]]) > largestThreshold)
+                    numberOfLargerElements++;
+            // Keep all elements larger than the threshold, along with as many elements equal to it as allowed.
+            int numberOfEqualElementsAllowed = maximumNumberOfElements - numberOfLargerElements;
+            int numberOfSelectedElements = 0;
+            for (int p = 0; p < numberOfKeptElements; p++) {
+                double absoluteValue = Math.abs(x[pattern[p]]);
+                if (absoluteValue > largestThreshold
+                        || (absoluteValue == largestThreshold && numberOfEqualElementsAllowed-- > 0))
+                    pattern[numberOfSelectedElements++] = pattern[p];
+            }
+            numberOfKeptElements = numberOfSelectedElements;
+        }
+        return numberOfKeptElements;
+    }
+
+    /**
+     * Solves the linear system of equations \(LL^T\boldsymbol{x}=\boldsymbol{b}\) for \(\boldsymbol{x}\) and returns
+     * the result as a new vector (i.e., applies the preconditioner to the provided vector).
+     *
+     * @param   vector  Vector \(\boldsymbol{b}\) in equation \(LL^T\boldsymbol{x}=\boldsymbol{b}\).
+     * @return          The solution of the system of equations.
+     *
+     * @throws  IllegalArgumentException    The vector size must match the dimension of the matrix.
+     */
+    public Vector solve(Vector vector) {
+        if (vector.size() != dimension)
+            throw new IllegalArgumentException("Matrix row and vector dimensions must agree.");
+        double[] x = vector.getDenseArray();
+        solveInPlace(x);
+        return AbstractMatrix.buildVector(x, vector.type());
+    }
+
+    /**
+     * Solves the linear system of equations \(LL^T\boldsymbol{x}=\boldsymbol{b}\) in place, using a sparse forward and
+     * a sparse backward substitution. Both substitutions access the rows of \(L\) with unit stride.
+     *
+     * @param   x   Vector \(\boldsymbol{b}\), which is overwritten by the solution.
+     */
+    public void solveInPlace(double[] x) {
+        for (int i = 0; i < dimension; i++) {
+            double sum = x[i];
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++)
+                sum -= values[k] * x[columnIndexes[k]];
+            x[i] = sum / diagonal[i];
+        }
+        // The backward substitution is column-oriented, since the rows of L are the columns of its transpose.
+        for (int i = dimension - 1; i >= 0; i--) {
+            double xI = x[i] /= diagonal[i];
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++)
+                x[columnIndexes[k]] -= values[k] * xI;
+        }
+    }
+
+    /**
+     * Gets the incomplete Cholesky factor, \(L\).
+     *
+     * @return  The incomplete Cholesky factor, \(L\), as a new sparse matrix stored in the CSR format.
+     */
+    public SparseMatrix getL() {
+        int[] pointers = new int[dimension + 1];
+        int[] indexes = new int[values.length + dimension];
+        double[] lValues = new double[values.length + dimension];
+        for (int i = 0, position = 0; i < dimension; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++, position++) {
+                indexes[position] = columnIndexes[k];
+                lValues[position] = values[k];
+            }
+            indexes[position] = i;
+            lValues[position++] = diagonal[i];
+            pointers[i + 1] = position;
+        }
+        return new SparseMatrix(dimension, dimension, pointers, indexes, lValues);
+    }
+
+    /**
+     * Gets the number of nonzero elements of the incomplete Cholesky factor, \(L\) (including its diagonal).
+     *
+     * @return  The number of nonzero elements of \(L\).
+     */
+    public int getNumberOfNonzeroElements() {
+        return values.length + dimension;
+    }
+
+    /**
+     * Gets the diagonal shift, \(\alpha\), that was used in order to avoid breakdowns (i.e., the factorization is that
+     * of \(A+\alpha\,\mathrm{diag}(A)\)). This is zero if no breakdown occurred.
+     *
+     * @return  The diagonal shift.
+     */
+    public double getDiagonalShift() {
+        return diagonalShift;
+    }
+
+    /** A growable array of integers. */
+    private static final class IntArrayList {
+        private int[] elements;
+        private int size;
+
+        private IntArrayList(int initialCapacity) {
+            elements = new int[Math.max(initialCapacity, 1)];
+        }
+
+        private void add(int element) {
+            if (size == elements.length)
+                elements = Arrays.copyOf(elements, 2 * size);
+            elements[size++] = element;
+        }
+    }
+
+    /** A growable array of doubles. */
+    private static final class DoubleArrayList {
+        private double[] elements;
+        private int size;
+
+        private DoubleArrayList(int initialCapacity) {
+            elements = new double[Math.max(initialCapacity, 1)];
+        }
+
+        private void add(double element) {
+            if (size == elements.length)
+                elements = Arrays.copyOf(elements, 2 * size);
+            elements[size++] = element;
+        }
+    }
+
+    /** A binary min-heap of integers, used in order to process the nonzero positions of a row in increasing order. */
+    private static final class IntHeap {
+        private final int[] elements;
+        private int size;
+
+        private IntHeap(int capacity) {
+            elements = new int[capacity];
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void push(int element) {
+            int position = size++;
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (elements[parent] <= element)
+                    break;
+                elements[position] = elements[parent];
+                position = parent;
+            }
+            elements[position] = element;
+        }
+
+        private int pop() {
+            int result = elements[0];
+            int last = elements[--size];
+            int position = 0;
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && elements[child + 1] < elements[child])
+                    child++;
+                if (last <= elements[child])
+                    break;
+                elements[position] = elements[child];
+                position = child;
+            }
+            elements[position] = last;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package module.math.matrix;
+
+/**
+ * Represents an operation that accepts an int-valued and a double-valued argument and returns no result. This is the
+ * primitive specialization of {@link java.util.function.BiConsumer} used for visiting vector elements (i.e., pairs of
+ * indexes and values) without boxing them.
+ *
+ * @author Andriy Chekhovych
+ */
+@FunctionalInterface
+public interface IntDoubleConsumer {
+    /**
+     * Performs this operation on the provided arguments.
+     *
+     * @param   index   The index of the element.
+     * @param   value   The value of the element.
+     */
+    void accept(int index, double value);
+}
@@ -0,0 +1,529 @@
+package module.math.matrix;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.StringJoiner;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Implements an open-addressing hash map from non-negative int keys to double values, used as the internal storage of
+ * {@link HashVector}. Collisions are resolved using linear probing over power-of-two sized tables and entries are
+ * removed using backward-shift deletion, so that no tombstones are ever left behind and lookups never have to skip over
+ * deleted slots. Keys and values are stored in two parallel primitive arrays and so no boxing takes place and no
+ * objects are allocated per entry.
+ *
+ * Missing keys are reported as having value {@code 0}, which matches the semantics of sparse vectors.
+ *
+ * @author Andriy Chekhovych
+ */
+public final class IntDoubleHashMap {
+    /** The key value used to mark empty slots in {@link #keyTable}. */
+    static final int FREE_KEY = -1;
+    /** The minimum capacity of the hash tables. */
+    private static final int MINIMUM_CAPACITY = 4;
+    /** The default number of entries for which space is allocated when no expected size is provided. */
+    private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+    /** Array holding the keys of the entries, with empty slots being marked by {@link #FREE_KEY}. Its length is always
+     * a power of two. */
+    int[] keyTable;
+    /** Array holding the values of the entries. This array is parallel to the {@link #keyTable} array. */
+    double[] valueTable;
+    /** Bit mask used to map hash codes to slots (i.e., the length of the tables minus one). */
+    private int mask;
+    /** The number of entries currently stored in this map. */
+    private int size;
+    /** The number of entries above which the tables are grown (i.e., half their length). */
+    private int maximumSize;
+    /** The number of structural modifications (i.e., insertions and removals of keys) performed on this map, used by
+     * {@link Cursor} in order to detect such modifications during iteration. */
+    private int modificationCount;
+
+    /** Constructs an empty hash map with space for a small number of entries. */
+    public IntDoubleHashMap() {
+        this(DEFAULT_EXPECTED_SIZE);
+    }
+
+    /**
+     * Constructs an empty hash map that can hold the provided number of entries without having to be resized.
+     *
+     * @param   expectedSize    The expected number of entries.
+     *
+     * @throws  IllegalArgumentException    The expected size must be non-negative.
+     */
+    public IntDoubleHashMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("The expected size must be non-negative.");
+        allocateTables(capacityFor(expectedSize));
+    }
+
+    /**
+     * Constructs a hash map from the provided parallel arrays of keys and values. If a key appears multiple times, the
+     * last corresponding value is used.
+     *
+     * @param   keys    The keys of the entries.
+     * @param   values  The values of the entries.
+     *
+     * @throws  IllegalArgumentException    The keys and values arrays must have the same length.
+     */
+    public IntDoubleHashMap(int[] keys, double[] values) {
+        this(keys.length);
+        if (keys.length != values.length)
+            throw new IllegalArgumentException("The keys and values arrays must have the same length.");
+        for (int i = 0; i < keys.length; i++)
+            put(keys[i], values[i]);
+    }
+
+    /**
+     * Returns a deep copy of this hash map.
+     *
+     * @return  A deep copy of this hash map.
+     */
+    public IntDoubleHashMap copy() {
+        IntDoubleHashMap map = new IntDoubleHashMap(0);
+        map.keyTable = keyTable.clone();
+        map.valueTable = valueTable.clone();
+        map.mask = mask;
+        map.size = size;
+        map.maximumSize = maximumSize;
+        return map;
+    }
+
+    /**
+     * Returns the number of entries stored in this hash map.
+     *
+     * @return  The number of entries stored in this hash map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether this hash map contains no entries.
+     *
+     * @return  {@code true} if this hash map contains no entries and {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value that corresponds to the provided key, or {@code 0} if no such key exists in this hash map.
+     *
+     * @param   key The key whose value is returned.
+     * @return      The value corresponding to the provided key, or {@code 0} if the key is not present.
+     */
+    public double get(int key) {
+        int slot = slot(key);
+        return slot >= 0 ? valueTable[slot] : 0;
+    }
+
+    /**
+     * Returns whether this hash map contains an entry for the provided key. Note that entries whose value is {@code 0}
+     * are still contained in the map until they are removed.
+     *
+     * @param   key The key to look up.
+     * @return      {@code true} if this hash map contains an entry for the provided key and {@code false} otherwise.
+     */
+    public boolean containsKey(int key) {
+        return slot(key) >= 0;
+    }
+
+    /**
+     * Associates the provided value with the provided key, replacing any previously stored value.
+     *
+     * @param   key     The key, which must be non-negative.
+     * @param   value   The value.
+     *
+     * @throws  IllegalArgumentException    Keys must be non-negative.
+     */
+    public void put(int key, double value) {
+        int slot = insertionSlot(key);
+        valueTable[slot] = value;
+    }
+
+    /**
+     * Adds the provided increment to the value corresponding to the provided key (treating missing keys as having
+     * value {@code 0}) and returns the resulting value. This requires a single probe sequence, as opposed to a
+     * {@link #get(int)} followed by a {@link #put(int, double)}.
+     *
+     * @param   key         The key, which must be non-negative.
+     * @param   increment   The value to add.
+     * @return              The new value corresponding to the provided key.
+     *
+     * @throws  IllegalArgumentException    Keys must be non-negative.
+     */
+    public double addTo(int key, double increment) {
+        int slot = insertionSlot(key);
+        return valueTable[slot] += increment;
+    }
+
+    /**
+     * Removes the entry corresponding to the provided key, if one exists.
+     *
+     * @param   key The key of the entry to remove.
+     * @return      {@code true} if an entry was removed.
+     */
+    public boolean remove(int key) {
+        int slot = slot(key);
+        if (slot < 0)
+            return false;
+        removeSlot(slot);
+        return true;
+    }
+
+    /** Removes all the entries of this hash map, while keeping its capacity. */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keyTable, FREE_KEY);
+            Arrays.fill(valueTable, 0);
+            size = 0;
+            modificationCount++;
+        }
+    }
+
+    /**
+     * Grows the tables of this hash map, if necessary, so that it can hold the provided number of entries without
+     * having to be resized again.
+     *
+     * @param   expectedSize    The expected number of entries.
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > keyTable.length)
+            rehash(capacity);
+    }
+
+    /**
+     * Replaces each value stored in this hash map with the result of applying the provided function to it. Entries are
+     * never removed by this method, even if the function maps them to zero.
+     *
+     * @param   function    The function to apply to the values.
+     */
+    public void mapValues(DoubleUnaryOperator function) {
+        for (int slot = 0; slot < keyTable.length; slot++)
+            if (keyTable[slot] != FREE_KEY)
+                valueTable[slot] = function.applyAsDouble(valueTable[slot]);
+    }
+
+    /**
+     * Removes all entries whose absolute values are smaller than the provided threshold. This is useful after
+     * modifying the values through a {@link Cursor}, as removing entries while iterating is not supported.
+     *
+     * @param   threshold   The threshold below which entries are removed.
+     */
+    public void removeSmallValues(double threshold) {
+        int numberOfKeysToRemove = 0;
+        int[] keysToRemove = null;
+        for (int slot = 0; slot < keyTable.length; slot++) {
+            if (keyTable[slot] != FREE_KEY && Math.abs(valueTable[slot]) < threshold) {
+                if (keysToRemove == null)
+                    keysToRemove = new int[size];
+                keysToRemove[numberOfKeysToRemove++] = keyTable[slot];
+            }
+        }
+        for (int i = 0; i < numberOfKeysToRemove; i++)
+            remove(keysToRemove[i]);
+    }
+
+    /**
+     * Returns a new array containing the keys stored in this hash map. The keys are returned in the same order as the
+     * corresponding values are returned by {@link #values()}.
+     *
+     * @return  A new array containing the keys stored in this hash map.
+     */
+    public int[] keys() {
+        int[] keys = new int[size];
+        for (int slot = 0, i = 0; i < size; slot++)
+            if (keyTable[slot] != FREE_KEY)
+                keys[i++] = keyTable[slot];
+        return keys;
+    }
+
+    /**
+     * Returns a new array containing the values stored in this hash map. The values are returned in the same order as
+     * the corresponding keys are returned by {@link #keys()}.
+     *
+     * @return  A new array containing the values stored in this hash map.
+     */
+    public double[] values() {
+        double[] values = new double[size];
+        for (int slot = 0, i = 0; i < size; slot++)
+            if (keyTable[slot] != FREE_KEY)
+                values[i++] = valueTable[slot];
+        return values;
+    }
+
+    /**
+     * Returns a cursor positioned before the first entry of this hash map. Iterating using the cursor does not allocate
+     * any objects. The map must not be structurally modified (i.e., have keys inserted or removed) while the cursor is
+     * in use, and the cursor throws a {@link ConcurrentModificationException} if that happens, but the values of
+     * existing entries may be updated through {@link Cursor#setValue(double)}.
+     *
+     * @return  A cursor over the entries of this hash map.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /** Cursor over the (key, value) pairs of a {@link IntDoubleHashMap}, visited in table order. */
+    public final class Cursor {
+        /** The slot of the current entry. */
+        private int slot = -1;
+        /** The modification count of the map when this cursor was created. */
+        private final int expectedModificationCount = modificationCount;
+
+        private Cursor() { }
+
+        /**
+         * Moves this cursor to the next entry.
+         *
+         * @return  {@code true} if the cursor now points to an entry and {@code false} if there are no more entries.
+         *
+         * @throws  ConcurrentModificationException The map was structurally modified after this cursor was created.
+         */
+        public boolean advance() {
+            checkForModification();
+            int[] keyTable = IntDoubleHashMap.this.keyTable;
+            while (++slot < keyTable.length)
+                if (keyTable[slot] != FREE_KEY)
+                    return true;
+            return false;
+        }
+
+        /**
+         * Returns the key of the current entry. This method must only be called after {@link #advance()} has returned
+         * {@code true}.
+         *
+         * @return  The key of the current entry.
+         *
+         * @throws  ConcurrentModificationException The map was structurally modified after this cursor was created.
+         */
+        public int key() {
+            checkForModification();
+            return keyTable[slot];
+        }
+
+        /**
+         * Returns the value of the current entry. This method must only be called after {@link #advance()} has returned
+         * {@code true}.
+         *
+         * @return  The value of the current entry.
+         *
+         * @throws  ConcurrentModificationException The map was structurally modified after this cursor was created.
+         */
+        public double value() {
+            checkForModification();
+            return valueTable[slot];
+        }
+
+        /**
+         * Replaces the value of the current entry. This is not a structural modification and so the cursor can still
+         * be used afterwards. Setting the value to {@code 0} does not remove the entry from the map (i.e., its key is
+         * still returned by {@link #containsKey(int)} and visited by cursors). Such entries can be removed after the
+         * iteration using {@link #removeSmallValues(double)} (e.g., with a threshold of {@link Double#MIN_VALUE}).
+         * This method must only be called after {@link #advance()} has returned {@code true}.
+         *
+         * @param   value   The new value of the current entry.
+         *
+         * @throws  ConcurrentModificationException The map was structurally modified after this cursor was created.
+         */
+        public void setValue(double value) {
+            checkForModification();
+            valueTable[slot] = value;
+        }
+
+        /**
+         * Checks whether the map has been structurally modified since this cursor was created.
+         *
+         * @throws  ConcurrentModificationException The map was structurally modified after this cursor was created.
+         */
+        private void checkForModification() {
+            if (modificationCount != expectedModificationCount)
+                throw new ConcurrentModificationException(
+                        "The hash map was structurally modified while iterating over it using a cursor."
+                );
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof IntDoubleHashMap))
+            return false;
+        if (object == this)
+            return true;
+
+        IntDoubleHashMap that = (IntDoubleHashMap) object;
+
+        if (size != that.size)
+            return false;
+        for (int slot = 0; slot < keyTable.length; slot++) {
+            if (keyTable[slot] != FREE_KEY) {
+                int thatSlot = that.slot(keyTable[slot]);
+                if (thatSlot < 0
+                        || Double.doubleToLongBits(valueTable[slot])
+                        != Double.doubleToLongBits(that.valueTable[thatSlot]))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int slot = 0; slot < keyTable.length; slot++)
+            if (keyTable[slot] != FREE_KEY)
+                hashCode += keyTable[slot] ^ Double.hashCode(valueTable[slot]);
+        return hashCode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        StringJoiner stringJoiner = new StringJoiner(",", "{", "}");
+        for (int slot = 0; slot < keyTable.length; slot++)
+            if (keyTable[slot] != FREE_KEY)
+                stringJoiner.add(keyTable[slot] + "=" + valueTable[slot]);
+        return stringJoiner.toString();
+    }
+
+    /**
+     * Returns the slot in which the provided key is stored, or {@code -1} if the key is not present in this map.
+     *
+     * @param   key The key to look up.
+     * @return      The slot holding the key, or {@code -1}.
+     */
+    int slot(int key) {
+        if (key < 0)
+            return -1;
+        int[] keyTable = this.keyTable;
+        int slot = hash(key) & mask;
+        int storedKey;
+        while ((storedKey = keyTable[slot]) != FREE_KEY) {
+            if (storedKey == key)
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot in which the provided key is stored, inserting the key with value {@code 0} (and growing the
+     * tables if necessary) if it is not already present.
+     *
+     * @param   key The key to look up or insert.
+     * @return      The slot holding the key.
+     */
+    private int insertionSlot(int key) {
+        if (key < 0)
+            throw new IllegalArgumentException("The keys of the hash map must be non-negative.");
+        int slot = hash(key) & mask;
+        int storedKey;
+        while ((storedKey = keyTable[slot]) != FREE_KEY) {
+            if (storedKey == key)
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        if (size >= maximumSize) {
+            rehash(keyTable.length << 1);
+            slot = hash(key) & mask;
+            while (keyTable[slot] != FREE_KEY)
+                slot = (slot + 1) & mask;
+        }
+        keyTable[slot] = key;
+        size++;
+        modificationCount++;
+        return slot;
+    }
+
+    /**
+     * Removes the entry stored in the provided slot and shifts any subsequent entries of the same cluster backwards,
+     * so that every remaining entry can still be reached from its home slot without passing over an empty slot.
+     *
+     * @param   slot    The slot of the entry to remove.
+     */
+    private void removeSlot(int slot) {
+        int gap = slot;
+        int current = (gap + 1) & mask;
+        int key;
+        while ((key = keyTable[current]) != FREE_KEY) {
+            int home = hash(key) & mask;
+            // The entry can fill the gap only if the gap lies between its home slot and its current slot.
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                keyTable[gap] = key;
+                valueTable[gap] = valueTable[current];
+                gap = current;
+            }
+            current = (current + 1) & mask;
+        }
+        keyTable[gap] = FREE_KEY;
+        valueTable[gap] = 0;
+        size--;
+        modificationCount++;
+    }
+
+    /**
+     * Moves all the entries of this hash map into newly allocated tables of the provided capacity.
+     *
+     * @param   capacity    The new capacity, which must be a power of two.
+     */
+    private void rehash(int capacity) {
+        int[] oldKeyTable = keyTable;
+        double[] oldValueTable = valueTable;
+        allocateTables(capacity);
+        for (int oldSlot = 0; oldSlot < oldKeyTable.length; oldSlot++) {
+            int key = oldKeyTable[oldSlot];
+            if (key != FREE_KEY) {
+                int slot = hash(key) & mask;
+                while (keyTable[slot] != FREE_KEY)
+                    slot = (slot + 1) & mask;
+                keyTable[slot] = key;
+                valueTable[slot] = oldValueTable[oldSlot];
+            }
+        }
+    }
+
+    /**
+     * Allocates empty tables of the provided capacity, while keeping the current number of entries.
+     *
+     * @param   capacity    The capacity of the new tables, which must be a power of two.
+     */
+    private void allocateTables(int capacity) {
+        keyTable = new int[capacity];
+        Arrays.fill(keyTable, FREE_KEY);
+        valueTable = new double[capacity];
+        mask = capacity - 1;
+        maximumSize = capacity >>> 1;
+    }
+
+    /**
+     * Computes the smallest power-of-two capacity that can hold the provided number of entries at a load factor of at
+     * most one half.
+     *
+     * @param   expectedSize    The expected number of entries.
+     * @return                  The corresponding capacity.
+     */
+    private static int capacityFor(int expectedSize) {
+        if (expectedSize > (1 << 29))
+            throw new IllegalArgumentException("The expected size is too large.");
+        int capacity = Integer.highestOneBit(Math.max(expectedSize << 1, 1));
+        if (capacity < expectedSize << 1)
+            capacity <<= 1;
+        return Math.max(capacity, MINIMUM_CAPACITY);
+    }
+
+    /**
+     * Scrambles the bits of the provided key so that consecutive keys (which are very common for vector indexes) are
+     * spread over the whole table.
+     *
+     * @param   key The key to hash.
+     * @return      The scrambled hash code of the key.
+     */
+    private static int hash(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
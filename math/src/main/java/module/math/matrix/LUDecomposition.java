@@ -12,17 +12,31 @@ import java.util.Arrays;
  * Furthermore, the primary use of the LU decomposition is in the solution of square systems of simultaneous matrix
  * equations. In that case, in order to obtain a solution, the matrix has to be non-singular.
  *
+ * The decomposition is computed using a right-looking blocked algorithm. For each block of columns, the panel is
+ * factored with partial pivoting (swapping whole rows, which are contiguous in memory), the corresponding block row of
+ * \(U\) is obtained with a triangular solve and the Schur complement (i.e., the trailing matrix) is updated using the
+ * cache-blocked matrix multiplication kernel, whose work is split across multiple threads as specified by the provided
+ * {@link MatrixMultiplyOptions}. Systems with multiple right-hand sides are also solved block by block, which makes
+ * {@link Matrix#computeInverse()} and {@link #solveInPlace(double[][])} mostly matrix multiplication bound as well.
+ *
  * @author Andriy Chekhovych
  */
 public class LUDecomposition {
-    /** Two-dimensional array used for internal storage of the decomposition factors. */
-    private final double[][] LU;
+    /** The block size used by the blocked factorization and triangular solves. */
+    private static final int BLOCK_SIZE = 64;
+
+    /** Flat array used for internal storage of the decomposition factors, in row-major order. */
+    private final double[] LU;
     /** The row dimension of the matrix whose decomposition is being computed. */
     private final int rowDimension;
     /** The column dimension of the matrix whose decomposition is being computed. */
     private final int columnDimension;
     /** One-dimensional array used for internal storage of the pivot vector. */
     private final int[] pivot;
+    /** The options used for the matrix multiplications and the parallel block updates. */
+    private final MatrixMultiplyOptions options;
+    /** The \(L_1\) norm of the matrix whose decomposition is being computed (used for condition number estimation). */
+    private final double l1Norm;
 
     /** An integer holding the pivot sign. Its computeValue is {@code 1} for positive sign and {@code -1} for negative sign. */
     private int pivotSign;
@@ -31,14 +45,38 @@ public class LUDecomposition {
 
     /**
      * Constructs an LU decomposition object for the provided matrix. The actual decomposition is computed within this
-     * constructor using Crout's algorithm.
+     * constructor using the blocked algorithm and {@link MatrixMultiplyOptions#DEFAULT}.
      *
      * @param   matrix  The matrix whose LU decomposition is being computed.
      */
     public LUDecomposition(Matrix matrix) {
-        LU = matrix.getArrayCopy();
+        this(matrix, MatrixMultiplyOptions.DEFAULT);
+    }
+
+    /**
+     * Constructs an LU decomposition object for the provided matrix, using the provided options for the block updates
+     * (e.g., in order to limit the number of threads used). The actual decomposition is computed within this
+     * constructor.
+     *
+     * @param   matrix  The matrix whose LU decomposition is being computed.
+     * @param   options The options to use for the block updates.
+     */
+    public LUDecomposition(Matrix matrix, MatrixMultiplyOptions options) {
+        LU = matrix.getRowPackedArrayCopy();
         rowDimension = matrix.getRowDimension();
         columnDimension = matrix.getColumnDimension();
+        double[] columnSums = new double[columnDimension];
+        for (int i = 0; i < rowDimension; i++) {
+            for (int j = 0; j < columnDimension; j++) {
+                columnSums[j] += Math.abs(LU[i * columnDimension + j]);
+            }
+        }
+        double maximumColumnSum = 0;
+        for (double columnSum : columnSums) {
+            maximumColumnSum = Math.max(maximumColumnSum, columnSum);
+        }
+        l1Norm = maximumColumnSum;
+        this.options = options;
         pivot = new int[rowDimension];
         for (int i = 0; i < rowDimension; i++) {
             pivot[i] = i;
@@ -46,47 +84,112 @@ public class LUDecomposition {
         pivotSign = 1;
         isNonSingular = true;
 
+        Matrix factors = Matrix.wrap(LU, rowDimension, columnDimension);
+        int numberOfSteps = Math.min(rowDimension, columnDimension);
+        for (int j0 = 0; j0 < numberOfSteps; j0 += BLOCK_SIZE) {
+            int jb = Math.min(BLOCK_SIZE, numberOfSteps - j0);
+            factorPanel(j0, jb);
+            int trailingRowIndex = j0 + jb;
+            int trailingColumnIndex = j0 + jb;
+            int trailingColumnDimension = columnDimension - trailingColumnIndex;
+            if (trailingColumnDimension == 0)
+                continue;
+            solveBlockRow(j0, jb, trailingColumnIndex);
+            // Schur complement update: A22 = A22 - L21 U12.
+            MatrixMultiplication.gemm(false, false,
+                                      rowDimension - trailingRowIndex, trailingColumnDimension, jb,
+                                      -1, factors, trailingRowIndex, j0, factors, j0, trailingColumnIndex,
+                                      1, factors, trailingRowIndex, trailingColumnIndex, options);
+        }
         for (int j = 0; j < columnDimension; j++) {
-            // Apply previous transformations.
-            for (int i = 0; i < rowDimension; i++) {
-                int maximumDimension = Math.min(i, j);
-                double temporarySum = 0.0;
-                for (int k = 0; k < maximumDimension; k++) {
-                    temporarySum += LU[i][k] * LU[k][j];
-                }
-                LU[i][j] -= temporarySum;
-                LU[i][j] = LU[i][j];
+            if (j >= rowDimension || LU[j * columnDimension + j] == 0) {
+                isNonSingular = false;
+                break;
             }
+        }
+    }
+
+    /**
+     * Factors the panel that starts at the provided column with partial pivoting, using an unblocked right-looking
+     * kernel. The updates are only applied to the columns of the panel, but whole rows are swapped.
+     *
+     * @param   j0  The index of the first column of the panel.
+     * @param   jb  The number of columns of the panel.
+     */
+    private void factorPanel(int j0, int jb) {
+        for (int j = j0; j < j0 + jb; j++) {
             // Find pivot and exchange if necessary.
             int p = j;
+            double maximumAbsoluteValue = Math.abs(LU[j * columnDimension + j]);
             for (int i = j + 1; i < rowDimension; i++) {
-                if (Math.abs(LU[i][j]) > Math.abs(LU[p][j])) {
+                double absoluteValue = Math.abs(LU[i * columnDimension + j]);
+                if (absoluteValue > maximumAbsoluteValue) {
+                    maximumAbsoluteValue = absoluteValue;
                     p = i;
                 }
             }
             if (p != j) {
+                int rowP = p * columnDimension;
+                int rowJ = j * columnDimension;
                 for (int k = 0; k < columnDimension; k++) {
-                    double temporaryExchangeVariable = LU[p][k];
-                    LU[p][k] = LU[j][k];
-                    LU[j][k] = temporaryExchangeVariable;
+                    double temporaryExchangeVariable = LU[rowP + k];
+                    LU[rowP + k] = LU[rowJ + k];
+                    LU[rowJ + k] = temporaryExchangeVariable;
                 }
                 int temporaryExchangeVariable = pivot[p];
                 pivot[p] = pivot[j];
                 pivot[j] = temporaryExchangeVariable;
                 pivotSign = -pivotSign;
             }
-            // Compute the multipliers.
-            if (j < rowDimension & LU[j][j] != 0.0) {
-                for (int i = j + 1; i < rowDimension; i++) {
-                    LU[i][j] /= LU[j][j];
+            // Compute the multipliers and update the remaining columns of the panel.
+            int rowJ = j * columnDimension;
+            double pivotValue = LU[rowJ + j];
+            if (pivotValue == 0.0)
+                continue;
+            for (int i = j + 1; i < rowDimension; i++) {
+                int rowI = i * columnDimension;
+                double multiplier = LU[rowI + j] /= pivotValue;
+                if (multiplier == 0.0)
+                    continue;
+                for (int k = j + 1; k < j0 + jb; k++) {
+                    LU[rowI + k] -= multiplier * LU[rowJ + k];
                 }
             }
-            if (LU[j][j] == 0) {
-                isNonSingular = false;
-            }
         }
     }
 
+    /**
+     * Computes the block row of \(U\) to the right of a factored panel, by solving \(L_{11}U_{12}=A_{12}\) in place,
+     * where \(L_{11}\) is the unit lower triangular diagonal block of the panel. The columns are split in chunks that
+     * are processed in parallel.
+     *
+     * @param   j0                  The index of the first row and column of the diagonal block.
+     * @param   jb                  The dimension of the diagonal block.
+     * @param   trailingColumnIndex The index of the first column of the block row.
+     */
+    private void solveBlockRow(int j0, int jb, int trailingColumnIndex) {
+        int numberOfChunks = (columnDimension - trailingColumnIndex + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long numberOfOperations = (long) jb * jb * (columnDimension - trailingColumnIndex) / 2;
+        int numberOfThreads = numberOfOperations < options.getParallelismThreshold() ?
+                1 : options.getMaximumNumberOfThreads();
+        MatrixMultiplication.parallelFor(numberOfChunks, numberOfThreads, options, chunk -> {
+            int from = trailingColumnIndex + chunk * BLOCK_SIZE;
+            int to = Math.min(from + BLOCK_SIZE, columnDimension);
+            for (int i = j0 + 1; i < j0 + jb; i++) {
+                int rowI = i * columnDimension;
+                for (int p = j0; p < i; p++) {
+                    double lIP = LU[rowI + p];
+                    if (lIP == 0.0)
+                        continue;
+                    int rowP = p * columnDimension;
+                    for (int k = from; k < to; k++) {
+                        LU[rowI + k] -= lIP * LU[rowP + k];
+                    }
+                }
+            }
+        });
+    }
+
     /**
      * Solves the linear system of equations \(A\boldsymbol{x}=\boldsymbol{b}\) for \(\boldsymbol{x}\) and returns the
      * result as a new vector. The solution is obtained efficiently by using the LU decomposition.
@@ -98,26 +201,69 @@ public class LUDecomposition {
         if (vector.size() != rowDimension) {
             throw new IllegalArgumentException("Matrix row and vector dimensions must agree.");
         }
-        if (!isNonSingular) {
-            throw new SingularMatrixException(
-                    "Singular matrix! A solution cannot be obtained using the LU decomposition!"
-            );
+        checkNonSingular();
+        double[] x = new double[rowDimension];
+        for (int i = 0; i < rowDimension; i++) {
+            x[i] = vector.get(pivot[i]);
         }
-        Vector resultVector = vector.get(pivot);
+        solveTriangularSystems(x);
+        return AbstractMatrix.buildVector(x, vector.type());
+    }
+
+    /**
+     * Solves the triangular systems \(LY=B(pivot,:)\) and \(UX=Y\) in place, for a single right-hand side that has
+     * already been permuted.
+     *
+     * @param   x   The permuted right-hand side, which is overwritten by the solution.
+     */
+    private void solveTriangularSystems(double[] x) {
         // Solve \(LY=B(pivot,:)\).
-        for (int k = 0; k < columnDimension; k++) {
-            for (int i = k + 1; i < columnDimension; i++) {
-                resultVector.set(i, resultVector.get(i) - resultVector.get(k) * LU[i][k]);
+        for (int i = 1; i < columnDimension; i++) {
+            int rowI = i * columnDimension;
+            double sum = x[i];
+            for (int k = 0; k < i; k++) {
+                sum -= LU[rowI + k] * x[k];
             }
+            x[i] = sum;
         }
         // Solve \(UX=Y\).
         for (int k = columnDimension - 1; k >= 0; k--) {
-            resultVector.set(k, resultVector.get(k) / LU[k][k]);
+            int rowK = k * columnDimension;
+            double sum = x[k];
+            for (int i = k + 1; i < columnDimension; i++) {
+                sum -= LU[rowK + i] * x[i];
+            }
+            x[k] = sum / LU[rowK + k];
+        }
+    }
+
+    /**
+     * Solves the linear system of equations \(A^T\boldsymbol{x}=\boldsymbol{b}\) in place, by solving
+     * \(U^TY=B\) and \(L^TZ=Y\) and then permuting the result. The factors are accessed by row and so both
+     * substitutions are column-oriented.
+     *
+     * @param   x   Vector \(\boldsymbol{b}\), which is overwritten by the solution.
+     */
+    private void solveTransposedInPlace(double[] x) {
+        for (int k = 0; k < columnDimension; k++) {
+            int rowK = k * columnDimension;
+            x[k] /= LU[rowK + k];
+            double xK = x[k];
+            for (int i = k + 1; i < columnDimension; i++) {
+                x[i] -= LU[rowK + i] * xK;
+            }
+        }
+        for (int k = columnDimension - 1; k > 0; k--) {
+            int rowK = k * columnDimension;
+            double xK = x[k];
             for (int i = 0; i < k; i++) {
-                resultVector.set(i, resultVector.get(i) - resultVector.get(k) * LU[i][k]);
+                x[i] -= LU[rowK + i] * xK;
             }
         }
-        return resultVector;
+        double[] permuted = x.clone();
+        for (int i = 0; i < rowDimension; i++) {
+            x[pivot[i]] = permuted[i];
+        }
     }
 
     /**
@@ -131,34 +277,113 @@ public class LUDecomposition {
         if (matrix.getRowDimension() != rowDimension) {
             throw new IllegalArgumentException("Matrix row dimensions must agree.");
         }
-        if (!isNonSingular) {
-            throw new SingularMatrixException(
-                    "Singular matrix! A solution cannot be obtained using the LU decomposition!"
-            );
-        }
+        checkNonSingular();
         int resultMatrixColumnDimension = matrix.getColumnDimension();
-        Matrix resultMatrix = matrix.getSubMatrix(pivot, 0, resultMatrixColumnDimension - 1);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        double[] matrixArray = matrix.getRowPackedArrayCopy();
+        double[] resultArray = new double[rowDimension * resultMatrixColumnDimension];
+        for (int i = 0; i < rowDimension; i++) {
+            System.arraycopy(matrixArray, pivot[i] * resultMatrixColumnDimension,
+                             resultArray, i * resultMatrixColumnDimension,
+                             resultMatrixColumnDimension);
+        }
+        Matrix resultMatrix = Matrix.wrap(resultArray, rowDimension, resultMatrixColumnDimension);
+        solveTriangularSystems(resultMatrix);
+        return resultMatrix;
+    }
+
+    /**
+     * Solves the linear system of equations \(AX=B\) for \(X\) in place, without allocating a new matrix for the
+     * solution. The rows of the provided array are first re-ordered according to the pivot vector (by exchanging the
+     * row references, rather than copying the rows), and then they are overwritten with the solution.
+     *
+     * @param   rightHandSides  Matrix \(B\) in equation \(AX=B\), as an array of rows, which is overwritten with \(X\).
+     *
+     * @throws  IllegalArgumentException    The number of rows of the provided array must match the row dimension of
+     *                                      the matrix whose decomposition is being computed and all its rows must
+     *                                      have the same length.
+     */
+    public void solveInPlace(double[][] rightHandSides) throws SingularMatrixException {
+        if (rightHandSides.length != rowDimension) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        checkNonSingular();
+        if (rowDimension == 0)
+            return;
+        double[][] permutedRows = new double[rowDimension][];
+        for (int i = 0; i < rowDimension; i++) {
+            permutedRows[i] = rightHandSides[pivot[i]];
+        }
+        System.arraycopy(permutedRows, 0, rightHandSides, 0, rowDimension);
+        solveTriangularSystems(new Matrix(rightHandSides, false));
+    }
+
+    /**
+     * Solves \(LUX=B\) in place, where the provided matrix holds \(B\) with its rows already re-ordered according to
+     * the pivot vector. Both triangular solves are blocked: the contribution of all previously solved block rows to the
+     * current block row is subtracted with a single matrix multiplication and only the small triangular solves with
+     * the diagonal blocks of the factors are performed row by row.
+     *
+     * @param   x   The matrix holding \(B\), which is overwritten with \(X\).
+     */
+    private void solveTriangularSystems(Matrix x) {
+        Matrix factors = Matrix.wrap(LU, rowDimension, columnDimension);
+        int numberOfColumns = x.getColumnDimension();
         // Solve \(LY=B(pivot,:)\).
-        for (int k = 0; k < columnDimension; k++) {
-            for (int i = k + 1; i < columnDimension; i++) {
-                for (int j = 0; j < resultMatrixColumnDimension; j++) {
-                    resultMatrixArray[i][j] -= resultMatrixArray[k][j] * LU[i][k];
+        for (int k0 = 0; k0 < columnDimension; k0 += BLOCK_SIZE) {
+            int kb = Math.min(BLOCK_SIZE, columnDimension - k0);
+            MatrixMultiplication.gemm(false, false, kb, numberOfColumns, k0,
+                                      -1, factors, k0, 0, x, 0, 0, 1, x, k0, 0, options);
+            for (int k = k0 + 1; k < k0 + kb; k++) {
+                double[] xRowK = x.rowArray(k);
+                int xRowKOffset = x.rowOffset(k);
+                int rowK = k * columnDimension;
+                for (int i = k0; i < k; i++) {
+                    double lKI = LU[rowK + i];
+                    double[] xRowI = x.rowArray(i);
+                    int xRowIOffset = x.rowOffset(i);
+                    for (int j = 0; j < numberOfColumns; j++) {
+                        xRowK[xRowKOffset + j] -= lKI * xRowI[xRowIOffset + j];
+                    }
                 }
             }
         }
         // Solve \(UX=Y\).
-        for (int k = columnDimension - 1; k >= 0; k--) {
-            for (int j = 0; j < resultMatrixColumnDimension; j++) {
-                resultMatrixArray[k][j] /= LU[k][k];
-            }
-            for (int i = 0; i < k; i++) {
-                for (int j = 0; j < resultMatrixColumnDimension; j++) {
-                    resultMatrixArray[i][j] -= resultMatrixArray[k][j] * LU[i][k];
+        int lastBlockStart = columnDimension == 0 ? -1 : (columnDimension - 1) / BLOCK_SIZE * BLOCK_SIZE;
+        for (int k0 = lastBlockStart; k0 >= 0; k0 -= BLOCK_SIZE) {
+            int kb = Math.min(BLOCK_SIZE, columnDimension - k0);
+            MatrixMultiplication.gemm(false, false, kb, numberOfColumns, columnDimension - k0 - kb,
+                                      -1, factors, k0, k0 + kb, x, k0 + kb, 0, 1, x, k0, 0, options);
+            for (int k = k0 + kb - 1; k >= k0; k--) {
+                double[] xRowK = x.rowArray(k);
+                int xRowKOffset = x.rowOffset(k);
+                int rowK = k * columnDimension;
+                for (int i = k + 1; i < k0 + kb; i++) {
+                    double uKI = LU[rowK + i];
+                    double[] xRowI = x.rowArray(i);
+                    int xRowIOffset = x.rowOffset(i);
+                    for (int j = 0; j < numberOfColumns; j++) {
+                        xRowK[xRowKOffset + j] -= uKI * xRowI[xRowIOffset + j];
+                    }
+                }
+                double uKK = LU[rowK + k];
+                for (int j = 0; j < numberOfColumns; j++) {
+                    xRowK[xRowKOffset + j] /= uKK;
                 }
             }
         }
-        return resultMatrix;
+    }
+
+    /**
+     * Checks whether the decomposition can be used to solve linear systems of equations.
+     *
+     * @throws  SingularMatrixException If the decomposed matrix is singular.
+     */
+    private void checkNonSingular() throws SingularMatrixException {
+        if (!isNonSingular) {
+            throw new SingularMatrixException(
+                    "Singular matrix! A solution cannot be obtained using the LU decomposition!"
+            );
+        }
     }
 
     /**
@@ -167,18 +392,14 @@ public class LUDecomposition {
      * @return  The lower triangular factor, \(L\), as a new matrix.
      */
     public Matrix getL() {
-        Matrix L = new Matrix(rowDimension, columnDimension);
-        double[][] lArray = L.getArray();
+        int lColumnDimension = Math.min(rowDimension, columnDimension);
+        double[] lArray = new double[rowDimension * lColumnDimension];
         for (int i = 0; i < rowDimension; i++) {
-            for (int j = 0; j <= i; j++) {
-                if (i == j) {
-                    lArray[i][j] = 1.0;
-                } else {
-                    lArray[i][j] = LU[i][j];
-                }
+            for (int j = 0; j <= Math.min(i, lColumnDimension - 1); j++) {
+                lArray[i * lColumnDimension + j] = i == j ? 1.0 : LU[i * columnDimension + j];
             }
         }
-        return L;
+        return Matrix.wrap(lArray, rowDimension, lColumnDimension);
     }
 
     /**
@@ -187,12 +408,12 @@ public class LUDecomposition {
      * @return  The upper triangular factor, \(U\), as a new matrix.
      */
     public Matrix getU() {
-        Matrix U = new Matrix(rowDimension, columnDimension);
-        double[][] uArray = U.getArray();
-        for (int i = 0; i < columnDimension; i++) {
-            System.arraycopy(LU[i], i, uArray[i], i, columnDimension - i);
+        int uRowDimension = Math.min(rowDimension, columnDimension);
+        double[] uArray = new double[uRowDimension * columnDimension];
+        for (int i = 0; i < uRowDimension; i++) {
+            System.arraycopy(LU, i * columnDimension + i, uArray, i * columnDimension + i, columnDimension - i);
         }
-        return U;
+        return Matrix.wrap(uArray, uRowDimension, columnDimension);
     }
 
     /**
@@ -215,11 +436,42 @@ public class LUDecomposition {
         }
         double determinant = (double) pivotSign;
         for (int j = 0; j < columnDimension; j++) {
-            determinant *= LU[j][j];
+            determinant *= LU[j * columnDimension + j];
         }
         return determinant;
     }
 
+    /**
+     * Estimates the \(L_1\) condition number of the matrix whose decomposition is being computed, \(A\) (i.e.,
+     * \(\kappa_1(A)=\|A\|_1\|A^{-1}\|_1\)), using Hager's algorithm, as refined by Higham, in order to estimate
+     * \(\|A^{-1}\|_1\). The estimate only requires a few solves with \(A\) and \(A^T\) using the existing factors
+     * and so it costs \(O(n^2)\) operations, rather than the \(O(n^3)\) operations required in order to form
+     * \(A^{-1}\). The estimate is a lower bound for the actual condition number and it is almost always within a factor
+     * of 3 of it. The \(L_1\) and \(L_2\) condition numbers of a matrix are always within a factor of \(n\) of
+     * each other.
+     *
+     * @return  The estimate of the \(L_1\) condition number, or {@link Double#POSITIVE_INFINITY} if the matrix is
+     *          singular.
+     *
+     * @throws  IllegalArgumentException    The matrix must be square.
+     */
+    public double estimateConditionNumber() {
+        if (rowDimension != columnDimension) {
+            throw new IllegalArgumentException("Matrix must be square.");
+        }
+        if (!isNonSingular) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double inverseL1Norm = NormEstimators.estimateL1Norm(rowDimension, x -> {
+            double[] b = x.clone();
+            for (int i = 0; i < rowDimension; i++) {
+                x[i] = b[pivot[i]];
+            }
+            solveTriangularSystems(x);
+        }, this::solveTransposedInPlace);
+        return l1Norm * inverseL1Norm;
+    }
+
     /**
      * Gets the boolean computeValue indicating whether or not the matrix whose decomposition is being computed is
      * non-singular.
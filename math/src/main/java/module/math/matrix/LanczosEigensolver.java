@@ -0,0 +1,348 @@
+package module.math.matrix;
+
+import module.utilities.MathUtilities;
+
+import java.util.Random;
+
+/**
+ * Computes a few extreme eigenvalues (and the corresponding eigenvectors) of a symmetric linear operator,
+ * \(A\in\mathbb{R}^{n\times n}\), using the Lanczos algorithm. The operator is only accessed through products with
+ * vectors and so it can be a dense matrix, a sparse matrix, or any other {@link LinearOperator} (e.g., a Hessian that
+ * is only available through Hessian-vector products). After \(s\) steps, the algorithm has built an orthonormal basis,
+ * \(Q_s\), of the Krylov subspace \(\mathrm{span}\{\boldsymbol{q}_0,A\boldsymbol{q}_0,\hdots,A^{s-1}\boldsymbol{q}_0\}\)
+ * and the tridiagonal matrix \(T_s=Q_s^TAQ_s\). The eigenvalues of \(T_s\) (i.e., the Ritz values) approximate the
+ * extreme eigenvalues of \(A\) very quickly and the residual norm of each Ritz pair is obtained cheaply from the last
+ * components of the eigenvectors of \(T_s\), which are computed using
+ * {@link SymmetricEigenDecomposition#computeTridiagonalEigenDecomposition(double[], double[], double[][])}. The Lanczos
+ * vectors are fully reorthogonalized, so that no spurious copies of converged eigenvalues appear, and the iteration
+ * stops as soon as the requested eigenvalues have converged. The starting vector is random, but the random number
+ * generator can be seeded through the {@link Builder}.
+ *
+ * Each step requires one product of the operator with a vector and \(O(sn)\) operations for the reorthogonalization,
+ * and so the largest and smallest eigenvalues (e.g., the Lipschitz constant of the gradient and the strong convexity
+ * constant of a quadratic function, given its Hessian) can be estimated in a small fraction of the time required by
+ * {@link SymmetricEigenDecomposition}.
+ *
+ * @author Andriy Chekhovych
+ */
+public class LanczosEigensolver {
+    /** Default maximum number of Lanczos steps (unless the dimension of the operator is smaller). */
+    private static final int DEFAULT_MAXIMUM_NUMBER_OF_STEPS = 100;
+    /** Default relative tolerance for the residual norms of the Ritz pairs. */
+    private static final double DEFAULT_TOLERANCE = 1e-10;
+
+    /** Enumeration of the parts of the spectrum that can be computed. */
+    public enum Part {
+        /** The algebraically largest eigenvalues, in descending order. */
+        LARGEST,
+        /** The algebraically smallest eigenvalues, in ascending order. */
+        SMALLEST
+    }
+
+    /** The computed eigenvalues, ordered as specified by the requested part of the spectrum. */
+    private final double[] eigenvalues;
+    /** The computed eigenvectors, stored by row. */
+    private final double[][] eigenvectors;
+    /** The residual norms, \(\|A\boldsymbol{v}_i-\lambda_i\boldsymbol{v}_i\|\), of the computed eigenpairs. */
+    private final double[] residualNorms;
+    /** The number of Lanczos steps performed (i.e., the number of products of the operator with vectors). */
+    private final int numberOfSteps;
+    /** A boolean value indicating whether all the computed eigenpairs have converged. */
+    private final boolean converged;
+
+    /** Builder class for Lanczos eigensolvers. */
+    public static final class Builder {
+        private final LinearOperator operator;
+
+        private int numberOfEigenvalues = 1;
+        private Part part = Part.LARGEST;
+        private int maximumNumberOfSteps;
+        private double tolerance = DEFAULT_TOLERANCE;
+        private Random random = new Random();
+
+        /**
+         * Constructs a builder for a Lanczos eigensolver for the provided operator.
+         *
+         * @param   operator    The symmetric operator whose eigenvalues are being computed.
+         *
+         * @throws  IllegalArgumentException    The operator must be square.
+         */
+        public Builder(LinearOperator operator) {
+            if (operator.getRowDimension() != operator.getColumnDimension())
+                throw new IllegalArgumentException("The operator has to be square.");
+            this.operator = operator;
+            maximumNumberOfSteps = Math.min(operator.getRowDimension(), DEFAULT_MAXIMUM_NUMBER_OF_STEPS);
+        }
+
+        /**
+         * Sets the number of eigenvalues to compute. One eigenvalue is computed by default.
+         *
+         * @param   numberOfEigenvalues The number of eigenvalues to compute.
+         * @return                      This builder.
+         *
+         * @throws  IllegalArgumentException    The number of eigenvalues must be positive and not greater than the
+         *                                      dimension of the operator.
+         */
+        public Builder numberOfEigenvalues(int numberOfEigenvalues) {
+            if (numberOfEigenvalues < 1 || numberOfEigenvalues > operator.getRowDimension())
+                throw new IllegalArgumentException("The number of eigenvalues must be positive and not greater than "
+                                                           + "the dimension of the operator.");
+            this.numberOfEigenvalues = numberOfEigenvalues;
+            maximumNumberOfSteps = Math.max(maximumNumberOfSteps,
+                                            Math.min(operator.getRowDimension(), 2 * numberOfEigenvalues));
+            return this;
+        }
+
+        /**
+         * Sets the part of the spectrum to compute. The largest eigenvalues are computed by default.
+         *
+         * @param   part    The part of the spectrum to compute.
+         * @return          This builder.
+         */
+        public Builder part(Part part) {
+            this.part = part;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of Lanczos steps. The Lanczos vectors are stored and so this also bounds the memory
+         * used by the solver. The default is the smallest of 100 and the dimension of the operator.
+         *
+         * @param   maximumNumberOfSteps    The maximum number of Lanczos steps.
+         * @return                          This builder.
+         *
+         * @throws  IllegalArgumentException    The maximum number of steps must be positive.
+         */
+        public Builder maximumNumberOfSteps(int maximumNumberOfSteps) {
+            if (maximumNumberOfSteps < 1)
+                throw new IllegalArgumentException("The maximum number of steps must be positive.");
+            this.maximumNumberOfSteps = Math.min(operator.getRowDimension(), maximumNumberOfSteps);
+            return this;
+        }
+
+        /**
+         * Sets the relative tolerance for the residual norms of the computed eigenpairs. An eigenpair has converged
+         * when its residual norm is not greater than the tolerance times the largest absolute value of the Ritz values.
+         *
+         * @param   tolerance   The relative tolerance (must be non-negative).
+         * @return              This builder.
+         *
+         * @throws  IllegalArgumentException    The tolerance must be non-negative.
+         */
+        public Builder tolerance(double tolerance) {
+            if (tolerance < 0)
+                throw new IllegalArgumentException("The tolerance must be non-negative.");
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Sets the random number generator used for the starting vector (e.g., in order to make the solver
+         * reproducible).
+         *
+         * @param   random  The random number generator to use.
+         * @return          This builder.
+         */
+        public Builder random(Random random) {
+            this.random = random;
+            return this;
+        }
+
+        /**
+         * Builds the eigensolver and computes the requested eigenvalues and eigenvectors.
+         *
+         * @return  The eigensolver, holding the computed eigenvalues and eigenvectors.
+         */
+        public LanczosEigensolver build() {
+            return new LanczosEigensolver(this);
+        }
+    }
+
+    private LanczosEigensolver(Builder builder) {
+        LinearOperator operator = builder.operator;
+        int n = operator.getRowDimension();
+        int k = builder.numberOfEigenvalues;
+        int maximumNumberOfSteps = Math.max(builder.maximumNumberOfSteps, k);
+        double[] basis = new double[maximumNumberOfSteps * n];
+        double[] alpha = new double[maximumNumberOfSteps];
+        double[] beta = new double[maximumNumberOfSteps];
+        double breakdownTolerance = MathUtilities.computeMachineEpsilonDouble() * n;
+        double normEstimate = 0;
+        DenseVector q = new DenseVector(n);
+        DenseVector w = new DenseVector(n);
+        SingularValueDecomposition.fillWithRandomUnitVector(q.array, basis, 0, n, builder.random);
+        int s = 0;
+        boolean hasConverged = false;
+        while (s < maximumNumberOfSteps) {
+            System.arraycopy(q.array, 0, basis, s * n, n);
+            multiply(operator, q, w);
+            double innerProduct = 0;
+            for (int i = 0; i < n; i++)
+                innerProduct += q.array[i] * w.array[i];
+            alpha[s] = innerProduct;
+            // Full reorthogonalization against all the Lanczos vectors (which also removes the alpha and beta terms).
+            beta[s] = SingularValueDecomposition.orthogonalize(w.array, basis, s + 1, n);
+            normEstimate = Math.max(normEstimate, Math.abs(alpha[s]) + beta[s]);
+            s++;
+            if (s >= k && haveRitzPairsConverged(alpha, beta, s, k, builder.part, builder.tolerance)) {
+                hasConverged = true;
+                break;
+            }
+            if (s == maximumNumberOfSteps)
+                break;
+            if (beta[s - 1] <= breakdownTolerance * normEstimate) {
+                // An invariant subspace has been found and so the process is restarted with a new random vector.
+                beta[s - 1] = 0;
+                SingularValueDecomposition.fillWithRandomUnitVector(q.array, basis, s, n, builder.random);
+            } else {
+                for (int i = 0; i < n; i++)
+                    q.array[i] = w.array[i] / beta[s - 1];
+            }
+        }
+        numberOfSteps = s;
+        converged = hasConverged;
+
+        // Compute the Ritz vectors of the requested eigenvalues.
+        double[] d = new double[s];
+        double[] e = new double[s];
+        System.arraycopy(alpha, 0, d, 0, s);
+        System.arraycopy(beta, 0, e, 1, s - 1);
+        double[][] Z = new double[s][s];
+        for (int i = 0; i < s; i++)
+            Z[i][i] = 1;
+        SymmetricEigenDecomposition.computeTridiagonalEigenDecomposition(d, e, Z);
+        eigenvalues = new double[k];
+        eigenvectors = new double[k][n];
+        residualNorms = new double[k];
+        for (int r = 0; r < k; r++) {
+            int index = builder.part == Part.LARGEST ? s - 1 - r : r;
+            eigenvalues[r] = d[index];
+            residualNorms[r] = Math.abs(beta[s - 1] * Z[index][s - 1]);
+            double[] eigenvector = eigenvectors[r];
+            for (int j = 0; j < s; j++) {
+                double coefficient = Z[index][j];
+                for (int i = 0, offset = j * n; i < n; i++)
+                    eigenvector[i] += coefficient * basis[offset + i];
+            }
+        }
+    }
+
+    /**
+     * Multiplies the provided operator with the provided vector, storing the result in the provided vector and avoiding
+     * the allocation of a new vector for matrices.
+     *
+     * @param   operator        The operator.
+     * @param   vector          The vector with which to multiply the operator.
+     * @param   resultVector    The vector in which to store the result.
+     */
+    private static void multiply(LinearOperator operator, DenseVector vector, DenseVector resultVector) {
+        if (operator instanceof AbstractMatrix)
+            ((AbstractMatrix) operator).multiply(vector, resultVector.array, 0);
+        else
+            operator.apply(vector, resultVector);
+    }
+
+    /**
+     * Computes the eigenvalues of the current tridiagonal matrix, along with the last components of its eigenvectors,
+     * and checks whether the residual norms of the requested Ritz pairs are small enough.
+     *
+     * @param   alpha       The diagonal of the tridiagonal matrix.
+     * @param   beta        The sub-diagonal of the tridiagonal matrix, followed by the norm of the current residual.
+     * @param   s           The dimension of the tridiagonal matrix.
+     * @param   k           The number of requested eigenvalues.
+     * @param   part        The requested part of the spectrum.
+     * @param   tolerance   The relative tolerance for the residual norms.
+     * @return              {@code true} if the requested Ritz pairs have converged and {@code false} otherwise.
+     */
+    private static boolean haveRitzPairsConverged(double[] alpha,
+                                                  double[] beta,
+                                                  int s,
+                                                  int k,
+                                                  Part part,
+                                                  double tolerance) {
+        double[] d = new double[s];
+        double[] e = new double[s];
+        System.arraycopy(alpha, 0, d, 0, s);
+        System.arraycopy(beta, 0, e, 1, s - 1);
+        // Only the last component of each eigenvector is needed for the residual norms.
+        double[][] lastComponents = new double[s][1];
+        lastComponents[s - 1][0] = 1;
+        SymmetricEigenDecomposition.computeTridiagonalEigenDecomposition(d, e, lastComponents);
+        double largestAbsoluteValue = Math.max(Math.abs(d[0]), Math.abs(d[s - 1]));
+        for (int r = 0; r < k; r++) {
+            int index = part == Part.LARGEST ? s - 1 - r : r;
+            if (Math.abs(beta[s - 1] * lastComponents[index][0]) > tolerance * largestAbsoluteValue)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the computed eigenvalues, in descending order for {@link Part#LARGEST} and in ascending order for
+     * {@link Part#SMALLEST}.
+     *
+     * @return  A one-dimensional array containing the computed eigenvalues.
+     */
+    public double[] getEigenvalues() {
+        return eigenvalues.clone();
+    }
+
+    /**
+     * Gets the computed eigenvector that corresponds to the eigenvalue with the provided index (in the order returned by
+     * {@link #getEigenvalues()}).
+     *
+     * @param   index   The index of the eigenvalue.
+     * @return          The eigenvector as a new vector.
+     *
+     * @throws  ArrayIndexOutOfBoundsException  The provided index is out of bounds.
+     */
+    public Vector getEigenvector(int index) {
+        if (index < 0 || index >= eigenvalues.length)
+            throw new ArrayIndexOutOfBoundsException("The provided index is out of bounds.");
+        return Vectors.dense(eigenvectors[index]);
+    }
+
+    /**
+     * Gets the computed eigenvectors as the columns of a new matrix (in the order returned by
+     * {@link #getEigenvalues()}).
+     *
+     * @return  The \(n\times k\) matrix whose columns are the computed eigenvectors.
+     */
+    public Matrix getEigenvectors() {
+        int n = eigenvectors.length == 0 ? 0 : eigenvectors[0].length;
+        double[] array = new double[n * eigenvalues.length];
+        for (int r = 0; r < eigenvalues.length; r++)
+            for (int i = 0; i < n; i++)
+                array[i * eigenvalues.length + r] = eigenvectors[r][i];
+        return Matrix.wrap(array, n, eigenvalues.length);
+    }
+
+    /**
+     * Gets the residual norms, \(\|A\boldsymbol{v}_i-\lambda_i\boldsymbol{v}_i\|\), of the computed eigenpairs. Since
+     * the operator is symmetric, each computed eigenvalue is within its residual norm of an actual eigenvalue.
+     *
+     * @return  A one-dimensional array containing the residual norms.
+     */
+    public double[] getResidualNorms() {
+        return residualNorms.clone();
+    }
+
+    /**
+     * Gets the number of Lanczos steps performed (i.e., the number of products of the operator with vectors).
+     *
+     * @return  The number of Lanczos steps performed.
+     */
+    public int getNumberOfSteps() {
+        return numberOfSteps;
+    }
+
+    /**
+     * Gets the boolean value indicating whether all the computed eigenpairs have converged to the requested tolerance
+     * (as opposed to the maximum number of steps having been reached).
+     *
+     * @return  A boolean value indicating whether all the computed eigenpairs have converged.
+     */
+    public boolean hasConverged() {
+        return converged;
+    }
+}
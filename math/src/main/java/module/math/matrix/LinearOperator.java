@@ -0,0 +1,98 @@
+package module.math.matrix;
+
+/**
+ * Represents a linear operator \(A\), which maps vectors of size equal to its column dimension to vectors of size equal
+ * to its row dimension, and which is only accessed through its products with vectors (i.e., \(Ax\) and \(A^Tx\)). All
+ * matrices are linear operators, but linear operators do not need to store their elements explicitly. For example,
+ * the normal equations operator \(J^TJ\) can be applied as \(J^T(Jx)\), without ever forming \(J^TJ\), and
+ * operators such as finite-difference Hessian-vector products or convolution stencils can be applied without storing
+ * any matrix at all. Iterative solvers, such as the conjugate gradient solver, only need to apply the operator and so
+ * they can accept any implementation of this interface.
+ *
+ * @author Andriy Chekhovych
+ */
+public interface LinearOperator {
+    /**
+     * Gets the row dimension of this operator (i.e., the size of the vectors it produces).
+     *
+     * @return  The row dimension of this operator.
+     */
+    int getRowDimension();
+
+    /**
+     * Gets the column dimension of this operator (i.e., the size of the vectors it is applied to).
+     *
+     * @return  The column dimension of this operator.
+     */
+    int getColumnDimension();
+
+    /**
+     * Applies this operator to the provided vector (i.e., computes \(Ax\)) and returns the result in a new vector.
+     *
+     * @param   vector  The vector to apply this operator to.
+     * @return          A new vector holding the result.
+     */
+    Vector apply(Vector vector);
+
+    /**
+     * Applies the transpose of this operator to the provided vector (i.e., computes \(A^Tx\)) and returns the result in
+     * a new vector.
+     *
+     * @param   vector  The vector to apply the transpose of this operator to.
+     * @return          A new vector holding the result.
+     *
+     * @throws  UnsupportedOperationException   If the transpose of this operator cannot be applied.
+     */
+    Vector applyTranspose(Vector vector);
+
+    /**
+     * Applies this operator to the provided vector and stores the result in the provided result vector, overwriting
+     * its contents. Implementations should override this method to avoid allocating memory when possible, since it is
+     * the method used by iterative solvers within their iterations.
+     *
+     * @param   vector          The vector to apply this operator to.
+     * @param   resultVector    The vector in which to store the result.
+     * @return                  The result vector.
+     */
+    default Vector apply(Vector vector, Vector resultVector) {
+        resultVector.set(apply(vector));
+        return resultVector;
+    }
+
+    /**
+     * Applies the transpose of this operator to the provided vector and stores the result in the provided result
+     * vector, overwriting its contents.
+     *
+     * @param   vector          The vector to apply the transpose of this operator to.
+     * @param   resultVector    The vector in which to store the result.
+     * @return                  The result vector.
+     *
+     * @throws  UnsupportedOperationException   If the transpose of this operator cannot be applied.
+     */
+    default Vector applyTranspose(Vector vector, Vector resultVector) {
+        resultVector.set(applyTranspose(vector));
+        return resultVector;
+    }
+
+    /**
+     * Gets a dense matrix holding the elements of this operator. The default implementation applies the operator to
+     * each of the standard basis vectors, which takes one operator application per column, and so it should only be
+     * used for small operators (e.g., when an explicit Hessian matrix is needed).
+     *
+     * @return  A dense matrix holding the elements of this operator.
+     */
+    default Matrix toDenseMatrix() {
+        int rowDimension = getRowDimension();
+        int columnDimension = getColumnDimension();
+        double[] data = new double[rowDimension * columnDimension];
+        Vector basisVector = Vectors.dense(columnDimension);
+        for (int j = 0; j < columnDimension; j++) {
+            basisVector.set(j, 1);
+            Vector column = apply(basisVector);
+            basisVector.set(j, 0);
+            for (int i = 0; i < rowDimension; i++)
+                data[i * columnDimension + j] = column.get(i);
+        }
+        return Matrix.wrap(data, rowDimension, columnDimension);
+    }
+}
@@ -2,29 +2,48 @@ package module.math.matrix;
 
 import module.utilities.MathUtilities;
 
-import java.util.function.Function;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
 
 /**
- * Implements a class representing matrices and supporting operations related to matrices. Matrices are stored in an
- * internal two-dimensional array.
+ * Implements a class representing matrices and supporting operations related to matrices. Matrices are stored either in
+ * an internal two-dimensional array (i.e., an array of rows), or in a flat one-dimensional array in row-major order,
+ * along with an offset and a leading dimension (i.e., the distance between the first elements of consecutive rows). The
+ * latter storage mode keeps all rows adjacent in memory and allows wrapping existing buffers without copying them (see
+ * {@link #wrap(double[], int, int)}). All operations are supported for both storage modes and the results of
+ * operations on matrices with flat storage also use flat storage. Views of contiguous blocks of a matrix, which share
+ * its storage, can be obtained using
+ * {@link #getSubMatrixView(int, int, int, int)}. Outer product updates and matrix-matrix product accumulations can be
+ * performed in place (see {@link #rankOneUpdateInPlace(double, Vector, Vector)},
+ * {@link #rankTwoUpdateInPlace(double, Vector, Vector, double, Vector, Vector)} and
+ * {@link #gemmAccumulate(double, Matrix, Matrix, double)}), without allocating any temporary matrices.
  *
  * TODO: Make the Matrix class serializable -- well, not exactly -- look at the Vector classes for details. We need a
  * constructor that takes a stream as input and a write to stream function, along with an equals() and a hashCode()
  * function.
  * TODO: Allow transposing all matrix arguments.
- * TODO: Implement the outer product update: A = A + xy^T.
- * TODO: Implement the matrix-matrix update: C = C + AB.
  *
  * @author Andriy Chekhovych
  */
-public class Matrix {
+public class Matrix extends AbstractMatrix {
     /** The row dimension of the matrix. */
     private final int rowDimension;
     /** The column dimension of the matrix. */
     private final int columnDimension;
 
-    /** Array for internal storage of the matrix elements. */
+    /** Array for internal storage of the matrix elements (null if the matrix uses flat storage). */
     private double[][] array;
+    /** Flat array for internal storage of the matrix elements, in row-major order (null if {@link #array} is used). */
+    private double[] data;
+    /** The index of the first matrix element in {@link #data}, or the index of the first element of each row in the
+     * arrays of {@link #array} (the latter is only nonzero for views of matrices that do not use flat storage). */
+    private int offset;
+    /** The distance in {@link #data} between the first elements of two consecutive rows. */
+    private int leadingDimension;
 
     //region Constructors
     /**
@@ -159,6 +178,40 @@ public class Matrix {
             }
         }
     }
+
+    /**
+     * Constructs a matrix with flat storage from a one-dimensional array quickly, without checking the arguments. The
+     * provided array is used as it is for the internal storage of this matrix.
+     *
+     * @param   data                One-dimensional array of doubles, holding the matrix elements in row-major order.
+     * @param   offset              The index of the first matrix element in {@code data}.
+     * @param   leadingDimension    The distance in {@code data} between the first elements of two consecutive rows.
+     * @param   rowDimension        The row dimension of the matrix to be created.
+     * @param   columnDimension     The column dimension of the matrix to be created.
+     */
+    private Matrix(double[] data, int offset, int leadingDimension, int rowDimension, int columnDimension) {
+        this.rowDimension = rowDimension;
+        this.columnDimension = columnDimension;
+        this.data = data;
+        this.offset = offset;
+        this.leadingDimension = leadingDimension;
+    }
+
+    /**
+     * Constructs a matrix that shares the provided row arrays, quickly and without checking the arguments. The elements
+     * of each row of the matrix start at index {@code columnOffset} of the corresponding row array.
+     *
+     * @param   array           Array holding the rows of the matrix.
+     * @param   columnOffset    The index of the first element of each row in the row arrays.
+     * @param   rowDimension    The row dimension of the matrix to be created.
+     * @param   columnDimension The column dimension of the matrix to be created.
+     */
+    private Matrix(double[][] array, int columnOffset, int rowDimension, int columnDimension) {
+        this.rowDimension = rowDimension;
+        this.columnDimension = columnDimension;
+        this.array = array;
+        offset = columnOffset;
+    }
     //endregion
 
     //region Getters, Setters and Other Such Methods
@@ -168,23 +221,92 @@ public class Matrix {
      * @return  A copy of this matrix.
      */
     public Matrix copy() {
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
-            System.arraycopy(array[i], 0, resultMatrixArray[i], 0, columnDimension);
+            System.arraycopy(rowArray(i), rowOffset(i), resultMatrix.rowArray(i), resultMatrix.rowOffset(i), columnDimension);
         }
         return resultMatrix;
     }
 
     /**
-     * Gets a pointer to the internal two-dimensional array.
+     * Returns this matrix, since it is already dense.
+     *
+     * @return  This matrix.
+     */
+    @Override
+    public Matrix toDenseMatrix() {
+        return this;
+    }
+
+    /**
+     * Gets a pointer to the internal two-dimensional array. Note that the rows of the returned array may be longer than
+     * the column dimension of this matrix, if this matrix is a view. If this matrix uses flat storage, or if it is a view
+     * that does not start at the first column of another matrix, then it has no such array and a new two-dimensional
+     * array holding a copy of its elements is returned instead (i.e., changes to the returned array are not reflected in
+     * this matrix, whose storage is left untouched). {@link #hasFlatStorage()}, {@link #getFlatArray()},
+     * {@link #getFlatArrayOffset()} and {@link #getLeadingDimension()} give direct access to flat storage, while
+     * {@link #getArrayCopy()} should be preferred when the returned array is only read.
      *
-     * @return  A pointer to the internal two-dimensional array.
+     * @return  A pointer to the internal two-dimensional array, or a copy of the elements of this matrix if it does not
+     *          have one.
      */
     public double[][] getArray() {
+        if (array == null || offset != 0)
+            return getArrayCopy();
         return array;
     }
 
+    /**
+     * Checks whether this matrix uses flat storage (i.e., a one-dimensional array holding its elements in row-major
+     * order), as opposed to a two-dimensional array.
+     *
+     * @return  {@code true} if this matrix uses flat storage and {@code false} otherwise.
+     */
+    public boolean hasFlatStorage() {
+        return array == null;
+    }
+
+    /**
+     * Gets a pointer to the internal flat array, if this matrix uses flat storage. The element at row \(i\) and column
+     * \(j\) is stored at index {@code getFlatArrayOffset() + i * getLeadingDimension() + j} of the returned array.
+     *
+     * @return  A pointer to the internal flat array, or {@code null} if this matrix does not use flat storage.
+     */
+    public double[] getFlatArray() {
+        return data;
+    }
+
+    /**
+     * Gets the index of the first element of this matrix in its internal flat array.
+     *
+     * @return  The index of the first element of this matrix in its internal flat array (zero if this matrix does not
+     *          use flat storage).
+     */
+    public int getFlatArrayOffset() {
+        return array == null ? offset : 0;
+    }
+
+    /**
+     * Gets the leading dimension of the internal flat array of this matrix (i.e., the distance between the first
+     * elements of two consecutive rows).
+     *
+     * @return  The leading dimension of the internal flat array of this matrix (zero if this matrix does not use flat
+     *          storage).
+     */
+    public int getLeadingDimension() {
+        return leadingDimension;
+    }
+
+    /**
+     * Copies this matrix into a new matrix that uses flat storage, in row-major order and with a leading dimension
+     * equal to the column dimension of this matrix.
+     *
+     * @return  A copy of this matrix that uses flat storage.
+     */
+    public Matrix copyToFlatStorage() {
+        return wrap(getRowPackedArrayCopy(), rowDimension, columnDimension);
+    }
+
     /**
      * Copies the internal two-dimensional array.
      *
@@ -193,7 +315,7 @@ public class Matrix {
     public double[][] getArrayCopy() {
         double[][] resultArray = new double[rowDimension][columnDimension];
         for (int i = 0; i < rowDimension; i++) {
-            System.arraycopy(array[i], 0, resultArray[i], 0, columnDimension);
+            System.arraycopy(rowArray(i), rowOffset(i), resultArray[i], 0, columnDimension);
         }
         return resultArray;
     }
@@ -206,19 +328,17 @@ public class Matrix {
     public double[] getColumnPackedArrayCopy() {
         double[] elements = new double[rowDimension * columnDimension];
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                elements[i + j * rowDimension] = array[i][j];
+                elements[i + j * rowDimension] = rowI[rowIOffset + j];
             }
         }
         return elements;
     }
 
     public Vector getColumnPackedVectorCopy() {
-        Vector vector = Vectors.dense(rowDimension * columnDimension);
-        for (int i = 0; i < rowDimension; i++)
-            for (int j = 0; j < columnDimension; j++)
-                vector.set(i + j * rowDimension, array[i][j]);
-        return vector;
+        return Vectors.dense(getColumnPackedArrayCopy());
     }
 
     /**
@@ -229,19 +349,17 @@ public class Matrix {
     public double[] getRowPackedArrayCopy() {
         double[] elements = new double[rowDimension * columnDimension];
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                elements[i * columnDimension + j] = array[i][j];
+                elements[i * columnDimension + j] = rowI[rowIOffset + j];
             }
         }
         return elements;
     }
 
     public Vector getRowPackedVectorCopy() {
-        Vector vector = Vectors.dense(rowDimension * columnDimension);
-        for (int i = 0; i < rowDimension; i++)
-            for (int j = 0; j < columnDimension; j++)
-                vector.set(i * columnDimension + j, array[i][j]);
-        return vector;
+        return Vectors.dense(getRowPackedArrayCopy());
     }
 
     /**
@@ -249,6 +367,7 @@ public class Matrix {
      *
      * @return  The row dimension of this matrix.
      */
+    @Override
     public int getRowDimension() {
         return rowDimension;
     }
@@ -258,6 +377,7 @@ public class Matrix {
      *
      * @return  The column dimension of this matrix.
      */
+    @Override
     public int getColumnDimension() {
         return columnDimension;
     }
@@ -269,8 +389,11 @@ public class Matrix {
      * @param   column  The column index of the element.
      * @return          The computeValue of the element at the provided position.
      */
+    @Override
     public double getElement(int row, int column) {
-        return array[row][column]; // TODO: Check for the index values (i.e. out of bounds).
+        if (array != null)
+            return array[row][offset + column]; // TODO: Check for the index values (i.e. out of bounds).
+        return data[offset + row * leadingDimension + column];
     }
 
     /**
@@ -281,7 +404,10 @@ public class Matrix {
      * @param   value   The computeValue to which to set the element at the provided position.
      */
     public void setElement(int row, int column, double value) {
-        array[row][column] = value;
+        if (array != null)
+            array[row][offset + column] = value;
+        else
+            data[offset + row * leadingDimension + column] = value;
     }
 
     /**
@@ -291,8 +417,10 @@ public class Matrix {
      */
     public void setAllElements(double value) {
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] = value;
+                rowI[rowIOffset + j] = value;
             }
         }
     }
@@ -307,8 +435,11 @@ public class Matrix {
      */
     public void setRow(int rowIndex, Vector value) {
         try {
+            checkRowIndex(rowIndex);
+            double[] row = rowArray(rowIndex);
+            int rowOffset = rowOffset(rowIndex);
             for (int i = 0; i < columnDimension; i++) {
-                array[rowIndex][i] = value.get(i);
+                row[rowOffset + i] = value.get(i);
             }
         } catch(ArrayIndexOutOfBoundsException e) {
             throw new ArrayIndexOutOfBoundsException("The provided row index is out of bounds.");
@@ -325,8 +456,9 @@ public class Matrix {
      */
     public void setColumn(int columnIndex, Vector value) {
         try {
+            checkColumnIndex(columnIndex);
             for (int i = 0; i < rowDimension; i++) {
-                array[i][columnIndex] = value.get(i);
+                rowArray(i)[rowOffset(i) + columnIndex] = value.get(i);
             }
         } catch(ArrayIndexOutOfBoundsException e) {
             throw new ArrayIndexOutOfBoundsException("The provided column index is out of bounds.");
@@ -344,8 +476,11 @@ public class Matrix {
     public Vector getRow(int rowIndex) {
         Vector resultVector = new DenseVector(columnDimension);
         try {
+            checkRowIndex(rowIndex);
+            double[] row = rowArray(rowIndex);
+            int rowOffset = rowOffset(rowIndex);
             for (int i = 0; i < columnDimension; i++) {
-                resultVector.set(i, array[rowIndex][i]);
+                resultVector.set(i, row[rowOffset + i]);
             }
         } catch(ArrayIndexOutOfBoundsException e) {
             throw new ArrayIndexOutOfBoundsException("The provided row index is out of bounds.");
@@ -364,8 +499,9 @@ public class Matrix {
     public Vector getColumn(int columnIndex) {
         Vector resultVector = new DenseVector(rowDimension);
         try {
+            checkColumnIndex(columnIndex);
             for (int i = 0; i < rowDimension; i++) {
-                resultVector.set(i, array[i][columnIndex]);
+                resultVector.set(i, rowArray(i)[rowOffset(i) + columnIndex]);
             }
         } catch(ArrayIndexOutOfBoundsException e) {
             throw new ArrayIndexOutOfBoundsException("The provided column index is out of bounds.");
@@ -386,14 +522,17 @@ public class Matrix {
      */
     public Matrix getSubMatrix(int initialRowIndex, int finalRowIndex, int initialColumnIndex, int finalColumnIndex) {
         Matrix resultMatrix =
-                new Matrix(finalRowIndex - initialRowIndex + 1, finalColumnIndex - initialColumnIndex + 1);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+                createMatrix(finalRowIndex - initialRowIndex + 1, finalColumnIndex - initialColumnIndex + 1);
         try {
+            checkRowIndex(initialRowIndex);
+            checkRowIndex(finalRowIndex);
+            checkColumnIndex(initialColumnIndex);
+            checkColumnIndex(finalColumnIndex);
             for (int i = initialRowIndex; i <= finalRowIndex; i++) {
-                System.arraycopy(array[i],
-                                 initialColumnIndex,
-                                 resultMatrixArray[i - initialRowIndex],
-                                 0,
+                System.arraycopy(rowArray(i),
+                                 rowOffset(i) + initialColumnIndex,
+                                 resultMatrix.rowArray(i - initialRowIndex),
+                                 resultMatrix.rowOffset(i - initialRowIndex),
                                  finalColumnIndex + 1 - initialColumnIndex);
             }
         } catch(ArrayIndexOutOfBoundsException e) {
@@ -415,12 +554,17 @@ public class Matrix {
      * @throws  ArrayIndexOutOfBoundsException  Some or all of the provided sub-matrix indexes are out of bounds.
      */
     public Matrix getSubMatrix(int[] rowIndexes, int[] columnIndexes) {
-        Matrix resultMatrix = new Matrix(rowIndexes.length, columnIndexes.length);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowIndexes.length, columnIndexes.length);
         try {
             for (int i = 0; i < rowIndexes.length; i++) {
+                checkRowIndex(rowIndexes[i]);
+                double[] rowI = rowArray(rowIndexes[i]);
+                int rowIOffset = rowOffset(rowIndexes[i]);
+                double[] resultRowI = resultMatrix.rowArray(i);
+                int resultRowIOffset = resultMatrix.rowOffset(i);
                 for (int j = 0; j < columnIndexes.length; j++) {
-                    resultMatrixArray[i][j] = array[rowIndexes[i]][columnIndexes[j]];
+                    checkColumnIndex(columnIndexes[j]);
+                    resultRowI[resultRowIOffset + j] = rowI[rowIOffset + columnIndexes[j]];
                 }
             }
         } catch(ArrayIndexOutOfBoundsException e) {
@@ -443,12 +587,17 @@ public class Matrix {
      * @throws  ArrayIndexOutOfBoundsException  Some or all of the provided sub-matrix indexes are out of bounds.
      */
     public Matrix getSubMatrix(int initialRowIndex, int finalRowIndex, int[] columnIndexes) {
-        Matrix resultMatrix = new Matrix(finalRowIndex - initialRowIndex + 1, columnIndexes.length);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(finalRowIndex - initialRowIndex + 1, columnIndexes.length);
         try {
             for (int i = initialRowIndex; i <= finalRowIndex; i++) {
+                checkRowIndex(i);
+                double[] rowI = rowArray(i);
+                int rowIOffset = rowOffset(i);
+                double[] resultRowI = resultMatrix.rowArray(i - initialRowIndex);
+                int resultRowIOffset = resultMatrix.rowOffset(i - initialRowIndex);
                 for (int j = 0; j < columnIndexes.length; j++) {
-                    resultMatrixArray[i - initialRowIndex][j] = array[i][columnIndexes[j]];
+                    checkColumnIndex(columnIndexes[j]);
+                    resultRowI[resultRowIOffset + j] = rowI[rowIOffset + columnIndexes[j]];
                 }
             }
         } catch(ArrayIndexOutOfBoundsException e) {
@@ -471,14 +620,16 @@ public class Matrix {
      * @throws  ArrayIndexOutOfBoundsException  Some or all of the provided sub-matrix indexes are out of bounds.
      */
     public Matrix getSubMatrix(int[] rowIndexes, int initialColumnIndex, int finalColumnIndex) {
-        Matrix resultMatrix = new Matrix(rowIndexes.length, finalColumnIndex - initialColumnIndex + 1);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowIndexes.length, finalColumnIndex - initialColumnIndex + 1);
         try {
+            checkColumnIndex(initialColumnIndex);
+            checkColumnIndex(finalColumnIndex);
             for (int i = 0; i < rowIndexes.length; i++) {
-                System.arraycopy(array[rowIndexes[i]],
-                                 initialColumnIndex,
-                                 resultMatrixArray[i],
-                                 0,
+                checkRowIndex(rowIndexes[i]);
+                System.arraycopy(rowArray(rowIndexes[i]),
+                                 rowOffset(rowIndexes[i]) + initialColumnIndex,
+                                 resultMatrix.rowArray(i),
+                                 resultMatrix.rowOffset(i),
                                  finalColumnIndex + 1 - initialColumnIndex);
             }
         } catch(ArrayIndexOutOfBoundsException e) {
@@ -489,6 +640,52 @@ public class Matrix {
         return resultMatrix;
     }
 
+    /**
+     * Gets a view of a contiguous block of this matrix. The returned matrix shares its storage with this matrix, and so
+     * changes to the elements of either matrix are visible in the other one. Use {@link #copy()} on the returned matrix
+     * if an independent sub-matrix is needed. For matrices with flat storage the view is created in constant time,
+     * while for matrices stored in two-dimensional arrays only the references to the affected rows are copied.
+     *
+     * @param   initialRowIndex     The initial row index.
+     * @param   finalRowIndex       The final row index.
+     * @param   initialColumnIndex  The initial column index.
+     * @param   finalColumnIndex    The final column index.
+     * @return                      A view of the sub-matrix corresponding to the provided indexes.
+     *
+     * @throws  ArrayIndexOutOfBoundsException  Some or all of the provided sub-matrix indexes are out of bounds.
+     */
+    public Matrix getSubMatrixView(int initialRowIndex,
+                                   int finalRowIndex,
+                                   int initialColumnIndex,
+                                   int finalColumnIndex) {
+        try {
+            checkRowIndex(initialRowIndex);
+            checkRowIndex(finalRowIndex);
+            checkColumnIndex(initialColumnIndex);
+            checkColumnIndex(finalColumnIndex);
+        } catch(ArrayIndexOutOfBoundsException e) {
+            throw new ArrayIndexOutOfBoundsException(
+                    "Some or all of the provided sub-matrix indexes are out of bounds."
+            );
+        }
+        if (initialRowIndex > finalRowIndex || initialColumnIndex > finalColumnIndex) {
+            throw new ArrayIndexOutOfBoundsException(
+                    "Some or all of the provided sub-matrix indexes are out of bounds."
+            );
+        }
+        int viewRowDimension = finalRowIndex - initialRowIndex + 1;
+        int viewColumnDimension = finalColumnIndex - initialColumnIndex + 1;
+        if (array == null)
+            return new Matrix(data,
+                              offset + initialRowIndex * leadingDimension + initialColumnIndex,
+                              leadingDimension,
+                              viewRowDimension,
+                              viewColumnDimension);
+        double[][] viewArray = new double[viewRowDimension][];
+        System.arraycopy(array, initialRowIndex, viewArray, 0, viewRowDimension);
+        return new Matrix(viewArray, offset + initialColumnIndex, viewRowDimension, viewColumnDimension);
+    }
+
     /**
      * Sets a sub-matrix of this matrix to the provided matrix values.
      *
@@ -508,8 +705,12 @@ public class Matrix {
                              Matrix matrix) {
         try {
             for (int i = initialRowIndex; i <= finalRowIndex; i++) {
+                checkRowIndex(i);
+                double[] rowI = rowArray(i);
+                int rowIOffset = rowOffset(i);
                 for (int j = initialColumnIndex; j <= finalColumnIndex; j++) {
-                    array[i][j] = matrix.getElement(i - initialRowIndex, j - initialColumnIndex);
+                    checkColumnIndex(j);
+                    rowI[rowIOffset + j] = matrix.getElement(i - initialRowIndex, j - initialColumnIndex);
                 }
             }
         } catch(ArrayIndexOutOfBoundsException e) {
@@ -533,8 +734,12 @@ public class Matrix {
     public void setSubMatrix(int[] rowIndexes, int[] columnIndexes, Matrix matrix) {
         try {
             for (int i = 0; i < rowIndexes.length; i++) {
+                checkRowIndex(rowIndexes[i]);
+                double[] rowI = rowArray(rowIndexes[i]);
+                int rowIOffset = rowOffset(rowIndexes[i]);
                 for (int j = 0; j < columnIndexes.length; j++) {
-                    array[rowIndexes[i]][columnIndexes[j]] = matrix.getElement(i, j);
+                    checkColumnIndex(columnIndexes[j]);
+                    rowI[rowIOffset + columnIndexes[j]] = matrix.getElement(i, j);
                 }
             }
         } catch(ArrayIndexOutOfBoundsException e) {
@@ -559,8 +764,12 @@ public class Matrix {
     public void setSubMatrix(int[] rowIndexes, int initialColumnIndex, int finalColumnIndex, Matrix matrix) {
         try {
             for (int i = 0; i < rowIndexes.length; i++) {
+                checkRowIndex(rowIndexes[i]);
+                double[] rowI = rowArray(rowIndexes[i]);
+                int rowIOffset = rowOffset(rowIndexes[i]);
                 for (int j = initialColumnIndex; j <= finalColumnIndex; j++) {
-                    array[rowIndexes[i]][j] = matrix.getElement(i, j - initialColumnIndex);
+                    checkColumnIndex(j);
+                    rowI[rowIOffset + j] = matrix.getElement(i, j - initialColumnIndex);
                 }
             }
         } catch(ArrayIndexOutOfBoundsException e) {
@@ -584,8 +793,12 @@ public class Matrix {
     public void setSubMatrix(int initialRowIndex, int finalRowIndex, int[] columnIndexes, Matrix matrix) {
         try {
             for (int i = initialRowIndex; i <= finalRowIndex; i++) {
+                checkRowIndex(i);
+                double[] rowI = rowArray(i);
+                int rowIOffset = rowOffset(i);
                 for (int j = 0; j < columnIndexes.length; j++) {
-                    array[i][columnIndexes[j]] = matrix.getElement(i - initialRowIndex, j);
+                    checkColumnIndex(columnIndexes[j]);
+                    rowI[rowIOffset + columnIndexes[j]] = matrix.getElement(i - initialRowIndex, j);
                 }
             }
         } catch(ArrayIndexOutOfBoundsException e) {
@@ -601,10 +814,12 @@ public class Matrix {
      * @return  The maximum computeValue of all elements in this matrix.
      */
     public double getMaximumValue() {
-        double maxValue = array[0][0];
+        double maxValue = getElement(0, 0);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                maxValue = Math.max(maxValue, array[i][j]);
+                maxValue = Math.max(maxValue, rowI[rowIOffset + j]);
             }
         }
         return maxValue;
@@ -616,10 +831,12 @@ public class Matrix {
      * @return  The minimum computeValue of all elements in this matrix.
      */
     public double getMinimumValue() {
-        double minValue = array[0][0];
+        double minValue = getElement(0, 0);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                minValue = Math.min(minValue, array[i][j]);
+                minValue = Math.min(minValue, rowI[rowIOffset + j]);
             }
         }
         return minValue;
@@ -632,17 +849,47 @@ public class Matrix {
      *
      * @return  The transpose of this matrix.
      */
+    @Override
     public Matrix transpose() {
-        Matrix resultMatrix = new Matrix(columnDimension, rowDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(columnDimension, rowDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[j][i] = array[i][j];
+                resultMatrix.rowArray(j)[resultMatrix.rowOffset(j) + i] = rowI[rowIOffset + j];
             }
         }
         return resultMatrix;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public double[] computeSquaredColumnNorms() {
+        double[] squaredNorms = new double[columnDimension];
+        for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            for (int j = 0; j < columnDimension; j++) {
+                squaredNorms[j] += rowI[rowIOffset + j] * rowI[rowIOffset + j];
+            }
+        }
+        return squaredNorms;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] computeSquaredRowNorms() {
+        double[] squaredNorms = new double[rowDimension];
+        for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            for (int j = 0; j < columnDimension; j++) {
+                squaredNorms[i] += rowI[rowIOffset + j] * rowI[rowIOffset + j];
+            }
+        }
+        return squaredNorms;
+    }
+
     /**
      * Computes the trace of this matrix. The trace of a matrix is equal to the sum of its diagonal elements.
      *
@@ -651,7 +898,7 @@ public class Matrix {
     public double trace() {
         double trace = 0;
         for (int i = 0; i < Math.min(rowDimension, columnDimension); i++) {
-            trace += array[i][i];
+            trace += rowArray(i)[rowOffset(i) + i];
         }
         return trace;
     }
@@ -675,7 +922,8 @@ public class Matrix {
     }
 
     /**
-     * Computes the effective numerical rank of this matrix.
+     * Computes the effective numerical rank of this matrix, using its singular value decomposition.
+     * {@link #estimateRank()} can be used instead when an estimate is sufficient.
      *
      * @return  The effective numerical rank of this matrix.
      */
@@ -684,7 +932,21 @@ public class Matrix {
     }
 
     /**
-     * Computes the condition number of this matrix.
+     * Estimates the effective numerical rank of this matrix, using a rank revealing (i.e., column pivoted) QR
+     * decomposition (see {@link RankRevealingQRDecomposition}). The decomposition stops as soon as the remaining
+     * columns become negligible and so it is much cheaper than the singular value decomposition used by
+     * {@link #computeRank()}, especially for low rank matrices. The estimate is almost always equal to the effective
+     * numerical rank, but it may differ from it for matrices whose singular values are close to the rank threshold.
+     *
+     * @return  The estimate of the effective numerical rank of this matrix.
+     */
+    public int estimateRank() {
+        return new RankRevealingQRDecomposition(this).getRank();
+    }
+
+    /**
+     * Computes the \(L_2\) condition number of this matrix, using its singular value decomposition.
+     * {@link #estimateConditionNumber()} can be used instead for square matrices, when an estimate is sufficient.
      *
      * @return  The condition number of this matrix.
      */
@@ -692,6 +954,22 @@ public class Matrix {
         return new SingularValueDecomposition(this).computeConditionNumber();
     }
 
+    /**
+     * Estimates the \(L_1\) condition number of this matrix, using its LU decomposition (see
+     * {@link LUDecomposition#estimateConditionNumber()}). This costs \(O(n^2)\) operations on top of the
+     * decomposition, which is much cheaper than the singular value decomposition used by
+     * {@link #computeConditionNumber()}. Note that the \(L_1\) and \(L_2\) condition numbers of a matrix are only
+     * within a factor of \(n\) of each other.
+     *
+     * @return  The estimate of the \(L_1\) condition number of this matrix, or {@link Double#POSITIVE_INFINITY} if
+     *          this matrix is singular.
+     *
+     * @throws  IllegalArgumentException    The matrix must be square.
+     */
+    public double estimateConditionNumber() {
+        return new LUDecomposition(this).estimateConditionNumber();
+    }
+
     /**
      * Computes the \(L_1\) norm of this matrix. Denoting this matrix by \(A\in\mathbb{R}^{m\times n}\), its element at
      * row \(i\) and column \(j\) by \(A_{ij}\) and its \(L_1\) norm by \(\|A\|_1\), we have that:
@@ -705,7 +983,7 @@ public class Matrix {
         for (int j = 0; j < columnDimension; j++) {
             double columnSum = 0;
             for (int i = 0; i < rowDimension; i++) {
-                columnSum += Math.abs(array[i][j]);
+                columnSum += Math.abs(rowArray(i)[rowOffset(i) + j]);
             }
             l1Norm = Math.max(l1Norm, columnSum);
         }
@@ -714,7 +992,9 @@ public class Matrix {
 
     /**
      * Computes the \(L_2\) norm of this matrix. The \(L_2\) norm of a matrix is equal to its largest singular computeValue.
-     * For square matrices, the \(L_2\) norm is also known as the spectral norm.
+     * For square matrices, the \(L_2\) norm is also known as the spectral norm. The norm is computed using the singular
+     * value decomposition of this matrix. {@link #estimateL2Norm(double)} can be used instead when an estimate is
+     * sufficient.
      *
      * @return  The \(L_2\) norm of this matrix.
      */
@@ -733,9 +1013,11 @@ public class Matrix {
     public double computeLInfinityNorm() {
         double lInfinityNorm = 0;
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             double rowSum = 0;
             for (int j = 0; j < columnDimension; j++) {
-                rowSum += Math.abs(array[i][j]);
+                rowSum += Math.abs(rowI[rowIOffset + j]);
             }
             lInfinityNorm = Math.max(lInfinityNorm, rowSum);
         }
@@ -752,8 +1034,10 @@ public class Matrix {
     public double computeFrobeniusNorm() {
         double frobeniusNorm = 0;
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                frobeniusNorm = MathUtilities.computeHypotenuse(frobeniusNorm, array[i][j]);
+                frobeniusNorm = MathUtilities.computeHypotenuse(frobeniusNorm, rowI[rowIOffset + j]);
             }
         }
         return frobeniusNorm;
@@ -766,12 +1050,15 @@ public class Matrix {
      * @param   function    The function to apply to the current matrix element-wise.
      * @return              A new matrix holding the result of the operation.
      */
-    public Matrix computeFunctionResult(Function<Double, Double> function) {
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+    public Matrix computeFunctionResult(DoubleUnaryOperator function) {
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = function.apply(array[i][j]);
+                resultRowI[resultRowIOffset + j] = function.applyAsDouble(rowI[rowIOffset + j]);
             }
         }
         return resultMatrix;
@@ -786,11 +1073,14 @@ public class Matrix {
      * @return          A new matrix holding the result of the addition.
      */
     public Matrix add(double scalar) {
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = array[i][j] + scalar;
+                resultRowI[resultRowIOffset + j] = rowI[rowIOffset + j] + scalar;
             }
         }
         return resultMatrix;
@@ -804,11 +1094,16 @@ public class Matrix {
      */
     public Matrix add(Matrix matrix) {
         checkMatrixDimensions(matrix);
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = array[i][j] + matrix.array[i][j];
+                resultRowI[resultRowIOffset + j] = rowI[rowIOffset + j] + matrixRowI[matrixRowIOffset + j];
             }
         }
         return resultMatrix;
@@ -821,8 +1116,10 @@ public class Matrix {
      */
     public Matrix addEquals(double scalar) {
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] += scalar;
+                rowI[rowIOffset + j] += scalar;
             }
         }
         return this;
@@ -836,8 +1133,12 @@ public class Matrix {
     public Matrix addEquals(Matrix matrix) {
         checkMatrixDimensions(matrix);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] += matrix.array[i][j];
+                rowI[rowIOffset + j] += matrixRowI[matrixRowIOffset + j];
             }
         }
         return this;
@@ -850,11 +1151,14 @@ public class Matrix {
      * @return          A new matrix holding the result of the subtraction.
      */
     public Matrix subtract(double scalar) {
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = array[i][j] - scalar;
+                resultRowI[resultRowIOffset + j] = rowI[rowIOffset + j] - scalar;
             }
         }
         return resultMatrix;
@@ -868,11 +1172,16 @@ public class Matrix {
      */
     public Matrix subtract(Matrix matrix) {
         checkMatrixDimensions(matrix);
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = array[i][j] - matrix.array[i][j];
+                resultRowI[resultRowIOffset + j] = rowI[rowIOffset + j] - matrixRowI[matrixRowIOffset + j];
             }
         }
         return resultMatrix;
@@ -885,8 +1194,10 @@ public class Matrix {
      */
     public Matrix subtractEquals(double scalar) {
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] -= scalar;
+                rowI[rowIOffset + j] -= scalar;
             }
         }
         return this;
@@ -900,8 +1211,12 @@ public class Matrix {
     public Matrix subtractEquals(Matrix matrix) {
         checkMatrixDimensions(matrix);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] -= matrix.array[i][j];
+                rowI[rowIOffset + j] -= matrixRowI[matrixRowIOffset + j];
             }
         }
         return this;
@@ -915,11 +1230,16 @@ public class Matrix {
      */
     public Matrix multiplyElementwise(Matrix matrix) {
         checkMatrixDimensions(matrix);
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = array[i][j] * matrix.array[i][j];
+                resultRowI[resultRowIOffset + j] = rowI[rowIOffset + j] * matrixRowI[matrixRowIOffset + j];
             }
         }
         return resultMatrix;
@@ -933,8 +1253,12 @@ public class Matrix {
     public Matrix multiplyElementwiseEquals(Matrix matrix) {
         checkMatrixDimensions(matrix);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] *= matrix.array[i][j];
+                rowI[rowIOffset + j] *= matrixRowI[matrixRowIOffset + j];
             }
         }
         return this;
@@ -948,11 +1272,16 @@ public class Matrix {
      */
     public Matrix rightDivideElementwise(Matrix matrix) {
         checkMatrixDimensions(matrix);
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = array[i][j] / matrix.array[i][j];
+                resultRowI[resultRowIOffset + j] = rowI[rowIOffset + j] / matrixRowI[matrixRowIOffset + j];
             }
         }
         return resultMatrix;
@@ -966,8 +1295,12 @@ public class Matrix {
     public Matrix rightDivideElementwiseEquals(Matrix matrix) {
         checkMatrixDimensions(matrix);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] /= matrix.array[i][j];
+                rowI[rowIOffset + j] /= matrixRowI[matrixRowIOffset + j];
             }
         }
         return this;
@@ -981,11 +1314,16 @@ public class Matrix {
      */
     public Matrix leftDivideElementwise(Matrix matrix) {
         checkMatrixDimensions(matrix);
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = matrix.array[i][j] / array[i][j];
+                resultRowI[resultRowIOffset + j] = matrixRowI[matrixRowIOffset + j] / rowI[rowIOffset + j];
             }
         }
         return resultMatrix;
@@ -999,8 +1337,12 @@ public class Matrix {
     public Matrix leftDivideElementwiseEquals(Matrix matrix) {
         checkMatrixDimensions(matrix);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] matrixRowI = matrix.rowArray(i);
+            int matrixRowIOffset = matrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] = matrix.array[i][j] / array[i][j];
+                rowI[rowIOffset + j] = matrixRowI[matrixRowIOffset + j] / rowI[rowIOffset + j];
             }
         }
         return this;
@@ -1015,11 +1357,14 @@ public class Matrix {
      * @return          A new matrix holding the result of the multiplication.
      */
     public Matrix multiply(double scalar) {
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = array[i][j] * scalar;
+                resultRowI[resultRowIOffset + j] = rowI[rowIOffset + j] * scalar;
             }
         }
         return resultMatrix;
@@ -1032,8 +1377,10 @@ public class Matrix {
      */
     public Matrix multiplyEquals(double scalar) {
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] *= scalar;
+                rowI[rowIOffset + j] *= scalar;
             }
         }
         return this;
@@ -1046,11 +1393,14 @@ public class Matrix {
      * @return          A new matrix holding the result of the division.
      */
     public Matrix divide(double scalar) {
-        Matrix resultMatrix = new Matrix(rowDimension, columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
+        Matrix resultMatrix = createMatrix(rowDimension, columnDimension);
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            double[] resultRowI = resultMatrix.rowArray(i);
+            int resultRowIOffset = resultMatrix.rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultMatrixArray[i][j] = array[i][j] / scalar;
+                resultRowI[resultRowIOffset + j] = rowI[rowIOffset + j] / scalar;
             }
         }
         return resultMatrix;
@@ -1063,37 +1413,140 @@ public class Matrix {
      */
     public Matrix divideEquals(double scalar) {
         for (int i = 0; i < rowDimension; i++) {
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                array[i][j] /= scalar;
+                rowI[rowIOffset + j] /= scalar;
             }
         }
         return this;
     }
 
     /**
-     * Multiplies the current matrix with a vector and returns the result in a new vector. The resulting vector type
-     * (i.e., dense, sparse, etc.) is the same as the type of the provided vector.
+     * Multiplies the current matrix with a vector and stores the result in the provided array. The vector sizes are
+     * assumed to have already been checked. Dense vectors are multiplied using row-wise dot products with unit-stride
+     * access, while for sparse and hash vectors only the columns that correspond to nonzero vector elements are
+     * accessed.
      *
-     * @param   vector  The vector with which to multiply the current matrix.
-     * @return          A new vector holding the result of the multiplication.
+     * @param   vector      The vector with which to multiply the current matrix.
+     * @param   resultArray The array in which to store the result of the multiplication.
      */
-    public Vector multiply(Vector vector) {
-        if (vector.size() != columnDimension) {
-            throw new IllegalArgumentException(
-                    "The column dimension of the matrix must agree with the dimension of the vector."
-            );
+    void multiply(Vector vector, double[] resultArray) {
+        multiply(vector, resultArray, 0);
+    }
+
+    /**
+     * Multiplies the current matrix with a vector and stores the result in the provided array, starting at the provided
+     * offset. The vector sizes are assumed to have already been checked.
+     *
+     * @param   vector          The vector with which to multiply the current matrix.
+     * @param   resultArray     The array in which to store the result of the multiplication.
+     * @param   resultOffset    The index in the result array at which to store the first element of the result.
+     */
+    @Override
+    void multiply(Vector vector, double[] resultArray, int resultOffset) {
+        if (vector instanceof DenseVector) {
+            double[] vectorArray = ((DenseVector) vector).array;
+            int vectorOffset = ((DenseVector) vector).offset;
+            for (int i = 0; i < rowDimension; i++) {
+                double[] rowI = rowArray(i);
+                int rowIOffset = rowOffset(i);
+                double dotProduct = 0;
+                for (int j = 0; j < columnDimension; j++) {
+                    dotProduct += rowI[rowIOffset + j] * vectorArray[vectorOffset + j];
+                }
+                resultArray[resultOffset + i] = dotProduct;
+            }
+        } else if (vector instanceof OffHeapDenseVector) {
+            DoubleBuffer vectorBuffer = ((OffHeapDenseVector) vector).buffer;
+            for (int i = 0; i < rowDimension; i++) {
+                double[] rowI = rowArray(i);
+                int rowIOffset = rowOffset(i);
+                double dotProduct = 0;
+                for (int j = 0; j < columnDimension; j++) {
+                    dotProduct += rowI[rowIOffset + j] * vectorBuffer.get(j);
+                }
+                resultArray[resultOffset + i] = dotProduct;
+            }
+        } else if (vector instanceof SparseVector) {
+            int numberOfNonzeroEntries = ((SparseVector) vector).numberOfNonzeroEntries;
+            int[] indexes = ((SparseVector) vector).indexes;
+            double[] values = ((SparseVector) vector).values;
+            for (int i = 0; i < rowDimension; i++) {
+                double[] rowI = rowArray(i);
+                int rowIOffset = rowOffset(i);
+                double dotProduct = 0;
+                for (int k = 0; k < numberOfNonzeroEntries; k++) {
+                    dotProduct += rowI[rowIOffset + indexes[k]] * values[k];
+                }
+                resultArray[resultOffset + i] = dotProduct;
+            }
+        } else if (vector instanceof HashVector) {
+            // The hash tables are traversed directly, skipping their empty slots, so that no memory is allocated.
+            int[] keyTable = ((HashVector) vector).hashMap.keyTable;
+            double[] valueTable = ((HashVector) vector).hashMap.valueTable;
+            for (int i = 0; i < rowDimension; i++) {
+                double[] rowI = rowArray(i);
+                int rowIOffset = rowOffset(i);
+                double dotProduct = 0;
+                for (int slot = 0; slot < keyTable.length; slot++) {
+                    int key = keyTable[slot];
+                    if (key != IntDoubleHashMap.FREE_KEY)
+                        dotProduct += rowI[rowIOffset + key] * valueTable[slot];
+                }
+                resultArray[resultOffset + i] = dotProduct;
+            }
+        } else {
+            for (int i = 0; i < rowDimension; i++) {
+                double[] rowI = rowArray(i);
+                int rowIOffset = rowOffset(i);
+                double dotProduct = 0;
+                for (int j = 0; j < columnDimension; j++) {
+                    dotProduct += rowI[rowIOffset + j] * vector.get(j);
+                }
+                resultArray[resultOffset + i] = dotProduct;
+            }
         }
-        Vector resultVector = Vectors.build(rowDimension, vector.type());
+    }
+
+    /**
+     * Multiplies the transpose of the current matrix with a vector and stores the result in the provided array,
+     * starting at the provided offset. The vector sizes are assumed to have already been checked. The product is
+     * computed as a sum of the matrix rows, scaled by the corresponding vector elements, so that the matrix is still
+     * accessed with unit stride and rows that correspond to zero vector elements are skipped.
+     *
+     * @param   vector          The vector with which to multiply the transpose of the current matrix.
+     * @param   resultArray     The array in which to store the result of the multiplication.
+     * @param   resultOffset    The index in the result array at which to store the first element of the result.
+     */
+    @Override
+    void transMult(Vector vector, double[] resultArray, int resultOffset) {
+        double[] vectorArray;
+        int vectorOffset;
+        if (vector instanceof DenseVector) {
+            vectorArray = ((DenseVector) vector).array;
+            vectorOffset = ((DenseVector) vector).offset;
+        } else {
+            vectorArray = vector.getDenseArray();
+            vectorOffset = 0;
+        }
+        Arrays.fill(resultArray, resultOffset, resultOffset + columnDimension, 0);
         for (int i = 0; i < rowDimension; i++) {
+            double vectorElement = vectorArray[vectorOffset + i];
+            if (vectorElement == 0)
+                continue;
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
             for (int j = 0; j < columnDimension; j++) {
-                resultVector.set(i, resultVector.get(i) + array[i][j] * vector.get(j));
+                resultArray[resultOffset + j] += rowI[rowIOffset + j] * vectorElement;
             }
         }
-        return resultVector;
     }
 
     /**
-     * Multiplies the current matrix with another matrix and returns the result in a new matrix.
+     * Multiplies the current matrix with another matrix and returns the result in a new matrix. The product is computed
+     * using a cache-blocked kernel whose work is split across the threads of the common fork-join pool (for large enough
+     * matrices), as specified by {@link MatrixMultiplyOptions#DEFAULT}.
      *
      * @param   matrix  The matrix with which to multiply the current matrix.
      * @return          A new matrix holding the result of the multiplication.
@@ -1101,26 +1554,169 @@ public class Matrix {
      * @throws   IllegalArgumentException    The inner dimensions of the matrices must agree.
      */
     public Matrix multiply(Matrix matrix) {
+        return multiply(matrix, MatrixMultiplyOptions.DEFAULT);
+    }
+
+    /**
+     * Multiplies the current matrix with another matrix and returns the result in a new matrix, using the provided
+     * options (e.g., in order to limit the number of threads used for the multiplication).
+     *
+     * @param   matrix  The matrix with which to multiply the current matrix.
+     * @param   options The options to use for the multiplication.
+     * @return          A new matrix holding the result of the multiplication.
+     *
+     * @throws   IllegalArgumentException    The inner dimensions of the matrices must agree.
+     */
+    public Matrix multiply(Matrix matrix, MatrixMultiplyOptions options) {
         if (matrix.rowDimension != columnDimension) {
             throw new IllegalArgumentException("The inner dimensions of the matrices must agree.");
         }
-        Matrix resultMatrix = new Matrix(rowDimension, matrix.columnDimension);
-        double[][] resultMatrixArray = resultMatrix.getArray();
-        double[] matrixColumnJ = new double[columnDimension];
-        for (int j = 0; j < matrix.columnDimension; j++) {
-            for (int k = 0; k < columnDimension; k++) {
-                matrixColumnJ[k] = matrix.array[k][j];
-            }
+        Matrix resultMatrix = createMatrix(rowDimension, matrix.columnDimension);
+        MatrixMultiplication.gemm(1, this, matrix, 0, resultMatrix,
+                                  rowDimension, matrix.columnDimension, columnDimension, options);
+        return resultMatrix;
+    }
+
+    /**
+     * Computes \(C=\beta C+\alpha AB\) in place, where the current matrix "plays" the role of \(C\). The product is
+     * accumulated directly into the storage of the current matrix, using the same cache-blocked kernel as
+     * {@link #multiply(Matrix)}, and so no temporary matrix is allocated for it.
+     *
+     * @param   alpha   The scalar \(\alpha\).
+     * @param   a       Matrix \(A\).
+     * @param   b       Matrix \(B\).
+     * @param   beta    The scalar \(\beta\).
+     * @return          The current matrix holding the result of the operation.
+     *
+     * @throws  IllegalArgumentException    The inner dimensions of \(A\) and \(B\) must agree, the dimensions of their
+     *                                      product must agree with the dimensions of the current matrix and neither
+     *                                      \(A\) nor \(B\) may share storage with the current matrix.
+     */
+    public Matrix gemmAccumulate(double alpha, Matrix a, Matrix b, double beta) {
+        return gemmAccumulate(alpha, a, b, beta, MatrixMultiplyOptions.DEFAULT);
+    }
+
+    /**
+     * Computes \(C=\beta C+\alpha AB\) in place, where the current matrix "plays" the role of \(C\), using the provided
+     * options for the multiplication.
+     *
+     * @param   alpha   The scalar \(\alpha\).
+     * @param   a       Matrix \(A\).
+     * @param   b       Matrix \(B\).
+     * @param   beta    The scalar \(\beta\).
+     * @param   options The options to use for the multiplication.
+     * @return          The current matrix holding the result of the operation.
+     *
+     * @throws  IllegalArgumentException    The inner dimensions of \(A\) and \(B\) must agree, the dimensions of their
+     *                                      product must agree with the dimensions of the current matrix and neither
+     *                                      \(A\) nor \(B\) may share storage with the current matrix.
+     */
+    public Matrix gemmAccumulate(double alpha, Matrix a, Matrix b, double beta, MatrixMultiplyOptions options) {
+        if (a.columnDimension != b.rowDimension) {
+            throw new IllegalArgumentException("The inner dimensions of the matrices must agree.");
+        }
+        if (a.rowDimension != rowDimension || b.columnDimension != columnDimension) {
+            throw new IllegalArgumentException(
+                    "The dimensions of the matrix product must agree with the dimensions of the current matrix."
+            );
+        }
+        if (sharesStorageWith(a) || sharesStorageWith(b)) {
+            throw new IllegalArgumentException(
+                    "The matrices being multiplied must not share storage with the current matrix."
+            );
+        }
+        MatrixMultiplication.gemm(alpha, a, b, beta, this, rowDimension, columnDimension, a.columnDimension, options);
+        return this;
+    }
+
+    /**
+     * Performs the rank-1 update \(A=A+\alpha\boldsymbol{x}\boldsymbol{y}^T\) in place, where the current matrix
+     * "plays" the role of \(A\). Each row is updated with a single unit-stride pass and rows that correspond to zero
+     * elements of \(\boldsymbol{x}\) are skipped, so that the outer product is never formed explicitly. When
+     * \(\boldsymbol{y}\) is a sparse vector, only the columns that correspond to its nonzero elements are accessed.
+     *
+     * @param   alpha   The scalar \(\alpha\).
+     * @param   x       Vector \(\boldsymbol{x}\), whose size must match the row dimension of the current matrix.
+     * @param   y       Vector \(\boldsymbol{y}\), whose size must match the column dimension of the current matrix.
+     * @return          The current matrix holding the result of the update.
+     *
+     * @throws  IllegalArgumentException    The vector sizes must agree with the matrix dimensions.
+     */
+    public Matrix rankOneUpdateInPlace(double alpha, Vector x, Vector y) {
+        checkUpdateVectorSizes(x, y);
+        double[] xArray = x instanceof DenseVector ? ((DenseVector) x).array : x.getDenseArray();
+        int xOffset = x instanceof DenseVector ? ((DenseVector) x).offset : 0;
+        if (y instanceof SparseVector) {
+            int numberOfNonzeroEntries = ((SparseVector) y).numberOfNonzeroEntries;
+            int[] indexes = ((SparseVector) y).indexes;
+            double[] values = ((SparseVector) y).values;
             for (int i = 0; i < rowDimension; i++) {
-                double[] currentMatrixRowI = array[i];
-                double dotProduct = 0;
-                for (int k = 0; k < columnDimension; k++) {
-                    dotProduct += currentMatrixRowI[k] * matrixColumnJ[k];
+                double alphaXI = alpha * xArray[xOffset + i];
+                if (alphaXI == 0)
+                    continue;
+                double[] rowI = rowArray(i);
+                int rowIOffset = rowOffset(i);
+                for (int k = 0; k < numberOfNonzeroEntries; k++) {
+                    rowI[rowIOffset + indexes[k]] += alphaXI * values[k];
                 }
-                resultMatrixArray[i][j] = dotProduct;
             }
+            return this;
         }
-        return resultMatrix;
+        double[] yArray = y instanceof DenseVector ? ((DenseVector) y).array : y.getDenseArray();
+        int yOffset = y instanceof DenseVector ? ((DenseVector) y).offset : 0;
+        for (int i = 0; i < rowDimension; i++) {
+            double alphaXI = alpha * xArray[xOffset + i];
+            if (alphaXI == 0)
+                continue;
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            for (int j = 0; j < columnDimension; j++) {
+                rowI[rowIOffset + j] += alphaXI * yArray[yOffset + j];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Performs the rank-2 update \(A=A+\alpha\boldsymbol{x}\boldsymbol{y}^T+\beta\boldsymbol{u}\boldsymbol{v}^T\) in
+     * place, where the current matrix "plays" the role of \(A\). Both outer products are accumulated in a single pass
+     * over the matrix, which halves the memory traffic compared to two consecutive rank-1 updates. The symmetric
+     * rank-2 update \(A=A+\alpha(\boldsymbol{x}\boldsymbol{y}^T+\boldsymbol{y}\boldsymbol{x}^T)\) is obtained by
+     * setting \(\beta=\alpha\), \(\boldsymbol{u}=\boldsymbol{y}\) and \(\boldsymbol{v}=\boldsymbol{x}\).
+     *
+     * @param   alpha   The scalar \(\alpha\).
+     * @param   x       Vector \(\boldsymbol{x}\), whose size must match the row dimension of the current matrix.
+     * @param   y       Vector \(\boldsymbol{y}\), whose size must match the column dimension of the current matrix.
+     * @param   beta    The scalar \(\beta\).
+     * @param   u       Vector \(\boldsymbol{u}\), whose size must match the row dimension of the current matrix.
+     * @param   v       Vector \(\boldsymbol{v}\), whose size must match the column dimension of the current matrix.
+     * @return          The current matrix holding the result of the update.
+     *
+     * @throws  IllegalArgumentException    The vector sizes must agree with the matrix dimensions.
+     */
+    public Matrix rankTwoUpdateInPlace(double alpha, Vector x, Vector y, double beta, Vector u, Vector v) {
+        checkUpdateVectorSizes(x, y);
+        checkUpdateVectorSizes(u, v);
+        double[] xArray = x instanceof DenseVector ? ((DenseVector) x).array : x.getDenseArray();
+        int xOffset = x instanceof DenseVector ? ((DenseVector) x).offset : 0;
+        double[] yArray = y instanceof DenseVector ? ((DenseVector) y).array : y.getDenseArray();
+        int yOffset = y instanceof DenseVector ? ((DenseVector) y).offset : 0;
+        double[] uArray = u instanceof DenseVector ? ((DenseVector) u).array : u.getDenseArray();
+        int uOffset = u instanceof DenseVector ? ((DenseVector) u).offset : 0;
+        double[] vArray = v instanceof DenseVector ? ((DenseVector) v).array : v.getDenseArray();
+        int vOffset = v instanceof DenseVector ? ((DenseVector) v).offset : 0;
+        for (int i = 0; i < rowDimension; i++) {
+            double alphaXI = alpha * xArray[xOffset + i];
+            double betaUI = beta * uArray[uOffset + i];
+            if (alphaXI == 0 && betaUI == 0)
+                continue;
+            double[] rowI = rowArray(i);
+            int rowIOffset = rowOffset(i);
+            for (int j = 0; j < columnDimension; j++) {
+                rowI[rowIOffset + j] += alphaXI * yArray[yOffset + j] + betaUI * vArray[vOffset + j];
+            }
+        }
+        return this;
     }
 
     /**
@@ -1246,6 +1842,57 @@ public class Matrix {
         }
         return randomMatrix;
     }
+
+    /**
+     * Constructs a matrix with flat storage that wraps the provided one-dimensional array, without copying it. The
+     * array holds the matrix elements in row-major order and any changes to the array are reflected in the matrix and
+     * vice-versa.
+     *
+     * @param   data            One-dimensional array of doubles, holding the matrix elements in row-major order.
+     * @param   rowDimension    The row dimension of the matrix.
+     * @param   columnDimension The column dimension of the matrix.
+     * @return                  A matrix that uses the provided array as its internal storage.
+     *
+     * @throws  IllegalArgumentException    The length of the input array must be equal to the number of matrix elements.
+     */
+    public static Matrix wrap(double[] data, int rowDimension, int columnDimension) {
+        if (data.length != rowDimension * columnDimension) {
+            throw new IllegalArgumentException(
+                    "The length of the input array must be equal to the number of matrix elements."
+            );
+        }
+        return new Matrix(data, 0, columnDimension, rowDimension, columnDimension);
+    }
+
+    /**
+     * Constructs a matrix with flat storage that wraps a block of the provided one-dimensional array, without copying
+     * it. The element at row \(i\) and column \(j\) of the matrix is stored at index {@code offset + i *
+     * leadingDimension + j} of the array and any changes to the array are reflected in the matrix and vice-versa.
+     *
+     * @param   data                One-dimensional array of doubles, holding the matrix elements in row-major order.
+     * @param   offset              The index of the first matrix element in {@code data}.
+     * @param   leadingDimension    The distance in {@code data} between the first elements of two consecutive rows.
+     * @param   rowDimension        The row dimension of the matrix.
+     * @param   columnDimension     The column dimension of the matrix.
+     * @return                      A matrix that uses the provided array as its internal storage.
+     *
+     * @throws  IllegalArgumentException    The leading dimension must be at least equal to the column dimension and the
+     *                                      input array must be large enough to hold all matrix elements.
+     */
+    public static Matrix wrap(double[] data,
+                              int offset,
+                              int leadingDimension,
+                              int rowDimension,
+                              int columnDimension) {
+        if (leadingDimension < columnDimension) {
+            throw new IllegalArgumentException("The leading dimension must be at least equal to the column dimension.");
+        }
+        if (offset < 0 || (rowDimension > 0 && columnDimension > 0
+                && (long) offset + (long) (rowDimension - 1) * leadingDimension + columnDimension > data.length)) {
+            throw new IllegalArgumentException("The input array must be large enough to hold all matrix elements.");
+        }
+        return new Matrix(data, offset, leadingDimension, rowDimension, columnDimension);
+    }
     //endregion
 
     /**
@@ -1261,4 +1908,107 @@ public class Matrix {
             throw new IllegalArgumentException("Matrix dimensions must agree.");
         }
     }
+
+    /**
+     * Checks whether the provided row index is within bounds. This check is needed explicitly for matrices with flat
+     * storage, where an invalid index could otherwise silently access elements outside the matrix.
+     *
+     * @param   row The row index to check.
+     *
+     * @throws  ArrayIndexOutOfBoundsException  The provided row index is out of bounds.
+     */
+    private void checkRowIndex(int row) {
+        if (row < 0 || row >= rowDimension)
+            throw new ArrayIndexOutOfBoundsException(row);
+    }
+
+    /**
+     * Checks whether the provided column index is within bounds.
+     *
+     * @param   column  The column index to check.
+     *
+     * @throws  ArrayIndexOutOfBoundsException  The provided column index is out of bounds.
+     */
+    private void checkColumnIndex(int column) {
+        if (column < 0 || column >= columnDimension)
+            throw new ArrayIndexOutOfBoundsException(column);
+    }
+
+    /**
+     * Creates a new matrix filled with zeros, that uses the same storage mode as this matrix.
+     *
+     * @param   rowDimension    The row dimension of the matrix.
+     * @param   columnDimension The column dimension of the matrix.
+     * @return                  A new matrix filled with zeros.
+     */
+    private Matrix createMatrix(int rowDimension, int columnDimension) {
+        if (array != null)
+            return new Matrix(rowDimension, columnDimension);
+        return new Matrix(new double[rowDimension * columnDimension], 0, columnDimension, rowDimension, columnDimension);
+    }
+
+    /**
+     * Checks whether the sizes of the vectors of an outer product update agree with the dimensions of this matrix.
+     *
+     * @param   x   The vector whose size must match the row dimension of this matrix.
+     * @param   y   The vector whose size must match the column dimension of this matrix.
+     *
+     * @throws  IllegalArgumentException    The vector sizes must agree with the matrix dimensions.
+     */
+    private void checkUpdateVectorSizes(Vector x, Vector y) {
+        if (x.size() != rowDimension) {
+            throw new IllegalArgumentException(
+                    "The row dimension of the matrix must agree with the size of the left vector of the update."
+            );
+        }
+        if (y.size() != columnDimension) {
+            throw new IllegalArgumentException(
+                    "The column dimension of the matrix must agree with the size of the right vector of the update."
+            );
+        }
+    }
+
+    /**
+     * Checks whether this matrix may share any of its storage with the provided matrix (e.g., because one of them is a
+     * view of the other). The check is conservative for flat storage, where any two matrices backed by the same array
+     * are considered to share storage.
+     *
+     * @param   matrix  The matrix to check.
+     * @return          {@code true} if the two matrices may share storage and {@code false} otherwise.
+     */
+    private boolean sharesStorageWith(Matrix matrix) {
+        if (matrix == this)
+            return true;
+        if (data != null || matrix.data != null)
+            return data == matrix.data;
+        Set<double[]> rows = Collections.newSetFromMap(new IdentityHashMap<>());
+        rows.addAll(Arrays.asList(array).subList(0, rowDimension));
+        for (int i = 0; i < matrix.rowDimension; i++)
+            if (rows.contains(matrix.array[i]))
+                return true;
+        return false;
+    }
+
+    /**
+     * Gets the array that holds the provided row of this matrix. The elements of the row start at index
+     * {@link #rowOffset(int)} of the returned array. Together, these two methods allow kernels to be written once for
+     * both storage modes, with unit-stride access within each row.
+     *
+     * @param   row The row index.
+     * @return      The array that holds the provided row.
+     */
+    final double[] rowArray(int row) {
+        return array != null ? array[row] : data;
+    }
+
+    /**
+     * Gets the index of the first element of the provided row of this matrix, in the array returned by
+     * {@link #rowArray(int)}.
+     *
+     * @param   row The row index.
+     * @return      The index of the first element of the provided row.
+     */
+    final int rowOffset(int row) {
+        return array != null ? offset : offset + row * leadingDimension;
+    }
 }
@@ -0,0 +1,418 @@
+package module.math.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Cache-blocked general matrix-matrix multiplication (GEMM) kernel, computing \(C = \beta C + \alpha op(A) op(B)\),
+ * where \(op(X)\) is either \(X\) or \(X^T\). The implementation follows the usual layered approach: the output
+ * matrix is split into tiles that are distributed across the threads of a fork-join pool, the panels of \(op(A)\) and
+ * \(op(B)\) that contribute to a tile are packed into contiguous buffers sized to fit in the cache, and the innermost
+ * loop is a register-blocked micro-kernel that updates a small block of \(C\) at a time.
+ *
+ * All operands are specified as a matrix along with the row and column offsets of the block to use, so that the kernel
+ * can also be used for block updates within a single matrix (e.g., by the blocked decompositions). Both matrix storage
+ * modes are supported, since the matrices are only accessed through their rows.
+ * The block of \(C\) that is updated must not overlap with the blocks of \(A\) and \(B\) that are read.
+ *
+ * @author Andriy Chekhovych
+ */
+final class MatrixMultiplication {
+    /** Number of rows of the micro-kernel register block. */
+    private static final int MR = 4;
+    /** Number of columns of the micro-kernel register block. */
+    private static final int NR = 4;
+    /** Number of rows of \(op(A)\) packed together (sized so that a packed panel of \(op(A)\) fits in L2). */
+    private static final int MC = 128;
+    /** Length of the inner (shared) dimension packed together. */
+    private static final int KC = 256;
+    /** Number of columns of \(op(B)\) packed together (sized so that a packed panel of \(op(B)\) fits in L3). */
+    private static final int NC = 512;
+    /** Smallest tile dimension used when shrinking tiles to expose more parallelism. */
+    private static final int MINIMUM_TILE_SIZE = 32;
+
+    /** Options used for the products that are computed within tasks which are themselves already running in parallel
+     * (e.g., the block updates of the blocked decompositions). */
+    static final MatrixMultiplyOptions SEQUENTIAL =
+            new MatrixMultiplyOptions.Builder().maximumNumberOfThreads(1).build();
+
+    private MatrixMultiplication() { }
+
+    /**
+     * Runs the provided task once for every index in \([0, numberOfTasks)\). The indexes are handed out dynamically,
+     * from a shared counter, to at most {@code numberOfThreads} workers running in the fork-join pool of the provided
+     * options, so that tasks of different sizes are still balanced across the workers. The tasks are run on the calling
+     * thread when a single worker would be used.
+     *
+     * @param   numberOfTasks   The number of tasks.
+     * @param   numberOfThreads The maximum number of workers to use.
+     * @param   options         The options providing the fork-join pool to use.
+     * @param   task            The task to run for each index.
+     */
+    static void parallelFor(int numberOfTasks, int numberOfThreads, MatrixMultiplyOptions options, IntConsumer task) {
+        int numberOfWorkers = Math.min(numberOfThreads, numberOfTasks);
+        if (numberOfWorkers <= 1) {
+            for (int index = 0; index < numberOfTasks; index++)
+                task.accept(index);
+            return;
+        }
+        AtomicInteger nextTask = new AtomicInteger();
+        RecursiveAction[] workers = new RecursiveAction[numberOfWorkers];
+        for (int worker = 0; worker < numberOfWorkers; worker++) {
+            workers[worker] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    int index;
+                    while ((index = nextTask.getAndIncrement()) < numberOfTasks)
+                        task.accept(index);
+                }
+            };
+        }
+        ForkJoinPool pool = options.getForkJoinPool();
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(workers);
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(workers);
+                }
+            });
+        }
+    }
+
+    /**
+     * Computes \(C = \beta C + \alpha AB\) for the whole of the provided matrices.
+     *
+     * @param   alpha   The scalar \(\alpha\).
+     * @param   a       Matrix \(A\) (of size \(m \times k\)).
+     * @param   b       Matrix \(B\) (of size \(k \times n\)).
+     * @param   beta    The scalar \(\beta\).
+     * @param   c       Matrix \(C\) (of size \(m \times n\)).
+     * @param   m       The number of rows of \(A\) and \(C\).
+     * @param   n       The number of columns of \(B\) and \(C\).
+     * @param   k       The number of columns of \(A\) and rows of \(B\).
+     * @param   options The options to use for the multiplication.
+     */
+    static void gemm(double alpha, Matrix a, Matrix b, double beta, Matrix c,
+                     int m, int n, int k, MatrixMultiplyOptions options) {
+        gemm(false, false, m, n, k, alpha, a, 0, 0, b, 0, 0, beta, c, 0, 0, options);
+    }
+
+    /**
+     * Computes \(C = \beta C + \alpha op(A) op(B)\) on blocks of the provided matrices.
+     *
+     * @param   transposeA  Boolean value indicating whether \(op(A) = A^T\) (otherwise \(op(A) = A\)).
+     * @param   transposeB  Boolean value indicating whether \(op(B) = B^T\) (otherwise \(op(B) = B\)).
+     * @param   m           The number of rows of \(op(A)\) and \(C\).
+     * @param   n           The number of columns of \(op(B)\) and \(C\).
+     * @param   k           The number of columns of \(op(A)\) and rows of \(op(B)\).
+     * @param   alpha       The scalar \(\alpha\).
+     * @param   a           The matrix holding \(A\) as a block.
+     * @param   aRow        The row offset of the block of {@code a} holding \(A\).
+     * @param   aColumn     The column offset of the block of {@code a} holding \(A\).
+     * @param   b           The matrix holding \(B\) as a block.
+     * @param   bRow        The row offset of the block of {@code b} holding \(B\).
+     * @param   bColumn     The column offset of the block of {@code b} holding \(B\).
+     * @param   beta        The scalar \(\beta\).
+     * @param   c           The matrix holding \(C\) as a block.
+     * @param   cRow        The row offset of the block of {@code c} holding \(C\).
+     * @param   cColumn     The column offset of the block of {@code c} holding \(C\).
+     * @param   options     The options to use for the multiplication.
+     */
+    static void gemm(boolean transposeA, boolean transposeB, int m, int n, int k,
+                     double alpha, Matrix a, int aRow, int aColumn,
+                     Matrix b, int bRow, int bColumn,
+                     double beta, Matrix c, int cRow, int cColumn,
+                     MatrixMultiplyOptions options) {
+        if (m == 0 || n == 0)
+            return;
+        if (k == 0 || alpha == 0) {
+            scale(beta, c, cRow, cColumn, m, n);
+            return;
+        }
+        Product product = new Product(transposeA, transposeB, m, n, k, alpha, a, aRow, aColumn,
+                                      b, bRow, bColumn, beta, c, cRow, cColumn);
+        int numberOfThreads = (long) m * n * k < options.getParallelismThreshold() ?
+                1 : options.getMaximumNumberOfThreads();
+        product.createTiles(numberOfThreads);
+        int numberOfWorkers = Math.min(numberOfThreads, product.numberOfTiles);
+        if (numberOfWorkers <= 1) {
+            new Worker(product).compute();
+            return;
+        }
+        Worker[] workers = new Worker[numberOfWorkers];
+        for (int worker = 0; worker < numberOfWorkers; worker++)
+            workers[worker] = new Worker(product);
+        ForkJoinPool pool = options.getForkJoinPool();
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(workers);
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(workers);
+                }
+            });
+        }
+    }
+
+    /**
+     * Scales a block of a matrix in place. A \(\beta\) of zero overwrites the block with zeros, so that any NaN or
+     * infinite values already present in it are not propagated (this follows the BLAS convention).
+     */
+    private static void scale(double beta, Matrix c, int cRow, int cColumn, int m, int n) {
+        if (beta == 1)
+            return;
+        for (int i = cRow; i < cRow + m; i++) {
+            double[] cRowI = c.rowArray(i);
+            int start = c.rowOffset(i) + cColumn;
+            if (beta == 0) {
+                for (int j = start; j < start + n; j++)
+                    cRowI[j] = 0;
+            } else {
+                for (int j = start; j < start + n; j++)
+                    cRowI[j] *= beta;
+            }
+        }
+    }
+
+    /** Holds the description of a single product along with the tiling of its output matrix. */
+    private static final class Product {
+        private final boolean transposeA;
+        private final boolean transposeB;
+        private final int m;
+        private final int n;
+        private final int k;
+        private final double alpha;
+        private final Matrix a;
+        private final int aRow;
+        private final int aColumn;
+        private final Matrix b;
+        private final int bRow;
+        private final int bColumn;
+        private final double beta;
+        private final Matrix c;
+        private final int cRow;
+        private final int cColumn;
+        private final AtomicInteger nextTile = new AtomicInteger();
+
+        private int tileRows;
+        private int tileColumns;
+        private int numberOfTileRows;
+        private int numberOfTileColumns;
+        private int numberOfTiles;
+
+        private Product(boolean transposeA, boolean transposeB, int m, int n, int k,
+                        double alpha, Matrix a, int aRow, int aColumn,
+                        Matrix b, int bRow, int bColumn,
+                        double beta, Matrix c, int cRow, int cColumn) {
+            this.transposeA = transposeA;
+            this.transposeB = transposeB;
+            this.m = m;
+            this.n = n;
+            this.k = k;
+            this.alpha = alpha;
+            this.a = a;
+            this.aRow = aRow;
+            this.aColumn = aColumn;
+            this.b = b;
+            this.bRow = bRow;
+            this.bColumn = bColumn;
+            this.beta = beta;
+            this.c = c;
+            this.cRow = cRow;
+            this.cColumn = cColumn;
+        }
+
+        /**
+         * Splits the output matrix in tiles. The tiles are shrunk (down to a minimum size) until there are at least as
+         * many tiles as threads, so that small products can still be split across all available threads.
+         */
+        private void createTiles(int numberOfThreads) {
+            tileRows = Math.min(MC, roundUp(m, MR));
+            tileColumns = Math.min(NC, roundUp(n, NR));
+            while (countTiles() < numberOfThreads
+                    && (tileRows > MINIMUM_TILE_SIZE || tileColumns > MINIMUM_TILE_SIZE)) {
+                if (tileColumns >= tileRows)
+                    tileColumns = roundUp(tileColumns / 2, NR);
+                else
+                    tileRows = roundUp(tileRows / 2, MR);
+            }
+            numberOfTileRows = (m + tileRows - 1) / tileRows;
+            numberOfTileColumns = (n + tileColumns - 1) / tileColumns;
+            numberOfTiles = numberOfTileRows * numberOfTileColumns;
+        }
+
+        private int countTiles() {
+            return ((m + tileRows - 1) / tileRows) * ((n + tileColumns - 1) / tileColumns);
+        }
+
+        private static int roundUp(int value, int multiple) {
+            return Math.max(multiple, (value + multiple - 1) / multiple * multiple);
+        }
+
+        /** Packs the block of \(op(A)\) with the given offsets into slivers of {@link #MR} rows. */
+        private void packA(double[] packedA, int i0, int mc, int p0, int kc) {
+            int index = 0;
+            for (int ir = 0; ir < mc; ir += MR) {
+                int mr = Math.min(MR, mc - ir);
+                if (transposeA) {
+                    for (int p = 0; p < kc; p++) {
+                        double[] aRowP = a.rowArray(aRow + p0 + p);
+                        int column = a.rowOffset(aRow + p0 + p) + aColumn + i0 + ir;
+                        for (int r = 0; r < mr; r++)
+                            packedA[index + r] = aRowP[column + r];
+                        for (int r = mr; r < MR; r++)
+                            packedA[index + r] = 0;
+                        index += MR;
+                    }
+                } else {
+                    for (int r = 0; r < MR; r++) {
+                        if (r < mr) {
+                            double[] aRowI = a.rowArray(aRow + i0 + ir + r);
+                            int column = a.rowOffset(aRow + i0 + ir + r) + aColumn + p0;
+                            for (int p = 0; p < kc; p++)
+                                packedA[index + p * MR + r] = aRowI[column + p];
+                        } else {
+                            for (int p = 0; p < kc; p++)
+                                packedA[index + p * MR + r] = 0;
+                        }
+                    }
+                    index += kc * MR;
+                }
+            }
+        }
+
+        /** Packs the block of \(op(B)\) with the given offsets into slivers of {@link #NR} columns. */
+        private void packB(double[] packedB, int p0, int kc, int j0, int nc) {
+            int index = 0;
+            for (int jr = 0; jr < nc; jr += NR) {
+                int nr = Math.min(NR, nc - jr);
+                if (transposeB) {
+                    for (int c = 0; c < NR; c++) {
+                        if (c < nr) {
+                            double[] bRowJ = b.rowArray(bRow + j0 + jr + c);
+                            int column = b.rowOffset(bRow + j0 + jr + c) + bColumn + p0;
+                            for (int p = 0; p < kc; p++)
+                                packedB[index + p * NR + c] = bRowJ[column + p];
+                        } else {
+                            for (int p = 0; p < kc; p++)
+                                packedB[index + p * NR + c] = 0;
+                        }
+                    }
+                    index += kc * NR;
+                } else {
+                    for (int p = 0; p < kc; p++) {
+                        double[] bRowP = b.rowArray(bRow + p0 + p);
+                        int column = b.rowOffset(bRow + p0 + p) + bColumn + j0 + jr;
+                        for (int c = 0; c < nr; c++)
+                            packedB[index + c] = bRowP[column + c];
+                        for (int c = nr; c < NR; c++)
+                            packedB[index + c] = 0;
+                        index += NR;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Computes output tiles, taken from the shared tile counter of the product, until there are none left. */
+    private static final class Worker extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Product product;
+
+        private Worker(Product product) {
+            this.product = product;
+        }
+
+        @Override
+        protected void compute() {
+            Product product = this.product;
+            int maximumKC = Math.min(KC, product.k);
+            double[] packedA = new double[product.tileRows * maximumKC];
+            double[] packedB = new double[product.tileColumns * maximumKC];
+            int tile;
+            while ((tile = product.nextTile.getAndIncrement()) < product.numberOfTiles) {
+                int i0 = (tile / product.numberOfTileColumns) * product.tileRows;
+                int j0 = (tile % product.numberOfTileColumns) * product.tileColumns;
+                int mc = Math.min(product.tileRows, product.m - i0);
+                int nc = Math.min(product.tileColumns, product.n - j0);
+                scale(product.beta, product.c, product.cRow + i0, product.cColumn + j0, mc, nc);
+                for (int p0 = 0; p0 < product.k; p0 += KC) {
+                    int kc = Math.min(KC, product.k - p0);
+                    product.packB(packedB, p0, kc, j0, nc);
+                    product.packA(packedA, i0, mc, p0, kc);
+                    for (int jr = 0; jr < nc; jr += NR) {
+                        int nr = Math.min(NR, nc - jr);
+                        for (int ir = 0; ir < mc; ir += MR) {
+                            int mr = Math.min(MR, mc - ir);
+                            microKernel(kc, product.alpha, packedA, ir * kc, packedB, jr * kc, product.c,
+                                        product.cRow + i0 + ir, product.cColumn + j0 + jr, mr, nr);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes \(C = C + \alpha A B\) for a block of \(C\) of size at most {@link #MR} \(\times\) {@link #NR}, where
+     * \(A\) and \(B\) are packed slivers of length {@code kc}. The whole register block is accumulated in local
+     * variables so that the JIT compiler can keep it in registers.
+     */
+    private static void microKernel(int kc, double alpha, double[] a, int aOffset, double[] b, int bOffset,
+                                    Matrix c, int i, int j, int mr, int nr) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+        for (int p = 0; p < kc; p++) {
+            double a0 = a[aOffset];
+            double a1 = a[aOffset + 1];
+            double a2 = a[aOffset + 2];
+            double a3 = a[aOffset + 3];
+            double b0 = b[bOffset];
+            double b1 = b[bOffset + 1];
+            double b2 = b[bOffset + 2];
+            double b3 = b[bOffset + 3];
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+            aOffset += MR;
+            bOffset += NR;
+        }
+        if (mr == MR && nr == NR) {
+            double[] cRow0 = c.rowArray(i);
+            double[] cRow1 = c.rowArray(i + 1);
+            double[] cRow2 = c.rowArray(i + 2);
+            double[] cRow3 = c.rowArray(i + 3);
+            int j0 = c.rowOffset(i) + j;
+            int j1 = c.rowOffset(i + 1) + j;
+            int j2 = c.rowOffset(i + 2) + j;
+            int j3 = c.rowOffset(i + 3) + j;
+            cRow0[j0] += alpha * c00; cRow0[j0 + 1] += alpha * c01; cRow0[j0 + 2] += alpha * c02; cRow0[j0 + 3] += alpha * c03;
+            cRow1[j1] += alpha * c10; cRow1[j1 + 1] += alpha * c11; cRow1[j1 + 2] += alpha * c12; cRow1[j1 + 3] += alpha * c13;
+            cRow2[j2] += alpha * c20; cRow2[j2 + 1] += alpha * c21; cRow2[j2 + 2] += alpha * c22; cRow2[j2 + 3] += alpha * c23;
+            cRow3[j3] += alpha * c30; cRow3[j3 + 1] += alpha * c31; cRow3[j3 + 2] += alpha * c32; cRow3[j3 + 3] += alpha * c33;
+        } else {
+            double[] block = {
+                    c00, c01, c02, c03,
+                    c10, c11, c12, c13,
+                    c20, c21, c22, c23,
+                    c30, c31, c32, c33
+            };
+            for (int r = 0; r < mr; r++) {
+                double[] cRowR = c.rowArray(i + r);
+                int start = c.rowOffset(i + r) + j;
+                for (int s = 0; s < nr; s++)
+                    cRowR[start + s] += alpha * block[r * NR + s];
+            }
+        }
+    }
+}
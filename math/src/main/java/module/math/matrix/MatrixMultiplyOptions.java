@@ -0,0 +1,91 @@
+package module.math.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options controlling how matrix-matrix products are computed by {@link Matrix#multiply(Matrix,
+ * MatrixMultiplyOptions)}. Instances are immutable and are created using the {@link MatrixMultiplyOptions.Builder}
+ * class.
+ *
+ * @author Andriy Chekhovych
+ */
+public final class MatrixMultiplyOptions {
+    /** The default options used by {@link Matrix#multiply(Matrix)}. */
+    public static final MatrixMultiplyOptions DEFAULT = new Builder().build();
+
+    /** The maximum number of threads that may work on a single product. */
+    private final int maximumNumberOfThreads;
+    /** Products with fewer multiply-add operations than this threshold are always computed on the calling thread. */
+    private final long parallelismThreshold;
+    /** The fork-join pool in which the product tasks are executed. */
+    private final ForkJoinPool forkJoinPool;
+
+    public static final class Builder {
+        private int maximumNumberOfThreads = ForkJoinPool.getCommonPoolParallelism();
+        private long parallelismThreshold = 1L << 21;
+        private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+        public Builder() { }
+
+        /**
+         * Sets the maximum number of threads that may work on a single product. A value of 1 forces the product to be
+         * computed on the calling thread.
+         *
+         * @param   maximumNumberOfThreads  The maximum number of threads to use (must be at least 1).
+         * @return                          This builder.
+         *
+         * @throws  IllegalArgumentException    The maximum number of threads must be at least 1.
+         */
+        public Builder maximumNumberOfThreads(int maximumNumberOfThreads) {
+            if (maximumNumberOfThreads < 1)
+                throw new IllegalArgumentException("The maximum number of threads must be at least 1.");
+            this.maximumNumberOfThreads = maximumNumberOfThreads;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of multiply-add operations (i.e., \(m \times k \times n\)) above which a product is
+         * split across multiple threads.
+         *
+         * @param   parallelismThreshold    The parallelism threshold.
+         * @return                          This builder.
+         */
+        public Builder parallelismThreshold(long parallelismThreshold) {
+            this.parallelismThreshold = parallelismThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the fork-join pool in which the product tasks are executed. The common pool is used by default.
+         *
+         * @param   forkJoinPool    The fork-join pool to use.
+         * @return                  This builder.
+         */
+        public Builder forkJoinPool(ForkJoinPool forkJoinPool) {
+            this.forkJoinPool = forkJoinPool;
+            return this;
+        }
+
+        public MatrixMultiplyOptions build() {
+            return new MatrixMultiplyOptions(this);
+        }
+    }
+
+    private MatrixMultiplyOptions(Builder builder) {
+        maximumNumberOfThreads = builder.maximumNumberOfThreads;
+        parallelismThreshold = builder.parallelismThreshold;
+        forkJoinPool = builder.forkJoinPool;
+    }
+
+    public int getMaximumNumberOfThreads() {
+        return maximumNumberOfThreads;
+    }
+
+    public long getParallelismThreshold() {
+        return parallelismThreshold;
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+}
@@ -0,0 +1,104 @@
+package module.math.matrix;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Implements norm estimators that only require applying a linear operator (and its transpose) to a few vectors, rather
+ * than forming the operator explicitly. They are mainly used in order to estimate condition numbers using existing
+ * matrix decompositions, where applying the inverse of a matrix to a vector costs \(O(n^2)\) operations, as opposed to
+ * the \(O(n^3)\) operations required to form that inverse or to compute a singular value decomposition.
+ *
+ * @author Andriy Chekhovych
+ */
+final class NormEstimators {
+    /** The maximum number of iterations performed by the \(L_1\) norm estimator (this is the value used by LAPACK). */
+    private static final int MAXIMUM_NUMBER_OF_L1_NORM_ITERATIONS = 5;
+
+    // Suppress default constructor for noninstantiability
+    private NormEstimators() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Estimates the \(L_1\) norm of a square linear operator, \(B\), using Hager's algorithm, as refined by Higham (i.e.,
+     * the algorithm used by the LAPACK {@code xLACON} routines). The estimate is always a lower bound for the actual norm
+     * and it is almost always within a factor of 3 of it (and, in practice, it is usually exact). At most 11 products
+     * with \(B\) or \(B^T\) are computed.
+     *
+     * @param   dimension           The dimension of the operator.
+     * @param   multiply            Overwrites the provided array with the product of \(B\) with it.
+     * @param   transposeMultiply   Overwrites the provided array with the product of \(B^T\) with it.
+     * @return                      The estimate of the \(L_1\) norm of the operator.
+     */
+    static double estimateL1Norm(int dimension, Consumer<double[]> multiply, Consumer<double[]> transposeMultiply) {
+        if (dimension == 0)
+            return 0;
+        double[] x = new double[dimension];
+        Arrays.fill(x, 1.0 / dimension);
+        multiply.accept(x);
+        double estimate = computeL1Norm(x);
+        if (dimension == 1)
+            return estimate;
+        double[] signs = new double[dimension];
+        computeSigns(x, signs);
+        System.arraycopy(signs, 0, x, 0, dimension);
+        transposeMultiply.accept(x);
+        int j = findMaximumAbsoluteValueIndex(x);
+        for (int iteration = 2; ; iteration++) {
+            Arrays.fill(x, 0);
+            x[j] = 1;
+            multiply.accept(x);
+            double previousEstimate = estimate;
+            estimate = computeL1Norm(x);
+            // Stop if the signs of the result have not changed (in which case the next iteration would not improve the
+            // estimate) or if the estimate has not increased.
+            if (haveSameSigns(x, signs) || estimate <= previousEstimate) {
+                estimate = Math.max(estimate, previousEstimate);
+                break;
+            }
+            computeSigns(x, signs);
+            System.arraycopy(signs, 0, x, 0, dimension);
+            transposeMultiply.accept(x);
+            int previousJ = j;
+            j = findMaximumAbsoluteValueIndex(x);
+            if (x[previousJ] == Math.abs(x[j]) || iteration >= MAXIMUM_NUMBER_OF_L1_NORM_ITERATIONS)
+                break;
+        }
+        // Higham's safeguard: an alternating sign vector that catches the cases where the above iterations get stuck.
+        double alternatingSign = 1;
+        for (int i = 0; i < dimension; i++) {
+            x[i] = alternatingSign * (1 + (double) i / (dimension - 1));
+            alternatingSign = -alternatingSign;
+        }
+        multiply.accept(x);
+        return Math.max(estimate, 2 * computeL1Norm(x) / (3 * dimension));
+    }
+
+    private static double computeL1Norm(double[] x) {
+        double norm = 0;
+        for (double xI : x)
+            norm += Math.abs(xI);
+        return norm;
+    }
+
+    private static void computeSigns(double[] x, double[] signs) {
+        for (int i = 0; i < x.length; i++)
+            signs[i] = x[i] >= 0 ? 1 : -1;
+    }
+
+    private static boolean haveSameSigns(double[] x, double[] signs) {
+        for (int i = 0; i < x.length; i++)
+            if ((x[i] >= 0 ? 1 : -1) != signs[i])
+                return false;
+        return true;
+    }
+
+    private static int findMaximumAbsoluteValueIndex(double[] x) {
+        int index = 0;
+        for (int i = 1; i < x.length; i++)
+            if (Math.abs(x[i]) > Math.abs(x[index]))
+                index = i;
+        return index;
+    }
+}
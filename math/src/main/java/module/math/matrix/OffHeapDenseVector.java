@@ -0,0 +1,1228 @@
+package module.math.matrix;
+
+import module.utilities.MathUtilities;
+import module.utilities.UnsafeSerializationUtilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Implements a class representing dense vectors whose elements are stored outside of the Java heap, in a direct
+ * {@link ByteBuffer} or in a {@link MappedByteBuffer} over a file. Such vectors do not add to the garbage collection
+ * pressure of the application, no matter how large they are, and memory-mapped vectors can be shared between
+ * processes and reopened later on (e.g., in order to warm-start an optimization from a previously saved point).
+ *
+ * The elements are stored as consecutive doubles using the native byte order of the platform, which is the same layout
+ * used when serializing {@link DenseVector} instances. Note that a single buffer can hold at most
+ * {@link #MAXIMUM_SIZE} elements.
+ *
+ * Operations that return a new vector (e.g., {@link #add(Vector)}) return a new off-heap vector backed by a direct
+ * buffer, even when this vector is memory-mapped.
+ *
+ * @author Andriy Chekhovych
+ */
+public class OffHeapDenseVector extends Vector {
+    /** The maximum number of elements that an off-heap vector can hold. */
+    public static final int MAXIMUM_SIZE = Integer.MAX_VALUE >>> 3;
+    /** The number of bytes copied at a time when serializing and deserializing off-heap vectors. */
+    private static final int SERIALIZATION_CHUNK_SIZE = 1 << 16;
+
+    /** The size of the vector. */
+    protected int size;
+
+    /** Byte buffer for internal storage of the vector elements. */
+    private ByteBuffer byteBuffer;
+    /** Double view of {@link #byteBuffer}, used for accessing the vector elements. Its position is always zero and its
+     * limit is always equal to the size of the vector. */
+    protected DoubleBuffer buffer;
+    /** Boolean value indicating whether the vector elements are stored in a memory-mapped file. */
+    private final boolean memoryMapped;
+
+    /**
+     * Constructs an off-heap dense vector of the given size and fills it with zeros.
+     *
+     * @param   size    The size of the vector.
+     */
+    protected OffHeapDenseVector(int size) {
+        this(size, allocateByteBuffer(size), false);
+    }
+
+    /**
+     * Constructs an off-heap dense vector of the given size and fills it with the provided value.
+     *
+     * @param   size    The size of the vector.
+     * @param   value   The value with which to fill the vector.
+     */
+    protected OffHeapDenseVector(int size, double value) {
+        this(size);
+        setAll(value);
+    }
+
+    /**
+     * Constructs an off-heap dense vector from a one-dimensional array.
+     *
+     * @param   elements    One-dimensional array of values with which to fill the vector.
+     */
+    protected OffHeapDenseVector(double[] elements) {
+        this(elements.length);
+        buffer.put(elements);
+        buffer.clear();
+    }
+
+    /**
+     * Constructs an off-heap dense vector of the given size that stores its elements in the provided byte buffer.
+     *
+     * @param   size            The size of the vector.
+     * @param   byteBuffer      The byte buffer in which to store the vector elements (must be large enough to hold
+     *                          {@code size} doubles).
+     * @param   memoryMapped    Boolean value indicating whether the provided byte buffer is mapped to a file.
+     */
+    private OffHeapDenseVector(int size, ByteBuffer byteBuffer, boolean memoryMapped) {
+        this.size = size;
+        this.byteBuffer = byteBuffer;
+        this.memoryMapped = memoryMapped;
+        buffer = byteBuffer.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        buffer.limit(size);
+    }
+
+    /**
+     * Maps the provided file into memory and constructs an off-heap dense vector of the given size backed by it. If the
+     * file does not exist, it is created. If it is smaller than required to hold the vector elements, it is extended
+     * with zeros. Any existing contents of the file are used as the initial values of the vector elements and all
+     * changes to the vector are eventually written back to the file (see {@link #force()}).
+     *
+     * @param   path    The path of the file in which to store the vector elements.
+     * @param   size    The size of the vector.
+     * @return          The new vector.
+     * @throws  IOException
+     */
+    public static OffHeapDenseVector map(Path path, int size) throws IOException {
+        checkSize(size);
+        try (FileChannel channel = FileChannel.open(path,
+                                                    StandardOpenOption.CREATE,
+                                                    StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            MappedByteBuffer mappedByteBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) size << 3);
+            return new OffHeapDenseVector(size, mappedByteBuffer, true);
+        }
+    }
+
+    /**
+     * Maps the provided existing file into memory and constructs an off-heap dense vector backed by it, whose size is
+     * determined by the size of the file (i.e., the file size in bytes divided by 8).
+     *
+     * @param   path    The path of the file in which the vector elements are stored.
+     * @return          The new vector.
+     * @throws  IOException
+     */
+    public static OffHeapDenseVector map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size() >>> 3;
+            if (size > MAXIMUM_SIZE)
+                throw new IllegalArgumentException("The provided file is too large to be mapped to a single vector.");
+            MappedByteBuffer mappedByteBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size << 3);
+            return new OffHeapDenseVector((int) size, mappedByteBuffer, true);
+        }
+    }
+
+    /**
+     * Returns true if the elements of this vector are stored in a memory-mapped file.
+     *
+     * @return  True if the elements of this vector are stored in a memory-mapped file and false otherwise.
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Forces any changes made to the elements of this vector to be written to the underlying file, if this vector is
+     * memory-mapped. Otherwise, this method does nothing.
+     */
+    public void force() {
+        if (memoryMapped)
+            ((MappedByteBuffer) byteBuffer).force();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public VectorType type() {
+        return VectorType.OFF_HEAP_DENSE;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector copy() {
+        OffHeapDenseVector resultVector = new OffHeapDenseVector(size);
+        resultVector.buffer.put(buffer.duplicate());
+        resultVector.buffer.clear();
+        return resultVector;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] getDenseArray() {
+        double[] resultArray = new double[size];
+        buffer.duplicate().get(resultArray);
+        return resultArray;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int cardinality() {
+        int numberOfNonzeroElements = 0;
+        for (int i = 0; i < size; i++)
+            if (Math.abs(buffer.get(i)) >= epsilon)
+                numberOfNonzeroElements++;
+        return numberOfNonzeroElements;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException(
+                    "The provided index must be between 0 (inclusive) and the size of the vector (exclusive)."
+            );
+        }
+        return buffer.get(index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector get(int initialIndex, int finalIndex) {
+        if (initialIndex < 0 || initialIndex >= size || finalIndex < 0 || finalIndex >= size) {
+            throw new IllegalArgumentException(
+                    "The provided indexes must be between 0 (inclusive) and the size of the vector (exclusive)."
+            );
+        }
+        if (initialIndex > finalIndex) {
+            throw new IllegalArgumentException("The initial index must be smaller or equal to the final index.");
+        }
+        OffHeapDenseVector resultVector = new OffHeapDenseVector(finalIndex - initialIndex + 1);
+        DoubleBuffer sourceBuffer = buffer.duplicate();
+        sourceBuffer.position(initialIndex);
+        sourceBuffer.limit(finalIndex + 1);
+        resultVector.buffer.put(sourceBuffer);
+        resultVector.buffer.clear();
+        return resultVector;
+    }
+
+    /**
+     * Gets a view of a contiguous range of elements of this vector, in constant time. The returned vector shares its
+     * underlying buffer with this vector, and so changes to the elements of either vector are visible in the other one.
+     * Views of memory-mapped vectors are also memory-mapped, but {@link #force()} must be called on the vector they
+     * were created from in order to write any changes back to the underlying file.
+     *
+     * @param   initialIndex    The initial index.
+     * @param   finalIndex      The final index (inclusive).
+     * @return                  A view of the sub-vector corresponding to the provided indexes.
+     *
+     * @throws  java.lang.IllegalArgumentException  The provided indexes must be between 0 (inclusive) and the size of
+     *                                              the vector (exclusive) and the initial index must be smaller or
+     *                                              equal to the final index.
+     */
+    public OffHeapDenseVector getView(int initialIndex, int finalIndex) {
+        if (initialIndex < 0 || initialIndex >= size || finalIndex < 0 || finalIndex >= size) {
+            throw new IllegalArgumentException(
+                    "The provided indexes must be between 0 (inclusive) and the size of the vector (exclusive)."
+            );
+        }
+        if (initialIndex > finalIndex) {
+            throw new IllegalArgumentException("The initial index must be smaller or equal to the final index.");
+        }
+        ByteBuffer viewByteBuffer = byteBuffer.duplicate();
+        viewByteBuffer.limit((finalIndex + 1) << 3);
+        viewByteBuffer.position(initialIndex << 3);
+        return new OffHeapDenseVector(finalIndex - initialIndex + 1, viewByteBuffer.slice(), memoryMapped);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector get(int... indexes) {
+        OffHeapDenseVector resultVector = new OffHeapDenseVector(indexes.length);
+        DoubleBuffer resultVectorBuffer = resultVector.buffer;
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] < 0 || indexes[i] >= size) {
+                throw new IllegalArgumentException(
+                        "The provided indexes must be between 0 (inclusive) and the size of the vector (exclusive)."
+                );
+            }
+            resultVectorBuffer.put(i, buffer.get(indexes[i]));
+        }
+        return resultVector;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(int index, double value) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException(
+                    "The provided index must be between 0 (inclusive) and the size of the vector (exclusive)."
+            );
+        }
+        buffer.put(index, value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(int initialIndex, int finalIndex, Vector vector) {
+        if (initialIndex < 0 || initialIndex >= size || finalIndex < 0 || finalIndex >= size) {
+            throw new IllegalArgumentException(
+                    "The provided indexes must be between 0 (inclusive) and the size of the vector (exclusive)."
+            );
+        }
+        if (initialIndex > finalIndex) {
+            throw new IllegalArgumentException("The initial index must be smaller or equal to the final index");
+        }
+        for (int i = initialIndex; i <= finalIndex; i++) {
+            buffer.put(i, vector.get(i - initialIndex));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(int[] indexes, Vector vector) {
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] < 0 || indexes[i] >= size) {
+                throw new IllegalArgumentException(
+                        "The provided indexes must be between 0 (inclusive) and the size of the vector (exclusive)."
+                );
+            }
+            buffer.put(indexes[i], vector.get(i));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void set(Vector vector) {
+        checkVectorSize(vector);
+        if (vector instanceof DenseVector) {
+            buffer.put(((DenseVector) vector).array, ((DenseVector) vector).offset, size);
+            buffer.clear();
+        } else if (vector instanceof OffHeapDenseVector) {
+            buffer.put(((OffHeapDenseVector) vector).buffer.duplicate());
+            buffer.clear();
+        } else {
+            for (int i = 0; i < size; i++)
+                buffer.put(i, vector.get(i));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setAll(double value) {
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, value);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double max() {
+        double maxValue = buffer.get(0);
+        for (int i = 1; i < size; i++) {
+            maxValue = Math.max(maxValue, buffer.get(i));
+        }
+        return maxValue;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector maxElementwise(double value) {
+        return copy().maxElementwiseInPlace(value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector maxElementwiseInPlace(double value) {
+        for (int i = 0; i < size; i++)
+            buffer.put(i, Math.max(buffer.get(i), value));
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector maxElementwise(Vector vector) {
+        checkVectorSize(vector);
+        return copy().maxElementwiseInPlace(vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector maxElementwiseInPlace(Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++)
+            buffer.put(i, Math.max(buffer.get(i), vector.get(i)));
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double min() {
+        double minValue = buffer.get(0);
+        for (int i = 1; i < size; i++) {
+            minValue = Math.min(minValue, buffer.get(i));
+        }
+        return minValue;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector minElementwise(double value) {
+        return copy().minElementwiseInPlace(value);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector minElementwiseInPlace(double value) {
+        for (int i = 0; i < size; i++)
+            buffer.put(i, Math.min(buffer.get(i), value));
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector minElementwise(Vector vector) {
+        checkVectorSize(vector);
+        return copy().minElementwiseInPlace(vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector minElementwiseInPlace(Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++)
+            buffer.put(i, Math.min(buffer.get(i), vector.get(i)));
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double sum() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += buffer.get(i);
+        }
+        return sum;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double norm(VectorNorm normType) {
+        return normType.compute(buffer);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector add(double scalar) {
+        return copy().addInPlace(scalar);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector addInPlace(double scalar) {
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, buffer.get(i) + scalar);
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector add(Vector vector) {
+        checkVectorSize(vector);
+        return copy().saxpyInPlace(1, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector addInPlace(Vector vector) {
+        return saxpyInPlace(1, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector sub(double scalar) {
+        return copy().addInPlace(-scalar);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector subInPlace(double scalar) {
+        return addInPlace(-scalar);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector sub(Vector vector) {
+        checkVectorSize(vector);
+        return copy().saxpyInPlace(-1, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector subInPlace(Vector vector) {
+        return saxpyInPlace(-1, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector multElementwise(Vector vector) {
+        checkVectorSize(vector);
+        return copy().multElementwiseInPlace(vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector multElementwiseInPlace(Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, buffer.get(i) * vector.get(i));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector divElementwise(Vector vector) {
+        checkVectorSize(vector);
+        return copy().divElementwiseInPlace(vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector divElementwiseInPlace(Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, buffer.get(i) / vector.get(i));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mult(double scalar) {
+        return copy().multInPlace(scalar);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector multInPlace(double scalar) {
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, buffer.get(i) * scalar);
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector div(double scalar) {
+        return copy().divInPlace(scalar);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector divInPlace(double scalar) {
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, buffer.get(i) / scalar);
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector saxpy(double scalar, Vector vector) {
+        checkVectorSize(vector);
+        return copy().saxpyInPlace(scalar, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector saxpyInPlace(double scalar, Vector vector) {
+        checkVectorSize(vector);
+        if (vector instanceof DenseVector) {
+            double[] vectorArray = ((DenseVector) vector).array;
+            int vectorOffset = ((DenseVector) vector).offset;
+            for (int i = 0; i < size; i++)
+                buffer.put(i, buffer.get(i) + scalar * vectorArray[vectorOffset + i]);
+        } else if (vector instanceof OffHeapDenseVector) {
+            DoubleBuffer vectorBuffer = ((OffHeapDenseVector) vector).buffer;
+            for (int i = 0; i < size; i++)
+                buffer.put(i, buffer.get(i) + scalar * vectorBuffer.get(i));
+        } else if (vector instanceof SparseVector) {
+            SparseVector sparseVector = (SparseVector) vector;
+            for (int i = 0; i < sparseVector.numberOfNonzeroEntries; i++) {
+                int index = sparseVector.indexes[i];
+                buffer.put(index, buffer.get(index) + scalar * sparseVector.values[i]);
+            }
+        } else {
+            for (int i = 0; i < size; i++)
+                buffer.put(i, buffer.get(i) + scalar * vector.get(i));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector saxpyPlusConstant(double scalar, Vector vector) {
+        if (vector.size() + 1 != this.size())
+            throw new IllegalArgumentException("The provided vector size must be 1 less than the current vector size.");
+        return copy().saxpyPlusConstantInPlace(scalar, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector saxpyPlusConstantInPlace(double scalar, Vector vector) {
+        if (vector.size() + 1 != this.size())
+            throw new IllegalArgumentException("The provided vector size must be 1 less than the current vector size.");
+        for (int i = 0; i < size - 1; i++)
+            buffer.put(i, buffer.get(i) + scalar * vector.get(i));
+        buffer.put(size - 1, buffer.get(size - 1) + scalar);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double inner(Vector vector) {
+        checkVectorSize(vector);
+        double dotProduct = 0;
+        if (vector instanceof DenseVector) {
+            double[] vectorArray = ((DenseVector) vector).array;
+            int vectorOffset = ((DenseVector) vector).offset;
+            for (int i = 0; i < size; i++)
+                dotProduct += buffer.get(i) * vectorArray[vectorOffset + i];
+        } else if (vector instanceof OffHeapDenseVector) {
+            DoubleBuffer vectorBuffer = ((OffHeapDenseVector) vector).buffer;
+            for (int i = 0; i < size; i++)
+                dotProduct += buffer.get(i) * vectorBuffer.get(i);
+        } else if (vector instanceof SparseVector) {
+            SparseVector sparseVector = (SparseVector) vector;
+            for (int i = 0; i < sparseVector.numberOfNonzeroEntries; i++)
+                dotProduct += buffer.get(sparseVector.indexes[i]) * sparseVector.values[i];
+        } else {
+            for (int i = 0; i < size; i++)
+                dotProduct += buffer.get(i) * vector.get(i);
+        }
+        return dotProduct;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector axpbyInPlace(double a, Vector x, double b) {
+        checkVectorSize(x);
+        if (x instanceof DenseVector) {
+            double[] xArray = ((DenseVector) x).array;
+            int xOffset = ((DenseVector) x).offset;
+            for (int i = 0; i < size; i++)
+                buffer.put(i, a * xArray[xOffset + i] + b * buffer.get(i));
+        } else if (x instanceof OffHeapDenseVector) {
+            DoubleBuffer xBuffer = ((OffHeapDenseVector) x).buffer;
+            for (int i = 0; i < size; i++)
+                buffer.put(i, a * xBuffer.get(i) + b * buffer.get(i));
+        } else if (x instanceof SparseVector) {
+            SparseVector sparseVector = (SparseVector) x;
+            if (b != 1)
+                multInPlace(b);
+            for (int i = 0; i < sparseVector.numberOfNonzeroEntries; i++) {
+                int index = sparseVector.indexes[i];
+                buffer.put(index, buffer.get(index) + a * sparseVector.values[i]);
+            }
+        } else {
+            for (int i = 0; i < size; i++)
+                buffer.put(i, a * x.get(i) + b * buffer.get(i));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] innerAndNormSquared(Vector vector) {
+        checkVectorSize(vector);
+        double dotProduct = 0;
+        double normSquared = 0;
+        for (int i = 0; i < size; i++) {
+            double value = buffer.get(i);
+            dotProduct += value * vector.get(i);
+            normSquared += value * value;
+        }
+        return new double[] { dotProduct, normSquared };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] multiInner(Vector... vectors) {
+        for (Vector vector : vectors)
+            checkVectorSize(vector);
+        double[] dotProducts = new double[vectors.length];
+        for (int i = 0; i < size; i++) {
+            double value = buffer.get(i);
+            for (int j = 0; j < vectors.length; j++)
+                dotProducts[j] += value * vectors[j].get(i);
+        }
+        return dotProducts;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double innerPlusConstant(Vector vector) {
+        if (vector.size() + 1 != this.size())
+            throw new IllegalArgumentException("The provided vector size must be 1 less than the current vector size.");
+        double dotProduct = 0;
+        for (int i = 0; i < size - 1; i++)
+            dotProduct += buffer.get(i) * vector.get(i);
+        return dotProduct + buffer.get(size - 1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector hypotenuse(Vector vector) {
+        checkVectorSize(vector);
+        return copy().hypotenuseInPlace(vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector hypotenuseInPlace(Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, MathUtilities.computeHypotenuse(buffer.get(i), vector.get(i)));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector hypotenuseFast(Vector vector) {
+        checkVectorSize(vector);
+        return copy().hypotenuseFastInPlace(vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector hypotenuseFastInPlace(Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++) {
+            double value = buffer.get(i);
+            double vectorValue = vector.get(i);
+            buffer.put(i, Math.sqrt(value * value + vectorValue * vectorValue));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector map(DoubleUnaryOperator function) {
+        return copy().mapInPlace(function);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapInPlace(DoubleUnaryOperator function) {
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, function.applyAsDouble(buffer.get(i)));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapBiFunction(DoubleBinaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        return copy().mapBiFunctionInPlace(function, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapBiFunctionInPlace(DoubleBinaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, function.applyAsDouble(buffer.get(i), vector.get(i)));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapAdd(DoubleUnaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        return copy().mapAddInPlace(function, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapAddInPlace(DoubleUnaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, function.applyAsDouble(buffer.get(i)) + vector.get(i));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapSub(DoubleUnaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        return copy().mapSubInPlace(function, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapSubInPlace(DoubleUnaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, function.applyAsDouble(buffer.get(i)) - vector.get(i));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapMultElementwise(DoubleUnaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        return copy().mapMultElementwiseInPlace(function, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapMultElementwiseInPlace(DoubleUnaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, function.applyAsDouble(buffer.get(i)) * vector.get(i));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapDivElementwise(DoubleUnaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        return copy().mapDivElementwiseInPlace(function, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector mapDivElementwiseInPlace(DoubleUnaryOperator function, Vector vector) {
+        checkVectorSize(vector);
+        for (int i = 0; i < size; i++) {
+            buffer.put(i, function.applyAsDouble(buffer.get(i)) / vector.get(i));
+        }
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Matrix outer(Vector vector) {
+        checkVectorSize(vector);
+        Matrix resultMatrix = new Matrix(size, size);
+        double[][] resultMatrixArray = resultMatrix.getArray();
+        for (int i = 0; i < size; i++) {
+            double value = buffer.get(i);
+            for (int j = 0; j < size; j++) {
+                resultMatrixArray[i][j] = value * vector.get(j);
+            }
+        }
+        return resultMatrix;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector gaxpy(Matrix matrix, Vector vector) {
+        checkGaxpyDimensions(matrix, vector);
+        return copy().gaxpyInPlace(matrix, vector);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector gaxpyInPlace(Matrix matrix, Vector vector) {
+        checkGaxpyDimensions(matrix, vector);
+        double[] productArray = new double[size];
+        matrix.multiply(vector, productArray);
+        for (int i = 0; i < size; i++)
+            buffer.put(i, buffer.get(i) + productArray[i]);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public OffHeapDenseVector transMult(Matrix matrix) {
+        if (matrix.getRowDimension() != size) {
+            throw new IllegalArgumentException(
+                    "The row dimension of the matrix must agree with the size of the vector."
+            );
+        }
+        OffHeapDenseVector resultVector = new OffHeapDenseVector(matrix.getColumnDimension());
+        DoubleBuffer resultVectorBuffer = resultVector.buffer;
+        for (int i = 0; i < matrix.getRowDimension(); i++) {
+            double value = buffer.get(i);
+            if (value == 0)
+                continue;
+            double[] rowI = matrix.rowArray(i);
+            int rowIOffset = matrix.rowOffset(i);
+            for (int j = 0; j < matrix.getColumnDimension(); j++) {
+                resultVectorBuffer.put(j, resultVectorBuffer.get(j) + value * rowI[rowIOffset + j]);
+            }
+        }
+        return resultVector;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws  UnsupportedOperationException   Memory-mapped vectors cannot be resized.
+     */
+    @Override
+    public OffHeapDenseVector prepend(double value) {
+        resize(1);
+        buffer.put(0, value);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws  UnsupportedOperationException   Memory-mapped vectors cannot be resized.
+     */
+    @Override
+    public OffHeapDenseVector append(double value) {
+        resize(0);
+        buffer.put(size - 1, value);
+        return this;
+    }
+
+    /**
+     * Grows this vector by one element, by moving its elements to a new direct buffer, leaving the element at the
+     * provided offset uninitialized.
+     *
+     * @param   offset  The index in the new buffer at which the existing elements are copied (i.e., {@code 1} in order
+     *                  to make space for a new first element and {@code 0} in order to make space for a new last
+     *                  element).
+     *
+     * @throws  UnsupportedOperationException   Memory-mapped vectors cannot be resized.
+     */
+    private void resize(int offset) {
+        if (memoryMapped)
+            throw new UnsupportedOperationException("Memory-mapped vectors cannot be resized.");
+        ByteBuffer newByteBuffer = allocateByteBuffer(size + 1);
+        DoubleBuffer newBuffer = newByteBuffer.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        newBuffer.position(offset);
+        newBuffer.put(buffer.duplicate());
+        newBuffer.clear();
+        byteBuffer = newByteBuffer;
+        buffer = newBuffer;
+        size += 1;
+    }
+
+    /**
+     * Checks whether the dimensions of the provided matrix and vector agree with the size of this vector, for use in
+     * the gaxpy operations.
+     *
+     * @param   matrix  The matrix.
+     * @param   vector  The vector.
+     *
+     * @throws  IllegalArgumentException    The matrix dimensions must agree with the sizes of the vectors.
+     */
+    private void checkGaxpyDimensions(Matrix matrix, Vector vector) {
+        if (matrix.getRowDimension() != size) {
+            throw new IllegalArgumentException(
+                    "The row dimension of the matrix must agree with the size of the current vector."
+            );
+        }
+        if (matrix.getColumnDimension() != vector.size()) {
+            throw new IllegalArgumentException(
+                    "The column dimension of the matrix must agree with the size of the provided vector."
+            );
+        }
+    }
+
+    /**
+     * Checks whether the provided size can be held by an off-heap vector.
+     *
+     * @param   size    The size to check.
+     *
+     * @throws  IllegalArgumentException    The size must be between 0 and {@link #MAXIMUM_SIZE}.
+     */
+    private static void checkSize(int size) {
+        if (size < 0 || size > MAXIMUM_SIZE)
+            throw new IllegalArgumentException(
+                    "The size of an off-heap vector must be between 0 and " + MAXIMUM_SIZE + " (inclusive)."
+            );
+    }
+
+    /**
+     * Allocates a direct byte buffer that can hold the provided number of doubles.
+     *
+     * @param   size    The number of doubles that the buffer must be able to hold.
+     * @return          The new direct byte buffer, filled with zeros.
+     */
+    private static ByteBuffer allocateByteBuffer(int size) {
+        checkSize(size);
+        return ByteBuffer.allocateDirect(size << 3);
+    }
+
+    /**
+     * Returns an iterator used for iterating over all elements of this vector.
+     *
+     * @return  An iterator used for iterating over all elements of this vector.
+     */
+    @Override
+    public Iterator<Element> iterator() {
+        return new OffHeapDenseVectorIterator();
+    }
+
+    /**
+     * An iterator class used for iterating over {@link OffHeapDenseVector} elements.
+     */
+    private class OffHeapDenseVectorIterator implements Iterator<Element> {
+        /** Current element index in the vector. */
+        private int nextElementIndex = 0;
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean hasNext() {
+            return nextElementIndex < size;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Element next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            Element element = new Element(nextElementIndex, buffer.get(nextElementIndex));
+            nextElementIndex++;
+
+            return element;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Cursor cursor() {
+        return new OffHeapDenseVectorCursor();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void forEachNonzero(IntDoubleConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            double value = buffer.get(i);
+            if (value != 0)
+                consumer.accept(i, value);
+        }
+    }
+
+    /**
+     * A cursor class used for iterating over all {@link OffHeapDenseVector} elements.
+     */
+    private class OffHeapDenseVectorCursor implements Cursor {
+        /** Current element index in the vector. */
+        private int index = -1;
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean advance() {
+            return ++index < size;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int index() {
+            return index;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double value() {
+            return buffer.get(index);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setValue(double value) {
+            buffer.put(index, value);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void reset() {
+            index = -1;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof OffHeapDenseVector))
+            return false;
+        if (object == this)
+            return true;
+
+        OffHeapDenseVector that = (OffHeapDenseVector) object;
+
+        return size == that.size && buffer.equals(that.buffer);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return 31 * size + buffer.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        StringJoiner stringJoiner = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < size; i++)
+            stringJoiner.add(String.valueOf(buffer.get(i)));
+        return stringJoiner.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The elements are written using the same format as the one used by {@link DenseVector}, without ever copying the
+     * whole vector to the Java heap.
+     */
+    @Override
+    public void write(OutputStream outputStream, boolean includeType) throws IOException {
+        if (includeType)
+            UnsafeSerializationUtilities.writeInt(outputStream, type().ordinal());
+        UnsafeSerializationUtilities.writeInt(outputStream, size);
+        ByteBuffer sourceBuffer = elementBytes();
+        byte[] chunk = new byte[Math.min(sourceBuffer.remaining(), SERIALIZATION_CHUNK_SIZE)];
+        while (sourceBuffer.hasRemaining()) {
+            int length = Math.min(sourceBuffer.remaining(), chunk.length);
+            sourceBuffer.get(chunk, 0, length);
+            outputStream.write(chunk, 0, length);
+        }
+    }
+
+    /**
+     * Deserializes the off-heap dense vector stored in the provided input stream and returns it. The contents of the
+     * stream are copied directly into a new direct buffer.
+     *
+     * @param   inputStream Input stream from which the off-heap dense vector will be "read".
+     * @return              The off-heap dense vector obtained from the provided input stream.
+     * @throws  IOException
+     */
+    public static OffHeapDenseVector read(InputStream inputStream, boolean includeType) throws IOException {
+        if (includeType) {
+            VectorType vectorType = VectorType.values()[UnsafeSerializationUtilities.readInt(inputStream)];
+            if (vectorType != VectorType.OFF_HEAP_DENSE)
+                throw new InvalidObjectException("The stored vector is of type " + vectorType.name() + "!");
+        }
+        int size = UnsafeSerializationUtilities.readInt(inputStream);
+        OffHeapDenseVector vector = new OffHeapDenseVector(size);
+        ByteBuffer destinationBuffer = vector.elementBytes();
+        byte[] chunk = new byte[Math.min(destinationBuffer.remaining(), SERIALIZATION_CHUNK_SIZE)];
+        while (destinationBuffer.hasRemaining()) {
+            int bytesRead = inputStream.read(chunk, 0, Math.min(destinationBuffer.remaining(), chunk.length));
+            if (bytesRead == -1)
+                throw new InvalidObjectException("The stream ended before all the vector elements were read.");
+            destinationBuffer.put(chunk, 0, bytesRead);
+        }
+        return vector;
+    }
+
+    /**
+     * Returns a new byte buffer view of the bytes holding the elements of this vector, positioned at the first byte.
+     *
+     * @return  A new byte buffer view of the bytes holding the elements of this vector.
+     */
+    private ByteBuffer elementBytes() {
+        ByteBuffer elementBytes = byteBuffer.duplicate();
+        elementBytes.clear();
+        elementBytes.limit(size << 3);
+        return elementBytes;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InputStream getEncoder(boolean includeType) {
+        return new Encoder(includeType);
+    }
+
+    /**
+     * Encoder class for off-heap dense vectors. This class extends the Java {@link InputStream} class and can be used to
+     * copy off-heap dense vector instances into other locations (e.g., in a database). Note that this encoder uses the
+     * underlying vector and so, if that vector is changed, the output of this encoder might be changed and even become
+     * corrupt.
+     *
+     * The off-heap dense vector is serialized in the same way as {@link DenseVector} instances: (i) the size of the
+     * vector is encoded first, and (ii) the elements of the underlying buffer are encoded next, in the order in which
+     * they appear in the buffer.
+     */
+    protected class Encoder extends InputStream {
+        /** Buffer holding the encoded type (if requested) and size of the vector. */
+        final ByteBuffer header;
+        /** Buffer holding the encoded elements of the vector. */
+        final ByteBuffer elements;
+
+        /** Constructs an encoder object from the current vector. */
+        public Encoder(boolean includeType) {
+            header = ByteBuffer.allocate(8).order(ByteOrder.nativeOrder());
+            if (includeType)
+                header.putInt(VectorType.OFF_HEAP_DENSE.ordinal());
+            header.putInt(size);
+            header.flip();
+            elements = elementBytes();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read() {
+            if (header.hasRemaining())
+                return header.get() & 0xFF;
+            if (elements.hasRemaining())
+                return elements.get() & 0xFF;
+            return -1;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(byte[] destination) {
+            return read(destination, 0, destination.length);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int read(byte destination[], int offset, int length) {
+            if (destination == null)
+                throw new NullPointerException();
+            if (offset < 0 || length < 0 || length > destination.length - offset)
+                throw new IndexOutOfBoundsException();
+            ByteBuffer source = header.hasRemaining() ? header : elements;
+            if (!source.hasRemaining())
+                return -1;
+            int bytesRead = Math.min(source.remaining(), length);
+            source.get(destination, offset, bytesRead);
+            return bytesRead;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package module.math.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Chunked parallel implementations of element-wise operations and reductions over arrays backing dense vectors. The
+ * vector elements are stored in consecutive array elements, starting at some offset in each array, and they are split
+ * into consecutive chunks of {@link VectorOperationOptions#getChunkSize()} elements. Chunks are processed in parallel
+ * when the vector is large enough and the fork-join pool has more than one thread, and sequentially on the calling
+ * thread otherwise. Either way, the partial results of reductions are combined sequentially, in chunk order, so that
+ * the results only depend on the chunk size (and not on the number of threads or on how the chunks were scheduled).
+ *
+ * @author Andriy Chekhovych
+ */
+final class ParallelVectorOperations {
+    private ParallelVectorOperations() { }
+
+    /**
+     * Returns true if an operation over the provided number of elements should be split across multiple threads.
+     *
+     * @param   size    The number of elements.
+     * @param   options The options to use.
+     * @return          True if the operation should be performed in parallel.
+     */
+    static boolean isParallel(int size, VectorOperationOptions options) {
+        return size >= options.getParallelismThreshold()
+                && size > options.getChunkSize()
+                && options.getForkJoinPool().getParallelism() > 1;
+    }
+
+    /**
+     * Returns true if a reduction over the provided number of elements spans more than one chunk. Reductions over such
+     * vectors must always be computed chunk by chunk (in parallel or not), so that their results do not depend on
+     * whether they were parallelized.
+     *
+     * @param   size    The number of elements.
+     * @param   options The options to use.
+     * @return          True if the reduction should be computed chunk by chunk.
+     */
+    static boolean isChunked(int size, VectorOperationOptions options) {
+        return size > options.getChunkSize();
+    }
+
+    /**
+     * Computes the inner product of {@code size} elements of the provided arrays.
+     *
+     * @param   x       The first array.
+     * @param   xOffset The index of the first element in the first array.
+     * @param   y       The second array.
+     * @param   yOffset The index of the first element in the second array.
+     * @param   size    The number of elements.
+     * @param   options The options to use.
+     * @return          The inner product.
+     */
+    static double inner(double[] x, int xOffset, double[] y, int yOffset, int size, VectorOperationOptions options) {
+        return reduce(size, options, (from, to) -> {
+            double dotProduct = 0;
+            for (int i = from; i < to; i++)
+                dotProduct += x[xOffset + i] * y[yOffset + i];
+            return dotProduct;
+        }, (a, b) -> a + b);
+    }
+
+    /**
+     * Computes the sum of {@code size} elements of the provided array.
+     *
+     * @param   x       The array.
+     * @param   offset  The index of the first element in the array.
+     * @param   size    The number of elements.
+     * @param   options The options to use.
+     * @return          The sum.
+     */
+    static double sum(double[] x, int offset, int size, VectorOperationOptions options) {
+        return reduce(size, options, (from, to) -> {
+            double sum = 0;
+            for (int i = from; i < to; i++)
+                sum += x[offset + i];
+            return sum;
+        }, (a, b) -> a + b);
+    }
+
+    /**
+     * Computes the provided norm of {@code size} elements of the provided array.
+     *
+     * @param   x           The array.
+     * @param   offset      The index of the first element in the array.
+     * @param   size        The number of elements.
+     * @param   normType    The norm to compute.
+     * @param   options     The options to use.
+     * @return              The norm.
+     */
+    static double norm(double[] x, int offset, int size, VectorNorm normType, VectorOperationOptions options) {
+        return reduce(size,
+                      options,
+                      (from, to) -> normType.compute(x, offset + from, offset + to),
+                      normType::combine);
+    }
+
+    /**
+     * Computes \(y = y + \alpha x\) over {@code size} elements of the provided arrays.
+     *
+     * @param   y       The array that is updated.
+     * @param   yOffset The index of the first element in the array that is updated.
+     * @param   scalar  The scalar \(\alpha\).
+     * @param   x       The array that is added.
+     * @param   xOffset The index of the first element in the array that is added.
+     * @param   size    The number of elements.
+     * @param   options The options to use.
+     */
+    static void saxpy(double[] y,
+                      int yOffset,
+                      double scalar,
+                      double[] x,
+                      int xOffset,
+                      int size,
+                      VectorOperationOptions options) {
+        computeChunks(size, options, (from, to) -> {
+            for (int i = from; i < to; i++)
+                y[yOffset + i] += scalar * x[xOffset + i];
+            return 0;
+        });
+    }
+
+    /**
+     * Applies the provided chunk function to every chunk of the range \([0, size)\) and combines the partial results in
+     * chunk order.
+     *
+     * @param   size        The number of elements.
+     * @param   options     The options to use.
+     * @param   function    The function computing the partial result of a chunk.
+     * @param   combiner    The function combining two partial results.
+     * @return              The combined result.
+     */
+    private static double reduce(int size,
+                                 VectorOperationOptions options,
+                                 ChunkFunction function,
+                                 DoubleBinaryOperator combiner) {
+        double[] partialResults = computeChunks(size, options, function);
+        double result = partialResults[0];
+        for (int chunk = 1; chunk < partialResults.length; chunk++)
+            result = combiner.applyAsDouble(result, partialResults[chunk]);
+        return result;
+    }
+
+    /**
+     * Applies the provided chunk function to every chunk of the range \([0, size)\), in parallel if
+     * {@link #isParallel(int, VectorOperationOptions)} is true and sequentially on the calling thread otherwise.
+     *
+     * @param   size        The number of elements.
+     * @param   options     The options to use.
+     * @param   function    The function computing the partial result of a chunk.
+     * @return              The partial results of all chunks, in chunk order.
+     */
+    private static double[] computeChunks(int size, VectorOperationOptions options, ChunkFunction function) {
+        int chunkSize = options.getChunkSize();
+        int numberOfChunks = (int) (((long) size + chunkSize - 1) / chunkSize);
+        double[] partialResults = new double[numberOfChunks];
+        if (!isParallel(size, options)) {
+            for (int chunk = 0; chunk < numberOfChunks; chunk++) {
+                int from = chunk * chunkSize;
+                int to = (int) Math.min((long) from + chunkSize, size);
+                partialResults[chunk] = function.compute(from, to);
+            }
+            return partialResults;
+        }
+        ChunkTask task = new ChunkTask(0, numberOfChunks, size, chunkSize, function, partialResults);
+        ForkJoinPool pool = options.getForkJoinPool();
+        if (ForkJoinTask.getPool() == pool)
+            task.invoke();
+        else
+            pool.invoke(task);
+        return partialResults;
+    }
+
+    /** Function computing the partial result of an operation over a single chunk of elements. */
+    @FunctionalInterface
+    private interface ChunkFunction {
+        /**
+         * Computes the partial result for the elements in \([from, to)\).
+         *
+         * @param   from    The first element index (inclusive).
+         * @param   to      The last element index (exclusive).
+         * @return          The partial result.
+         */
+        double compute(int from, int to);
+    }
+
+    /** Task that recursively splits a range of chunks in halves and computes the partial result of each chunk. */
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstChunk;
+        private final int lastChunk;
+        private final int size;
+        private final int chunkSize;
+        private final ChunkFunction function;
+        private final double[] partialResults;
+
+        ChunkTask(int firstChunk,
+                  int lastChunk,
+                  int size,
+                  int chunkSize,
+                  ChunkFunction function,
+                  double[] partialResults) {
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.function = function;
+            this.partialResults = partialResults;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+            if (lastChunk - firstChunk == 1) {
+                int from = firstChunk * chunkSize;
+                int to = (int) Math.min((long) from + chunkSize, size);
+                partialResults[firstChunk] = function.compute(from, to);
+            } else {
+                int middleChunk = (firstChunk + lastChunk) >>> 1;
+                invokeAll(new ChunkTask(firstChunk, middleChunk, size, chunkSize, function, partialResults),
+                          new ChunkTask(middleChunk, lastChunk, size, chunkSize, function, partialResults));
+            }
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package module.math.matrix;
 
-import module.utilities.MathUtilities;
+import java.util.Arrays;
 
 /**
  * Implements the QR decomposition algorithm for matrix \(A\). Given \(A\in\mathbb{R}^{m\times n}\), with \(m\geq n\),
@@ -10,55 +10,194 @@ import module.utilities.MathUtilities;
  * decomposition is in the least squares solution of non-square systems of simultaneous matrix equations. In that case,
  * in order to obtain a solution, the matrix has to have full rank.
  *
+ * The decomposition is computed using blocked Householder reflections. The columns are split in panels, each panel is
+ * factored with unblocked Householder reflections and the product of the reflections of a panel is accumulated in the
+ * compact WY representation, \(I-VTV^T\), where \(V\) holds the Householder vectors and \(T\) is a small upper
+ * triangular matrix. This allows the trailing columns, as well as the right-hand sides of {@link #solve(Matrix)} and
+ * the columns of \(Q\), to be updated using the cache-blocked (and possibly parallel) matrix multiplication kernel. The
+ * factors are stored by column internally, so that the Householder vectors are contiguous in memory.
+ *
+ * For tall and skinny matrices (i.e., \(m\gg n\)), the decomposition can alternatively be computed using the TSQR
+ * algorithm (see {@link #tallSkinny(Matrix, int, MatrixMultiplyOptions)}), which factors blocks of rows independently
+ * and in parallel and then merges the resulting upper triangular factors with one more QR decomposition.
+ *
  * @author Andriy Chekhovych
  */
 public class QRDecomposition {
-    /** Two-dimensional array used for internal storage of the decomposition factors. */
-    private final double[][] QR;
+    /** The number of columns of each panel of the blocked factorization. */
+    private static final int BLOCK_SIZE = 64;
+
+    /** Flat array used for internal storage of the decomposition factors, stored by column (i.e., row \(k\) of this
+     * array holds column \(k\) of the factors). This is null for decompositions computed in the tall-skinny mode. */
+    private final double[] QR;
     /** One-dimensional array used for internal storage of the diagonal of the upper triangular factor, \(R\). */
     private final double[] rDiagonal;
+    /** The upper triangular factors, \(T\), of the compact WY representations of the reflections of each panel. */
+    private final double[][] tFactors;
     /** The row dimension of the matrix whose decomposition is being computed. */
     private final int rowDimension;
     /** The column dimension of the matrix whose decomposition is being computed. */
     private final int columnDimension;
+    /** The options used for the matrix multiplications and the parallel block updates. */
+    private final MatrixMultiplyOptions options;
+
+    /** The decompositions of the row blocks of the matrix (only used in the tall-skinny mode). */
+    private final QRDecomposition[] rowBlockDecompositions;
+    /** The index of the first row of each row block, followed by the row dimension of the matrix (only used in the
+     * tall-skinny mode). */
+    private final int[] rowBlockStarts;
+    /** The decomposition of the stacked upper triangular factors of the row blocks (only used in the tall-skinny
+     * mode). */
+    private final QRDecomposition mergeDecomposition;
 
     /** A boolean computeValue indicating whether or not the matrix whose decomposition is being computed is full rank. */
     private boolean isFullRank;
 
     /**
      * Constructs a QR decomposition object for the provided matrix. The actual decomposition is computed within this
-     * constructor using Householder reflections.
+     * constructor using blocked Householder reflections and {@link MatrixMultiplyOptions#DEFAULT}.
      *
      * @param   matrix  The matrix whose QR decomposition is being computed.
      */
     public QRDecomposition(Matrix matrix) {
-        QR = matrix.getArrayCopy();
+        this(matrix, MatrixMultiplyOptions.DEFAULT);
+    }
+
+    /**
+     * Constructs a QR decomposition object for the provided matrix, using the provided options for the block updates
+     * (e.g., in order to limit the number of threads used). The actual decomposition is computed within this
+     * constructor using blocked Householder reflections.
+     *
+     * @param   matrix  The matrix whose QR decomposition is being computed.
+     * @param   options The options to use for the block updates.
+     */
+    public QRDecomposition(Matrix matrix, MatrixMultiplyOptions options) {
         rowDimension = matrix.getRowDimension();
         columnDimension = matrix.getColumnDimension();
+        this.options = options;
+        rowBlockDecompositions = null;
+        rowBlockStarts = null;
+        mergeDecomposition = null;
+        double[] matrixArray = matrix.getRowPackedArrayCopy();
+        QR = new double[columnDimension * rowDimension];
+        for (int i = 0; i < rowDimension; i++)
+            for (int j = 0; j < columnDimension; j++)
+                QR[j * rowDimension + i] = matrixArray[i * columnDimension + j];
         rDiagonal = new double[columnDimension];
+        tFactors = new double[(columnDimension + BLOCK_SIZE - 1) / BLOCK_SIZE][];
         isFullRank = true;
 
-        for (int k = 0; k < columnDimension; k++) {
-            double columnL2Norm = 0;
-            for (int i = k; i < rowDimension; i++) {
-                columnL2Norm = MathUtilities.computeHypotenuse(columnL2Norm, QR[i][k]);
-            }
+        Matrix factors = Matrix.wrap(QR, columnDimension, rowDimension);
+        for (int k0 = 0, block = 0; k0 < columnDimension; k0 += BLOCK_SIZE, block++) {
+            int kb = Math.min(BLOCK_SIZE, columnDimension - k0);
+            factorPanel(k0, kb);
+            tFactors[block] = computeTFactor(k0, kb);
+            int trailingDimension = columnDimension - k0 - kb;
+            if (trailingDimension == 0)
+                continue;
+            // The trailing columns, C, are stored as the rows of the factors array, and so C^T is updated as
+            // C^T = C^T - (C^T V) T V^T, which is the transpose of C = (I - V T V^T)^T C.
+            int length = rowDimension - k0;
+            Matrix Vt = buildVt(k0, kb);
+            Matrix W = Matrix.wrap(new double[trailingDimension * kb], trailingDimension, kb);
+            MatrixMultiplication.gemm(false, true, trailingDimension, kb, length,
+                                      1, factors, k0 + kb, k0, Vt, 0, 0, 0, W, 0, 0, options);
+            multiplyRowsWithUpperTriangular(W.getFlatArray(), trailingDimension, tFactors[block], kb);
+            MatrixMultiplication.gemm(false, false, trailingDimension, length, kb,
+                                      -1, W, 0, 0, Vt, 0, 0, 1, factors, k0 + kb, k0, options);
+        }
+    }
+
+    /**
+     * Constructs a QR decomposition object for the provided matrix using the TSQR algorithm.
+     *
+     * @param   matrix              The matrix whose QR decomposition is being computed.
+     * @param   numberOfRowBlocks   The number of row blocks.
+     * @param   options             The options to use.
+     */
+    private QRDecomposition(Matrix matrix, int numberOfRowBlocks, MatrixMultiplyOptions options) {
+        rowDimension = matrix.getRowDimension();
+        columnDimension = matrix.getColumnDimension();
+        this.options = options;
+        QR = null;
+        rDiagonal = null;
+        tFactors = null;
+        rowBlockDecompositions = new QRDecomposition[numberOfRowBlocks];
+        rowBlockStarts = new int[numberOfRowBlocks + 1];
+        for (int block = 0; block <= numberOfRowBlocks; block++)
+            rowBlockStarts[block] = (int) ((long) block * rowDimension / numberOfRowBlocks);
+        MatrixMultiplication.parallelFor(numberOfRowBlocks, numberOfThreads(columnDimension), options, block -> {
+            Matrix rowBlock = matrix.getSubMatrixView(rowBlockStarts[block], rowBlockStarts[block + 1] - 1,
+                                                      0, columnDimension - 1);
+            rowBlockDecompositions[block] = new QRDecomposition(rowBlock, MatrixMultiplication.SEQUENTIAL);
+        });
+        double[] stackedR = new double[numberOfRowBlocks * columnDimension * columnDimension];
+        for (int block = 0; block < numberOfRowBlocks; block++)
+            rowBlockDecompositions[block].copyR(stackedR, block * columnDimension * columnDimension);
+        mergeDecomposition = new QRDecomposition(
+                Matrix.wrap(stackedR, numberOfRowBlocks * columnDimension, columnDimension), options);
+        isFullRank = mergeDecomposition.isFullRank;
+    }
+
+    /**
+     * Computes the QR decomposition of a tall and skinny matrix using the TSQR algorithm. The rows of the matrix are
+     * split in the provided number of contiguous blocks, each block is factored independently (and in parallel, as
+     * specified by the provided options), and the upper triangular factors of all blocks are stacked and factored once
+     * more to obtain the final upper triangular factor. This exposes parallelism even when the matrix has too few
+     * columns for the blocked factorization to benefit from it, and it reads the matrix only once. The orthogonal
+     * factor is represented implicitly, as the product of the orthogonal factors of the blocks and of the merge step,
+     * and so the Householder reflection vectors (i.e., {@link #getH()}) are not available in this mode.
+     *
+     * @param   matrix              The matrix whose QR decomposition is being computed.
+     * @param   numberOfRowBlocks   The number of row blocks (usually, the number of available threads).
+     * @param   options             The options to use for the block factorizations and the merge step.
+     * @return                      The QR decomposition of the provided matrix.
+     *
+     * @throws  IllegalArgumentException    The number of row blocks must be positive and each row block must have at
+     *                                      least as many rows as the matrix has columns.
+     */
+    public static QRDecomposition tallSkinny(Matrix matrix, int numberOfRowBlocks, MatrixMultiplyOptions options) {
+        if (numberOfRowBlocks < 1) {
+            throw new IllegalArgumentException("The number of row blocks must be positive.");
+        }
+        if (matrix.getRowDimension() / numberOfRowBlocks < matrix.getColumnDimension()) {
+            throw new IllegalArgumentException(
+                    "Each row block must have at least as many rows as the matrix has columns."
+            );
+        }
+        if (numberOfRowBlocks == 1)
+            return new QRDecomposition(matrix, options);
+        return new QRDecomposition(matrix, numberOfRowBlocks, options);
+    }
+
+    /**
+     * Factors the panel that starts at the provided column using unblocked Householder reflections. The reflections
+     * are only applied to the columns of the panel.
+     *
+     * @param   k0  The index of the first column of the panel.
+     * @param   kb  The number of columns of the panel.
+     */
+    private void factorPanel(int k0, int kb) {
+        for (int k = k0; k < k0 + kb; k++) {
+            int columnK = k * rowDimension;
+            double columnL2Norm = computeL2Norm(QR, columnK + k, columnK + rowDimension);
             if (columnL2Norm != 0.0) {
-                if (QR[k][k] < 0) {
+                if (QR[columnK + k] < 0) {
                     columnL2Norm = -columnL2Norm;
                 }
                 for (int i = k; i < rowDimension; i++) {
-                    QR[i][k] /= columnL2Norm;
+                    QR[columnK + i] /= columnL2Norm;
                 }
-                QR[k][k] += 1.0;
-                for (int j = k + 1; j < columnDimension; j++) {
+                QR[columnK + k] += 1.0;
+                for (int j = k + 1; j < k0 + kb; j++) {
+                    int columnJ = j * rowDimension;
                     double temporarySum = 0.0;
                     for (int i = k; i < rowDimension; i++) {
-                        temporarySum -= QR[i][k] * QR[i][j];
+                        temporarySum -= QR[columnK + i] * QR[columnJ + i];
                     }
-                    temporarySum /= QR[k][k];
+                    temporarySum /= QR[columnK + k];
                     for (int i = k; i < rowDimension; i++) {
-                        QR[i][j] += temporarySum * QR[i][k];
+                        QR[columnJ + i] += temporarySum * QR[columnK + i];
                     }
                 }
             }
@@ -70,101 +209,327 @@ public class QRDecomposition {
     }
 
     /**
-     * Solves the linear system of equations \(A\boldsymbol{x}=\boldsymbol{b}\) for \(\boldsymbol{x}\) and returns the
-     * result as a new vector. The solution is obtained efficiently by using the QR decomposition.
+     * Computes the L2 norm of a range of an array, scaling the elements by their maximum absolute value in order to
+     * avoid overflow and underflow.
      *
-     * @param   vector  Vector \(\boldsymbol{b}\) in equation \(A\boldsymbol{x}=\boldsymbol{b}\).
-     * @return          The solution of the system of equations.
+     * @param   array   The array.
+     * @param   from    The index of the first element (inclusive).
+     * @param   to      The index of the last element (exclusive).
+     * @return          The L2 norm of the elements in the range.
      */
-    public Vector solve(Vector vector) throws SingularMatrixException {
-        if (vector.size() != rowDimension) {
-            throw new IllegalArgumentException("Matrix row dimensions must agree.");
-        }
-        if (!isFullRank) {
-            throw new SingularMatrixException(
-                    "Rank deficient matrix! A solution cannot be obtained using the QR decomposition!"
-            );
+    static double computeL2Norm(double[] array, int from, int to) {
+        double scale = 0.0;
+        for (int i = from; i < to; i++)
+            scale = Math.max(scale, Math.abs(array[i]));
+        if (scale == 0.0 || Double.isInfinite(scale) || Double.isNaN(scale))
+            return scale;
+        double sumOfSquares = 0.0;
+        for (int i = from; i < to; i++) {
+            double scaledValue = array[i] / scale;
+            sumOfSquares += scaledValue * scaledValue;
         }
-        Vector resultVector = vector.copy();
-        // Compute \(Y=Q^TB\).
-        for (int k = 0; k < columnDimension; k++) {
-            double temporarySum = 0.0;
-            for (int i = k; i < rowDimension; i++) {
-                temporarySum -= QR[i][k] * resultVector.get(i);
+        return scale * Math.sqrt(sumOfSquares);
+    }
+
+    /**
+     * Builds \(V^T\) for the panel that starts at the provided column, as a new matrix. Row \(r\) of the result holds
+     * the Householder vector of column \(k_0+r\), restricted to rows \(k_0\) to \(m-1\), with explicit zeros above its
+     * first element (where the factors array holds elements of \(R\) instead).
+     *
+     * @param   k0  The index of the first column of the panel.
+     * @param   kb  The number of columns of the panel.
+     * @return      \(V^T\) as a new \(k_b\times(m-k_0)\) matrix.
+     */
+    private Matrix buildVt(int k0, int kb) {
+        int length = rowDimension - k0;
+        double[] vt = new double[kb * length];
+        for (int r = 0; r < kb; r++)
+            System.arraycopy(QR, (k0 + r) * rowDimension + k0 + r, vt, r * length + r, length - r);
+        return Matrix.wrap(vt, kb, length);
+    }
+
+    /**
+     * Computes the upper triangular factor, \(T\), of the compact WY representation, \(H_1H_2\cdots H_{k_b}=I-VTV^T\),
+     * of the reflections of the panel that starts at the provided column. Each reflection is
+     * \(H_k=I-\boldsymbol{v}_k\boldsymbol{v}_k^T/v_{kk}\), or the identity if its Householder vector is zero.
+     *
+     * @param   k0  The index of the first column of the panel.
+     * @param   kb  The number of columns of the panel.
+     * @return      \(T\), as a flat \(k_b\times k_b\) array in row-major order.
+     */
+    private double[] computeTFactor(int k0, int kb) {
+        double[] t = new double[kb * kb];
+        double[] z = new double[kb];
+        for (int i = 0; i < kb; i++) {
+            int columnI = (k0 + i) * rowDimension;
+            double tau = QR[columnI + k0 + i] == 0 ? 0 : 1 / QR[columnI + k0 + i];
+            t[i * kb + i] = tau;
+            if (tau == 0)
+                continue;
+            for (int j = 0; j < i; j++) {
+                int columnJ = (k0 + j) * rowDimension;
+                double innerProduct = 0;
+                for (int p = k0 + i; p < rowDimension; p++)
+                    innerProduct += QR[columnJ + p] * QR[columnI + p];
+                z[j] = innerProduct;
             }
-            temporarySum /= QR[k][k];
-            for (int i = k; i < rowDimension; i++) {
-                resultVector.set(i, resultVector.get(i) + temporarySum * QR[i][k]);
+            for (int r = 0; r < i; r++) {
+                double sum = 0;
+                for (int q = r; q < i; q++)
+                    sum += t[r * kb + q] * z[q];
+                t[r * kb + i] = -tau * sum;
             }
         }
-        // Solve \(RX=Y\).
-        for (int k = columnDimension - 1; k >= 0; k--) {
-            resultVector.set(k, resultVector.get(k) / rDiagonal[k]);
-            for (int i = 0; i < k; i++) {
-                resultVector.set(i, resultVector.get(i) - resultVector.get(k) * QR[i][k]);
+        return t;
+    }
+
+    /**
+     * Replaces each row, \(\boldsymbol{w}^T\), of the provided matrix with \(\boldsymbol{w}^TT\), in place.
+     *
+     * @param   w               The matrix, as a flat array in row-major order.
+     * @param   numberOfRows    The number of rows of the matrix.
+     * @param   t               The upper triangular matrix \(T\), as a flat array in row-major order.
+     * @param   kb              The dimension of \(T\) (which is also the number of columns of the matrix).
+     */
+    private static void multiplyRowsWithUpperTriangular(double[] w, int numberOfRows, double[] t, int kb) {
+        for (int row = 0; row < numberOfRows; row++) {
+            int offset = row * kb;
+            for (int i = kb - 1; i >= 0; i--) {
+                double sum = 0;
+                for (int q = 0; q <= i; q++)
+                    sum += w[offset + q] * t[q * kb + i];
+                w[offset + i] = sum;
             }
         }
-        return resultVector.get(0, columnDimension - 1);
     }
 
     /**
-     * Solves the linear system of equations \(AX=B\) for \(X\) and returns the result as a new matrix. The solution is
-     * obtained efficiently by using the QR decomposition.
+     * Applies the block reflector of a panel, \(I-VTV^T\) (or its transpose), to rows \(k_0\) to \(m-1\) of the
+     * provided matrix, in place.
      *
-     * @param   matrix  Matrix \(B\) in equation \(AX=B\).
-     * @return          The solution of the system of linear equations.
+     * @param   x           The matrix, with \(m\) rows, to which the block reflector is applied.
+     * @param   k0          The index of the first column of the panel.
+     * @param   block       The index of the panel.
+     * @param   transpose   Boolean value indicating whether to apply the transpose of the block reflector.
      */
-    public Matrix solve(Matrix matrix) throws SingularMatrixException {
-        if (matrix.getRowDimension() != rowDimension) {
-            throw new IllegalArgumentException("Matrix row dimensions must agree.");
-        }
-        if (!isFullRank) {
-            throw new SingularMatrixException(
-                    "Rank deficient matrix! A solution cannot be obtained using the QR decomposition!"
-            );
+    private void applyBlockReflector(Matrix x, int k0, int block, boolean transpose) {
+        int kb = Math.min(BLOCK_SIZE, columnDimension - k0);
+        int length = rowDimension - k0;
+        int numberOfColumns = x.getColumnDimension();
+        double[] t = tFactors[block];
+        Matrix Vt = buildVt(k0, kb);
+        Matrix W = Matrix.wrap(new double[kb * numberOfColumns], kb, numberOfColumns);
+        double[] w = W.getFlatArray();
+        MatrixMultiplication.gemm(false, false, kb, numberOfColumns, length,
+                                  1, Vt, 0, 0, x, k0, 0, 0, W, 0, 0, options);
+        if (transpose) {
+            // Compute W = T^T W, from the last row to the first one, so that it can be done in place.
+            for (int i = kb - 1; i >= 0; i--) {
+                int rowI = i * numberOfColumns;
+                double tII = t[i * kb + i];
+                for (int j = 0; j < numberOfColumns; j++)
+                    w[rowI + j] *= tII;
+                for (int q = 0; q < i; q++) {
+                    double tQI = t[q * kb + i];
+                    int rowQ = q * numberOfColumns;
+                    for (int j = 0; j < numberOfColumns; j++)
+                        w[rowI + j] += tQI * w[rowQ + j];
+                }
+            }
+        } else {
+            // Compute W = T W, from the first row to the last one, so that it can be done in place.
+            for (int i = 0; i < kb; i++) {
+                int rowI = i * numberOfColumns;
+                double tII = t[i * kb + i];
+                for (int j = 0; j < numberOfColumns; j++)
+                    w[rowI + j] *= tII;
+                for (int q = i + 1; q < kb; q++) {
+                    double tIQ = t[i * kb + q];
+                    int rowQ = q * numberOfColumns;
+                    for (int j = 0; j < numberOfColumns; j++)
+                        w[rowI + j] += tIQ * w[rowQ + j];
+                }
+            }
         }
-        double[][] rightHandSideMatrixArray = matrix.getArrayCopy();
-        int resultMatrixColumnDimension = matrix.getColumnDimension();
-        // Compute \(Y=Q^TB\).
-        for (int k = 0; k < columnDimension; k++) {
-            for (int j = 0; j < resultMatrixColumnDimension; j++) {
+        MatrixMultiplication.gemm(true, false, length, numberOfColumns, kb,
+                                  -1, Vt, 0, 0, W, 0, 0, 1, x, k0, 0, options);
+    }
+
+    /**
+     * Computes \(Q^TX\) in place, where \(X\) is the provided \(m\times r\) matrix, stored as a flat array in row-major
+     * order. A single right-hand side is handled with one unit-stride pass per reflection, while multiple right-hand
+     * sides are handled one panel at a time, using the compact WY representation.
+     *
+     * @param   x               The matrix, \(X\), as a flat array in row-major order.
+     * @param   numberOfColumns The number of columns, \(r\), of \(X\).
+     */
+    private void applyQTranspose(double[] x, int numberOfColumns) {
+        if (numberOfColumns == 1) {
+            for (int k = 0; k < columnDimension; k++) {
+                int columnK = k * rowDimension;
+                if (QR[columnK + k] == 0)
+                    continue;
                 double temporarySum = 0.0;
                 for (int i = k; i < rowDimension; i++) {
-                    temporarySum -= QR[i][k] * rightHandSideMatrixArray[i][j];
+                    temporarySum -= QR[columnK + i] * x[i];
                 }
-                temporarySum /= QR[k][k];
+                temporarySum /= QR[columnK + k];
                 for (int i = k; i < rowDimension; i++) {
-                    rightHandSideMatrixArray[i][j] += temporarySum * QR[i][k];
+                    x[i] += temporarySum * QR[columnK + i];
                 }
             }
+            return;
         }
-        // Solve \(RX=Y\).
+        Matrix X = Matrix.wrap(x, rowDimension, numberOfColumns);
+        for (int k0 = 0, block = 0; k0 < columnDimension; k0 += BLOCK_SIZE, block++)
+            applyBlockReflector(X, k0, block, true);
+    }
+
+    /**
+     * Solves \(RX=Y\) in place, where \(Y\) is held in the first \(n\) rows of the provided matrix, stored as a flat
+     * array in row-major order.
+     *
+     * @param   x               The matrix holding \(Y\), as a flat array in row-major order.
+     * @param   numberOfColumns The number of columns of \(Y\).
+     */
+    private void solveUpperTriangular(double[] x, int numberOfColumns) {
         for (int k = columnDimension - 1; k >= 0; k--) {
-            for (int j = 0; j < resultMatrixColumnDimension; j++) {
-                rightHandSideMatrixArray[k][j] /= rDiagonal[k];
+            int columnK = k * rowDimension;
+            int rowK = k * numberOfColumns;
+            for (int j = 0; j < numberOfColumns; j++) {
+                x[rowK + j] /= rDiagonal[k];
             }
             for (int i = 0; i < k; i++) {
-                for (int j = 0; j < resultMatrixColumnDimension; j++) {
-                    rightHandSideMatrixArray[i][j] -= rightHandSideMatrixArray[k][j] * QR[i][k];
+                double rIK = QR[columnK + i];
+                int rowI = i * numberOfColumns;
+                for (int j = 0; j < numberOfColumns; j++) {
+                    x[rowI + j] -= x[rowK + j] * rIK;
                 }
             }
         }
-        return (new Matrix(rightHandSideMatrixArray, columnDimension, resultMatrixColumnDimension))
-                .getSubMatrix(0, columnDimension - 1, 0, resultMatrixColumnDimension - 1);
+    }
+
+    /**
+     * Computes the least squares solution of \(AX=B\), where \(B\) is the provided \(m\times r\) matrix, stored as a
+     * flat array in row-major order, which is overwritten.
+     *
+     * @param   x               The matrix \(B\), as a flat array in row-major order.
+     * @param   numberOfColumns The number of columns, \(r\), of \(B\).
+     * @return                  The \(n\times r\) solution, as a flat array in row-major order.
+     */
+    private double[] computeSolution(double[] x, int numberOfColumns) {
+        if (rowBlockDecompositions == null) {
+            applyQTranspose(x, numberOfColumns);
+            solveUpperTriangular(x, numberOfColumns);
+            return Arrays.copyOf(x, columnDimension * numberOfColumns);
+        }
+        // Only the first n rows of the product of the transposed orthogonal factor of each row block with the
+        // corresponding rows of B are used by the merge step, since the remaining rows do not depend on X.
+        int numberOfRowBlocks = rowBlockDecompositions.length;
+        double[] mergeX = new double[numberOfRowBlocks * columnDimension * numberOfColumns];
+        MatrixMultiplication.parallelFor(numberOfRowBlocks, numberOfThreads(numberOfColumns), options, block -> {
+            double[] blockX = Arrays.copyOfRange(x, rowBlockStarts[block] * numberOfColumns,
+                                                 rowBlockStarts[block + 1] * numberOfColumns);
+            rowBlockDecompositions[block].applyQTranspose(blockX, numberOfColumns);
+            System.arraycopy(blockX, 0, mergeX, block * columnDimension * numberOfColumns,
+                             columnDimension * numberOfColumns);
+        });
+        return mergeDecomposition.computeSolution(mergeX, numberOfColumns);
+    }
+
+    /**
+     * Gets the number of threads to use for an operation on all row blocks of a tall-skinny decomposition.
+     *
+     * @param   numberOfColumns The number of columns of the matrix processed by the operation.
+     * @return                  The number of threads to use.
+     */
+    private int numberOfThreads(int numberOfColumns) {
+        return (long) rowDimension * columnDimension * numberOfColumns < options.getParallelismThreshold() ?
+                1 : options.getMaximumNumberOfThreads();
+    }
+
+    /**
+     * Copies the upper triangular factor, \(R\), to the provided array, in row-major order.
+     *
+     * @param   array   The array to copy \(R\) to.
+     * @param   offset  The index in the array at which to copy the first element of \(R\).
+     */
+    private void copyR(double[] array, int offset) {
+        for (int i = 0; i < columnDimension; i++) {
+            int rowI = offset + i * columnDimension;
+            array[rowI + i] = rDiagonal[i];
+            for (int j = i + 1; j < columnDimension; j++) {
+                array[rowI + j] = QR[j * rowDimension + i];
+            }
+        }
+    }
+
+    /**
+     * Checks whether the decomposition can be used to solve linear systems of equations.
+     *
+     * @throws  SingularMatrixException If the decomposed matrix is rank deficient.
+     */
+    private void checkFullRank() throws SingularMatrixException {
+        if (!isFullRank) {
+            throw new SingularMatrixException(
+                    "Rank deficient matrix! A solution cannot be obtained using the QR decomposition!"
+            );
+        }
+    }
+
+    /**
+     * Solves the linear system of equations \(A\boldsymbol{x}=\boldsymbol{b}\) for \(\boldsymbol{x}\) and returns the
+     * result as a new vector. The solution is obtained efficiently by using the QR decomposition.
+     *
+     * @param   vector  Vector \(\boldsymbol{b}\) in equation \(A\boldsymbol{x}=\boldsymbol{b}\).
+     * @return          The solution of the system of equations.
+     */
+    public Vector solve(Vector vector) throws SingularMatrixException {
+        if (vector.size() != rowDimension) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        checkFullRank();
+        return AbstractMatrix.buildVector(computeSolution(vector.getDenseArray(), 1), vector.type());
+    }
+
+    /**
+     * Solves the linear system of equations \(AX=B\) for \(X\) and returns the result as a new matrix. The solution is
+     * obtained efficiently by using the QR decomposition.
+     *
+     * @param   matrix  Matrix \(B\) in equation \(AX=B\).
+     * @return          The solution of the system of linear equations.
+     */
+    public Matrix solve(Matrix matrix) throws SingularMatrixException {
+        if (matrix.getRowDimension() != rowDimension) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        checkFullRank();
+        int resultMatrixColumnDimension = matrix.getColumnDimension();
+        return Matrix.wrap(computeSolution(matrix.getRowPackedArrayCopy(), resultMatrixColumnDimension),
+                           columnDimension,
+                           resultMatrixColumnDimension);
     }
 
     /**
      * Gets the Householder reflection vectors.
      *
      * @return  A lower trapezoidal matrix whose columns define the reflections, as a new matrix.
+     *
+     * @throws  UnsupportedOperationException   If the decomposition was computed in the tall-skinny mode.
      */
     public Matrix getH() {
-        Matrix H = new Matrix(rowDimension, columnDimension);
-        double[][] hArray = H.getArray();
+        if (rowBlockDecompositions != null) {
+            throw new UnsupportedOperationException(
+                    "The Householder reflection vectors are not available for tall-skinny QR decompositions."
+            );
+        }
+        double[] hArray = new double[rowDimension * columnDimension];
         for (int i = 0; i < rowDimension; i++) {
-            System.arraycopy(QR[i], 0, hArray[i], 0, i + 1);
+            for (int j = 0; j <= Math.min(i, columnDimension - 1); j++) {
+                hArray[i * columnDimension + j] = QR[j * rowDimension + i];
+            }
         }
-        return H;
+        return Matrix.wrap(hArray, rowDimension, columnDimension);
     }
 
     /**
@@ -173,25 +538,28 @@ public class QRDecomposition {
      * @return  The orthogonal factor, \(Q\), as a new matrix.
      */
     public Matrix getQ() {
-        Matrix Q = new Matrix(rowDimension, columnDimension);
-        double[][] qArray = Q.getArray();
-        for (int k = columnDimension - 1; k >= 0; k--) {
-            for (int i = 0; i < rowDimension; i++) {
-                qArray[i][k] = 0.0;
-            }
-            qArray[k][k] = 1.0;
-            for (int j = k; j < columnDimension; j++) {
-                if (QR[k][k] != 0) {
-                    double temporarySum = 0.0;
-                    for (int i = k; i < rowDimension; i++) {
-                        temporarySum -= QR[i][k] * qArray[i][j];
-                    }
-                    temporarySum /= QR[k][k];
-                    for (int i = k; i < rowDimension; i++) {
-                        qArray[i][j] += temporarySum * QR[i][k];
-                    }
-                }
-            }
+        if (rowBlockDecompositions != null) {
+            // The rows of Q that correspond to each row block are the product of the orthogonal factor of that block
+            // with the corresponding rows of the orthogonal factor of the merge step.
+            Matrix mergeQ = mergeDecomposition.getQ();
+            Matrix Q = Matrix.wrap(new double[rowDimension * columnDimension], rowDimension, columnDimension);
+            int numberOfRowBlocks = rowBlockDecompositions.length;
+            MatrixMultiplication.parallelFor(numberOfRowBlocks, numberOfThreads(columnDimension), options, block -> {
+                Matrix blockQ = rowBlockDecompositions[block].getQ();
+                MatrixMultiplication.gemm(false, false, blockQ.getRowDimension(), columnDimension, columnDimension,
+                                          1, blockQ, 0, 0, mergeQ, block * columnDimension, 0,
+                                          0, Q, rowBlockStarts[block], 0, MatrixMultiplication.SEQUENTIAL);
+            });
+            return Q;
+        }
+        double[] qArray = new double[rowDimension * columnDimension];
+        for (int k = 0; k < columnDimension; k++) {
+            qArray[k * columnDimension + k] = 1.0;
+        }
+        Matrix Q = Matrix.wrap(qArray, rowDimension, columnDimension);
+        int lastBlockStart = (columnDimension - 1) / BLOCK_SIZE * BLOCK_SIZE;
+        for (int k0 = lastBlockStart, block = tFactors.length - 1; block >= 0; k0 -= BLOCK_SIZE, block--) {
+            applyBlockReflector(Q, k0, block, false);
         }
         return Q;
     }
@@ -202,18 +570,11 @@ public class QRDecomposition {
      * @return  The upper triangular factor, \(R\), as a new matrix.
      */
     public Matrix getR() {
-        Matrix R = new Matrix(columnDimension, columnDimension);
-        double[][] rArray = R.getArray();
-        for (int i = 0; i < columnDimension; i++) {
-            for (int j = i; j < columnDimension; j++) {
-                if (i < j) {
-                    rArray[i][j] = QR[i][j];
-                } else if (i == j) {
-                    rArray[i][j] = rDiagonal[i];
-                }
-            }
-        }
-        return R;
+        if (rowBlockDecompositions != null)
+            return mergeDecomposition.getR();
+        double[] rArray = new double[columnDimension * columnDimension];
+        copyR(rArray, 0);
+        return Matrix.wrap(rArray, columnDimension, columnDimension);
     }
 
     /**
@@ -0,0 +1,191 @@
+package module.math.matrix;
+
+import module.utilities.MathUtilities;
+
+import java.util.Arrays;
+
+/**
+ * Implements the QR decomposition with column pivoting (i.e., the Businger-Golub rank revealing QR decomposition) for
+ * matrix \(A\in\mathbb{R}^{m\times n}\). This decomposition consists of a permutation matrix \(P\), an orthogonal
+ * matrix \(Q\) and an upper triangular matrix \(R\), such that \(AP=QR\). At each step, the remaining column with the
+ * largest norm is moved to the front and so the absolute values of the diagonal elements of \(R\) are non-increasing.
+ * The factorization stops as soon as all remaining columns have negligible norms and the number of steps performed is
+ * the estimate of the numerical rank of \(A\). The remaining column norms are updated (rather than recomputed) after
+ * each step, and so the decomposition costs \(O(mnr)\) operations, where \(r\) is the rank of \(A\), as opposed to the
+ * \(O(mn\min\{m,n\})\) operations (with a much larger constant) required by a singular value decomposition.
+ *
+ * The rank estimate is reliable in practice, but there exist (contrived) matrices for which column pivoting fails to
+ * reveal a small singular value. The singular value decomposition should be used when a guaranteed rank is required.
+ *
+ * @author Andriy Chekhovych
+ */
+public class RankRevealingQRDecomposition {
+    /** Relative threshold for negligible column norms (the same as the one used for singular values by
+     * {@link SingularValueDecomposition}). */
+    private static final double RELATIVE_SMALL_COLUMN_NORMS_THRESHOLD = 0x1.0p-52;
+
+    /** Flat array used for internal storage of the Householder vectors and of the strictly upper triangular part of
+     * \(R\), stored by column (i.e., row \(i\) of column \(j\) is stored at index \(jm+i\)). */
+    private final double[] QR;
+    /** Array used for internal storage of the diagonal of \(R\). */
+    private final double[] rDiagonal;
+    /** The column permutation (i.e., column \(j\) of \(AP\) is column {@code pivot[j]} of \(A\)). */
+    private final int[] pivot;
+    /** The row dimension of the matrix whose decomposition is being computed. */
+    private final int rowDimension;
+    /** The column dimension of the matrix whose decomposition is being computed. */
+    private final int columnDimension;
+    /** The estimated numerical rank (i.e., the number of Householder reflections performed). */
+    private final int rank;
+
+    /**
+     * Constructs a rank revealing QR decomposition object for the provided matrix. The factorization stops when the
+     * norms of all remaining columns are not greater than \(\max\{m,n\}|R_{11}|2^{-52}\) (or than the square root of
+     * the machine epsilon, whichever is largest), which mirrors the threshold that
+     * {@link SingularValueDecomposition#computeEffectiveNumericalRank()} uses for singular values.
+     *
+     * @param   matrix  The matrix whose decomposition is being computed.
+     */
+    public RankRevealingQRDecomposition(Matrix matrix) {
+        this(matrix, 0, true);
+    }
+
+    /**
+     * Constructs a rank revealing QR decomposition object for the provided matrix. The factorization stops when the
+     * norms of all remaining columns are not greater than the provided tolerance.
+     *
+     * @param   matrix      The matrix whose decomposition is being computed.
+     * @param   tolerance   The absolute tolerance for negligible column norms (must be non-negative).
+     *
+     * @throws  IllegalArgumentException    The tolerance must be non-negative.
+     */
+    public RankRevealingQRDecomposition(Matrix matrix, double tolerance) {
+        this(matrix, tolerance, false);
+    }
+
+    private RankRevealingQRDecomposition(Matrix matrix, double tolerance, boolean useDefaultTolerance) {
+        if (tolerance < 0)
+            throw new IllegalArgumentException("The tolerance must be non-negative.");
+        rowDimension = matrix.getRowDimension();
+        columnDimension = matrix.getColumnDimension();
+        QR = matrix.getColumnPackedArrayCopy();
+        int numberOfSteps = Math.min(rowDimension, columnDimension);
+        rDiagonal = new double[numberOfSteps];
+        pivot = new int[columnDimension];
+        double[] partialNorms = new double[columnDimension];
+        double[] referenceNorms = new double[columnDimension];
+        double largestNorm = 0;
+        for (int j = 0; j < columnDimension; j++) {
+            pivot[j] = j;
+            partialNorms[j] = QRDecomposition.computeL2Norm(QR, j * rowDimension, (j + 1) * rowDimension);
+            referenceNorms[j] = partialNorms[j];
+            largestNorm = Math.max(largestNorm, partialNorms[j]);
+        }
+        double threshold = useDefaultTolerance ?
+                Math.max(Math.max(rowDimension, columnDimension) * largestNorm * RELATIVE_SMALL_COLUMN_NORMS_THRESHOLD,
+                         Math.sqrt(MathUtilities.computeMachineEpsilonDouble())) :
+                tolerance;
+        double downdatingTolerance = Math.sqrt(MathUtilities.computeMachineEpsilonDouble());
+        int k = 0;
+        for (; k < numberOfSteps; k++) {
+            int p = k;
+            for (int j = k + 1; j < columnDimension; j++)
+                if (partialNorms[j] > partialNorms[p])
+                    p = j;
+            if (p != k) {
+                swapColumns(k, p);
+                double temporaryNorm = partialNorms[k];
+                partialNorms[k] = partialNorms[p];
+                partialNorms[p] = temporaryNorm;
+                temporaryNorm = referenceNorms[k];
+                referenceNorms[k] = referenceNorms[p];
+                referenceNorms[p] = temporaryNorm;
+                int temporaryIndex = pivot[k];
+                pivot[k] = pivot[p];
+                pivot[p] = temporaryIndex;
+            }
+            int columnK = k * rowDimension;
+            double columnL2Norm = QRDecomposition.computeL2Norm(QR, columnK + k, columnK + rowDimension);
+            if (columnL2Norm <= threshold)
+                break;
+            if (QR[columnK + k] < 0)
+                columnL2Norm = -columnL2Norm;
+            for (int i = k; i < rowDimension; i++)
+                QR[columnK + i] /= columnL2Norm;
+            QR[columnK + k] += 1.0;
+            for (int j = k + 1; j < columnDimension; j++) {
+                int columnJ = j * rowDimension;
+                double temporarySum = 0.0;
+                for (int i = k; i < rowDimension; i++)
+                    temporarySum -= QR[columnK + i] * QR[columnJ + i];
+                temporarySum /= QR[columnK + k];
+                for (int i = k; i < rowDimension; i++)
+                    QR[columnJ + i] += temporarySum * QR[columnK + i];
+                // Downdate the norm of the remaining part of column j, recomputing it when cancellation makes the
+                // downdated value unreliable (as in the LAPACK xLAQP2 routines).
+                if (partialNorms[j] != 0) {
+                    double ratio = Math.abs(QR[columnJ + k]) / partialNorms[j];
+                    double factor = Math.max(0, (1 + ratio) * (1 - ratio));
+                    double relativeNorm = partialNorms[j] / referenceNorms[j];
+                    if (factor * relativeNorm * relativeNorm <= downdatingTolerance) {
+                        partialNorms[j] = QRDecomposition.computeL2Norm(QR, columnJ + k + 1, columnJ + rowDimension);
+                        referenceNorms[j] = partialNorms[j];
+                    } else {
+                        partialNorms[j] *= Math.sqrt(factor);
+                    }
+                }
+            }
+            rDiagonal[k] = -columnL2Norm;
+        }
+        rank = k;
+    }
+
+    /**
+     * Swaps two columns of the factors array.
+     *
+     * @param   j1  The index of the first column.
+     * @param   j2  The index of the second column.
+     */
+    private void swapColumns(int j1, int j2) {
+        for (int i = 0, index1 = j1 * rowDimension, index2 = j2 * rowDimension; i < rowDimension; i++) {
+            double temporaryValue = QR[index1 + i];
+            QR[index1 + i] = QR[index2 + i];
+            QR[index2 + i] = temporaryValue;
+        }
+    }
+
+    /**
+     * Gets the estimated numerical rank of the matrix whose decomposition is being computed.
+     *
+     * @return  The estimated numerical rank.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * Gets the column permutation vector represented as a new array (i.e., column \(j\) of \(AP\) is column
+     * {@code pivot[j]} of \(A\)).
+     *
+     * @return  The column permutation vector as a new integer array.
+     */
+    public int[] getPivot() {
+        return Arrays.copyOf(pivot, pivot.length);
+    }
+
+    /**
+     * Gets the computed rows of the upper triangular (trapezoidal) factor, \(R\). Only the first \(r\) rows are
+     * computed, where \(r\) is the estimated rank, and the norm of the remaining rows is negligible.
+     *
+     * @return  The first \(r\) rows of the upper triangular factor, \(R\), as a new \(r\times n\) matrix.
+     */
+    public Matrix getR() {
+        double[] rArray = new double[rank * columnDimension];
+        for (int i = 0; i < rank; i++) {
+            rArray[i * columnDimension + i] = rDiagonal[i];
+            for (int j = i + 1; j < columnDimension; j++)
+                rArray[i * columnDimension + j] = QR[j * rowDimension + i];
+        }
+        return Matrix.wrap(rArray, rank, columnDimension);
+    }
+}
@@ -3,6 +3,7 @@ package module.math.matrix;
 import module.utilities.MathUtilities;
 
 import java.util.Arrays;
+import java.util.Random;
 
 /**
  * Implements the singular computeValue decomposition (SVD) algorithm for matrix \(A\). Given \(A\in\mathbb{R}^{m\times n}\),
@@ -13,23 +14,41 @@ import java.util.Arrays;
  * Furthermore, the condition number, the effective numerical rank and the pseudo-inverse of the matrix \(A\) can be
  * computed using this decomposition.
  *
+ * Truncated decompositions, holding only the \(k\) largest singular values along with the corresponding singular
+ * vectors (i.e., \(U\in\mathbb{R}^{m\times k}\), \(S\in\mathbb{R}^{k\times k}\) and \(V\in\mathbb{R}^{n\times k}\)),
+ * can be computed without computing the full decomposition, using the {@link Builder} class along with one of the
+ * {@link Method#RANDOMIZED} and {@link Method#LANCZOS} methods. Their cost is dominated by a few products of \(A\)
+ * (or \(A^T\)) with blocks of \(k\) vectors, rather than by \(O(mn^2)\) operations, and their {@code solve}
+ * methods only use the leading \(k\) singular triplets.
+ *
  * @author Andriy Chekhovych
  */
 public class SingularValueDecomposition {
+    /** Default number of additional vectors used by the truncated methods, beyond the requested rank. */
+    private static final int DEFAULT_OVERSAMPLING = 10;
+    /** Default number of power iterations used by the randomized method. */
+    private static final int DEFAULT_NUMBER_OF_POWER_ITERATIONS = 2;
+    /** Default relative tolerance for the residuals of the singular triplets computed by the Lanczos method. */
+    private static final double DEFAULT_LANCZOS_TOLERANCE = 1e-10;
+
     /** Relative threshold for small singular values. */
     private static final double RELATIVE_SMALL_SINGULAR_VALUES_THRESHOLD = 0x1.0p-52;
     /** Absolute threshold for small singular values. */
     private static final double ABSOLUTE_SMALL_SINGULAR_VALUES_THRESHOLD = 0x1.0p-966;
 
-    /** Two-dimensional array used for internal storage of the \(U\) decomposition factor. */
+    /** Two-dimensional array used for internal storage of the \(U\) decomposition factor (with one column per computed
+     * singular value). */
     private final double[][] U;
-    /** Two-dimensional array used for internal storage of the \(V\) decomposition factor. */
+    /** Two-dimensional array used for internal storage of the \(V\) decomposition factor (with one column per computed
+     * singular value). */
     private final double[][] V;
     /** One-dimensional array used for internal storage of the diagonal of the \(S\) decomposition factor. */
     private final double[] singularValues;
-    /** The row dimension of the matrix whose decomposition is being computed. */
+    /** The larger dimension of the matrix whose decomposition is being computed (i.e., its row dimension, after it
+     * has been transposed if necessary). */
     private final int rowDimension;
-    /** The column dimension of the matrix whose decomposition is being computed. */
+    /** The smaller dimension of the matrix whose decomposition is being computed (i.e., its column dimension, after it
+     * has been transposed if necessary). */
     private final int columnDimension;
     /** The tolerance for small singular values. */
     private final double singularValuesTolerance;
@@ -411,53 +430,519 @@ public class SingularValueDecomposition {
         }
     }
 
+    /**
+     * Constructs a singular value decomposition object from already computed factors.
+     *
+     * @param   U               The \(U\) decomposition factor.
+     * @param   V               The \(V\) decomposition factor.
+     * @param   singularValues  The singular values, in decreasing order.
+     * @param   rowDimension    The row dimension of the matrix whose decomposition is being computed.
+     * @param   columnDimension The column dimension of the matrix whose decomposition is being computed.
+     */
+    private SingularValueDecomposition(double[][] U,
+                                       double[][] V,
+                                       double[] singularValues,
+                                       int rowDimension,
+                                       int columnDimension) {
+        this.U = U;
+        this.V = V;
+        this.singularValues = singularValues;
+        this.rowDimension = Math.max(rowDimension, columnDimension);
+        this.columnDimension = Math.min(rowDimension, columnDimension);
+        double largestSingularValue = singularValues.length > 0 ? singularValues[0] : 0;
+        singularValuesTolerance = Math.max(
+                this.rowDimension * largestSingularValue * RELATIVE_SMALL_SINGULAR_VALUES_THRESHOLD,
+                Math.sqrt(MathUtilities.computeMachineEpsilonDouble())
+        );
+    }
+
+    /** Enumeration of the methods that can be used to compute singular value decompositions. */
+    public enum Method {
+        /** Computes the full (thin) singular value decomposition using the one-sided Golub-Kahan algorithm, derived from
+         * the LINPACK code, in \(O(mn\min\{m,n\})\) time. */
+        FULL,
+        /** Computes a truncated singular value decomposition using a randomized range finder. The range of \(A\) is
+         * sampled by multiplying it with a Gaussian random matrix with \(k+p\) columns, where \(p\) is the
+         * oversampling, a few power iterations (i.e., multiplications with \(AA^T\)) are performed in order to
+         * sharpen the decay of the spectrum, and the singular value decomposition of the projection of \(A\) on the
+         * resulting orthonormal basis is computed. All products with \(A\) are matrix-matrix products and so this
+         * method is very efficient when the singular values decay quickly. */
+        RANDOMIZED,
+        /** Computes a truncated singular value decomposition using Golub-Kahan-Lanczos bidiagonalization, with full
+         * reorthogonalization. The leading singular triplets of \(A\) are approximated by those of the bidiagonal
+         * matrix \(B_s\) obtained after \(s\) steps. The method starts with \(s=\max\{2k,k+p\}\), where \(p\) is
+         * the oversampling, and keeps extending the Krylov subspaces by \(\max\{k,p\}\) steps at a time until the
+         * residuals of the \(k\) leading singular triplets, \(\|A^T\tilde{\boldsymbol{u}}_i-\tilde{\sigma}_i
+         * \tilde{\boldsymbol{v}}_i\|\), are not greater than the tolerance times the largest computed singular value,
+         * or until the maximum number of steps is reached. These residuals are obtained from \(B_s\) at no extra cost
+         * and each computed singular value is within its residual of a singular value of \(A\) (and is typically much
+         * closer to it than that). Each step requires one product of \(A\) and one product of \(A^T\) with a vector
+         * and so this method is preferable when only a few singular values are needed, or when the singular values do
+         * not decay quickly. */
+        LANCZOS
+    }
+
+    /** Builder class for singular value decompositions, allowing the selection of the method used to compute them. */
+    public static final class Builder {
+        private final Matrix matrix;
+
+        private Method method = Method.FULL;
+        private int rank;
+        private int oversampling = DEFAULT_OVERSAMPLING;
+        private int numberOfPowerIterations = DEFAULT_NUMBER_OF_POWER_ITERATIONS;
+        private double tolerance = DEFAULT_LANCZOS_TOLERANCE;
+        private int maximumNumberOfLanczosSteps = Integer.MAX_VALUE;
+        private Random random = new Random();
+        private MatrixMultiplyOptions options = MatrixMultiplyOptions.DEFAULT;
+
+        /**
+         * Constructs a builder for the singular value decomposition of the provided matrix.
+         *
+         * @param   matrix  The matrix whose singular value decomposition is being computed.
+         */
+        public Builder(Matrix matrix) {
+            this.matrix = matrix;
+            rank = Math.min(matrix.getRowDimension(), matrix.getColumnDimension());
+        }
+
+        /**
+         * Sets the method used to compute the decomposition. The full decomposition is computed by default.
+         *
+         * @param   method  The method to use.
+         * @return          This builder.
+         */
+        public Builder method(Method method) {
+            this.method = method;
+            return this;
+        }
+
+        /**
+         * Sets the number of singular values (along with the corresponding singular vectors) computed by the truncated
+         * methods. All singular values are computed by default. This setting is ignored by the full method.
+         *
+         * @param   rank    The number of singular values to compute.
+         * @return          This builder.
+         *
+         * @throws  IllegalArgumentException    The rank must be positive and not greater than the smaller dimension of
+         *                                      the matrix.
+         */
+        public Builder rank(int rank) {
+            if (rank < 1 || rank > Math.min(matrix.getRowDimension(), matrix.getColumnDimension()))
+                throw new IllegalArgumentException(
+                        "The rank must be positive and not greater than the smaller dimension of the matrix."
+                );
+            this.rank = rank;
+            return this;
+        }
+
+        /**
+         * Sets the number of additional random vectors (for the randomized method), or Lanczos steps (for the Lanczos
+         * method), used beyond the requested rank, in order to improve the accuracy of the computed singular values.
+         *
+         * @param   oversampling    The oversampling (must be non-negative).
+         * @return                  This builder.
+         *
+         * @throws  IllegalArgumentException    The oversampling must be non-negative.
+         */
+        public Builder oversampling(int oversampling) {
+            if (oversampling < 0)
+                throw new IllegalArgumentException("The oversampling must be non-negative.");
+            this.oversampling = oversampling;
+            return this;
+        }
+
+        /**
+         * Sets the number of power iterations performed by the randomized method.
+         *
+         * @param   numberOfPowerIterations The number of power iterations (must be non-negative).
+         * @return                          This builder.
+         *
+         * @throws  IllegalArgumentException    The number of power iterations must be non-negative.
+         */
+        public Builder numberOfPowerIterations(int numberOfPowerIterations) {
+            if (numberOfPowerIterations < 0)
+                throw new IllegalArgumentException("The number of power iterations must be non-negative.");
+            this.numberOfPowerIterations = numberOfPowerIterations;
+            return this;
+        }
+
+        /**
+         * Sets the relative tolerance used by the Lanczos method in order to decide whether the computed singular
+         * triplets have converged. The Lanczos steps stop once the residual of each of the requested singular triplets
+         * is not greater than this tolerance times the largest computed singular value, and so each computed singular
+         * value \(\tilde{\sigma}_i\) satisfies \(|\tilde{\sigma}_i-\sigma|\leq\tau\|A\|_2\) for some singular value
+         * \(\sigma\) of \(A\), where \(\tau\) denotes the tolerance (unless the maximum number of Lanczos steps is
+         * reached first). The default tolerance is \(10^{-10}\). This setting is ignored by the other methods.
+         *
+         * @param   tolerance   The tolerance (must be non-negative).
+         * @return              This builder.
+         *
+         * @throws  IllegalArgumentException    The tolerance must be non-negative.
+         */
+        public Builder tolerance(double tolerance) {
+            if (tolerance < 0)
+                throw new IllegalArgumentException("The tolerance must be non-negative.");
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of steps performed by the Lanczos method, which bounds its cost and the memory used
+         * for the Lanczos vectors, at the expense of the accuracy guaranteed by {@link #tolerance(double)}. The number
+         * of steps never exceeds the smaller dimension of the matrix (at which point the computed singular values are
+         * exact up to rounding errors) and is never smaller than the requested rank. There is no other limit by
+         * default. This setting is ignored by the other methods.
+         *
+         * @param   maximumNumberOfLanczosSteps The maximum number of Lanczos steps (must be positive).
+         * @return                              This builder.
+         *
+         * @throws  IllegalArgumentException    The maximum number of Lanczos steps must be positive.
+         */
+        public Builder maximumNumberOfLanczosSteps(int maximumNumberOfLanczosSteps) {
+            if (maximumNumberOfLanczosSteps < 1)
+                throw new IllegalArgumentException("The maximum number of Lanczos steps must be positive.");
+            this.maximumNumberOfLanczosSteps = maximumNumberOfLanczosSteps;
+            return this;
+        }
+
+        /**
+         * Sets the random number generator used by the truncated methods (e.g., in order to make them reproducible).
+         *
+         * @param   random  The random number generator to use.
+         * @return          This builder.
+         */
+        public Builder random(Random random) {
+            this.random = random;
+            return this;
+        }
+
+        /**
+         * Sets the options used for the matrix multiplications performed by the randomized method.
+         *
+         * @param   options The options to use.
+         * @return          This builder.
+         */
+        public Builder options(MatrixMultiplyOptions options) {
+            this.options = options;
+            return this;
+        }
+
+        /**
+         * Computes the singular value decomposition using the selected method and settings.
+         *
+         * @return  The (possibly truncated) singular value decomposition.
+         */
+        public SingularValueDecomposition build() {
+            switch (method) {
+                case RANDOMIZED:
+                    return computeRandomizedDecomposition(this);
+                case LANCZOS:
+                    return computeLanczosDecomposition(this);
+                default:
+                    return new SingularValueDecomposition(matrix);
+            }
+        }
+    }
+
+    /**
+     * Computes a truncated singular value decomposition using a randomized range finder.
+     *
+     * @param   builder The builder holding the settings of the decomposition.
+     * @return          The truncated singular value decomposition.
+     */
+    private static SingularValueDecomposition computeRandomizedDecomposition(Builder builder) {
+        Matrix A = builder.matrix;
+        MatrixMultiplyOptions options = builder.options;
+        int m = A.getRowDimension();
+        int n = A.getColumnDimension();
+        int l = Math.min(Math.min(m, n), builder.rank + builder.oversampling);
+        double[] omega = new double[n * l];
+        for (int i = 0; i < omega.length; i++)
+            omega[i] = builder.random.nextGaussian();
+        Matrix Q = new QRDecomposition(A.multiply(Matrix.wrap(omega, n, l), options), options).getQ();
+        for (int iteration = 0; iteration < builder.numberOfPowerIterations; iteration++) {
+            Matrix Z = Matrix.wrap(new double[n * l], n, l);
+            MatrixMultiplication.gemm(true, false, n, l, m, 1, A, 0, 0, Q, 0, 0, 0, Z, 0, 0, options);
+            Z = new QRDecomposition(Z, options).getQ();
+            Q = new QRDecomposition(A.multiply(Z, options), options).getQ();
+        }
+        // The singular value decomposition of the small matrix B = Q^T A provides the truncated decomposition of A.
+        Matrix B = Matrix.wrap(new double[l * n], l, n);
+        MatrixMultiplication.gemm(true, false, l, n, m, 1, Q, 0, 0, A, 0, 0, 0, B, 0, 0, options);
+        SingularValueDecomposition smallDecomposition = new SingularValueDecomposition(B);
+        return truncate(Q.multiply(smallDecomposition.getU(), options),
+                        smallDecomposition.getV(),
+                        smallDecomposition.singularValues,
+                        builder.rank,
+                        m,
+                        n);
+    }
+
+    /**
+     * Computes a truncated singular value decomposition using Golub-Kahan-Lanczos bidiagonalization with full
+     * reorthogonalization. The Lanczos vectors are stored as the rows of two flat arrays, which are grown whenever the
+     * Krylov subspaces are extended. The bidiagonalization is always applied to the orientation of the matrix that has
+     * at least as many rows as columns (i.e., to \(A^T\) if \(A\) has fewer rows than columns), so that the
+     * computed singular values become exact once the number of steps reaches the smaller dimension of the matrix.
+     *
+     * @param   builder The builder holding the settings of the decomposition.
+     * @return          The truncated singular value decomposition.
+     */
+    private static SingularValueDecomposition computeLanczosDecomposition(Builder builder) {
+        Matrix A = builder.matrix;
+        int m = A.getRowDimension();
+        int n = A.getColumnDimension();
+        boolean transposed = m < n;
+        int rowDimension = Math.max(m, n);
+        int columnDimension = Math.min(m, n);
+        int rank = builder.rank;
+        int maximumNumberOfSteps = Math.min(columnDimension, Math.max(rank, builder.maximumNumberOfLanczosSteps));
+        int numberOfSteps = Math.min(maximumNumberOfSteps, Math.max(2 * rank, rank + builder.oversampling));
+        int numberOfAdditionalSteps = Math.max(rank, builder.oversampling);
+        double[] uBasis = new double[numberOfSteps * rowDimension];
+        double[] vBasis = new double[numberOfSteps * columnDimension];
+        double[] alpha = new double[numberOfSteps];
+        double[] beta = new double[numberOfSteps];
+        double breakdownTolerance = MathUtilities.computeMachineEpsilonDouble() * rowDimension;
+        double normEstimate = 0;
+        DenseVector u = new DenseVector(rowDimension);
+        DenseVector v = new DenseVector(columnDimension);
+        fillWithRandomUnitVector(v.array, vBasis, 0, columnDimension, builder.random);
+        int step = 0;
+        SingularValueDecomposition smallDecomposition;
+        while (true) {
+            for (; step < numberOfSteps; step++) {
+                System.arraycopy(v.array, 0, vBasis, step * columnDimension, columnDimension);
+                // u_j = A v_j - beta_{j-1} u_{j-1}, orthogonalized against all previous left Lanczos vectors.
+                if (transposed)
+                    A.transMult(v, u.array, 0);
+                else
+                    A.multiply(v, u.array, 0);
+                alpha[step] = orthogonalize(u.array, uBasis, step, rowDimension);
+                normEstimate = Math.max(normEstimate, alpha[step]);
+                if (alpha[step] <= breakdownTolerance * normEstimate) {
+                    alpha[step] = 0;
+                    fillWithRandomUnitVector(u.array, uBasis, step, rowDimension, builder.random);
+                } else {
+                    for (int i = 0; i < rowDimension; i++)
+                        u.array[i] /= alpha[step];
+                }
+                System.arraycopy(u.array, 0, uBasis, step * rowDimension, rowDimension);
+                // v_{j+1} = A^T u_j - alpha_j v_j, orthogonalized against all previous right Lanczos vectors. This is
+                // also computed after the last step, since beta_s is needed for the residuals of the singular triplets.
+                if (transposed)
+                    A.multiply(u, v.array, 0);
+                else
+                    A.transMult(u, v.array, 0);
+                beta[step] = orthogonalize(v.array, vBasis, step + 1, columnDimension);
+                normEstimate = Math.max(normEstimate, beta[step]);
+                if (beta[step] <= breakdownTolerance * normEstimate) {
+                    beta[step] = 0;
+                    fillWithRandomUnitVector(v.array, vBasis, step + 1, columnDimension, builder.random);
+                } else {
+                    for (int i = 0; i < columnDimension; i++)
+                        v.array[i] /= beta[step];
+                }
+            }
+            // A V_s = U_s B_s, where B_s is upper bidiagonal, and so the singular triplets of B_s provide those of A.
+            double[] bidiagonal = new double[numberOfSteps * numberOfSteps];
+            for (int j = 0; j < numberOfSteps; j++) {
+                bidiagonal[j * numberOfSteps + j] = alpha[j];
+                if (j < numberOfSteps - 1)
+                    bidiagonal[j * numberOfSteps + j + 1] = beta[j];
+            }
+            smallDecomposition = new SingularValueDecomposition(Matrix.wrap(bidiagonal, numberOfSteps, numberOfSteps));
+            if (numberOfSteps == maximumNumberOfSteps)
+                break;
+            // A^T U_s = V_s B_s^T + beta_s v_{s+1} e_s^T and so, for each singular triplet (sigma_i, p_i, q_i) of B_s,
+            // the residual of the corresponding singular triplet of A is equal to |beta_s| |e_s^T p_i|.
+            double residualTolerance = builder.tolerance * smallDecomposition.singularValues[0];
+            Matrix smallU = smallDecomposition.getU();
+            boolean converged = true;
+            for (int i = 0; i < rank && converged; i++)
+                converged = Math.abs(beta[numberOfSteps - 1] * smallU.getElement(numberOfSteps - 1, i))
+                        <= residualTolerance;
+            if (converged)
+                break;
+            numberOfSteps = Math.min(maximumNumberOfSteps, numberOfSteps + numberOfAdditionalSteps);
+            uBasis = Arrays.copyOf(uBasis, numberOfSteps * rowDimension);
+            vBasis = Arrays.copyOf(vBasis, numberOfSteps * columnDimension);
+            alpha = Arrays.copyOf(alpha, numberOfSteps);
+            beta = Arrays.copyOf(beta, numberOfSteps);
+        }
+        Matrix leftBasis = Matrix.wrap(uBasis, numberOfSteps, rowDimension);
+        Matrix rightBasis = Matrix.wrap(vBasis, numberOfSteps, columnDimension);
+        Matrix smallU = smallDecomposition.getU();
+        Matrix smallV = smallDecomposition.getV();
+        Matrix leftVectors = Matrix.wrap(new double[rowDimension * numberOfSteps], rowDimension, numberOfSteps);
+        Matrix rightVectors = Matrix.wrap(new double[columnDimension * numberOfSteps], columnDimension, numberOfSteps);
+        MatrixMultiplication.gemm(true, false, rowDimension, numberOfSteps, numberOfSteps,
+                                  1, leftBasis, 0, 0, smallU, 0, 0, 0, leftVectors, 0, 0, builder.options);
+        MatrixMultiplication.gemm(true, false, columnDimension, numberOfSteps, numberOfSteps,
+                                  1, rightBasis, 0, 0, smallV, 0, 0, 0, rightVectors, 0, 0, builder.options);
+        // The left singular vectors of A^T are the right singular vectors of A, and vice versa.
+        if (transposed)
+            return truncate(rightVectors, leftVectors, smallDecomposition.singularValues, rank, m, n);
+        return truncate(leftVectors, rightVectors, smallDecomposition.singularValues, rank, m, n);
+    }
+
+    /**
+     * Orthogonalizes the provided vector against the first few rows of the provided basis, using two passes of
+     * classical Gram-Schmidt, and returns the L2 norm of the result.
+     *
+     * @param   vector          The vector to orthogonalize, which is overwritten.
+     * @param   basis           The orthonormal basis vectors, stored as the rows of a flat array.
+     * @param   numberOfVectors The number of basis vectors to orthogonalize against.
+     * @param   size            The size of the vectors.
+     * @return                  The L2 norm of the orthogonalized vector.
+     */
+    static double orthogonalize(double[] vector, double[] basis, int numberOfVectors, int size) {
+        double[] coefficients = new double[numberOfVectors];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int k = 0; k < numberOfVectors; k++) {
+                double innerProduct = 0;
+                for (int i = 0; i < size; i++)
+                    innerProduct += basis[k * size + i] * vector[i];
+                coefficients[k] = innerProduct;
+            }
+            for (int k = 0; k < numberOfVectors; k++) {
+                double coefficient = coefficients[k];
+                for (int i = 0; i < size; i++)
+                    vector[i] -= coefficient * basis[k * size + i];
+            }
+        }
+        double sumOfSquares = 0;
+        for (int i = 0; i < size; i++)
+            sumOfSquares += vector[i] * vector[i];
+        return Math.sqrt(sumOfSquares);
+    }
+
+    /**
+     * Fills the provided vector with a random unit vector that is orthogonal to the first few rows of the provided
+     * basis. This is used to restart the Lanczos process when it breaks down (i.e., when an invariant subspace has been
+     * found). If the basis already spans the whole space, the vector is set to zero.
+     *
+     * @param   vector          The vector to fill.
+     * @param   basis           The orthonormal basis vectors, stored as the rows of a flat array.
+     * @param   numberOfVectors The number of basis vectors that the vector must be orthogonal to.
+     * @param   size            The size of the vectors.
+     * @param   random          The random number generator to use.
+     */
+    static void fillWithRandomUnitVector(double[] vector,
+                                         double[] basis,
+                                         int numberOfVectors,
+                                         int size,
+                                         Random random) {
+        if (numberOfVectors >= size) {
+            Arrays.fill(vector, 0);
+            return;
+        }
+        double norm;
+        do {
+            for (int i = 0; i < size; i++)
+                vector[i] = random.nextGaussian();
+            norm = orthogonalize(vector, basis, numberOfVectors, size);
+        } while (norm == 0);
+        for (int i = 0; i < size; i++)
+            vector[i] /= norm;
+    }
+
+    /**
+     * Builds a truncated singular value decomposition, keeping the provided number of leading singular triplets.
+     *
+     * @param   leftVectors     Matrix whose columns are the left singular vectors.
+     * @param   rightVectors    Matrix whose columns are the right singular vectors.
+     * @param   singularValues  The singular values, in decreasing order.
+     * @param   rank            The number of singular triplets to keep.
+     * @param   rowDimension    The row dimension of the matrix whose decomposition is being computed.
+     * @param   columnDimension The column dimension of the matrix whose decomposition is being computed.
+     * @return                  The truncated singular value decomposition.
+     */
+    private static SingularValueDecomposition truncate(Matrix leftVectors,
+                                                       Matrix rightVectors,
+                                                       double[] singularValues,
+                                                       int rank,
+                                                       int rowDimension,
+                                                       int columnDimension) {
+        return new SingularValueDecomposition(leftVectors.getSubMatrix(0, rowDimension - 1, 0, rank - 1).getArray(),
+                                              rightVectors.getSubMatrix(0, columnDimension - 1, 0, rank - 1).getArray(),
+                                              Arrays.copyOf(singularValues, rank),
+                                              rowDimension,
+                                              columnDimension);
+    }
+
     /**
      * Solves the linear system of equations \(A\boldsymbol{x}=\boldsymbol{b}\) for \(\boldsymbol{x}\) and returns the
-     * result as a new vector. The solution is obtained using the pseudoinverse which is in turn computed using the
-     * singular computeValue decomposition.
+     * result as a new vector. The solution is obtained using the pseudoinverse, \(VS^+U^T\), which is in turn computed
+     * using the singular value decomposition, without forming it explicitly. For truncated decompositions, only the
+     * computed singular triplets are used and so the solution is the truncated pseudoinverse solution.
      *
      * @param   vector  Vector \(\boldsymbol{b}\) in equation \(A\boldsymbol{x}=\boldsymbol{b}\).
      * @return          The solution of the system of equations.
      */
     public Vector solve(Vector vector) {
-        final double[][] uTransposeArray = (new Matrix(U)).transpose().getArrayCopy();
-        for (int i = 0; i < singularValues.length; ++i) {
-            final double adjustedSingularValue;
-            if (singularValues[i] > singularValuesTolerance) {
-                adjustedSingularValue = 1 / singularValues[i];
-            } else {
-                adjustedSingularValue = 0;
+        int rank = singularValues.length;
+        double[] b = vector.getDenseArray();
+        // Compute \(S^+U^T\boldsymbol{b}\), accessing the rows of \(U\) with unit stride.
+        double[] coefficients = new double[rank];
+        for (int i = 0; i < U.length; i++) {
+            double bI = b[i];
+            if (bI == 0)
+                continue;
+            double[] uRowI = U[i];
+            for (int k = 0; k < rank; k++) {
+                coefficients[k] += uRowI[k] * bI;
             }
-            for (int j = 0; j < uTransposeArray[i].length; ++j) {
-                uTransposeArray[i][j] *= adjustedSingularValue;
+        }
+        for (int k = 0; k < rank; k++) {
+            coefficients[k] *= adjustedSingularValue(k);
+        }
+        double[] resultArray = new double[V.length];
+        for (int i = 0; i < V.length; i++) {
+            double[] vRowI = V[i];
+            double sum = 0;
+            for (int k = 0; k < rank; k++) {
+                sum += vRowI[k] * coefficients[k];
             }
+            resultArray[i] = sum;
         }
-        Matrix matrixPseudoInverse = (new Matrix(V)).multiply(new Matrix(uTransposeArray, false));
-        return matrixPseudoInverse.multiply(vector);
+        return AbstractMatrix.buildVector(resultArray, vector.type());
     }
 
     /**
      * Solves the linear system of equations \(AX=B\) for \(X\) and returns the result as a new matrix. The solution is
-     * obtained using the pseudoinverse which is in turn computed using the singular computeValue decomposition.
+     * obtained using the pseudoinverse, \(VS^+U^T\), which is in turn computed using the singular value
+     * decomposition, without forming it explicitly. For truncated decompositions, only the computed singular triplets
+     * are used and so the solution is the truncated pseudoinverse solution.
      *
      * @param   matrix  Matrix \(B\) in equation \(AX=B\).
      * @return          The solution of the system of linear equations.
      */
     public Matrix solve(Matrix matrix) {
-        final double[][] uTransposeArray = (new Matrix(U)).transpose().getArrayCopy();
-        for (int i = 0; i < singularValues.length; ++i) {
-            final double adjustedSingularValue;
-            if (singularValues[i] > singularValuesTolerance) {
-                adjustedSingularValue = 1 / singularValues[i];
-            } else {
-                adjustedSingularValue = 0;
-            }
-            for (int j = 0; j < uTransposeArray[i].length; ++j) {
-                uTransposeArray[i][j] *= adjustedSingularValue;
+        int rank = singularValues.length;
+        int numberOfColumns = matrix.getColumnDimension();
+        Matrix coefficients = Matrix.wrap(new double[rank * numberOfColumns], rank, numberOfColumns);
+        MatrixMultiplication.gemm(true, false, rank, numberOfColumns, U.length,
+                                  1, getU(), 0, 0, matrix, 0, 0, 0, coefficients, 0, 0,
+                                  MatrixMultiplyOptions.DEFAULT);
+        double[] coefficientsArray = coefficients.getFlatArray();
+        for (int k = 0; k < rank; k++) {
+            double adjustedSingularValue = adjustedSingularValue(k);
+            for (int j = 0; j < numberOfColumns; j++) {
+                coefficientsArray[k * numberOfColumns + j] *= adjustedSingularValue;
             }
         }
-        Matrix matrixPseudoInverse = (new Matrix(V)).multiply(new Matrix(uTransposeArray, false));
-        return matrixPseudoInverse.multiply(matrix);
+        return getV().multiply(coefficients);
+    }
+
+    /**
+     * Gets the inverse of the provided singular value, or zero if that singular value is negligible.
+     *
+     * @param   index   The index of the singular value.
+     * @return          The inverse of the singular value, or zero if it is negligible.
+     */
+    private double adjustedSingularValue(int index) {
+        return singularValues[index] > singularValuesTolerance ? 1 / singularValues[index] : 0;
     }
 
     /**
@@ -466,7 +951,7 @@ public class SingularValueDecomposition {
      * @return  The orthogonal factor, \(U\), as a new matrix.
      */
     public Matrix getU() {
-        return new Matrix(U, rowDimension, columnDimension);
+        return new Matrix(U, U.length, singularValues.length);
     }
 
     /**
@@ -476,16 +961,17 @@ public class SingularValueDecomposition {
      * @return  The diagonal factor, \(S\), as a new matrix.
      */
     public Matrix getS() {
-        Matrix S = new Matrix(columnDimension, columnDimension);
+        Matrix S = new Matrix(singularValues.length, singularValues.length);
         double[][] sArray = S.getArray();
-        for (int i = 0; i < columnDimension; i++) {
+        for (int i = 0; i < singularValues.length; i++) {
             sArray[i][i] = singularValues[i];
         }
         return S;
     }
 
     /**
-     * Gets the singular values of the matrix whose decomposition is being computed.
+     * Gets the singular values of the matrix whose decomposition is being computed. For truncated decompositions, only
+     * the computed (i.e., largest) singular values are returned.
      *
      * @return  A one-dimensional array containing the singular values of the matrix whose decomposition is being
      *          computed.
@@ -500,7 +986,7 @@ public class SingularValueDecomposition {
      * @return  The orthogonal factor, \(V\), as a new matrix.
      */
     public Matrix getV() {
-        return new Matrix(V, columnDimension, columnDimension);
+        return new Matrix(V, V.length, singularValues.length);
     }
 
     /**
@@ -513,19 +999,23 @@ public class SingularValueDecomposition {
     }
 
     /**
-     * Computes the condition number of the matrix whose decomposition is being computed.
+     * Computes the condition number of the matrix whose decomposition is being computed. For truncated decompositions,
+     * this is the ratio of the largest to the smallest computed singular value, which is a lower bound for the
+     * condition number.
      *
      * @return  The condition number of the matrix whose decomposition is being computed.
      */
     public double computeConditionNumber() {
-        return singularValues[0] / singularValues[columnDimension - 1];
+        return singularValues[0] / singularValues[singularValues.length - 1];
     }
 
     /**
      * Computes the effective numerical rank of the matrix whose decomposition is being computed. The effective
      * numerical rank is the number of non-negligible singular values. The threshold used to identify non-negligible
      * terms is equal to \(\max{m,n}\text{lsb}(s_1)\) where \(\text{lsb}(s_1)\) is the least significant bit of the
-     * largest singular computeValue.
+     * largest singular computeValue. For truncated decompositions, only the computed singular values are counted and so
+     * the result is a lower bound for the effective numerical rank (which is tight when it is smaller than the number
+     * of computed singular values).
      *
      * @return  The effective numerical rank of the matrix whose decomposition is being computed.
      */
@@ -0,0 +1,455 @@
+package module.math.matrix;
+
+import java.util.Arrays;
+
+/**
+ * Implements a class representing sparse matrices, which only store their nonzero elements. The elements are stored in
+ * the compressed sparse row (CSR) format: an array of pointers, with one entry per row (plus one), holds the index at
+ * which the elements of each row start within two parallel arrays holding the column indexes and the values of the
+ * nonzero elements. The column indexes of the elements of each row are sorted in increasing order. The compressed
+ * sparse column (CSC) format, which is the same format applied to the columns of the matrix, is also supported, since
+ * it is the format of the transpose of a CSR matrix. This means that {@link #transpose()} takes constant time and
+ * returns a matrix that shares its storage with the original matrix.
+ *
+ * The memory required by a sparse matrix is proportional to its number of nonzero elements (plus its row dimension)
+ * and multiplying it with a vector, or multiplying its transpose with a vector, takes time proportional to its number
+ * of nonzero elements. Sparse matrices are immutable and are constructed either from coordinate (i.e., COO) triplets,
+ * using a {@link Builder}, or directly from CSR arrays.
+ *
+ * @author Andriy Chekhovych
+ */
+public final class SparseMatrix extends AbstractMatrix {
+    /** The row dimension of the matrix. */
+    private final int rowDimension;
+    /** The column dimension of the matrix. */
+    private final int columnDimension;
+    /** Whether the elements are stored in the CSC format, instead of the CSR format. */
+    final boolean compressedColumns;
+    /** The indexes in {@link #indexes} and {@link #values} at which the elements of each row (or of each column, when
+     * {@link #compressedColumns} is true) start, followed by the total number of nonzero elements. */
+    final int[] pointers;
+    /** The column indexes (or the row indexes, when {@link #compressedColumns} is true) of the nonzero elements. */
+    final int[] indexes;
+    /** The values of the nonzero elements. */
+    final double[] values;
+
+    /**
+     * Constructs a sparse matrix from arrays holding its elements in the CSR format. The provided arrays are used as
+     * the internal storage of the matrix and they are not copied.
+     *
+     * @param   rowDimension    The row dimension of the matrix.
+     * @param   columnDimension The column dimension of the matrix.
+     * @param   rowPointers     The indexes in the other two arrays at which the elements of each row start, followed
+     *                          by the total number of nonzero elements (i.e., an array of size equal to the row
+     *                          dimension plus one).
+     * @param   columnIndexes   The column indexes of the nonzero elements, sorted in increasing order within each row.
+     * @param   values          The values of the nonzero elements.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided arrays must be consistent with each other and with
+     *                                      the provided dimensions.
+     */
+    public SparseMatrix(int rowDimension,
+                        int columnDimension,
+                        int[] rowPointers,
+                        int[] columnIndexes,
+                        double[] values) {
+        this(rowDimension, columnDimension, false, rowPointers, columnIndexes, values);
+        if (rowPointers.length != rowDimension + 1)
+            throw new IllegalArgumentException("The size of the row pointers array must be equal to the row dimension "
+                                                       + "of the matrix plus one.");
+        if (rowPointers[0] != 0
+                || columnIndexes.length < rowPointers[rowDimension]
+                || values.length < rowPointers[rowDimension])
+            throw new IllegalArgumentException("The row pointers must start at zero and the column indexes and values "
+                                                       + "arrays must contain all of the nonzero elements.");
+    }
+
+    private SparseMatrix(int rowDimension,
+                         int columnDimension,
+                         boolean compressedColumns,
+                         int[] pointers,
+                         int[] indexes,
+                         double[] values) {
+        this.rowDimension = rowDimension;
+        this.columnDimension = columnDimension;
+        this.compressedColumns = compressedColumns;
+        this.pointers = pointers;
+        this.indexes = indexes;
+        this.values = values;
+    }
+
+    /**
+     * Builder class for sparse matrices, which collects nonzero elements in the coordinate (i.e., COO) format and
+     * converts them to the CSR format in time proportional to the number of elements plus the matrix dimensions.
+     * Elements can be added in any order and elements that are added multiple times at the same position are summed.
+     */
+    public static class Builder {
+        private final int rowDimension;
+        private final int columnDimension;
+
+        private int[] rowIndexes;
+        private int[] columnIndexes;
+        private double[] values;
+        private int numberOfElements = 0;
+
+        public Builder(int rowDimension, int columnDimension) {
+            this(rowDimension, columnDimension, 16);
+        }
+
+        public Builder(int rowDimension, int columnDimension, int expectedNumberOfElements) {
+            if (rowDimension < 0 || columnDimension < 0)
+                throw new IllegalArgumentException("The matrix dimensions must be non-negative.");
+            this.rowDimension = rowDimension;
+            this.columnDimension = columnDimension;
+            int capacity = Math.max(expectedNumberOfElements, 1);
+            rowIndexes = new int[capacity];
+            columnIndexes = new int[capacity];
+            values = new double[capacity];
+        }
+
+        public Builder addElement(int row, int column, double value) {
+            if (row < 0 || row >= rowDimension)
+                throw new ArrayIndexOutOfBoundsException("The provided row index is out of bounds.");
+            if (column < 0 || column >= columnDimension)
+                throw new ArrayIndexOutOfBoundsException("The provided column index is out of bounds.");
+            if (numberOfElements == values.length) {
+                int capacity = Math.max(2 * values.length, 16);
+                rowIndexes = Arrays.copyOf(rowIndexes, capacity);
+                columnIndexes = Arrays.copyOf(columnIndexes, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            rowIndexes[numberOfElements] = row;
+            columnIndexes[numberOfElements] = column;
+            values[numberOfElements++] = value;
+            return this;
+        }
+
+        public Builder addElements(int[] rows, int[] columns, double[] values) {
+            if (rows.length != columns.length || rows.length != values.length)
+                throw new IllegalArgumentException("The row indexes, column indexes and values arrays must have the "
+                                                           + "same size.");
+            for (int k = 0; k < values.length; k++)
+                addElement(rows[k], columns[k], values[k]);
+            return this;
+        }
+
+        /**
+         * Builds a sparse matrix in the CSR format from the elements added so far. The elements are first sorted by
+         * column and then stably sorted by row (using counting sorts), which leaves the elements of each row sorted by
+         * column, and duplicate elements are then summed.
+         *
+         * @return  The new sparse matrix.
+         */
+        public SparseMatrix build() {
+            int[] columnPointers = new int[columnDimension + 1];
+            for (int k = 0; k < numberOfElements; k++)
+                columnPointers[columnIndexes[k] + 1]++;
+            for (int j = 0; j < columnDimension; j++)
+                columnPointers[j + 1] += columnPointers[j];
+            int[] order = new int[numberOfElements];
+            for (int k = 0; k < numberOfElements; k++)
+                order[columnPointers[columnIndexes[k]]++] = k;
+            int[] rowPointers = new int[rowDimension + 1];
+            for (int k = 0; k < numberOfElements; k++)
+                rowPointers[rowIndexes[k] + 1]++;
+            for (int i = 0; i < rowDimension; i++)
+                rowPointers[i + 1] += rowPointers[i];
+            int[] nextPositions = Arrays.copyOf(rowPointers, rowDimension);
+            int[] sortedColumnIndexes = new int[numberOfElements];
+            double[] sortedValues = new double[numberOfElements];
+            for (int k : order) {
+                int position = nextPositions[rowIndexes[k]]++;
+                sortedColumnIndexes[position] = columnIndexes[k];
+                sortedValues[position] = values[k];
+            }
+            // Sum the duplicate elements, compacting the arrays in place.
+            int numberOfNonzeroElements = 0;
+            for (int i = 0; i < rowDimension; i++) {
+                int rowStart = numberOfNonzeroElements;
+                for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                    if (numberOfNonzeroElements > rowStart
+                            && sortedColumnIndexes[numberOfNonzeroElements - 1] == sortedColumnIndexes[k]) {
+                        sortedValues[numberOfNonzeroElements - 1] += sortedValues[k];
+                    } else {
+                        sortedColumnIndexes[numberOfNonzeroElements] = sortedColumnIndexes[k];
+                        sortedValues[numberOfNonzeroElements++] = sortedValues[k];
+                    }
+                }
+                rowPointers[i] = rowStart;
+            }
+            rowPointers[rowDimension] = numberOfNonzeroElements;
+            if (numberOfNonzeroElements < numberOfElements) {
+                sortedColumnIndexes = Arrays.copyOf(sortedColumnIndexes, numberOfNonzeroElements);
+                sortedValues = Arrays.copyOf(sortedValues, numberOfNonzeroElements);
+            }
+            return new SparseMatrix(rowDimension,
+                                    columnDimension,
+                                    false,
+                                    rowPointers,
+                                    sortedColumnIndexes,
+                                    sortedValues);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return rowDimension;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return columnDimension;
+    }
+
+    /**
+     * Gets the number of elements that are explicitly stored in this matrix (i.e., its number of nonzero elements).
+     *
+     * @return  The number of stored elements.
+     */
+    public int getNumberOfNonzeroElements() {
+        return pointers[pointers.length - 1];
+    }
+
+    /**
+     * Checks whether this matrix stores its elements in the CSC format, instead of the CSR format.
+     *
+     * @return  True if this matrix uses the CSC format.
+     */
+    public boolean hasCompressedColumns() {
+        return compressedColumns;
+    }
+
+    /**
+     * Gets the value of the matrix element at the provided position. This requires a binary search over the stored
+     * elements of the corresponding row (or column, for matrices stored in the CSC format).
+     *
+     * @param   row     The row index of the element.
+     * @param   column  The column index of the element.
+     * @return          The value of the element at the provided position.
+     */
+    @Override
+    public double getElement(int row, int column) {
+        if (row < 0 || row >= rowDimension)
+            throw new ArrayIndexOutOfBoundsException("The provided row index is out of bounds.");
+        if (column < 0 || column >= columnDimension)
+            throw new ArrayIndexOutOfBoundsException("The provided column index is out of bounds.");
+        int line = compressedColumns ? column : row;
+        int position = Arrays.binarySearch(indexes, pointers[line], pointers[line + 1], compressedColumns ? row : column);
+        return position >= 0 ? values[position] : 0;
+    }
+
+    /**
+     * Gets the transpose of this matrix in constant time. The returned matrix shares its storage with this matrix and
+     * uses the CSC format if this matrix uses the CSR format, and vice versa.
+     *
+     * @return  The transpose of this matrix.
+     */
+    @Override
+    public SparseMatrix transpose() {
+        return new SparseMatrix(columnDimension, rowDimension, !compressedColumns, pointers, indexes, values);
+    }
+
+    /**
+     * Gets a sparse matrix holding the same elements as this matrix, stored in the CSR format. If this matrix already
+     * uses the CSR format, then it is returned itself, and otherwise its elements are converted in time proportional to
+     * their number plus the matrix dimensions.
+     *
+     * @return  A sparse matrix holding the same elements as this matrix, stored in the CSR format.
+     */
+    public SparseMatrix toCompressedRows() {
+        return compressedColumns ? changeStorageFormat() : this;
+    }
+
+    /**
+     * Gets a sparse matrix holding the same elements as this matrix, stored in the CSC format. If this matrix already
+     * uses the CSC format, then it is returned itself, and otherwise its elements are converted in time proportional to
+     * their number plus the matrix dimensions.
+     *
+     * @return  A sparse matrix holding the same elements as this matrix, stored in the CSC format.
+     */
+    public SparseMatrix toCompressedColumns() {
+        return compressedColumns ? this : changeStorageFormat();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Matrix toDenseMatrix() {
+        double[] data = new double[rowDimension * columnDimension];
+        for (int line = 0; line < pointers.length - 1; line++) {
+            for (int k = pointers[line]; k < pointers[line + 1]; k++) {
+                if (compressedColumns)
+                    data[indexes[k] * columnDimension + line] = values[k];
+                else
+                    data[line * columnDimension + indexes[k]] = values[k];
+            }
+        }
+        return Matrix.wrap(data, rowDimension, columnDimension);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] computeSquaredColumnNorms() {
+        double[] squaredNorms = new double[columnDimension];
+        for (int line = 0; line < pointers.length - 1; line++) {
+            for (int k = pointers[line]; k < pointers[line + 1]; k++) {
+                if (compressedColumns)
+                    squaredNorms[line] += values[k] * values[k];
+                else
+                    squaredNorms[indexes[k]] += values[k] * values[k];
+            }
+        }
+        return squaredNorms;
+    }
+
+    /**
+     * Multiplies the current matrix with another sparse matrix and returns the result in a new sparse matrix, stored in
+     * the CSR format. The product is computed row by row, using Gustavson's algorithm, and so it takes time proportional
+     * to the number of scalar multiplications performed plus the matrix dimensions. Matrices that use the CSC format are
+     * first converted to the CSR format.
+     *
+     * @param   matrix  The matrix with which to multiply the current matrix.
+     * @return          A new sparse matrix holding the result of the multiplication.
+     *
+     * @throws  IllegalArgumentException    The inner dimensions of the matrices must agree.
+     */
+    public SparseMatrix multiply(SparseMatrix matrix) {
+        if (columnDimension != matrix.rowDimension)
+            throw new IllegalArgumentException("Matrix inner dimensions must agree.");
+        SparseMatrix left = toCompressedRows();
+        SparseMatrix right = matrix.toCompressedRows();
+        int resultColumnDimension = right.columnDimension;
+        int[] resultPointers = new int[rowDimension + 1];
+        int capacity = Math.max(left.getNumberOfNonzeroElements() + right.getNumberOfNonzeroElements(), 16);
+        int[] resultIndexes = new int[capacity];
+        double[] resultValues = new double[capacity];
+        // Dense accumulator for the current row of the result, along with markers for the columns it has touched.
+        double[] accumulator = new double[resultColumnDimension];
+        int[] lastRowTouched = new int[resultColumnDimension];
+        Arrays.fill(lastRowTouched, -1);
+        int numberOfNonzeroElements = 0;
+        for (int i = 0; i < rowDimension; i++) {
+            int rowStart = numberOfNonzeroElements;
+            for (int k = left.pointers[i]; k < left.pointers[i + 1]; k++) {
+                int leftColumn = left.indexes[k];
+                double leftValue = left.values[k];
+                for (int l = right.pointers[leftColumn]; l < right.pointers[leftColumn + 1]; l++) {
+                    int column = right.indexes[l];
+                    if (lastRowTouched[column] != i) {
+                        lastRowTouched[column] = i;
+                        accumulator[column] = 0;
+                        if (numberOfNonzeroElements == resultIndexes.length) {
+                            resultIndexes = Arrays.copyOf(resultIndexes, 2 * resultIndexes.length);
+                            resultValues = Arrays.copyOf(resultValues, 2 * resultValues.length);
+                        }
+                        resultIndexes[numberOfNonzeroElements++] = column;
+                    }
+                    accumulator[column] += leftValue * right.values[l];
+                }
+            }
+            Arrays.sort(resultIndexes, rowStart, numberOfNonzeroElements);
+            for (int k = rowStart; k < numberOfNonzeroElements; k++)
+                resultValues[k] = accumulator[resultIndexes[k]];
+            resultPointers[i + 1] = numberOfNonzeroElements;
+        }
+        return new SparseMatrix(rowDimension,
+                                resultColumnDimension,
+                                false,
+                                resultPointers,
+                                Arrays.copyOf(resultIndexes, numberOfNonzeroElements),
+                                Arrays.copyOf(resultValues, numberOfNonzeroElements));
+    }
+
+    /**
+     * Multiplies the current matrix with a vector and stores the result in the provided array, starting at the provided
+     * offset. For the CSR format, each result element is computed as a sparse dot product, while for the CSC format
+     * the columns that correspond to nonzero vector elements are scaled and added to the result.
+     *
+     * @param   vector          The vector with which to multiply the current matrix.
+     * @param   resultArray     The array in which to store the result of the multiplication.
+     * @param   resultOffset    The index in the result array at which to store the first element of the result.
+     */
+    @Override
+    void multiply(Vector vector, double[] resultArray, int resultOffset) {
+        if (compressedColumns)
+            scatterMultiply(vector, resultArray, resultOffset, rowDimension);
+        else
+            gatherMultiply(vector, resultArray, resultOffset);
+    }
+
+    /**
+     * Multiplies the transpose of the current matrix with a vector and stores the result in the provided array,
+     * starting at the provided offset. This is the same computation as in {@link #multiply(Vector, double[], int)},
+     * with the roles of the two storage formats swapped.
+     *
+     * @param   vector          The vector with which to multiply the transpose of the current matrix.
+     * @param   resultArray     The array in which to store the result of the multiplication.
+     * @param   resultOffset    The index in the result array at which to store the first element of the result.
+     */
+    @Override
+    void transMult(Vector vector, double[] resultArray, int resultOffset) {
+        if (compressedColumns)
+            gatherMultiply(vector, resultArray, resultOffset);
+        else
+            scatterMultiply(vector, resultArray, resultOffset, columnDimension);
+    }
+
+    private void gatherMultiply(Vector vector, double[] resultArray, int resultOffset) {
+        double[] vectorArray;
+        int vectorOffset;
+        if (vector instanceof DenseVector) {
+            vectorArray = ((DenseVector) vector).array;
+            vectorOffset = ((DenseVector) vector).offset;
+        } else {
+            vectorArray = vector.getDenseArray();
+            vectorOffset = 0;
+        }
+        for (int line = 0; line < pointers.length - 1; line++) {
+            double dotProduct = 0;
+            for (int k = pointers[line]; k < pointers[line + 1]; k++)
+                dotProduct += values[k] * vectorArray[vectorOffset + indexes[k]];
+            resultArray[resultOffset + line] = dotProduct;
+        }
+    }
+
+    private void scatterMultiply(Vector vector, double[] resultArray, int resultOffset, int resultSize) {
+        Arrays.fill(resultArray, resultOffset, resultOffset + resultSize, 0);
+        Vector.Cursor cursor = vector.cursor();
+        while (cursor.advance()) {
+            double vectorElement = cursor.value();
+            if (vectorElement == 0)
+                continue;
+            int line = cursor.index();
+            for (int k = pointers[line]; k < pointers[line + 1]; k++)
+                resultArray[resultOffset + indexes[k]] += values[k] * vectorElement;
+        }
+    }
+
+    /**
+     * Converts this matrix from the CSR format to the CSC format, or vice versa. The elements are visited in order of
+     * increasing row (or column) index and so the new indexes within each column (or row) end up sorted.
+     *
+     * @return  A new matrix holding the same elements as this matrix, stored in the other compressed format.
+     */
+    private SparseMatrix changeStorageFormat() {
+        int numberOfLines = compressedColumns ? rowDimension : columnDimension;
+        int numberOfNonzeroElements = getNumberOfNonzeroElements();
+        int[] newPointers = new int[numberOfLines + 1];
+        for (int k = 0; k < numberOfNonzeroElements; k++)
+            newPointers[indexes[k] + 1]++;
+        for (int line = 0; line < numberOfLines; line++)
+            newPointers[line + 1] += newPointers[line];
+        int[] newIndexes = new int[numberOfNonzeroElements];
+        double[] newValues = new double[numberOfNonzeroElements];
+        int[] nextPositions = Arrays.copyOf(newPointers, numberOfLines);
+        for (int line = 0; line < pointers.length - 1; line++) {
+            for (int k = pointers[line]; k < pointers[line + 1]; k++) {
+                int position = nextPositions[indexes[k]]++;
+                newIndexes[position] = line;
+                newValues[position] = values[k];
+            }
+        }
+        return new SparseMatrix(rowDimension, columnDimension, !compressedColumns, newPointers, newIndexes, newValues);
+    }
+}
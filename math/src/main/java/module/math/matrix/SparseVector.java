@@ -9,8 +9,8 @@ import java.io.InputStream;
 import java.io.InvalidObjectException;
 import java.io.OutputStream;
 import java.util.*;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * Implements a class representing sparse vectors and supporting operations related to them. The sparse vector is stored
@@ -40,6 +40,163 @@ public class SparseVector extends Vector {
      * to the {@link #indexes} array. */
     protected double[] values;
 
+    /** The smallest nonzero capacity of the internal parallel arrays, used when growing them. */
+    private static final int MINIMUM_CAPACITY = 8;
+
+    /**
+     * Class used for building sparse vectors efficiently from (index, value) pairs provided in any order. The pairs are
+     * appended to internal growable buffers (whose capacity is doubled whenever they are full) and they are only sorted
+     * once, when {@link #build()} is called. Values provided for the same index are summed together. Building a vector
+     * with \(k\) nonzero elements in this way requires \(O(k\log{k})\) time, as opposed to the \(O(k^2)\) time
+     * required by repeatedly calling {@link SparseVector#set(int, double)} with indexes in arbitrary order.
+     */
+    public static class Builder {
+        private final int size;
+
+        private int numberOfEntries = 0;
+        private int[] indexes;
+        private double[] values;
+
+        /**
+         * Constructs a builder for sparse vectors of the provided size.
+         *
+         * @param   size    The size of the vectors being built.
+         */
+        public Builder(int size) {
+            this(size, MINIMUM_CAPACITY);
+        }
+
+        /**
+         * Constructs a builder for sparse vectors of the provided size, whose buffers have the provided initial capacity.
+         *
+         * @param   size                The size of the vectors being built.
+         * @param   initialCapacity     The initial capacity of the buffers of this builder (e.g., the expected number
+         *                              of nonzero elements of the vectors being built).
+         */
+        public Builder(int size, int initialCapacity) {
+            if (initialCapacity < 0)
+                throw new IllegalArgumentException("The initial capacity must be non-negative.");
+            this.size = size;
+            indexes = new int[initialCapacity];
+            values = new double[initialCapacity];
+        }
+
+        /**
+         * Adds the provided value to the element of the vector being built, that has the provided index.
+         *
+         * @param   index   The index of the element.
+         * @param   value   The value to add to the element.
+         * @return          This builder.
+         *
+         * @throws  IllegalArgumentException    The provided index must be between 0 (inclusive) and the size of the
+         *                                      vector (exclusive).
+         */
+        public Builder add(int index, double value) {
+            if (index < 0 || index >= size) {
+                throw new IllegalArgumentException(
+                        "The provided index must be between 0 (inclusive) and the size of the vector (exclusive)."
+                );
+            }
+            if (numberOfEntries == indexes.length) {
+                int newCapacity = Math.max(MINIMUM_CAPACITY, indexes.length << 1);
+                indexes = Arrays.copyOf(indexes, newCapacity);
+                values = Arrays.copyOf(values, newCapacity);
+            }
+            indexes[numberOfEntries] = index;
+            values[numberOfEntries++] = value;
+            return this;
+        }
+
+        /**
+         * Adds all of the provided (index, value) pairs to the vector being built.
+         *
+         * @param   indexes Integer array containing the indexes of the elements. This array is "parallel" to the
+         *                  values array.
+         * @param   values  Double array containing the values to add to the elements with the corresponding indexes.
+         * @return          This builder.
+         *
+         * @throws  IllegalArgumentException    The indexes array and the values array must have the same length.
+         */
+        public Builder addAll(int[] indexes, double[] values) {
+            if (indexes.length != values.length)
+                throw new IllegalArgumentException("The indexes array and the values array must have the same length");
+            for (int i = 0; i < indexes.length; i++)
+                add(indexes[i], values[i]);
+            return this;
+        }
+
+        /**
+         * Builds a sparse vector from the pairs added to this builder so far. The pairs are sorted by index (using a
+         * stable sort, so that values added for the same index are always summed in the order in which they were
+         * added), duplicate indexes are coalesced and elements whose value is equal to zero are dropped. The builder
+         * is reset after this method is called, so that it can be reused for building another vector.
+         *
+         * @return  The sparse vector that was built.
+         */
+        public SparseVector build() {
+            int[] sortedIndexes = indexes;
+            double[] sortedValues = values;
+            if (!isSorted()) {
+                sortedIndexes = Arrays.copyOf(indexes, numberOfEntries);
+                sortedValues = Arrays.copyOf(values, numberOfEntries);
+                mergeSort(indexes, values, sortedIndexes, sortedValues, 0, numberOfEntries);
+            }
+            int numberOfNonzeroEntries = 0;
+            for (int i = 0; i < numberOfEntries; i++) {
+                if (numberOfNonzeroEntries > 0 && sortedIndexes[numberOfNonzeroEntries - 1] == sortedIndexes[i]) {
+                    sortedValues[numberOfNonzeroEntries - 1] += sortedValues[i];
+                } else {
+                    if (numberOfNonzeroEntries > 0 && sortedValues[numberOfNonzeroEntries - 1] == 0)
+                        numberOfNonzeroEntries--;
+                    sortedIndexes[numberOfNonzeroEntries] = sortedIndexes[i];
+                    sortedValues[numberOfNonzeroEntries++] = sortedValues[i];
+                }
+            }
+            if (numberOfNonzeroEntries > 0 && sortedValues[numberOfNonzeroEntries - 1] == 0)
+                numberOfNonzeroEntries--;
+            SparseVector vector = new SparseVector(size);
+            vector.numberOfNonzeroEntries = numberOfNonzeroEntries;
+            vector.indexes = sortedIndexes;
+            vector.values = sortedValues;
+            vector.trimToSize();
+            numberOfEntries = 0;
+            indexes = new int[MINIMUM_CAPACITY];
+            values = new double[MINIMUM_CAPACITY];
+            return vector;
+        }
+
+        private boolean isSorted() {
+            for (int i = 1; i < numberOfEntries; i++)
+                if (indexes[i - 1] > indexes[i])
+                    return false;
+            return true;
+        }
+
+        /**
+         * Sorts the provided range of the parallel destination arrays by index, using a stable top-down merge sort. The
+         * source arrays must initially hold the same elements as the destination arrays, over the provided range, and
+         * are used as scratch space.
+         */
+        private static void mergeSort(int[] sourceIndexes, double[] sourceValues,
+                                      int[] destinationIndexes, double[] destinationValues,
+                                      int from, int to) {
+            if (to - from < 2)
+                return;
+            int middle = (from + to) >>> 1;
+            mergeSort(destinationIndexes, destinationValues, sourceIndexes, sourceValues, from, middle);
+            mergeSort(destinationIndexes, destinationValues, sourceIndexes, sourceValues, middle, to);
+            for (int i = from, left = from, right = middle; i < to; i++) {
+                if (right >= to || (left < middle && sourceIndexes[left] <= sourceIndexes[right])) {
+                    destinationIndexes[i] = sourceIndexes[left];
+                    destinationValues[i] = sourceValues[left++];
+                } else {
+                    destinationIndexes[i] = sourceIndexes[right];
+                    destinationValues[i] = sourceValues[right++];
+                }
+            }
+        }
+    }
+
     /**
      * Constructs a sparse vector of the given size and fills it with zeros.
      *
@@ -147,9 +304,9 @@ public class SparseVector extends Vector {
         values = new double[size];
         int currentIndex = 0;
         for (int i = 0; i < size; i++) {
-            if (Math.abs(vector.array[i]) >= epsilon) {
+            if (Math.abs(vector.array[vector.offset + i]) >= epsilon) {
                 indexes[currentIndex] = i;
-                values[currentIndex] = vector.array[i];
+                values[currentIndex] = vector.array[vector.offset + i];
                 currentIndex++;
             }
         }
@@ -184,7 +341,7 @@ public class SparseVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public SparseVector copy() {
-        return new SparseVector(size, indexes, values);
+        return new SparseVector(size, numberOfNonzeroEntries, indexes, values);
     }
 
     /** {@inheritDoc} */
@@ -278,23 +435,29 @@ public class SparseVector extends Vector {
             values[foundIndex] = value;
         } else {
             foundIndex = - foundIndex - 1;
+            if (numberOfNonzeroEntries == indexes.length) {
+                int newCapacity = Math.max(MINIMUM_CAPACITY, indexes.length << 1);
+                indexes = Arrays.copyOf(indexes, newCapacity);
+                values = Arrays.copyOf(values, newCapacity);
+            }
+            System.arraycopy(indexes, foundIndex, indexes, foundIndex + 1, numberOfNonzeroEntries - foundIndex);
+            System.arraycopy(values, foundIndex, values, foundIndex + 1, numberOfNonzeroEntries - foundIndex);
+            indexes[foundIndex] = index;
+            values[foundIndex] = value;
             numberOfNonzeroEntries++;
-            int[] newIndexes = new int[numberOfNonzeroEntries];
-            double[] newValues = new double[numberOfNonzeroEntries];
-            for (int i = 0; i < numberOfNonzeroEntries; i++) {
-                if (i < foundIndex) {
-                    newIndexes[i] = indexes[i];
-                    newValues[i] = values[i];
-                } else if (i == foundIndex) {
-                    newIndexes[i] = index;
-                    newValues[i] = value;
-                } else {
-                    newIndexes[i] = indexes[i - 1];
-                    newValues[i] = values[i - 1];
-                }
-            }
-            indexes = newIndexes;
-            values = newValues;
+        }
+    }
+
+    /**
+     * Trims the capacity of the internal parallel arrays of this vector to be equal to its number of nonzero entries.
+     * The capacity of those arrays is doubled whenever {@link #set(int, double)} needs to insert a new element and they
+     * are full, so that insertions require amortized constant memory allocation work. This method can be used in order
+     * to release the unused capacity, once no more elements are going to be inserted.
+     */
+    public void trimToSize() {
+        if (indexes.length > numberOfNonzeroEntries) {
+            indexes = Arrays.copyOf(indexes, numberOfNonzeroEntries);
+            values = Arrays.copyOf(values, numberOfNonzeroEntries);
         }
     }
 
@@ -341,8 +504,9 @@ public class SparseVector extends Vector {
                 overwritingFinal = -overwritingFinal - 2; // search returned -(insertion point) - 1
             
             
+            int previousNumberOfNonzeroEntries = this.numberOfNonzeroEntries;
             this.numberOfNonzeroEntries = (overwritingFinal - overwritingInitial + 1)
-            		+ overwrittenInitial + (this.indexes.length - overwrittenFinal - 1);
+            		+ overwrittenInitial + (previousNumberOfNonzeroEntries - overwrittenFinal - 1);
         
             int[] newIndexes = new int[this.numberOfNonzeroEntries];
             double[] newValues = new double[this.numberOfNonzeroEntries];
@@ -364,7 +528,7 @@ public class SparseVector extends Vector {
             }
         
             // Copy remaining values from this vector after final overwritten position
-            for (int i = overwrittenFinal + 1; i < this.indexes.length; i++) {
+            for (int i = overwrittenFinal + 1; i < previousNumberOfNonzeroEntries; i++) {
         	    newIndexes[newPos] = indexes[i];
                 newValues[newPos] = values[i];
                 newPos++;
@@ -397,6 +561,7 @@ public class SparseVector extends Vector {
         checkVectorSize(vector);
         switch (vector.type()) {
             case DENSE:
+            case OFF_HEAP_DENSE:
                 numberOfNonzeroEntries = vector.size();
                 indexes = new int[numberOfNonzeroEntries];
                 values = new double[numberOfNonzeroEntries];
@@ -451,10 +616,10 @@ public class SparseVector extends Vector {
     @Override
     public Vector maxElementwise(double value) {
         if (Double.compare(value, 0) == 0) {
-	        int[] indexes = Arrays.copyOf(this.indexes, this.indexes.length);
+	        int[] indexes = Arrays.copyOf(this.indexes, numberOfNonzeroEntries);
 	        
-	        double[] values = new double[this.indexes.length];
-	        for (int i = 0; i < this.values.length; i++)
+	        double[] values = new double[numberOfNonzeroEntries];
+	        for (int i = 0; i < numberOfNonzeroEntries; i++)
 	            values[i] = Math.max(0.0, this.values[i]);
     	
 	        return new SparseVector(this.size, indexes, values);
@@ -467,7 +632,7 @@ public class SparseVector extends Vector {
     @Override
     public Vector maxElementwiseInPlace(double value) {
         if (Double.compare(value, 0) == 0) {
-	        for (int i = 0; i < this.values.length; i++) {
+	        for (int i = 0; i < numberOfNonzeroEntries; i++) {
 	        	this.values[i] = Math.max(value, this.values[i]);
 	        }
 	        
@@ -544,7 +709,7 @@ public class SparseVector extends Vector {
     /** {@inheritDoc} */
     @Override
     public SparseVector add(double scalar) {
-        SparseVector resultVector = new SparseVector(size, indexes, values);
+        SparseVector resultVector = new SparseVector(size, numberOfNonzeroEntries, indexes, values);
         for (int i = 0; i < numberOfNonzeroEntries; i++)
             resultVector.values[i] += scalar;
         return resultVector;
@@ -1185,12 +1350,158 @@ public class SparseVector extends Vector {
                     vector2Index++;
                 }
             }
+        } else if (vector instanceof DenseVector) {
+            double[] vectorArray = ((DenseVector) vector).array;
+            int vectorOffset = ((DenseVector) vector).offset;
+            for (int i = 0; i < numberOfNonzeroEntries; i++)
+                result += values[i] * vectorArray[vectorOffset + indexes[i]];
         } else {
-            throw new UnsupportedOperationException();
+            for (int i = 0; i < numberOfNonzeroEntries; i++)
+                result += values[i] * vector.get(indexes[i]);
         }
         return result;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The result is merged into the internal arrays of this vector, starting from their ends, and so no memory is
+     * allocated as long as their capacity is sufficient for the nonzero entries of the result (which is always the
+     * case when the nonzero pattern of this vector already includes that of \(\boldsymbol{x}\)). If \(\boldsymbol{x}\)
+     * is not a sparse vector, then it is traversed element by element and an entry is stored in this vector for each
+     * nonzero element of \(\boldsymbol{x}\).
+     */
+    @Override
+    public SparseVector axpbyInPlace(double a, Vector x, double b) {
+        checkVectorSize(x);
+        if (x == this) {
+            multInPlace(a + b);
+        } else if (x instanceof SparseVector) {
+            SparseVector sparseVector = (SparseVector) x;
+            int[] xIndexes = sparseVector.indexes;
+            double[] xValues = sparseVector.values;
+            int resultNumberOfNonzeroEntries = numberOfNonzeroEntries + sparseVector.numberOfNonzeroEntries;
+            int vector1Index = 0;
+            int vector2Index = 0;
+            while (vector1Index < numberOfNonzeroEntries && vector2Index < sparseVector.numberOfNonzeroEntries) {
+                if (indexes[vector1Index] < xIndexes[vector2Index]) {
+                    vector1Index++;
+                } else if (indexes[vector1Index] > xIndexes[vector2Index]) {
+                    vector2Index++;
+                } else {
+                    resultNumberOfNonzeroEntries--;
+                    vector1Index++;
+                    vector2Index++;
+                }
+            }
+            ensureCapacity(resultNumberOfNonzeroEntries);
+            // Merging backwards never overwrites an entry of this vector before it is read, since the number of result
+            // entries that remain to be written is never smaller than the number of entries of this vector left.
+            int currentIndex = resultNumberOfNonzeroEntries - 1;
+            vector1Index = numberOfNonzeroEntries - 1;
+            vector2Index = sparseVector.numberOfNonzeroEntries - 1;
+            while (vector2Index >= 0) {
+                if (vector1Index >= 0 && indexes[vector1Index] > xIndexes[vector2Index]) {
+                    indexes[currentIndex] = indexes[vector1Index];
+                    values[currentIndex--] = b * values[vector1Index--];
+                } else if (vector1Index >= 0 && indexes[vector1Index] == xIndexes[vector2Index]) {
+                    indexes[currentIndex] = indexes[vector1Index];
+                    values[currentIndex--] = a * xValues[vector2Index--] + b * values[vector1Index--];
+                } else {
+                    indexes[currentIndex] = xIndexes[vector2Index];
+                    values[currentIndex--] = a * xValues[vector2Index--];
+                }
+            }
+            // The remaining entries of this vector are already in place.
+            for (; vector1Index >= 0; vector1Index--)
+                values[vector1Index] *= b;
+            numberOfNonzeroEntries = resultNumberOfNonzeroEntries;
+        } else {
+            int resultNumberOfNonzeroEntries = numberOfNonzeroEntries;
+            int vector1Index = 0;
+            for (int i = 0; i < size; i++) {
+                if (vector1Index < numberOfNonzeroEntries && indexes[vector1Index] == i)
+                    vector1Index++;
+                else if (x.get(i) != 0)
+                    resultNumberOfNonzeroEntries++;
+            }
+            ensureCapacity(resultNumberOfNonzeroEntries);
+            int currentIndex = resultNumberOfNonzeroEntries - 1;
+            vector1Index = numberOfNonzeroEntries - 1;
+            for (int i = size - 1; i >= 0; i--) {
+                double xValue = x.get(i);
+                if (vector1Index >= 0 && indexes[vector1Index] == i) {
+                    indexes[currentIndex] = i;
+                    values[currentIndex--] = a * xValue + b * values[vector1Index--];
+                } else if (xValue != 0) {
+                    indexes[currentIndex] = i;
+                    values[currentIndex--] = a * xValue;
+                }
+            }
+            numberOfNonzeroEntries = resultNumberOfNonzeroEntries;
+        }
+        return this;
+    }
+
+    /**
+     * Makes sure that the capacity of the internal parallel arrays of this vector is at least equal to the provided
+     * capacity, copying the existing entries into larger arrays if necessary.
+     *
+     * @param   capacity    The required capacity.
+     */
+    private void ensureCapacity(int capacity) {
+        if (indexes.length < capacity) {
+            int newCapacity = Math.max(MINIMUM_CAPACITY, capacity);
+            indexes = Arrays.copyOf(indexes, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] innerAndNormSquared(Vector vector) {
+        checkVectorSize(vector);
+        double dotProduct;
+        double normSquared = 0;
+        for (int i = 0; i < numberOfNonzeroEntries; i++)
+            normSquared += values[i] * values[i];
+        if (vector instanceof SparseVector) {
+            dotProduct = inner(vector);
+        } else if (vector instanceof DenseVector) {
+            double[] vectorArray = ((DenseVector) vector).array;
+            int vectorOffset = ((DenseVector) vector).offset;
+            dotProduct = 0;
+            for (int i = 0; i < numberOfNonzeroEntries; i++)
+                dotProduct += values[i] * vectorArray[vectorOffset + indexes[i]];
+        } else {
+            dotProduct = 0;
+            for (int i = 0; i < numberOfNonzeroEntries; i++)
+                dotProduct += values[i] * vector.get(indexes[i]);
+        }
+        return new double[] { dotProduct, normSquared };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] multiInner(Vector... vectors) {
+        double[] dotProducts = new double[vectors.length];
+        for (int j = 0; j < vectors.length; j++) {
+            checkVectorSize(vectors[j]);
+            if (vectors[j] instanceof SparseVector) {
+                dotProducts[j] = inner(vectors[j]);
+            } else if (vectors[j] instanceof DenseVector) {
+                double[] vectorArray = ((DenseVector) vectors[j]).array;
+                int vectorOffset = ((DenseVector) vectors[j]).offset;
+                for (int i = 0; i < numberOfNonzeroEntries; i++)
+                    dotProducts[j] += values[i] * vectorArray[vectorOffset + indexes[i]];
+            } else {
+                for (int i = 0; i < numberOfNonzeroEntries; i++)
+                    dotProducts[j] += values[i] * vectors[j].get(indexes[i]);
+            }
+        }
+        return dotProducts;
+    }
+
     /** {@inheritDoc} */
     @Override
     public double innerPlusConstant(Vector vector) {
@@ -1447,12 +1758,12 @@ public class SparseVector extends Vector {
      * @return              A new vector holding the result of the operation.
      */
     @Override
-    public SparseVector map(Function<Double, Double> function) {
+    public SparseVector map(DoubleUnaryOperator function) {
         int[] newIndexes = new int[numberOfNonzeroEntries];
         double[] newValues = new double[numberOfNonzeroEntries];
         int numberOfSkippedValues = 0;
         for (int i = 0; i < numberOfNonzeroEntries; i++) {
-            double tempValue = function.apply(values[i]);
+            double tempValue = function.applyAsDouble(values[i]);
             if (Math.abs(tempValue) >= epsilon) {
                 newIndexes[i - numberOfSkippedValues] = indexes[i];
                 newValues[i - numberOfSkippedValues] = tempValue;
@@ -1472,12 +1783,12 @@ public class SparseVector extends Vector {
      * @return              The current vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapInPlace(Function<Double, Double> function) {
+    public SparseVector mapInPlace(DoubleUnaryOperator function) {
         int[] newIndexes = new int[numberOfNonzeroEntries];
         double[] newValues = new double[numberOfNonzeroEntries];
         int numberOfSkippedValues = 0;
         for (int i = 0; i < numberOfNonzeroEntries; i++) {
-            double tempValue = function.apply(values[i]);
+            double tempValue = function.applyAsDouble(values[i]);
             if (Math.abs(tempValue) >= epsilon) {
                 newIndexes[i - numberOfSkippedValues] = indexes[i];
                 newValues[i - numberOfSkippedValues] = tempValue;
@@ -1502,7 +1813,7 @@ public class SparseVector extends Vector {
      * @return              A new vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapBiFunction(BiFunction<Double, Double, Double> function, Vector vector) {
+    public SparseVector mapBiFunction(DoubleBinaryOperator function, Vector vector) {
         checkVectorSize(vector);
         SparseVector resultVector;
         if (vector.type() == VectorType.SPARSE) {
@@ -1515,17 +1826,17 @@ public class SparseVector extends Vector {
                     && vector2Index < ((SparseVector) vector).numberOfNonzeroEntries) {
                 if (indexes[vector1Index] < ((SparseVector) vector).indexes[vector2Index]) {
                     newIndexes[currentIndex] = indexes[vector1Index];
-                    newValues[currentIndex] = function.apply(values[vector1Index], 0.0);
+                    newValues[currentIndex] = function.applyAsDouble(values[vector1Index], 0.0);
                     currentIndex++;
                     vector1Index++;
                 } else if (indexes[vector1Index] > ((SparseVector) vector).indexes[vector2Index]) {
                     newIndexes[currentIndex] = ((SparseVector) vector).indexes[vector2Index];
-                    newValues[currentIndex] = function.apply(0.0, ((SparseVector) vector).values[vector2Index]);
+                    newValues[currentIndex] = function.applyAsDouble(0.0, ((SparseVector) vector).values[vector2Index]);
                     currentIndex++;
                     vector2Index++;
                 } else {
                     newIndexes[currentIndex] = indexes[vector1Index];
-                    newValues[currentIndex] = function.apply(values[vector1Index],
+                    newValues[currentIndex] = function.applyAsDouble(values[vector1Index],
                                                              ((SparseVector) vector).values[vector2Index]);
                     currentIndex++;
                     vector1Index++;
@@ -1534,13 +1845,13 @@ public class SparseVector extends Vector {
             }
             while (vector1Index < numberOfNonzeroEntries) {
                 newIndexes[currentIndex] = indexes[vector1Index];
-                newValues[currentIndex] = function.apply(values[vector1Index], 0.0);
+                newValues[currentIndex] = function.applyAsDouble(values[vector1Index], 0.0);
                 currentIndex++;
                 vector1Index++;
             }
             while (vector2Index < ((SparseVector) vector).numberOfNonzeroEntries) {
                 newIndexes[currentIndex] = ((SparseVector) vector).indexes[vector2Index];
-                newValues[currentIndex] = function.apply(0.0, ((SparseVector) vector).values[vector2Index]);
+                newValues[currentIndex] = function.applyAsDouble(0.0, ((SparseVector) vector).values[vector2Index]);
                 currentIndex++;
                 vector2Index++;
             }
@@ -1562,7 +1873,7 @@ public class SparseVector extends Vector {
      * @return              The current vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapBiFunctionInPlace(BiFunction<Double, Double, Double> function, Vector vector) {
+    public SparseVector mapBiFunctionInPlace(DoubleBinaryOperator function, Vector vector) {
         checkVectorSize(vector);
         if (vector.type() == VectorType.SPARSE) {
             int[] newIndexes = new int[numberOfNonzeroEntries + ((SparseVector) vector).numberOfNonzeroEntries];
@@ -1574,17 +1885,17 @@ public class SparseVector extends Vector {
                     && vector2Index < ((SparseVector) vector).numberOfNonzeroEntries) {
                 if (indexes[vector1Index] < ((SparseVector) vector).indexes[vector2Index]) {
                     newIndexes[currentIndex] = indexes[vector1Index];
-                    newValues[currentIndex] = function.apply(values[vector1Index], 0.0);
+                    newValues[currentIndex] = function.applyAsDouble(values[vector1Index], 0.0);
                     currentIndex++;
                     vector1Index++;
                 } else if (indexes[vector1Index] > ((SparseVector) vector).indexes[vector2Index]) {
                     newIndexes[currentIndex] = ((SparseVector) vector).indexes[vector2Index];
-                    newValues[currentIndex] = function.apply(0.0, ((SparseVector) vector).values[vector2Index]);
+                    newValues[currentIndex] = function.applyAsDouble(0.0, ((SparseVector) vector).values[vector2Index]);
                     currentIndex++;
                     vector2Index++;
                 } else {
                     newIndexes[currentIndex] = indexes[vector1Index];
-                    newValues[currentIndex] = function.apply(values[vector1Index],
+                    newValues[currentIndex] = function.applyAsDouble(values[vector1Index],
                                                              ((SparseVector) vector).values[vector2Index]);
                     currentIndex++;
                     vector1Index++;
@@ -1593,13 +1904,13 @@ public class SparseVector extends Vector {
             }
             while (vector1Index < numberOfNonzeroEntries) {
                 newIndexes[currentIndex] = indexes[vector1Index];
-                newValues[currentIndex] = function.apply(values[vector1Index], 0.0);
+                newValues[currentIndex] = function.applyAsDouble(values[vector1Index], 0.0);
                 currentIndex++;
                 vector1Index++;
             }
             while (vector2Index < ((SparseVector) vector).numberOfNonzeroEntries) {
                 newIndexes[currentIndex] = ((SparseVector) vector).indexes[vector2Index];
-                newValues[currentIndex] = function.apply(0.0, ((SparseVector) vector).values[vector2Index]);
+                newValues[currentIndex] = function.applyAsDouble(0.0, ((SparseVector) vector).values[vector2Index]);
                 currentIndex++;
                 vector2Index++;
             }
@@ -1622,7 +1933,7 @@ public class SparseVector extends Vector {
      * @return              A new vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapAdd(Function<Double, Double> function, Vector vector) {
+    public SparseVector mapAdd(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         SparseVector resultVector;
         if (vector.type() == VectorType.SPARSE) {
@@ -1634,10 +1945,10 @@ public class SparseVector extends Vector {
             while (vector1Index < numberOfNonzeroEntries
                     && vector2Index < ((SparseVector) vector).numberOfNonzeroEntries) {
                 if (indexes[vector1Index] < ((SparseVector) vector).indexes[vector2Index]) {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index]);
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index]);
                         currentIndex++;
                     }
                     vector1Index++;
@@ -1647,10 +1958,10 @@ public class SparseVector extends Vector {
                     currentIndex++;
                     vector2Index++;
                 } else {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index])
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index])
                                 + ((SparseVector) vector).values[vector2Index];
                         currentIndex++;
                     }
@@ -1659,10 +1970,10 @@ public class SparseVector extends Vector {
                 }
             }
             while (vector1Index < numberOfNonzeroEntries) {
-                double tempValue = function.apply(values[vector1Index]);
+                double tempValue = function.applyAsDouble(values[vector1Index]);
                 if (Math.abs(tempValue) >= epsilon) {
                     newIndexes[currentIndex] = indexes[vector1Index];
-                    newValues[currentIndex] = function.apply(values[vector1Index]);
+                    newValues[currentIndex] = function.applyAsDouble(values[vector1Index]);
                     currentIndex++;
                 }
                 vector1Index++;
@@ -1690,7 +2001,7 @@ public class SparseVector extends Vector {
      * @return              The current vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapAddInPlace(Function<Double, Double> function, Vector vector) {
+    public SparseVector mapAddInPlace(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         if (vector.type() == VectorType.SPARSE) {
             int[] newIndexes = new int[numberOfNonzeroEntries + ((SparseVector) vector).numberOfNonzeroEntries];
@@ -1701,10 +2012,10 @@ public class SparseVector extends Vector {
             while (vector1Index < numberOfNonzeroEntries
                     && vector2Index < ((SparseVector) vector).numberOfNonzeroEntries) {
                 if (indexes[vector1Index] < ((SparseVector) vector).indexes[vector2Index]) {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index]);
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index]);
                         currentIndex++;
                     }
                     vector1Index++;
@@ -1714,10 +2025,10 @@ public class SparseVector extends Vector {
                     currentIndex++;
                     vector2Index++;
                 } else {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index])
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index])
                                 + ((SparseVector) vector).values[vector2Index];
                         currentIndex++;
                     }
@@ -1726,10 +2037,10 @@ public class SparseVector extends Vector {
                 }
             }
             while (vector1Index < numberOfNonzeroEntries) {
-                double tempValue = function.apply(values[vector1Index]);
+                double tempValue = function.applyAsDouble(values[vector1Index]);
                 if (Math.abs(tempValue) >= epsilon) {
                     newIndexes[currentIndex] = indexes[vector1Index];
-                    newValues[currentIndex] = function.apply(values[vector1Index]);
+                    newValues[currentIndex] = function.applyAsDouble(values[vector1Index]);
                     currentIndex++;
                 }
                 vector1Index++;
@@ -1759,7 +2070,7 @@ public class SparseVector extends Vector {
      * @return              A new vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapSub(Function<Double, Double> function, Vector vector) {
+    public SparseVector mapSub(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         SparseVector resultVector;
         if (vector.type() == VectorType.SPARSE) {
@@ -1771,10 +2082,10 @@ public class SparseVector extends Vector {
             while (vector1Index < numberOfNonzeroEntries
                     && vector2Index < ((SparseVector) vector).numberOfNonzeroEntries) {
                 if (indexes[vector1Index] < ((SparseVector) vector).indexes[vector2Index]) {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index]);
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index]);
                         currentIndex++;
                     }
                     vector1Index++;
@@ -1784,10 +2095,10 @@ public class SparseVector extends Vector {
                     currentIndex++;
                     vector2Index++;
                 } else {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index])
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index])
                                 - ((SparseVector) vector).values[vector2Index];
                         currentIndex++;
                     }
@@ -1796,10 +2107,10 @@ public class SparseVector extends Vector {
                 }
             }
             while (vector1Index < numberOfNonzeroEntries) {
-                double tempValue = function.apply(values[vector1Index]);
+                double tempValue = function.applyAsDouble(values[vector1Index]);
                 if (Math.abs(tempValue) >= epsilon) {
                     newIndexes[currentIndex] = indexes[vector1Index];
-                    newValues[currentIndex] = function.apply(values[vector1Index]);
+                    newValues[currentIndex] = function.applyAsDouble(values[vector1Index]);
                     currentIndex++;
                 }
                 vector1Index++;
@@ -1827,7 +2138,7 @@ public class SparseVector extends Vector {
      * @return              The current vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapSubInPlace(Function<Double, Double> function, Vector vector) {
+    public SparseVector mapSubInPlace(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         if (vector.type() == VectorType.SPARSE) {
             int[] newIndexes = new int[numberOfNonzeroEntries + ((SparseVector) vector).numberOfNonzeroEntries];
@@ -1838,10 +2149,10 @@ public class SparseVector extends Vector {
             while (vector1Index < numberOfNonzeroEntries
                     && vector2Index < ((SparseVector) vector).numberOfNonzeroEntries) {
                 if (indexes[vector1Index] < ((SparseVector) vector).indexes[vector2Index]) {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index]);
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index]);
                         currentIndex++;
                     }
                     vector1Index++;
@@ -1851,10 +2162,10 @@ public class SparseVector extends Vector {
                     currentIndex++;
                     vector2Index++;
                 } else {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index])
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index])
                                 - ((SparseVector) vector).values[vector2Index];
                         currentIndex++;
                     }
@@ -1863,10 +2174,10 @@ public class SparseVector extends Vector {
                 }
             }
             while (vector1Index < numberOfNonzeroEntries) {
-                double tempValue = function.apply(values[vector1Index]);
+                double tempValue = function.applyAsDouble(values[vector1Index]);
                 if (Math.abs(tempValue) >= epsilon) {
                     newIndexes[currentIndex] = indexes[vector1Index];
-                    newValues[currentIndex] = function.apply(values[vector1Index]);
+                    newValues[currentIndex] = function.applyAsDouble(values[vector1Index]);
                     currentIndex++;
                 }
                 vector1Index++;
@@ -1896,7 +2207,7 @@ public class SparseVector extends Vector {
      * @return              A new vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapMultElementwise(Function<Double, Double> function, Vector vector) {
+    public SparseVector mapMultElementwise(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         SparseVector resultVector;
         if (vector.type() == VectorType.SPARSE) {
@@ -1912,10 +2223,10 @@ public class SparseVector extends Vector {
                 } else if (indexes[vector1Index] > ((SparseVector) vector).indexes[vector2Index]) {
                     vector2Index++;
                 } else {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index])
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index])
                                 * ((SparseVector) vector).values[vector2Index];
                         currentIndex++;
                     }
@@ -1940,7 +2251,7 @@ public class SparseVector extends Vector {
      * @return              The current vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapMultElementwiseInPlace(Function<Double, Double> function, Vector vector) {
+    public SparseVector mapMultElementwiseInPlace(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         if (vector.type() == VectorType.SPARSE) {
             int[] newIndexes = new int[numberOfNonzeroEntries + ((SparseVector) vector).numberOfNonzeroEntries];
@@ -1955,10 +2266,10 @@ public class SparseVector extends Vector {
                 } else if (indexes[vector1Index] > ((SparseVector) vector).indexes[vector2Index]) {
                     vector2Index++;
                 } else {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index])
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index])
                                 * ((SparseVector) vector).values[vector2Index];
                         currentIndex++;
                     }
@@ -1987,7 +2298,7 @@ public class SparseVector extends Vector {
      * @return              A new vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapDivElementwise(Function<Double, Double> function, Vector vector) {
+    public SparseVector mapDivElementwise(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         SparseVector resultVector;
         if (vector.type() == VectorType.SPARSE) {
@@ -2003,10 +2314,10 @@ public class SparseVector extends Vector {
                 } else if (indexes[vector1Index] > ((SparseVector) vector).indexes[vector2Index]) {
                     vector2Index++;
                 } else {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index])
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index])
                                 / ((SparseVector) vector).values[vector2Index];
                         currentIndex++;
                     }
@@ -2033,7 +2344,7 @@ public class SparseVector extends Vector {
      * @return              The current vector holding the result of the operation.
      */
     @Override
-    public SparseVector mapDivElementwiseInPlace(Function<Double, Double> function, Vector vector) {
+    public SparseVector mapDivElementwiseInPlace(DoubleUnaryOperator function, Vector vector) {
         checkVectorSize(vector);
         if (vector.type() == VectorType.SPARSE) {
             int[] newIndexes = new int[numberOfNonzeroEntries + ((SparseVector) vector).numberOfNonzeroEntries];
@@ -2048,10 +2359,10 @@ public class SparseVector extends Vector {
                 } else if (indexes[vector1Index] > ((SparseVector) vector).indexes[vector2Index]) {
                     vector2Index++;
                 } else {
-                    double tempValue = function.apply(values[vector1Index]);
+                    double tempValue = function.applyAsDouble(values[vector1Index]);
                     if (Math.abs(tempValue) >= epsilon) {
                         newIndexes[currentIndex] = indexes[vector1Index];
-                        newValues[currentIndex] = function.apply(values[vector1Index])
+                        newValues[currentIndex] = function.applyAsDouble(values[vector1Index])
                                 / ((SparseVector) vector).values[vector2Index];
                         currentIndex++;
                     }
@@ -2068,28 +2379,148 @@ public class SparseVector extends Vector {
         return this;
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * Only the rows of the resulting matrix that correspond to nonzero elements of the current vector are computed
+     * (all other rows are equal to zero). If the provided vector is also a sparse vector, then only its nonzero
+     * elements are accessed.
+     */
     @Override
     public Matrix outer(Vector vector) {
-        return null;
+        checkVectorSize(vector);
+        Matrix resultMatrix = new Matrix(size, vector.size());
+        for (int k = 0; k < numberOfNonzeroEntries; k++) {
+            double[] resultMatrixRow = resultMatrix.rowArray(indexes[k]);
+            int resultMatrixRowOffset = resultMatrix.rowOffset(indexes[k]);
+            double value = values[k];
+            if (vector instanceof DenseVector) {
+                double[] vectorArray = ((DenseVector) vector).array;
+                int vectorOffset = ((DenseVector) vector).offset;
+                for (int j = 0; j < vector.size(); j++)
+                    resultMatrixRow[resultMatrixRowOffset + j] = value * vectorArray[vectorOffset + j];
+            } else if (vector instanceof SparseVector) {
+                SparseVector sparseVector = (SparseVector) vector;
+                for (int l = 0; l < sparseVector.numberOfNonzeroEntries; l++)
+                    resultMatrixRow[resultMatrixRowOffset + sparseVector.indexes[l]] = value * sparseVector.values[l];
+            } else {
+                for (int j = 0; j < vector.size(); j++)
+                    resultMatrixRow[resultMatrixRowOffset + j] = value * vector.get(j);
+            }
+        }
+        return resultMatrix;
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * The product \(A\boldsymbol{x}\) is computed using {@link Matrix#multiply(Vector)}, which only accesses the
+     * columns of \(A\) that correspond to nonzero elements of \(\boldsymbol{x}\), when \(\boldsymbol{x}\) is sparse.
+     * The result is returned as a sparse vector.
+     */
     @Override
     public SparseVector gaxpy(Matrix matrix, Vector vector) {
-        return null;
+        checkGaxpyDimensions(matrix, vector);
+        double[] resultArray = new double[size];
+        matrix.multiply(vector, resultArray);
+        for (int k = 0; k < numberOfNonzeroEntries; k++)
+            resultArray[indexes[k]] += values[k];
+        SparseVector resultVector = new SparseVector(size);
+        resultVector.setNonzeroEntries(resultArray);
+        return resultVector;
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * The product \(A\boldsymbol{x}\) is computed using {@link Matrix#multiply(Vector)}, which only accesses the
+     * columns of \(A\) that correspond to nonzero elements of \(\boldsymbol{x}\), when \(\boldsymbol{x}\) is sparse.
+     */
     @Override
     public SparseVector gaxpyInPlace(Matrix matrix, Vector vector) {
-        return null;
+        checkGaxpyDimensions(matrix, vector);
+        double[] resultArray = new double[size];
+        matrix.multiply(vector, resultArray);
+        for (int k = 0; k < numberOfNonzeroEntries; k++)
+            resultArray[indexes[k]] += values[k];
+        setNonzeroEntries(resultArray);
+        return this;
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     *
+     * Only the rows of the matrix that correspond to nonzero elements of the current vector are accessed, and so the
+     * cost of this operation is proportional to the number of nonzero elements of the current vector times the column
+     * dimension of the matrix. The result is returned as a sparse vector.
+     */
     @Override
     public SparseVector transMult(Matrix matrix) {
-        return null;
+        if (matrix.getRowDimension() != size) {
+            throw new IllegalArgumentException(
+                    "The row dimension of the matrix must agree with the size of the vector."
+            );
+        }
+        int columnDimension = matrix.getColumnDimension();
+        double[] resultArray = new double[columnDimension];
+        for (int k = 0; k < numberOfNonzeroEntries; k++) {
+            double[] matrixRow = matrix.rowArray(indexes[k]);
+            int matrixRowOffset = matrix.rowOffset(indexes[k]);
+            double value = values[k];
+            for (int j = 0; j < columnDimension; j++)
+                resultArray[j] += value * matrixRow[matrixRowOffset + j];
+        }
+        SparseVector resultVector = new SparseVector(columnDimension);
+        resultVector.setNonzeroEntries(resultArray);
+        return resultVector;
+    }
+
+    /**
+     * Checks whether the dimensions of the provided matrix and vector agree with the size of this vector, for
+     * computing \(\boldsymbol{y}+A\boldsymbol{x}\).
+     *
+     * @param   matrix  The matrix \(A\).
+     * @param   vector  The vector \(\boldsymbol{x}\).
+     *
+     * @throws  IllegalArgumentException    The row dimension of the matrix must agree with the size of the current
+     *                                      vector and the column dimension of the matrix must agree with the size of
+     *                                      the provided vector.
+     */
+    private void checkGaxpyDimensions(Matrix matrix, Vector vector) {
+        if (matrix.getRowDimension() != size) {
+            throw new IllegalArgumentException(
+                    "The row dimension of the matrix must agree with the size of the current vector."
+            );
+        }
+        if (matrix.getColumnDimension() != vector.size()) {
+            throw new IllegalArgumentException(
+                    "The column dimension of the matrix must agree with the size of the provided vector."
+            );
+        }
+    }
+
+    /**
+     * Replaces the contents of this vector with the nonzero elements of the provided dense array, whose length must be
+     * equal to the size of this vector.
+     *
+     * @param   denseArray  The dense array whose nonzero elements to store in this vector.
+     */
+    private void setNonzeroEntries(double[] denseArray) {
+        int numberOfNonzeroEntries = 0;
+        for (double value : denseArray)
+            if (value != 0)
+                numberOfNonzeroEntries++;
+        int[] newIndexes = new int[numberOfNonzeroEntries];
+        double[] newValues = new double[numberOfNonzeroEntries];
+        for (int i = 0, k = 0; i < denseArray.length; i++) {
+            if (denseArray[i] != 0) {
+                newIndexes[k] = i;
+                newValues[k++] = denseArray[i];
+            }
+        }
+        this.numberOfNonzeroEntries = numberOfNonzeroEntries;
+        indexes = newIndexes;
+        values = newValues;
     }
 
     /** {@inheritDoc} */
@@ -2201,6 +2632,59 @@ public class SparseVector extends Vector {
         }
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Cursor cursor() {
+        return new SparseVectorCursor();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void forEachNonzero(IntDoubleConsumer consumer) {
+        for (int i = 0; i < numberOfNonzeroEntries; i++)
+            if (values[i] != 0)
+                consumer.accept(indexes[i], values[i]);
+    }
+
+    /**
+     * A cursor class used for iterating over non-zero {@link SparseVector} elements (and maybe some zero elements as
+     * well).
+     */
+    private class SparseVectorCursor implements Cursor {
+        /** Current element index in the internal vector representation. */
+        private int position = -1;
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean advance() {
+            return ++position < numberOfNonzeroEntries;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int index() {
+            return indexes[position];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double value() {
+            return values[position];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setValue(double value) {
+            values[position] = value;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void reset() {
+            position = -1;
+        }
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean equals(Object object) {
@@ -0,0 +1,376 @@
+package module.math.matrix;
+
+import module.utilities.MathUtilities;
+
+import java.util.Arrays;
+
+/**
+ * Implements the eigenvalue decomposition algorithm for symmetric matrix \(A\in\mathbb{R}^{n\times n}\). The eigenvalue
+ * decomposition is an orthogonal matrix \(V\in\mathbb{R}^{n\times n}\), whose columns are the eigenvectors of \(A\), and
+ * a diagonal matrix \(D\in\mathbb{R}^{n\times n}\), whose diagonal contains the eigenvalues of \(A\), such that
+ * \(A=VDV^T\). The eigenvalues of a symmetric matrix are always real and they are ordered such that:
+ * \(\lambda_0\leq\lambda_1\leq\hdots\leq\lambda_{n-1}\). Only the lower triangular part of the provided matrix is used.
+ *
+ * The matrix is first reduced to tridiagonal form using Householder reflections and the eigenvalues and eigenvectors of
+ * the tridiagonal matrix are then computed using the implicit QL algorithm. This implementation is derived from the
+ * EISPACK {@code tred2} and {@code tql2} routines (as ported to Java by JAMA). The eigenvectors are stored by row
+ * internally, so that the plane rotations of the QL algorithm access them with unit stride. For the few extreme
+ * eigenvalues of large (or sparse, or implicitly defined) symmetric operators, {@link LanczosEigensolver} can be used
+ * instead, since it only requires products of the operator with vectors.
+ *
+ * @author Andriy Chekhovych
+ */
+public class SymmetricEigenDecomposition {
+    /** Relative threshold for negligible off-diagonal elements of the tridiagonal matrix. */
+    private static final double RELATIVE_NEGLIGIBLE_ELEMENTS_THRESHOLD = 0x1.0p-52;
+
+    /** The dimension of the matrix whose decomposition is being computed. */
+    private final int dimension;
+    /** The eigenvalues, in ascending order. */
+    private final double[] eigenvalues;
+    /** Two-dimensional array holding the eigenvectors, stored by row (i.e., row \(i\) holds the eigenvector that
+     * corresponds to the \(i\)-th eigenvalue). */
+    private final double[][] eigenvectors;
+
+    /**
+     * Constructs a symmetric eigenvalue decomposition object for the provided matrix. The actual decomposition is
+     * computed within this constructor. Only the lower triangular part of the matrix is used and so its symmetry is not
+     * checked.
+     *
+     * @param   matrix  The matrix whose eigenvalue decomposition is being computed.
+     *
+     * @throws  IllegalArgumentException    The matrix must be square.
+     */
+    public SymmetricEigenDecomposition(Matrix matrix) {
+        if (matrix.getRowDimension() != matrix.getColumnDimension())
+            throw new IllegalArgumentException("The matrix has to be square.");
+        dimension = matrix.getRowDimension();
+        eigenvalues = new double[dimension];
+        double[] e = new double[dimension];
+        double[][] V = matrix.getArrayCopy();
+        if (dimension == 0) {
+            eigenvectors = V;
+            return;
+        }
+        reduceToTridiagonalForm(V, eigenvalues, e);
+        // Transpose the accumulated transformations, so that the eigenvectors are stored by row.
+        eigenvectors = new double[dimension][dimension];
+        for (int i = 0; i < dimension; i++)
+            for (int j = 0; j < dimension; j++)
+                eigenvectors[j][i] = V[i][j];
+        computeTridiagonalEigenDecomposition(eigenvalues, e, eigenvectors);
+    }
+
+    /**
+     * Constructs a symmetric eigenvalue decomposition object for the provided symmetric matrix. The actual decomposition
+     * is computed within this constructor.
+     *
+     * @param   matrix  The symmetric matrix whose eigenvalue decomposition is being computed.
+     */
+    public SymmetricEigenDecomposition(SymmetricMatrix matrix) {
+        this(matrix.toDenseMatrix());
+    }
+
+    /**
+     * Reduces the provided symmetric matrix to tridiagonal form using Householder reflections, accumulating the
+     * orthogonal transformations in place of the matrix (i.e., the EISPACK {@code tred2} routine).
+     *
+     * @param   V   The matrix to reduce, whose lower triangular part is used and which is overwritten by the orthogonal
+     *              transformations.
+     * @param   d   Array in which to store the diagonal of the tridiagonal matrix.
+     * @param   e   Array in which to store the sub-diagonal of the tridiagonal matrix (in elements \(1\) to \(n-1\)).
+     */
+    private static void reduceToTridiagonalForm(double[][] V, double[] d, double[] e) {
+        int n = d.length;
+        System.arraycopy(V[n - 1], 0, d, 0, n);
+        for (int i = n - 1; i > 0; i--) {
+            // Scale to avoid under/overflow.
+            double scale = 0;
+            double h = 0;
+            for (int k = 0; k < i; k++) {
+                scale += Math.abs(d[k]);
+            }
+            if (scale == 0) {
+                e[i] = d[i - 1];
+                for (int j = 0; j < i; j++) {
+                    d[j] = V[i - 1][j];
+                    V[i][j] = 0;
+                    V[j][i] = 0;
+                }
+            } else {
+                // Generate the Householder vector.
+                for (int k = 0; k < i; k++) {
+                    d[k] /= scale;
+                    h += d[k] * d[k];
+                }
+                double f = d[i - 1];
+                double g = Math.sqrt(h);
+                if (f > 0) {
+                    g = -g;
+                }
+                e[i] = scale * g;
+                h -= f * g;
+                d[i - 1] = f - g;
+                Arrays.fill(e, 0, i, 0);
+                // Apply the similarity transformation to the remaining columns.
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    V[j][i] = f;
+                    g = e[j] + V[j][j] * f;
+                    for (int k = j + 1; k <= i - 1; k++) {
+                        g += V[k][j] * d[k];
+                        e[k] += V[k][j] * f;
+                    }
+                    e[j] = g;
+                }
+                f = 0;
+                for (int j = 0; j < i; j++) {
+                    e[j] /= h;
+                    f += e[j] * d[j];
+                }
+                double hh = f / (h + h);
+                for (int j = 0; j < i; j++) {
+                    e[j] -= hh * d[j];
+                }
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    g = e[j];
+                    for (int k = j; k <= i - 1; k++) {
+                        V[k][j] -= f * e[k] + g * d[k];
+                    }
+                    d[j] = V[i - 1][j];
+                    V[i][j] = 0;
+                }
+            }
+            d[i] = h;
+        }
+        // Accumulate the transformations.
+        for (int i = 0; i < n - 1; i++) {
+            V[n - 1][i] = V[i][i];
+            V[i][i] = 1;
+            double h = d[i + 1];
+            if (h != 0) {
+                for (int k = 0; k <= i; k++) {
+                    d[k] = V[k][i + 1] / h;
+                }
+                for (int j = 0; j <= i; j++) {
+                    double g = 0;
+                    for (int k = 0; k <= i; k++) {
+                        g += V[k][i + 1] * V[k][j];
+                    }
+                    for (int k = 0; k <= i; k++) {
+                        V[k][j] -= g * d[k];
+                    }
+                }
+            }
+            for (int k = 0; k <= i; k++) {
+                V[k][i + 1] = 0;
+            }
+        }
+        for (int j = 0; j < n; j++) {
+            d[j] = V[n - 1][j];
+            V[n - 1][j] = 0;
+        }
+        V[n - 1][n - 1] = 1;
+        e[0] = 0;
+    }
+
+    /**
+     * Computes the eigenvalues of a symmetric tridiagonal matrix using the implicit QL algorithm (i.e., the EISPACK
+     * {@code tql2} routine), and applies the corresponding plane rotations to the rows of the provided array. If the
+     * rows of that array initially hold the orthogonal transformations that reduced a matrix to tridiagonal form, they
+     * end up holding the eigenvectors of that matrix. The rows may also hold only some of the components of the
+     * eigenvectors (e.g., only their last component, when only the residuals of Ritz pairs are needed, as is the case
+     * in {@link LanczosEigensolver}), since each rotation is applied to each component independently. The eigenvalues,
+     * along with the corresponding rows, are sorted in ascending order.
+     *
+     * @param   d   The diagonal of the tridiagonal matrix, which is overwritten by the eigenvalues.
+     * @param   e   The sub-diagonal of the tridiagonal matrix (in elements \(1\) to \(n-1\)), which is destroyed.
+     * @param   Z   Array whose rows are transformed by the plane rotations (e.g., the identity matrix).
+     */
+    static void computeTridiagonalEigenDecomposition(double[] d, double[] e, double[][] Z) {
+        int n = d.length;
+        if (n == 0)
+            return;
+        for (int i = 1; i < n; i++) {
+            e[i - 1] = e[i];
+        }
+        e[n - 1] = 0;
+        double f = 0;
+        double tst1 = 0;
+        for (int l = 0; l < n; l++) {
+            // Find a small sub-diagonal element.
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n - 1 && Math.abs(e[m]) > RELATIVE_NEGLIGIBLE_ELEMENTS_THRESHOLD * tst1) {
+                m++;
+            }
+            // If m == l, d[l] is an eigenvalue. Otherwise, iterate.
+            if (m > l) {
+                do {
+                    // Compute the implicit shift.
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2 * e[l]);
+                    double r = MathUtilities.computeHypotenuse(p, 1);
+                    if (p < 0) {
+                        r = -r;
+                    }
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < n; i++) {
+                        d[i] -= h;
+                    }
+                    f += h;
+                    // Implicit QL transformation.
+                    p = d[m];
+                    double c = 1;
+                    double c2 = c;
+                    double c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0;
+                    double s2 = 0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = MathUtilities.computeHypotenuse(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+                        // Accumulate the transformation (on rows i and i + 1, with unit stride).
+                        double[] zI = Z[i];
+                        double[] zI1 = Z[i + 1];
+                        for (int k = 0; k < zI.length; k++) {
+                            h = zI1[k];
+                            zI1[k] = s * zI[k] + c * h;
+                            zI[k] = c * zI[k] - s * h;
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                    // Check for convergence.
+                } while (Math.abs(e[l]) > RELATIVE_NEGLIGIBLE_ELEMENTS_THRESHOLD * tst1);
+            }
+            d[l] += f;
+            e[l] = 0;
+        }
+        // Sort the eigenvalues and the corresponding rows.
+        for (int i = 0; i < n - 1; i++) {
+            int k = i;
+            double p = d[i];
+            for (int j = i + 1; j < n; j++) {
+                if (d[j] < p) {
+                    k = j;
+                    p = d[j];
+                }
+            }
+            if (k != i) {
+                d[k] = d[i];
+                d[i] = p;
+                double[] temporaryRow = Z[i];
+                Z[i] = Z[k];
+                Z[k] = temporaryRow;
+            }
+        }
+    }
+
+    /**
+     * Gets the eigenvalues of the matrix whose decomposition is being computed, in ascending order.
+     *
+     * @return  A one-dimensional array containing the eigenvalues.
+     */
+    public double[] getEigenvalues() {
+        return Arrays.copyOf(eigenvalues, dimension);
+    }
+
+    /**
+     * Gets the eigenvector that corresponds to the eigenvalue with the provided index (in ascending order).
+     *
+     * @param   index   The index of the eigenvalue.
+     * @return          The eigenvector as a new vector.
+     *
+     * @throws  ArrayIndexOutOfBoundsException  The provided index is out of bounds.
+     */
+    public Vector getEigenvector(int index) {
+        if (index < 0 || index >= dimension)
+            throw new ArrayIndexOutOfBoundsException("The provided index is out of bounds.");
+        return Vectors.dense(eigenvectors[index]);
+    }
+
+    /**
+     * Gets the orthogonal factor, \(V\), whose columns are the eigenvectors.
+     *
+     * @return  The orthogonal factor, \(V\), as a new matrix.
+     */
+    public Matrix getV() {
+        double[] vArray = new double[dimension * dimension];
+        for (int i = 0; i < dimension; i++)
+            for (int j = 0; j < dimension; j++)
+                vArray[j * dimension + i] = eigenvectors[i][j];
+        return Matrix.wrap(vArray, dimension, dimension);
+    }
+
+    /**
+     * Gets the diagonal factor, \(D\), whose diagonal contains the eigenvalues.
+     *
+     * @return  The diagonal factor, \(D\), as a new matrix.
+     */
+    public Matrix getD() {
+        double[] dArray = new double[dimension * dimension];
+        for (int i = 0; i < dimension; i++)
+            dArray[i * dimension + i] = eigenvalues[i];
+        return Matrix.wrap(dArray, dimension, dimension);
+    }
+
+    /**
+     * Gets the smallest eigenvalue of the matrix whose decomposition is being computed.
+     *
+     * @return  The smallest eigenvalue.
+     */
+    public double getSmallestEigenvalue() {
+        return eigenvalues[0];
+    }
+
+    /**
+     * Gets the largest eigenvalue of the matrix whose decomposition is being computed (e.g., the Lipschitz constant of
+     * the gradient of a quadratic function whose Hessian is the decomposed matrix).
+     *
+     * @return  The largest eigenvalue.
+     */
+    public double getLargestEigenvalue() {
+        return eigenvalues[dimension - 1];
+    }
+
+    /**
+     * Computes the \(L_2\) condition number of the matrix whose decomposition is being computed, which is the ratio of
+     * the largest to the smallest absolute value of its eigenvalues.
+     *
+     * @return  The \(L_2\) condition number.
+     */
+    public double computeConditionNumber() {
+        double largestAbsoluteValue = 0;
+        double smallestAbsoluteValue = Double.POSITIVE_INFINITY;
+        for (double eigenvalue : eigenvalues) {
+            largestAbsoluteValue = Math.max(largestAbsoluteValue, Math.abs(eigenvalue));
+            smallestAbsoluteValue = Math.min(smallestAbsoluteValue, Math.abs(eigenvalue));
+        }
+        return largestAbsoluteValue / smallestAbsoluteValue;
+    }
+
+    /**
+     * Checks whether the matrix whose decomposition is being computed is positive definite (i.e., whether all of its
+     * eigenvalues are positive).
+     *
+     * @return  {@code true} if the matrix is positive definite and {@code false} otherwise.
+     */
+    public boolean isPositiveDefinite() {
+        return dimension > 0 && eigenvalues[0] > 0;
+    }
+}
@@ -0,0 +1,306 @@
+package module.math.matrix;
+
+import java.util.Arrays;
+
+/**
+ * Implements a class representing symmetric matrices. Only the lower triangular part of a symmetric matrix is stored,
+ * packed row by row in a one-dimensional array (i.e., element \((i,j)\), with \(i\geq j\), is stored at index
+ * \(i(i+1)/2+j\)). This requires about half the memory of a dense matrix of the same dimension and, since all
+ * operations only read and write the packed array, it also halves the memory bandwidth of operations such as matrix
+ * vector multiplication. The symmetric rank-1 and rank-2 update operations (i.e., {@link #syr(double, Vector)} and
+ * {@link #syr2(double, Vector, Vector)}) are performed in place and they are the building blocks of quasi-Newton
+ * Hessian (or Hessian inverse) approximation updates.
+ *
+ * @author Andriy Chekhovych
+ */
+public final class SymmetricMatrix extends AbstractMatrix {
+    /** The dimension of the matrix (i.e., both its row and its column dimension). */
+    private final int dimension;
+    /** Array holding the lower triangular part of the matrix, packed row by row. */
+    private final double[] data;
+
+    /**
+     * Constructs a symmetric matrix with the given dimension and fills it with zeros.
+     *
+     * @param   dimension   The dimension of the matrix.
+     *
+     * @throws  IllegalArgumentException    The dimension must be non-negative and small enough for the packed lower
+     *                                      triangular part of the matrix to fit in an array.
+     */
+    public SymmetricMatrix(int dimension) {
+        if (dimension < 0 || (long) dimension * (dimension + 1) / 2 > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("The matrix dimension must be non-negative and its packed lower "
+                                                       + "triangular part must fit in an array.");
+        this.dimension = dimension;
+        data = new double[(int) ((long) dimension * (dimension + 1) / 2)];
+    }
+
+    /**
+     * Constructs a symmetric matrix from the lower triangular part of the provided square matrix. The upper triangular
+     * part of the provided matrix is ignored.
+     *
+     * @param   matrix  The matrix whose lower triangular part to copy.
+     *
+     * @throws  IllegalArgumentException    The provided matrix must be square.
+     */
+    public SymmetricMatrix(Matrix matrix) {
+        this(matrix.getRowDimension());
+        if (matrix.getColumnDimension() != dimension)
+            throw new IllegalArgumentException("The provided matrix must be square.");
+        for (int i = 0, k = 0; i < dimension; i++)
+            for (int j = 0; j <= i; j++)
+                data[k++] = matrix.getElement(i, j);
+    }
+
+    private SymmetricMatrix(int dimension, double[] data) {
+        this.dimension = dimension;
+        this.data = data;
+    }
+
+    /**
+     * Constructs an identity matrix with the given dimension.
+     *
+     * @param   dimension   The dimension of the matrix.
+     * @return              The identity matrix.
+     */
+    public static SymmetricMatrix identity(int dimension) {
+        SymmetricMatrix matrix = new SymmetricMatrix(dimension);
+        for (int i = 0; i < dimension; i++)
+            matrix.data[index(i, i)] = 1;
+        return matrix;
+    }
+
+    /**
+     * Copies this matrix.
+     *
+     * @return  A copy of this matrix.
+     */
+    public SymmetricMatrix copy() {
+        return new SymmetricMatrix(dimension, Arrays.copyOf(data, data.length));
+    }
+
+    /**
+     * Gets the dimension of this matrix (i.e., both its row and its column dimension).
+     *
+     * @return  The dimension of this matrix.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRowDimension() {
+        return dimension;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getColumnDimension() {
+        return dimension;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getElement(int row, int column) {
+        checkIndex(row);
+        checkIndex(column);
+        return row >= column ? data[index(row, column)] : data[index(column, row)];
+    }
+
+    /**
+     * Sets the value of the matrix element at the provided position, along with the value of the element at the
+     * symmetric position (i.e., with the row and column indexes swapped), to the provided value.
+     *
+     * @param   row     The row index of the element.
+     * @param   column  The column index of the element.
+     * @param   value   The value to which to set the element at the provided position.
+     */
+    public void setElement(int row, int column, double value) {
+        checkIndex(row);
+        checkIndex(column);
+        if (row >= column)
+            data[index(row, column)] = value;
+        else
+            data[index(column, row)] = value;
+    }
+
+    /**
+     * Returns this matrix, since symmetric matrices are equal to their transpose.
+     *
+     * @return  This matrix.
+     */
+    @Override
+    public SymmetricMatrix transpose() {
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Matrix toDenseMatrix() {
+        double[] resultData = new double[dimension * dimension];
+        for (int i = 0, k = 0; i < dimension; i++) {
+            for (int j = 0; j <= i; j++, k++) {
+                resultData[i * dimension + j] = data[k];
+                resultData[j * dimension + i] = data[k];
+            }
+        }
+        return Matrix.wrap(resultData, dimension, dimension);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double[] computeSquaredColumnNorms() {
+        double[] squaredNorms = new double[dimension];
+        for (int i = 0, k = 0; i < dimension; i++) {
+            for (int j = 0; j < i; j++, k++) {
+                squaredNorms[i] += data[k] * data[k];
+                squaredNorms[j] += data[k] * data[k];
+            }
+            squaredNorms[i] += data[k] * data[k];
+            k++;
+        }
+        return squaredNorms;
+    }
+
+    /**
+     * Multiplies this matrix with a scalar and returns the result in a new matrix.
+     *
+     * @param   scalar  The scalar with which to multiply this matrix.
+     * @return          A new matrix holding the result of the multiplication.
+     */
+    public SymmetricMatrix multiply(double scalar) {
+        return copy().multiplyEquals(scalar);
+    }
+
+    /**
+     * Multiplies this matrix with a scalar and stores the result in this matrix.
+     *
+     * @param   scalar  The scalar with which to multiply this matrix.
+     * @return          This matrix, after the multiplication.
+     */
+    public SymmetricMatrix multiplyEquals(double scalar) {
+        for (int k = 0; k < data.length; k++)
+            data[k] *= scalar;
+        return this;
+    }
+
+    /**
+     * Performs the symmetric rank-1 update \(A=A+\alpha xx^T\) in place. Only the lower triangular part of the matrix is
+     * updated and so this takes about half the operations of the corresponding dense update.
+     *
+     * @param   alpha   The scalar with which to multiply the outer product.
+     * @param   x       The vector whose outer product with itself to add to this matrix.
+     * @return          This matrix, after the update.
+     *
+     * @throws  IllegalArgumentException    The size of the provided vector must match the dimension of this matrix.
+     */
+    public SymmetricMatrix syr(double alpha, Vector x) {
+        checkSize(x);
+        double[] xArray = denseArray(x);
+        int xOffset = denseOffset(x);
+        for (int i = 0, k = 0; i < dimension; i++) {
+            double alphaXI = alpha * xArray[xOffset + i];
+            if (alphaXI == 0) {
+                k += i + 1;
+                continue;
+            }
+            for (int j = 0; j <= i; j++)
+                data[k++] += alphaXI * xArray[xOffset + j];
+        }
+        return this;
+    }
+
+    /**
+     * Performs the symmetric rank-2 update \(A=A+\alpha(xy^T+yx^T)\) in place. Only the lower triangular part of the
+     * matrix is updated and both outer products are accumulated in a single pass over it.
+     *
+     * @param   alpha   The scalar with which to multiply the sum of the outer products.
+     * @param   x       The first vector.
+     * @param   y       The second vector.
+     * @return          This matrix, after the update.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided vectors must match the dimension of this matrix.
+     */
+    public SymmetricMatrix syr2(double alpha, Vector x, Vector y) {
+        checkSize(x);
+        checkSize(y);
+        double[] xArray = denseArray(x);
+        int xOffset = denseOffset(x);
+        double[] yArray = denseArray(y);
+        int yOffset = denseOffset(y);
+        for (int i = 0, k = 0; i < dimension; i++) {
+            double alphaXI = alpha * xArray[xOffset + i];
+            double alphaYI = alpha * yArray[yOffset + i];
+            for (int j = 0; j <= i; j++)
+                data[k++] += alphaXI * yArray[yOffset + j] + alphaYI * xArray[xOffset + j];
+        }
+        return this;
+    }
+
+    /**
+     * Multiplies this matrix with a vector and stores the result in the provided array, starting at the provided
+     * offset. Each stored element is read exactly once and contributes to both of the result elements it affects.
+     *
+     * @param   vector          The vector with which to multiply the current matrix.
+     * @param   resultArray     The array in which to store the result of the multiplication.
+     * @param   resultOffset    The index in the result array at which to store the first element of the result.
+     */
+    @Override
+    void multiply(Vector vector, double[] resultArray, int resultOffset) {
+        double[] vectorArray = denseArray(vector);
+        int vectorOffset = denseOffset(vector);
+        Arrays.fill(resultArray, resultOffset, resultOffset + dimension, 0);
+        for (int i = 0, k = 0; i < dimension; i++) {
+            double vectorElementI = vectorArray[vectorOffset + i];
+            double dotProduct = 0;
+            for (int j = 0; j < i; j++, k++) {
+                dotProduct += data[k] * vectorArray[vectorOffset + j];
+                resultArray[resultOffset + j] += data[k] * vectorElementI;
+            }
+            resultArray[resultOffset + i] += dotProduct + data[k++] * vectorElementI;
+        }
+    }
+
+    /**
+     * Multiplies the transpose of this matrix with a vector and stores the result in the provided array, which is the
+     * same as multiplying this matrix with that vector.
+     *
+     * @param   vector          The vector with which to multiply the transpose of the current matrix.
+     * @param   resultArray     The array in which to store the result of the multiplication.
+     * @param   resultOffset    The index in the result array at which to store the first element of the result.
+     */
+    @Override
+    void transMult(Vector vector, double[] resultArray, int resultOffset) {
+        multiply(vector, resultArray, resultOffset);
+    }
+
+    /**
+     * Computes the index of element \((i,j)\), with \(i\geq j\), in the packed array.
+     *
+     * @param   i   The row index of the element.
+     * @param   j   The column index of the element.
+     * @return      The index of the element in the packed array.
+     */
+    private static int index(int i, int j) {
+        return (int) ((long) i * (i + 1) / 2) + j;
+    }
+
+    private static double[] denseArray(Vector vector) {
+        return vector instanceof DenseVector ? ((DenseVector) vector).array : vector.getDenseArray();
+    }
+
+    private static int denseOffset(Vector vector) {
+        return vector instanceof DenseVector ? ((DenseVector) vector).offset : 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= dimension)
+            throw new ArrayIndexOutOfBoundsException("The provided index is out of bounds.");
+    }
+
+    private void checkSize(Vector vector) {
+        if (vector.size() != dimension)
+            throw new IllegalArgumentException("The size of the vector must match the dimension of the matrix.");
+    }
+}
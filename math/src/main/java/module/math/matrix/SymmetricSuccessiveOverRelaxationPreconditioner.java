@@ -0,0 +1,354 @@
+package module.math.matrix;
+
+import java.util.Arrays;
+
+/**
+ * Implements the symmetric successive over-relaxation (SSOR) preconditioner of a symmetric matrix \(A=L+D+L^T\), where
+ * \(D\) is the diagonal and \(L\) is the strictly lower triangular part of \(A\). The preconditioner matrix is
+ * \(M=\frac{1}{\omega(2-\omega)}(D+\omega L)D^{-1}(D+\omega L^T)\), which is symmetric and positive definite if the
+ * diagonal elements of \(A\) are positive and \(0<\omega<2\). For \(\omega=1\) this is the symmetric Gauss-Seidel
+ * preconditioner.
+ *
+ * The preconditioner is never formed explicitly. Applying \(M^{-1}\) to a vector consists of a forward Gauss-Seidel
+ * sweep (i.e., solving a system with \(D+\omega L\)) followed by a backward sweep (i.e., solving a system with
+ * \(D+\omega L^T\)), directly on the elements of \(A\). This requires no setup (other than locating the diagonal
+ * elements) and takes time proportional to the number of nonzero elements of \(A\).
+ *
+ * The sweeps are inherently sequential when the rows are processed in their natural order. Optionally, a multicolor
+ * ordering can be used instead: the rows are greedily colored, so that no two rows of the same color are coupled by a
+ * nonzero element of \(A\), and the sweeps process the colors one after the other. The rows of each color only depend
+ * on rows of other colors and so they are processed in parallel. This corresponds to the SSOR preconditioner of the
+ * symmetrically permuted matrix, which is usually a weaker preconditioner than that of the natural ordering (e.g., the
+ * two-color ordering of a five-point stencil may need about three times as many conjugate gradient iterations), and so
+ * it only pays off when several threads are available and \(A\) is large and sparse. The multicolor ordering requires
+ * the sparsity pattern of \(A\) to be symmetric.
+ *
+ * @author Andriy Chekhovych
+ */
+public class SymmetricSuccessiveOverRelaxationPreconditioner {
+    /** The number of consecutive rows of the same color processed by a single task of a multicolor sweep. */
+    private static final int ROWS_PER_TASK = 1024;
+
+    /** The dimension of the matrix. */
+    private final int dimension;
+    /** The relaxation parameter, \(\omega\). */
+    private final double omega;
+    /** The options providing the threads used by the multicolor sweeps. */
+    private final MatrixMultiplyOptions options;
+    /** The diagonal elements of the matrix. */
+    private final double[] diagonal;
+
+    /** The matrix, when it is dense and the natural ordering is used (null otherwise). */
+    private final Matrix denseMatrix;
+    /** The matrix, stored in the CSR format, when it is not dense or the multicolor ordering is used (null otherwise). */
+    private final SparseMatrix sparseMatrix;
+    /** The positions of the diagonal elements of the matrix in the arrays of {@link #sparseMatrix}. */
+    private final int[] diagonalPositions;
+
+    /** The number of colors of the multicolor ordering (zero if the natural ordering is used). */
+    private final int numberOfColors;
+    /** The indexes in {@link #colorRows} at which the rows of each color start, followed by the dimension. */
+    private final int[] colorPointers;
+    /** The row indexes, grouped by color and sorted in increasing order within each color. */
+    private final int[] colorRows;
+    /** The number of nonzero elements in the rows of each color. */
+    private final long[] colorNumberOfNonzeroElements;
+
+    /**
+     * Constructs the SSOR preconditioner of the provided symmetric matrix, processing its rows in their natural order.
+     *
+     * @param   matrix  The symmetric matrix.
+     * @param   omega   The relaxation parameter (must lie in \((0,2)\)).
+     *
+     * @throws  IllegalArgumentException            The matrix must be square and the relaxation parameter must lie in
+     *                                              \((0,2)\).
+     * @throws  NonPositiveDefiniteMatrixException  If a diagonal element of the matrix is not positive.
+     */
+    public SymmetricSuccessiveOverRelaxationPreconditioner(AbstractMatrix matrix, double omega)
+            throws NonPositiveDefiniteMatrixException {
+        this(matrix, omega, false, MatrixMultiplyOptions.DEFAULT);
+    }
+
+    /**
+     * Constructs the SSOR preconditioner of the provided symmetric matrix.
+     *
+     * @param   matrix              The symmetric matrix.
+     * @param   omega               The relaxation parameter (must lie in \((0,2)\)).
+     * @param   multicolorOrdering  Whether to use the multicolor ordering, which allows the sweeps to use multiple
+     *                              threads, instead of the natural ordering.
+     * @param   options             The options providing the threads used by the multicolor sweeps.
+     *
+     * @throws  IllegalArgumentException            The matrix must be square and the relaxation parameter must lie in
+     *                                              \((0,2)\).
+     * @throws  NonPositiveDefiniteMatrixException  If a diagonal element of the matrix is not positive.
+     */
+    public SymmetricSuccessiveOverRelaxationPreconditioner(AbstractMatrix matrix,
+                                                           double omega,
+                                                           boolean multicolorOrdering,
+                                                           MatrixMultiplyOptions options)
+            throws NonPositiveDefiniteMatrixException {
+        if (matrix.getRowDimension() != matrix.getColumnDimension())
+            throw new IllegalArgumentException("The matrix has to be square.");
+        if (!(omega > 0 && omega < 2))
+            throw new IllegalArgumentException("The relaxation parameter must lie in (0, 2).");
+        dimension = matrix.getRowDimension();
+        this.omega = omega;
+        this.options = options;
+        diagonal = new double[dimension];
+        if (matrix instanceof Matrix && !multicolorOrdering) {
+            denseMatrix = (Matrix) matrix;
+            sparseMatrix = null;
+            diagonalPositions = null;
+            for (int i = 0; i < dimension; i++)
+                diagonal[i] = denseMatrix.rowArray(i)[denseMatrix.rowOffset(i) + i];
+        } else {
+            denseMatrix = null;
+            sparseMatrix = toCompressedRows(matrix);
+            diagonalPositions = new int[dimension];
+            for (int i = 0; i < dimension; i++) {
+                int k = sparseMatrix.pointers[i];
+                while (k < sparseMatrix.pointers[i + 1] && sparseMatrix.indexes[k] < i)
+                    k++;
+                diagonalPositions[i] = k;
+                if (k < sparseMatrix.pointers[i + 1] && sparseMatrix.indexes[k] == i)
+                    diagonal[i] = sparseMatrix.values[k];
+            }
+        }
+        for (int i = 0; i < dimension; i++)
+            if (!(diagonal[i] > 0))
+                throw new NonPositiveDefiniteMatrixException(
+                        "Non positive diagonal element! The SSOR preconditioner cannot be constructed!"
+                );
+        if (multicolorOrdering) {
+            int[] colors = computeGreedyColoring(sparseMatrix);
+            int maximumColor = -1;
+            for (int color : colors)
+                maximumColor = Math.max(maximumColor, color);
+            numberOfColors = maximumColor + 1;
+            colorPointers = new int[numberOfColors + 1];
+            colorNumberOfNonzeroElements = new long[numberOfColors];
+            for (int i = 0; i < dimension; i++) {
+                colorPointers[colors[i] + 1]++;
+                colorNumberOfNonzeroElements[colors[i]] += sparseMatrix.pointers[i + 1] - sparseMatrix.pointers[i];
+            }
+            for (int color = 0; color < numberOfColors; color++)
+                colorPointers[color + 1] += colorPointers[color];
+            colorRows = new int[dimension];
+            int[] nextPositions = colorPointers.clone();
+            for (int i = 0; i < dimension; i++)
+                colorRows[nextPositions[colors[i]]++] = i;
+        } else {
+            numberOfColors = 0;
+            colorPointers = null;
+            colorRows = null;
+            colorNumberOfNonzeroElements = null;
+        }
+    }
+
+    /**
+     * Gets the provided matrix stored in the CSR format. Sparse matrices that already use the CSR format are returned
+     * themselves, while the nonzero elements of other matrices are collected in time proportional to their size.
+     *
+     * @param   matrix  The matrix.
+     * @return          The matrix stored in the CSR format.
+     */
+    private static SparseMatrix toCompressedRows(AbstractMatrix matrix) {
+        if (matrix instanceof SparseMatrix)
+            return ((SparseMatrix) matrix).toCompressedRows();
+        int n = matrix.getRowDimension();
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(n, n, 4 * n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double value = matrix.getElement(i, j);
+                if (value != 0)
+                    builder.addElement(i, j, value);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Colors the rows of the provided matrix greedily, in their natural order, so that no two rows coupled by an
+     * off-diagonal nonzero element have the same color. Each row gets the smallest color that is not used by any of its
+     * already colored neighbors, and so the number of colors is at most the maximum number of off-diagonal nonzero
+     * elements in a row plus one.
+     *
+     * @param   matrix  The matrix, stored in the CSR format.
+     * @return          The color of each row.
+     */
+    private static int[] computeGreedyColoring(SparseMatrix matrix) {
+        int n = matrix.getRowDimension();
+        int[] colors = new int[n];
+        // The last row for which each color was found to be used by a neighbor.
+        int[] colorMarkers = new int[n + 1];
+        Arrays.fill(colors, -1);
+        Arrays.fill(colorMarkers, -1);
+        for (int i = 0; i < n; i++) {
+            for (int k = matrix.pointers[i]; k < matrix.pointers[i + 1]; k++) {
+                int j = matrix.indexes[k];
+                if (j != i && colors[j] >= 0)
+                    colorMarkers[colors[j]] = i;
+            }
+            int color = 0;
+            while (colorMarkers[color] == i)
+                color++;
+            colors[i] = color;
+        }
+        return colors;
+    }
+
+    /**
+     * Solves the linear system of equations \(M\boldsymbol{x}=\boldsymbol{b}\) for \(\boldsymbol{x}\) and returns the
+     * result as a new vector (i.e., applies the preconditioner to the provided vector).
+     *
+     * @param   vector  Vector \(\boldsymbol{b}\) in equation \(M\boldsymbol{x}=\boldsymbol{b}\).
+     * @return          The solution of the system of equations.
+     *
+     * @throws  IllegalArgumentException    The vector size must match the dimension of the matrix.
+     */
+    public Vector solve(Vector vector) {
+        if (vector.size() != dimension)
+            throw new IllegalArgumentException("Matrix row and vector dimensions must agree.");
+        double[] x = vector.getDenseArray();
+        solveInPlace(x);
+        return AbstractMatrix.buildVector(x, vector.type());
+    }
+
+    /**
+     * Solves the linear system of equations \(M\boldsymbol{x}=\boldsymbol{b}\) in place, using a forward and a backward
+     * sweep over the elements of the matrix.
+     *
+     * @param   x   Vector \(\boldsymbol{b}\), which is overwritten by the solution.
+     */
+    public void solveInPlace(double[] x) {
+        if (denseMatrix != null)
+            sweepDense(x);
+        else if (numberOfColors == 0)
+            sweepSparse(x);
+        else
+            sweepMulticolor(x);
+        double scale = omega * (2 - omega);
+        for (int i = 0; i < dimension; i++)
+            x[i] *= scale;
+    }
+
+    /**
+     * Performs the forward and the backward sweeps in place, in the natural order, for a dense matrix.
+     *
+     * @param   x   The vector to which the sweeps are applied.
+     */
+    private void sweepDense(double[] x) {
+        for (int i = 0; i < dimension; i++) {
+            double[] rowI = denseMatrix.rowArray(i);
+            int rowIOffset = denseMatrix.rowOffset(i);
+            double sum = 0;
+            for (int j = 0; j < i; j++)
+                sum += rowI[rowIOffset + j] * x[j];
+            x[i] = (x[i] - omega * sum) / diagonal[i];
+        }
+        // After the forward sweep, x holds D^{-1} times the right hand side of the backward sweep.
+        for (int i = dimension - 1; i >= 0; i--) {
+            double[] rowI = denseMatrix.rowArray(i);
+            int rowIOffset = denseMatrix.rowOffset(i);
+            double sum = 0;
+            for (int j = i + 1; j < dimension; j++)
+                sum += rowI[rowIOffset + j] * x[j];
+            x[i] -= omega * sum / diagonal[i];
+        }
+    }
+
+    /**
+     * Performs the forward and the backward sweeps in place, in the natural order, for a sparse matrix. The column
+     * indexes of each row are sorted and so the strictly lower and upper triangular parts of the row lie before and
+     * after the diagonal element, respectively.
+     *
+     * @param   x   The vector to which the sweeps are applied.
+     */
+    private void sweepSparse(double[] x) {
+        int[] pointers = sparseMatrix.pointers;
+        int[] indexes = sparseMatrix.indexes;
+        double[] values = sparseMatrix.values;
+        for (int i = 0; i < dimension; i++) {
+            double sum = 0;
+            for (int k = pointers[i]; k < diagonalPositions[i]; k++)
+                sum += values[k] * x[indexes[k]];
+            x[i] = (x[i] - omega * sum) / diagonal[i];
+        }
+        for (int i = dimension - 1; i >= 0; i--) {
+            double sum = 0;
+            for (int k = diagonalPositions[i] + 1; k < pointers[i + 1]; k++)
+                sum += values[k] * x[indexes[k]];
+            x[i] -= omega * sum / diagonal[i];
+        }
+    }
+
+    /**
+     * Performs the forward and the backward sweeps using the multicolor ordering. The result of each sweep is
+     * accumulated in an array that is initially zero, so that the elements of the rows that have not been processed yet
+     * do not contribute to the sums over the full rows. Since no two rows of the same color are coupled, this gives the
+     * sums over the rows of the preceding colors (or of the following colors, for the backward sweep), without having
+     * to look up the color of each element.
+     *
+     * @param   x   The vector to which the sweeps are applied.
+     */
+    private void sweepMulticolor(double[] x) {
+        double[] z = new double[dimension];
+        for (int color = 0; color < numberOfColors; color++)
+            sweepColor(color, x, z, true);
+        Arrays.fill(x, 0);
+        for (int color = numberOfColors - 1; color >= 0; color--)
+            sweepColor(color, z, x, false);
+    }
+
+    /**
+     * Updates the rows of the provided color, splitting them in chunks that are processed in parallel.
+     *
+     * @param   color       The color.
+     * @param   source      The right hand side of the sweep.
+     * @param   destination The array holding the result of the sweep, which is zero for the rows that have not been
+     *                      processed yet.
+     * @param   forward     Whether this is the forward sweep (i.e., a solve with \(D+\omega L\)), instead of the
+     *                      backward sweep (i.e., a solve with \(D+\omega L^T\), given the result of the forward sweep).
+     */
+    private void sweepColor(int color, double[] source, double[] destination, boolean forward) {
+        int from = colorPointers[color];
+        int numberOfRows = colorPointers[color + 1] - from;
+        int numberOfTasks = (numberOfRows + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        int numberOfThreads = colorNumberOfNonzeroElements[color] < options.getParallelismThreshold() ?
+                1 : options.getMaximumNumberOfThreads();
+        int[] pointers = sparseMatrix.pointers;
+        int[] indexes = sparseMatrix.indexes;
+        double[] values = sparseMatrix.values;
+        MatrixMultiplication.parallelFor(numberOfTasks, numberOfThreads, options, task -> {
+            int to = Math.min(from + (task + 1) * ROWS_PER_TASK, from + numberOfRows);
+            for (int p = from + task * ROWS_PER_TASK; p < to; p++) {
+                int i = colorRows[p];
+                // The destination element of row i is still zero and so the diagonal element does not contribute.
+                double sum = 0;
+                for (int k = pointers[i]; k < pointers[i + 1]; k++)
+                    sum += values[k] * destination[indexes[k]];
+                destination[i] = forward
+                        ? (source[i] - omega * sum) / diagonal[i]
+                        : source[i] - omega * sum / diagonal[i];
+            }
+        });
+    }
+
+    /**
+     * Gets the relaxation parameter, \(\omega\).
+     *
+     * @return  The relaxation parameter.
+     */
+    public double getOmega() {
+        return omega;
+    }
+
+    /**
+     * Gets the number of colors of the multicolor ordering. This is zero if the natural ordering is used.
+     *
+     * @return  The number of colors.
+     */
+    public int getNumberOfColors() {
+        return numberOfColors;
+    }
+}
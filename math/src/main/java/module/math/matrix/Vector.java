@@ -8,8 +8,8 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.util.Iterator;
-import java.util.function.BiFunction;
-import java.util.function.Function;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 
 /**
  * Abstract class that needs to be extended by classes representing vectors and supporting operations related to
@@ -105,7 +105,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
     public abstract double get(int index);
 
     /**
-     * Gets a sub-vector of this vector.
+     * Gets a sub-vector of this vector. The elements of the returned vector are copied from this vector.
      *
      * @param   initialIndex    The initial index.
      * @param   finalIndex      The final index (inclusive).
@@ -444,6 +444,18 @@ public abstract class Vector implements Iterable<Vector.Element> {
      */
     public abstract Vector saxpyPlusConstantInPlace(double scalar, Vector vector);
 
+    /**
+     * Creates a lazily evaluated expression whose elements are the elements of the current vector. Operations chained
+     * on the returned expression are only computed, in a single pass, when the expression is evaluated.
+     *
+     * @return  A new expression wrapping the current vector.
+     *
+     * @see     VectorExpression
+     */
+    public final VectorExpression expression() {
+        return VectorExpression.of(this);
+    }
+
     /**
      * Computes the inner product (also known as the dot product) between the current vector and another vector.
      *
@@ -484,6 +496,37 @@ public abstract class Vector implements Iterable<Vector.Element> {
      */
     public abstract double innerPlusConstant(Vector vector);
 
+    /**
+     * Computes \(\boldsymbol{y}=a\boldsymbol{x}+b\boldsymbol{y}\), where \(\boldsymbol{y}\) denotes the current vector,
+     * and stores the result in the current vector. The operation is performed in a single pass over the vectors and
+     * without allocating any temporary vectors.
+     *
+     * @param   a   The scalar by which to multiply the provided vector.
+     * @param   x   The vector to add to the current vector.
+     * @param   b   The scalar by which to multiply the current vector.
+     * @return      The current vector holding the result of the operation.
+     */
+    public abstract Vector axpbyInPlace(double a, Vector x, double b);
+
+    /**
+     * Computes the inner product between the current vector and another vector, along with the squared \(L_2\) norm of
+     * the current vector, in a single pass over the vectors.
+     *
+     * @param   vector  The vector used to compute the inner product with the current vector.
+     * @return          An array of length 2 holding the inner product and the squared \(L_2\) norm of the current
+     *                  vector, in that order.
+     */
+    public abstract double[] innerAndNormSquared(Vector vector);
+
+    /**
+     * Computes the inner products between the current vector and each one of the provided vectors, in a single pass
+     * over the current vector.
+     *
+     * @param   vectors The vectors used to compute the inner products with the current vector.
+     * @return          An array holding the inner products, in the same order as the provided vectors.
+     */
+    public abstract double[] multiInner(Vector... vectors);
+
     /**
      * Computes the square root of the sum of the squares of each pair of vector elements (that is equivalent to
      * computing length of the hypotenuse of a right triangle given the lengths of the other two sides) without having
@@ -551,7 +594,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   function    The function to apply to the current vector element-wise.
      * @return              A new vector holding the result of the operation.
      */
-    public abstract Vector map(Function<Double, Double> function);
+    public abstract Vector map(DoubleUnaryOperator function);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and replaces the current
@@ -560,7 +603,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   function    The function to apply to the current vector element-wise.
      * @return              The current vector holding the result of the operation.
      */
-    public abstract Vector mapInPlace(Function<Double, Double> function);
+    public abstract Vector mapInPlace(DoubleUnaryOperator function);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and the provided vector
@@ -570,7 +613,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to use for second argument of the function.
      * @return              A new vector holding the result of the operation.
      */
-    public abstract Vector mapBiFunction(BiFunction<Double, Double, Double> function, Vector vector);
+    public abstract Vector mapBiFunction(DoubleBinaryOperator function, Vector vector);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and the provided vector
@@ -581,7 +624,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to use for second argument of the function.
      * @return              The current vector holding the result of the operation.
      */
-    public abstract Vector mapBiFunctionInPlace(BiFunction<Double, Double, Double> function, Vector vector);
+    public abstract Vector mapBiFunctionInPlace(DoubleBinaryOperator function, Vector vector);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and adding the provided
@@ -591,7 +634,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to add to the function result.
      * @return              A new vector holding the result of the operation.
      */
-    public abstract Vector mapAdd(Function<Double, Double> function, Vector vector);
+    public abstract Vector mapAdd(DoubleUnaryOperator function, Vector vector);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and adding the provided
@@ -601,7 +644,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to add to the function result.
      * @return              The current vector holding the result of the operation.
      */
-    public abstract Vector mapAddInPlace(Function<Double, Double> function, Vector vector);
+    public abstract Vector mapAddInPlace(DoubleUnaryOperator function, Vector vector);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and subtracting the
@@ -611,7 +654,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to subtract from the function result.
      * @return              A new vector holding the result of the operation.
      */
-    public abstract Vector mapSub(Function<Double, Double> function, Vector vector);
+    public abstract Vector mapSub(DoubleUnaryOperator function, Vector vector);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and subtracting the
@@ -621,7 +664,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to subtract from the function result.
      * @return              The current vector holding the result of the operation.
      */
-    public abstract Vector mapSubInPlace(Function<Double, Double> function, Vector vector);
+    public abstract Vector mapSubInPlace(DoubleUnaryOperator function, Vector vector);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and multiplying the
@@ -631,7 +674,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to multiply with the function result element-wise.
      * @return              A new vector holding the result of the operation.
      */
-    public abstract Vector mapMultElementwise(Function<Double, Double> function, Vector vector);
+    public abstract Vector mapMultElementwise(DoubleUnaryOperator function, Vector vector);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and multiplying the
@@ -641,7 +684,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to multiply with the function result element-wise.
      * @return              The current vector holding the result of the operation.
      */
-    public abstract Vector mapMultElementwiseInPlace(Function<Double, Double> function, Vector vector);
+    public abstract Vector mapMultElementwiseInPlace(DoubleUnaryOperator function, Vector vector);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and dividing the
@@ -651,7 +694,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to divide with the function result element-wise.
      * @return              A new vector holding the result of the operation.
      */
-    public abstract Vector mapDivElementwise(Function<Double, Double> function, Vector vector);
+    public abstract Vector mapDivElementwise(DoubleUnaryOperator function, Vector vector);
 
     /**
      * Computes the result of applying the supplied function element-wise to the current vector and dividing the
@@ -661,7 +704,7 @@ public abstract class Vector implements Iterable<Vector.Element> {
      * @param   vector      The vector to divide with the function result element-wise.
      * @return              The current vector holding the result of the operation.
      */
-    public abstract Vector mapDivElementwiseInPlace(Function<Double, Double> function, Vector vector);
+    public abstract Vector mapDivElementwiseInPlace(DoubleUnaryOperator function, Vector vector);
 
     /**
      * Computes the outer product between the current vector and another vector and returns the result in a new matrix.
@@ -776,6 +819,25 @@ public abstract class Vector implements Iterable<Vector.Element> {
     @Override
     public abstract Iterator<Element> iterator();
 
+    /**
+     * Returns a cursor positioned before the first element of the same superset of the non-zero elements of the vector
+     * that {@link #iterator()} iterates over. Unlike the iterator, the cursor does not allocate a new {@link Element}
+     * object for each element visited and so a single cursor object is used for the whole iteration (and possibly more
+     * iterations, by calling {@link Cursor#reset()}). The vector must not be structurally modified (e.g., by setting
+     * new non-zero elements of a sparse vector) while the cursor is in use.
+     *
+     * @return  A cursor over a superset of the non-zero elements of the vector.
+     */
+    public abstract Cursor cursor();
+
+    /**
+     * Calls the provided consumer with the index and the value of each non-zero element of this vector, in increasing
+     * index order for dense and sparse vectors and in an unspecified order for hash vectors.
+     *
+     * @param   consumer    The consumer to call for each non-zero element.
+     */
+    public abstract void forEachNonzero(IntDoubleConsumer consumer);
+
     /**
      * Compares the current vector with another object for equality. Note that if the provided object is not a vector
      * object, then this method returns false. Otherwise, it checks for equality of the element values of the two
@@ -799,6 +861,45 @@ public abstract class Vector implements Iterable<Vector.Element> {
     @Override
     public abstract String toString();
 
+    /**
+     * Interface for cursors over vector elements, returned by {@link #cursor()}. A cursor is initially positioned before
+     * the first element and it is moved forward using {@link #advance()}. The index and value of the element at which
+     * the cursor is positioned are exposed through primitive accessors.
+     */
+    public interface Cursor {
+        /**
+         * Moves this cursor to the next element.
+         *
+         * @return  True if the cursor now points to an element and false if there are no more elements.
+         */
+        boolean advance();
+
+        /**
+         * Returns the index of the element at which this cursor is positioned.
+         *
+         * @return  The index of the current element.
+         */
+        int index();
+
+        /**
+         * Returns the value of the element at which this cursor is positioned.
+         *
+         * @return  The value of the current element.
+         */
+        double value();
+
+        /**
+         * Sets the value of the element at which this cursor is positioned. Note that for sparse vectors setting a
+         * value to zero does not remove the element from the internal representation of the vector.
+         *
+         * @param   value   The new value of the current element.
+         */
+        void setValue(double value);
+
+        /** Moves this cursor back to its initial position, before the first element. */
+        void reset();
+    }
+
     /**
      * Class representing a single vector element. This class contains the index of the element and the computeValue of that
      * element. This class is mainly used by vector iterators.
@@ -0,0 +1,479 @@
+package module.math.matrix;
+
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Lazily evaluated element-wise vector expression. Chaining operations on an expression does not perform any
+ * computation; it only records the operations. The whole chain is then computed in a single pass over the vector
+ * elements, and with at most one allocation, when the expression is materialized using {@link #evaluate()},
+ * {@link #evaluateInto(Vector)} or {@link #evaluateInto(Vector, int[])}. For example:
+ * <pre>{@code
+ * Vector result = VectorExpression.of(a).add(b.mult(s)).divElementwise(c).maxElementwise(0).evaluate();
+ * }</pre>
+ * computes the same vector as {@code a.add(b.mult(s)).divElementwise(c).maxElementwiseInPlace(0)}, but in one loop
+ * instead of one loop and one temporary vector per operator (the scaling of {@code b} here is computed eagerly, since
+ * it is performed on a vector; writing {@code VectorExpression.of(b).mult(s)} instead makes it lazy as well).
+ *
+ * Since expressions are evaluated element by element and the value of each element only depends on the elements of
+ * the operand vectors at the same index, it is safe to evaluate an expression into one of its own operands. Note that
+ * the operand vectors are not copied, and so any changes made to them before an expression is evaluated are visible
+ * in the result.
+ *
+ * @author Andriy Chekhovych
+ */
+public abstract class VectorExpression {
+    /** The size of the vectors this expression operates on. */
+    protected final int size;
+
+    /**
+     * Constructs an expression of the provided size.
+     *
+     * @param   size    The size of the vectors this expression operates on.
+     */
+    protected VectorExpression(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Creates an expression whose elements are the elements of the provided vector.
+     *
+     * @param   vector  The vector.
+     * @return          The new expression.
+     */
+    public static VectorExpression of(Vector vector) {
+        if (vector instanceof DenseVector)
+            return new DenseVectorExpression((DenseVector) vector);
+        return new GenericVectorExpression(vector);
+    }
+
+    /**
+     * Creates an expression of the provided size, all of whose elements are equal to the provided value.
+     *
+     * @param   size    The size of the expression.
+     * @param   value   The value of all elements.
+     * @return          The new expression.
+     */
+    public static VectorExpression constant(int size, double value) {
+        return new ConstantVectorExpression(size, value);
+    }
+
+    /**
+     * Gets the size of this expression (i.e., the size of the vector it evaluates to).
+     *
+     * @return  The size of this expression.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Computes the value of a single element of this expression.
+     *
+     * @param   index   The index of the element.
+     * @return          The value of the element.
+     */
+    public abstract double get(int index);
+
+    /**
+     * Evaluates this expression into a new dense vector.
+     *
+     * @return  A new dense vector holding the values of this expression.
+     */
+    public DenseVector evaluate() {
+        DenseVector resultVector = new DenseVector(size);
+        double[] resultArray = resultVector.array;
+        for (int i = 0; i < size; i++)
+            resultArray[i] = get(i);
+        return resultVector;
+    }
+
+    /**
+     * Evaluates this expression and stores the result in the provided vector, overwriting all of its elements.
+     *
+     * @param   vector  The vector in which to store the result.
+     * @return          The provided vector.
+     *
+     * @throws  IllegalArgumentException    The size of the provided vector must match the size of this expression.
+     */
+    public Vector evaluateInto(Vector vector) {
+        checkSize(vector.size());
+        if (vector instanceof DenseVector) {
+            double[] resultArray = ((DenseVector) vector).array;
+            int resultOffset = ((DenseVector) vector).offset;
+            for (int i = 0; i < size; i++)
+                resultArray[resultOffset + i] = get(i);
+        } else {
+            for (int i = 0; i < size; i++)
+                setElement(vector, i, get(i));
+        }
+        return vector;
+    }
+
+    /**
+     * Evaluates this expression only at the provided indexes and stores the result at the same indexes of the provided
+     * vector. All other elements of the provided vector are left unchanged.
+     *
+     * @param   vector  The vector in which to store the result.
+     * @param   indexes The indexes of the elements to evaluate.
+     * @return          The provided vector.
+     *
+     * @throws  IllegalArgumentException    The size of the provided vector must match the size of this expression.
+     */
+    public Vector evaluateInto(Vector vector, int[] indexes) {
+        checkSize(vector.size());
+        if (vector instanceof DenseVector) {
+            double[] resultArray = ((DenseVector) vector).array;
+            int resultOffset = ((DenseVector) vector).offset;
+            for (int index : indexes)
+                resultArray[resultOffset + index] = get(index);
+        } else {
+            for (int index : indexes)
+                setElement(vector, index, get(index));
+        }
+        return vector;
+    }
+
+    /**
+     * Creates an expression that adds a scalar to all elements of this expression. Nothing is computed until the
+     * returned expression is evaluated.
+     *
+     * @param   scalar  The scalar to add to all elements of this expression.
+     * @return          A new expression holding the result of the addition.
+     */
+    public VectorExpression add(double scalar) {
+        return map(element -> element + scalar);
+    }
+
+    /**
+     * Creates an expression that adds a vector to this expression. Nothing is computed until the returned expression is
+     * evaluated.
+     *
+     * @param   vector  The vector to add to this expression.
+     * @return          A new expression holding the result of the addition.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided vector and of this expression must agree.
+     */
+    public VectorExpression add(Vector vector) {
+        return add(of(vector));
+    }
+
+    /**
+     * Creates an expression that adds another expression to this expression. Nothing is computed until the returned
+     * expression is evaluated.
+     *
+     * @param   expression  The expression to add to this expression.
+     * @return              A new expression holding the result of the addition.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided expression and of this expression must agree.
+     */
+    public VectorExpression add(VectorExpression expression) {
+        return mapBiFunction((element1, element2) -> element1 + element2, expression);
+    }
+
+    /**
+     * Creates an expression that subtracts a scalar from all elements of this expression. Nothing is computed until the
+     * returned expression is evaluated.
+     *
+     * @param   scalar  The scalar to subtract from all elements of this expression.
+     * @return          A new expression holding the result of the subtraction.
+     */
+    public VectorExpression sub(double scalar) {
+        return map(element -> element - scalar);
+    }
+
+    /**
+     * Creates an expression that subtracts a vector from this expression. Nothing is computed until the returned
+     * expression is evaluated.
+     *
+     * @param   vector  The vector to subtract from this expression.
+     * @return          A new expression holding the result of the subtraction.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided vector and of this expression must agree.
+     */
+    public VectorExpression sub(Vector vector) {
+        return sub(of(vector));
+    }
+
+    /**
+     * Creates an expression that subtracts another expression from this expression. Nothing is computed until the
+     * returned expression is evaluated.
+     *
+     * @param   expression  The expression to subtract from this expression.
+     * @return              A new expression holding the result of the subtraction.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided expression and of this expression must agree.
+     */
+    public VectorExpression sub(VectorExpression expression) {
+        return mapBiFunction((element1, element2) -> element1 - element2, expression);
+    }
+
+    /**
+     * Creates an expression that multiplies this expression with a scalar. Nothing is computed until the returned
+     * expression is evaluated.
+     *
+     * @param   scalar  The scalar with which to multiply this expression.
+     * @return          A new expression holding the result of the multiplication.
+     */
+    public VectorExpression mult(double scalar) {
+        return map(element -> element * scalar);
+    }
+
+    /**
+     * Creates an expression that divides this expression with a scalar. Nothing is computed until the returned
+     * expression is evaluated.
+     *
+     * @param   scalar  The scalar with which to divide this expression.
+     * @return          A new expression holding the result of the division.
+     */
+    public VectorExpression div(double scalar) {
+        return map(element -> element / scalar);
+    }
+
+    /**
+     * Creates an expression that multiplies this expression with a vector element-wise. Nothing is computed until the
+     * returned expression is evaluated.
+     *
+     * @param   vector  The vector to multiply with this expression element-wise.
+     * @return          A new expression holding the result of the multiplication.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided vector and of this expression must agree.
+     */
+    public VectorExpression multElementwise(Vector vector) {
+        return multElementwise(of(vector));
+    }
+
+    /**
+     * Creates an expression that multiplies this expression with another expression element-wise. Nothing is computed
+     * until the returned expression is evaluated.
+     *
+     * @param   expression  The expression to multiply with this expression element-wise.
+     * @return              A new expression holding the result of the multiplication.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided expression and of this expression must agree.
+     */
+    public VectorExpression multElementwise(VectorExpression expression) {
+        return mapBiFunction((element1, element2) -> element1 * element2, expression);
+    }
+
+    /**
+     * Creates an expression that divides this expression with a vector element-wise. Nothing is computed until the
+     * returned expression is evaluated.
+     *
+     * @param   vector  The vector with which to divide this expression element-wise.
+     * @return          A new expression holding the result of the division.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided vector and of this expression must agree.
+     */
+    public VectorExpression divElementwise(Vector vector) {
+        return divElementwise(of(vector));
+    }
+
+    /**
+     * Creates an expression that divides this expression with another expression element-wise. Nothing is computed
+     * until the returned expression is evaluated.
+     *
+     * @param   expression  The expression with which to divide this expression element-wise.
+     * @return              A new expression holding the result of the division.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided expression and of this expression must agree.
+     */
+    public VectorExpression divElementwise(VectorExpression expression) {
+        return mapBiFunction((element1, element2) -> element1 / element2, expression);
+    }
+
+    /**
+     * Creates an expression holding the element-wise maximum between the elements of this expression and the provided
+     * value. Nothing is computed until the returned expression is evaluated.
+     *
+     * @param   value  The value to compare the elements of this expression with.
+     * @return         A new expression holding the result of the element-wise maximum operation.
+     */
+    public VectorExpression maxElementwise(double value) {
+        return map(element -> Math.max(element, value));
+    }
+
+    /**
+     * Creates an expression holding the element-wise maximum between the elements of this expression and the elements
+     * of the provided vector. Nothing is computed until the returned expression is evaluated.
+     *
+     * @param   vector  The vector to compare this expression with.
+     * @return          A new expression holding the result of the element-wise maximum operation.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided vector and of this expression must agree.
+     */
+    public VectorExpression maxElementwise(Vector vector) {
+        return maxElementwise(of(vector));
+    }
+
+    /**
+     * Creates an expression holding the element-wise maximum between the elements of this expression and the elements
+     * of the provided expression. Nothing is computed until the returned expression is evaluated.
+     *
+     * @param   expression  The expression to compare this expression with.
+     * @return              A new expression holding the result of the element-wise maximum operation.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided expression and of this expression must agree.
+     */
+    public VectorExpression maxElementwise(VectorExpression expression) {
+        return mapBiFunction(Math::max, expression);
+    }
+
+    /**
+     * Creates an expression holding the element-wise minimum between the elements of this expression and the provided
+     * value. Nothing is computed until the returned expression is evaluated.
+     *
+     * @param   value  The value to compare the elements of this expression with.
+     * @return         A new expression holding the result of the element-wise minimum operation.
+     */
+    public VectorExpression minElementwise(double value) {
+        return map(element -> Math.min(element, value));
+    }
+
+    /**
+     * Creates an expression holding the element-wise minimum between the elements of this expression and the elements
+     * of the provided vector. Nothing is computed until the returned expression is evaluated.
+     *
+     * @param   vector  The vector to compare this expression with.
+     * @return          A new expression holding the result of the element-wise minimum operation.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided vector and of this expression must agree.
+     */
+    public VectorExpression minElementwise(Vector vector) {
+        return minElementwise(of(vector));
+    }
+
+    /**
+     * Creates an expression holding the element-wise minimum between the elements of this expression and the elements
+     * of the provided expression. Nothing is computed until the returned expression is evaluated.
+     *
+     * @param   expression  The expression to compare this expression with.
+     * @return              A new expression holding the result of the element-wise minimum operation.
+     *
+     * @throws  IllegalArgumentException    The sizes of the provided expression and of this expression must agree.
+     */
+    public VectorExpression minElementwise(VectorExpression expression) {
+        return mapBiFunction(Math::min, expression);
+    }
+
+    /**
+     * Creates an expression that applies the provided function to each element of this expression.
+     *
+     * @param   function    The function to apply.
+     * @return              The new expression.
+     */
+    public VectorExpression map(DoubleUnaryOperator function) {
+        return new UnaryVectorExpression(this, function);
+    }
+
+    /**
+     * Creates an expression that applies the provided function to each pair of elements of this expression and the
+     * provided expression, with the elements of this expression passed as the first function argument.
+     *
+     * @param   function    The function to apply.
+     * @param   expression  The second operand expression.
+     * @return              The new expression.
+     *
+     * @throws  IllegalArgumentException    The sizes of the two expressions must agree.
+     */
+    public VectorExpression mapBiFunction(DoubleBinaryOperator function, VectorExpression expression) {
+        checkSize(expression.size);
+        return new BinaryVectorExpression(this, expression, function);
+    }
+
+    /**
+     * Sets an element of the provided vector, avoiding explicitly storing zeros in vectors that only store their
+     * nonzero elements.
+     *
+     * @param   vector  The vector.
+     * @param   index   The index of the element to set.
+     * @param   value   The new value of the element.
+     */
+    private static void setElement(Vector vector, int index, double value) {
+        if (value != 0 || vector.get(index) != 0)
+            vector.set(index, value);
+    }
+
+    private void checkSize(int otherSize) {
+        if (otherSize != size)
+            throw new IllegalArgumentException("Vector sizes must agree.");
+    }
+
+    private static final class DenseVectorExpression extends VectorExpression {
+        private final DenseVector vector;
+
+        private DenseVectorExpression(DenseVector vector) {
+            super(vector.size);
+            this.vector = vector;
+        }
+
+        @Override
+        public double get(int index) {
+            return vector.array[vector.offset + index];
+        }
+    }
+
+    private static final class GenericVectorExpression extends VectorExpression {
+        private final Vector vector;
+
+        private GenericVectorExpression(Vector vector) {
+            super(vector.size());
+            this.vector = vector;
+        }
+
+        @Override
+        public double get(int index) {
+            return vector.get(index);
+        }
+    }
+
+    private static final class ConstantVectorExpression extends VectorExpression {
+        private final double value;
+
+        private ConstantVectorExpression(int size, double value) {
+            super(size);
+            this.value = value;
+        }
+
+        @Override
+        public double get(int index) {
+            return value;
+        }
+    }
+
+    private static final class UnaryVectorExpression extends VectorExpression {
+        private final VectorExpression operand;
+        private final DoubleUnaryOperator function;
+
+        private UnaryVectorExpression(VectorExpression operand, DoubleUnaryOperator function) {
+            super(operand.size);
+            this.operand = operand;
+            this.function = function;
+        }
+
+        @Override
+        public double get(int index) {
+            return function.applyAsDouble(operand.get(index));
+        }
+    }
+
+    private static final class BinaryVectorExpression extends VectorExpression {
+        private final VectorExpression firstOperand;
+        private final VectorExpression secondOperand;
+        private final DoubleBinaryOperator function;
+
+        private BinaryVectorExpression(VectorExpression firstOperand,
+                                       VectorExpression secondOperand,
+                                       DoubleBinaryOperator function) {
+            super(firstOperand.size);
+            this.firstOperand = firstOperand;
+            this.secondOperand = secondOperand;
+            this.function = function;
+        }
+
+        @Override
+        public double get(int index) {
+            return function.applyAsDouble(firstOperand.get(index), secondOperand.get(index));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package module.math.matrix;
 
 import module.utilities.MathUtilities;
 
+import java.nio.DoubleBuffer;
 import java.util.Collection;
 
 /**
@@ -35,6 +36,32 @@ public enum VectorNorm {
             }
             return l1Norm;
         }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(DoubleBuffer values) {
+            double l1Norm = 0;
+            for (int i = 0; i < values.limit(); i++) {
+                l1Norm += Math.abs(values.get(i));
+            }
+            return l1Norm;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(double[] values, int fromIndex, int toIndex) {
+            double l1Norm = 0;
+            for (int i = fromIndex; i < toIndex; i++) {
+                l1Norm += Math.abs(values[i]);
+            }
+            return l1Norm;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double combine(double firstNorm, double secondNorm) {
+            return firstNorm + secondNorm;
+        }
     },
     /**
      * The \(L_2\) norm of this vector. Denoting a vector by \(\boldsymbol{x}\in\mathbb{R}^{n}\), its element at index
@@ -63,6 +90,32 @@ public enum VectorNorm {
             }
             return l2Norm;
         }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(DoubleBuffer values) {
+            double l2Norm = 0;
+            for (int i = 0; i < values.limit(); i++) {
+                l2Norm = MathUtilities.computeHypotenuse(l2Norm, values.get(i));
+            }
+            return l2Norm;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(double[] values, int fromIndex, int toIndex) {
+            double l2Norm = 0;
+            for (int i = fromIndex; i < toIndex; i++) {
+                l2Norm = MathUtilities.computeHypotenuse(l2Norm, values[i]);
+            }
+            return l2Norm;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double combine(double firstNorm, double secondNorm) {
+            return MathUtilities.computeHypotenuse(firstNorm, secondNorm);
+        }
     },
     /**
      * The \(L_2\) norm of this vector. Denoting a vector by \(\boldsymbol{x}\in\mathbb{R}^{n}\), its element at index
@@ -91,6 +144,32 @@ public enum VectorNorm {
             }
             return Math.sqrt(l2Norm);
         }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(DoubleBuffer values) {
+            double l2Norm = 0;
+            for (int i = 0; i < values.limit(); i++) {
+                l2Norm += values.get(i) * values.get(i);
+            }
+            return Math.sqrt(l2Norm);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(double[] values, int fromIndex, int toIndex) {
+            double l2Norm = 0;
+            for (int i = fromIndex; i < toIndex; i++) {
+                l2Norm += values[i] * values[i];
+            }
+            return Math.sqrt(l2Norm);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double combine(double firstNorm, double secondNorm) {
+            return Math.sqrt(firstNorm * firstNorm + secondNorm * secondNorm);
+        }
     },
     L2_SQUARED {
         /** {@inheritDoc} */
@@ -112,6 +191,32 @@ public enum VectorNorm {
             }
             return l2NormSquared;
         }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(DoubleBuffer values) {
+            double l2NormSquared = 0;
+            for (int i = 0; i < values.limit(); i++) {
+                l2NormSquared += values.get(i) * values.get(i);
+            }
+            return l2NormSquared;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(double[] values, int fromIndex, int toIndex) {
+            double l2NormSquared = 0;
+            for (int i = fromIndex; i < toIndex; i++) {
+                l2NormSquared += values[i] * values[i];
+            }
+            return l2NormSquared;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double combine(double firstNorm, double secondNorm) {
+            return firstNorm + secondNorm;
+        }
     },
     /**
      * The \(L_\infty\) norm of this vector. Denoting a vector by \(\boldsymbol{x}\in\mathbb{R}^{n}\), its element at
@@ -138,6 +243,32 @@ public enum VectorNorm {
             }
             return lInfinityNorm;
         }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(DoubleBuffer values) {
+            double lInfinityNorm = 0;
+            for (int i = 0; i < values.limit(); i++) {
+                lInfinityNorm = Math.max(lInfinityNorm, values.get(i));
+            }
+            return lInfinityNorm;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double compute(double[] values, int fromIndex, int toIndex) {
+            double lInfinityNorm = 0;
+            for (int i = fromIndex; i < toIndex; i++) {
+                lInfinityNorm = Math.max(lInfinityNorm, values[i]);
+            }
+            return lInfinityNorm;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public double combine(double firstNorm, double secondNorm) {
+            return Math.max(firstNorm, secondNorm);
+        }
     };
 
     /**
@@ -157,4 +288,34 @@ public enum VectorNorm {
      * @return                  The specified norm of this vector.
      */
     public abstract double compute(Collection<Double> nonzeroValues);
+
+    /**
+     * Computes the specified norm of a vector whose values are stored in the provided buffer, between index \(0\) and
+     * the limit of the buffer. The position of the buffer is ignored and is not modified.
+     *
+     * @param   values  The buffer containing the values of the vector.
+     * @return          The specified norm of this vector.
+     */
+    public abstract double compute(DoubleBuffer values);
+
+    /**
+     * Computes the specified norm of the subarray of the provided array between {@code fromIndex} (inclusive) and
+     * {@code toIndex} (exclusive).
+     *
+     * @param   values      The array containing the values of the vector.
+     * @param   fromIndex   The index of the first element of the subarray (inclusive).
+     * @param   toIndex     The index of the last element of the subarray (exclusive).
+     * @return              The specified norm of the subarray.
+     */
+    public abstract double compute(double[] values, int fromIndex, int toIndex);
+
+    /**
+     * Combines the norms of two disjoint parts of a vector into the norm of the vector that consists of both parts.
+     * This allows computing norms over chunks of a vector independently.
+     *
+     * @param   firstNorm   The norm of the first part.
+     * @param   secondNorm  The norm of the second part.
+     * @return              The norm of the vector consisting of both parts.
+     */
+    public abstract double combine(double firstNorm, double secondNorm);
 }
@@ -0,0 +1,151 @@
+package module.math.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options controlling how element-wise operations and reductions over large dense vectors (e.g.,
+ * {@link DenseVector#inner(Vector, VectorOperationOptions)}) are computed. Instances are immutable and are created
+ * using the {@link VectorOperationOptions.Builder} class.
+ *
+ * Reductions over vectors with more than {@link #getChunkSize()} elements are always computed over consecutive chunks
+ * of that many elements, whose partial results are combined in chunk order. The chunks are processed in parallel for
+ * vectors with at least {@link #getParallelismThreshold()} elements, when the fork-join pool has more than one thread,
+ * and sequentially on the calling thread otherwise. The chunk boundaries do not depend on the parallelism threshold,
+ * the fork-join pool or the number of threads used, and so results are reproducible from run to run, and identical
+ * between sequential and parallel computations (e.g., using {@link #SEQUENTIAL}), for a given chunk size.
+ *
+ * The options used by the methods that do not take an options argument can be changed globally using
+ * {@link #setDefault(VectorOperationOptions)} (e.g., setting them to {@link #SEQUENTIAL} turns off parallelism
+ * everywhere).
+ *
+ * @author Andriy Chekhovych
+ */
+public final class VectorOperationOptions {
+    /** Options that force all operations to be computed on the calling thread. */
+    public static final VectorOperationOptions SEQUENTIAL = new Builder().parallelismThreshold(Integer.MAX_VALUE).build();
+
+    /** The options used by the vector methods that do not take an options argument. */
+    private static volatile VectorOperationOptions defaultOptions = new Builder().build();
+
+    /** Vectors with fewer elements than this threshold are always processed on the calling thread. */
+    private final int parallelismThreshold;
+    /** The number of consecutive vector elements processed by a single task. */
+    private final int chunkSize;
+    /** The fork-join pool in which the tasks are executed. */
+    private final ForkJoinPool forkJoinPool;
+
+    /**
+     * Builder class for {@link VectorOperationOptions}. By default, vectors with at least \(2^{21}\) elements are
+     * processed in parallel, in chunks of \(2^{16}\) elements, using the common fork-join pool.
+     */
+    public static final class Builder {
+        private int parallelismThreshold = 1 << 21;
+        private int chunkSize = 1 << 16;
+        private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+        /** Constructs a builder initialized with the default options. */
+        public Builder() { }
+
+        /**
+         * Sets the minimum number of vector elements for which operations are split across multiple threads. This does
+         * not affect the results of the operations, since it does not change the chunk boundaries.
+         *
+         * @param   parallelismThreshold    The parallelism threshold.
+         * @return                          This builder.
+         */
+        public Builder parallelismThreshold(int parallelismThreshold) {
+            this.parallelismThreshold = parallelismThreshold;
+            return this;
+        }
+
+        /**
+         * Sets the number of consecutive vector elements processed by a single task. Note that changing the chunk size
+         * may change the results of reductions slightly, due to floating point rounding.
+         *
+         * @param   chunkSize   The chunk size (must be at least 1).
+         * @return              This builder.
+         *
+         * @throws  IllegalArgumentException    The chunk size must be at least 1.
+         */
+        public Builder chunkSize(int chunkSize) {
+            if (chunkSize < 1)
+                throw new IllegalArgumentException("The chunk size must be at least 1.");
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets the fork-join pool in which the tasks are executed. The common pool is used by default.
+         *
+         * @param   forkJoinPool    The fork-join pool to use.
+         * @return                  This builder.
+         */
+        public Builder forkJoinPool(ForkJoinPool forkJoinPool) {
+            this.forkJoinPool = forkJoinPool;
+            return this;
+        }
+
+        /**
+         * Builds the options using the current settings of this builder.
+         *
+         * @return  The new options.
+         */
+        public VectorOperationOptions build() {
+            return new VectorOperationOptions(this);
+        }
+    }
+
+    private VectorOperationOptions(Builder builder) {
+        parallelismThreshold = builder.parallelismThreshold;
+        chunkSize = builder.chunkSize;
+        forkJoinPool = builder.forkJoinPool;
+    }
+
+    /**
+     * Returns the options used by the vector methods that do not take an options argument.
+     *
+     * @return  The default options.
+     */
+    public static VectorOperationOptions getDefault() {
+        return defaultOptions;
+    }
+
+    /**
+     * Sets the options used by the vector methods that do not take an options argument.
+     *
+     * @param   options The new default options.
+     */
+    public static void setDefault(VectorOperationOptions options) {
+        if (options == null)
+            throw new IllegalArgumentException("The default options cannot be null.");
+        defaultOptions = options;
+    }
+
+    /**
+     * Returns the minimum number of vector elements for which operations are split across multiple threads.
+     *
+     * @return  The parallelism threshold.
+     */
+    public int getParallelismThreshold() {
+        return parallelismThreshold;
+    }
+
+    /**
+     * Returns the number of consecutive vector elements processed by a single task. Reductions over vectors with more
+     * elements than this are always computed chunk by chunk, whether they are processed in parallel or not.
+     *
+     * @return  The chunk size.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the fork-join pool in which the tasks are executed.
+     *
+     * @return  The fork-join pool.
+     */
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+}
@@ -48,6 +48,19 @@ public enum VectorType {
         public HashVector buildVector(InputStream inputStream, boolean includeType) throws IOException {
             return HashVector.read(inputStream, includeType);
         }
+    },
+    OFF_HEAP_DENSE {
+        /** {@inheritDoc} */
+        @Override
+        public OffHeapDenseVector buildVector(int size) {
+            return new OffHeapDenseVector(size);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public OffHeapDenseVector buildVector(InputStream inputStream, boolean includeType) throws IOException {
+            return OffHeapDenseVector.read(inputStream, includeType);
+        }
     };
 
     /**
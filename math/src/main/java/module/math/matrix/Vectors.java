@@ -1,10 +1,10 @@
 package module.math.matrix;
 
-import cern.colt.map.OpenIntDoubleHashMap;
 import module.utilities.UnsafeSerializationUtilities;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.Random;
 
@@ -92,6 +92,51 @@ public class Vectors {
         return new DenseVector(elements);
     }
 
+    /**
+     * Builds an off-heap dense vector of the given size, stored in a direct buffer, and fills it with zeros.
+     *
+     * @param   size    The size of the vector.
+     * @return          The new vector.
+     */
+    public static OffHeapDenseVector offHeapDense(int size) {
+        return new OffHeapDenseVector(size);
+    }
+
+    /**
+     * Builds an off-heap dense vector of the given size, stored in a direct buffer, and fills it with the provided
+     * value.
+     *
+     * @param   size    The size of the vector.
+     * @param   value   The value with which to fill the vector.
+     * @return          The new vector.
+     */
+    public static OffHeapDenseVector offHeapDense(int size, double value) {
+        return new OffHeapDenseVector(size, value);
+    }
+
+    /**
+     * Builds an off-heap dense vector, stored in a direct buffer, from a one-dimensional array.
+     *
+     * @param   elements    One-dimensional array of doubles.
+     * @return              The new vector.
+     */
+    public static OffHeapDenseVector offHeapDense(double... elements) {
+        return new OffHeapDenseVector(elements);
+    }
+
+    /**
+     * Builds an off-heap dense vector of the given size whose elements are stored in the provided memory-mapped file.
+     * See {@link OffHeapDenseVector#map(Path, int)} for details.
+     *
+     * @param   path    The path of the file in which to store the vector elements.
+     * @param   size    The size of the vector.
+     * @return          The new vector.
+     * @throws  IOException
+     */
+    public static OffHeapDenseVector offHeapDense(Path path, int size) throws IOException {
+        return OffHeapDenseVector.map(path, size);
+    }
+
     /**
      * Constructs a sparse vector of the given size and fills it with zeros.
      *
@@ -195,6 +240,18 @@ public class Vectors {
         return new HashVector(size);
     }
 
+    /**
+     * Builds a sparse vector of the given size, filled with zeros, that can hold the provided number of nonzero
+     * elements without having to resize its internal hash map.
+     *
+     * @param   size                            The size of the vector.
+     * @param   expectedNumberOfNonzeroEntries  The expected number of nonzero elements.
+     * @return                                  The new vector.
+     */
+    public static HashVector hash(int size, int expectedNumberOfNonzeroEntries) {
+        return new HashVector(size, expectedNumberOfNonzeroEntries);
+    }
+
     /**
      * Builds a sparse vector of the given size from a hash map.
      *
@@ -203,7 +260,7 @@ public class Vectors {
      *                      elements as values.
      * @return              The new vector.
      */
-    public static HashVector hash(int size, OpenIntDoubleHashMap elements) {
+    public static HashVector hash(int size, IntDoubleHashMap elements) {
         return new HashVector(size, elements);
     }
 }
@@ -33,8 +33,10 @@ abstract class AbstractLineSearchSolver extends AbstractIterativeSolver {
                                   Vector initialPoint) {
             super(objective, initialPoint);
 
-            if (objective instanceof QuadraticFunction) {
-                Matrix quadraticFactorMatrix = ((QuadraticFunction) objective).getA();
+            // Checking for positive definiteness requires a dense factorization and so it is skipped for sparse matrices.
+            if (objective instanceof QuadraticFunction
+                    && ((QuadraticFunction) objective).getA() instanceof Matrix) {
+                Matrix quadraticFactorMatrix = (Matrix) ((QuadraticFunction) objective).getA();
                 CholeskyDecomposition choleskyDecomposition = new CholeskyDecomposition(quadraticFactorMatrix);
                 if (choleskyDecomposition.isSymmetricAndPositiveDefinite()) {
                     lineSearch = new ExactLineSearch((QuadraticFunction) objective);
@@ -12,17 +12,40 @@ import module.optimization.function.QuadraticFunction;
  *
  * The biconjugate gradient does not have that requirement about matrix \(A\).
  *
+ * The solver only accesses \(A\) through its products with vectors and so it accepts any {@link LinearOperator}
+ * (e.g., a {@link SparseMatrix}, or an implicit operator that never stores its elements). For linear least squares
+ * problems, the normal equations operator \(J^TJ\) is applied as \(J^T(Jx)\) and is never formed explicitly, which
+ * is also the case for the operators of the problem conversion methods. Checking whether \(A\) is symmetric and
+ * positive definite requires a dense factorization and so it is only performed when \(A\) is a dense {@link Matrix}.
+ * In all other cases \(A\) is assumed to be symmetric and positive definite. The symmetric successive over-relaxation
+ * and incomplete Cholesky preconditioning methods also require a matrix, and so the Jacobi preconditioning method is
+ * used instead of them for the normal equations operators.
+ *
+ * The iterates of the solver are always dense vectors, since the residuals of the conjugate gradient method (and so
+ * its search directions and iterates) are dense in general, even for sparse problems. Sparse and hash initial points
+ * are converted to dense vectors once, when the solver is constructed, and the solution is returned as a dense vector.
+ *
  * @author Andriy Chekhovych
  */
 public final class ConjugateGradientSolver extends AbstractIterativeSolver {
     private final PreconditioningMethod preconditioningMethod;
-    private final Matrix preconditionerMatrixInverse;
     private final ProblemConversionMethod problemConversionMethod;
     private final boolean convertedProblem;
-    private final Matrix A;
+    /** The operator of the original problem, before any problem conversion method is applied to it. */
+    private final LinearOperator originalA;
+    private final LinearOperator A;
+
+    /** The diagonal elements of \(A\), used by the Jacobi preconditioning method. */
+    private double[] preconditionerDiagonal;
+    /** The incomplete Cholesky factorization of \(A\), used by the incomplete Cholesky preconditioning method. */
+    private IncompleteCholeskyFactorization preconditionerFactorization;
+    /** The SSOR preconditioner of \(A\), used by the symmetric successive over-relaxation preconditioning method. */
+    private SymmetricSuccessiveOverRelaxationPreconditioner preconditionerSweeps;
 
     private Vector currentDirection;
     private Vector currentY;
+    /** Buffer holding the product of \(A\) with the previous direction, which is reused across iterations. */
+    private Vector currentADirection;
 
     protected static abstract class AbstractBuilder<T extends AbstractBuilder<T>>
             extends AbstractIterativeSolver.AbstractBuilder<T> {
@@ -31,6 +54,9 @@ public final class ConjugateGradientSolver extends AbstractIterativeSolver {
         private ProblemConversionMethod problemConversionMethod =
                 ProblemConversionMethod.CONJUGATE_GRADIENT_NORMAL_EQUATION_RESIDUAL;
         private double symmetricSuccessiveOverRelaxationOmega = 1;
+        private boolean symmetricSuccessiveOverRelaxationMulticolorOrdering = false;
+        private double incompleteCholeskyDropTolerance = 0;
+        private int incompleteCholeskyMaximumFillPerRow = 10;
 
         public AbstractBuilder(QuadraticFunction objective, Vector initialPoint) {
             super(objective, initialPoint);
@@ -57,6 +83,34 @@ public final class ConjugateGradientSolver extends AbstractIterativeSolver {
             return self();
         }
 
+        /** Sets whether the symmetric successive over-relaxation preconditioning method uses a multicolor ordering,
+         * which allows its sweeps to use multiple threads (see {@link SymmetricSuccessiveOverRelaxationPreconditioner}).
+         * The natural ordering is used by default. */
+        public T symmetricSuccessiveOverRelaxationMulticolorOrdering(
+                boolean symmetricSuccessiveOverRelaxationMulticolorOrdering
+        ) {
+            this.symmetricSuccessiveOverRelaxationMulticolorOrdering =
+                    symmetricSuccessiveOverRelaxationMulticolorOrdering;
+            return self();
+        }
+
+        /**
+         * Sets the relative drop tolerance of the incomplete Cholesky preconditioning method. If it is zero (which is
+         * the default), then the IC(0) factorization is used (i.e., no fill is allowed). Otherwise, the ICT
+         * factorization is used (see {@link IncompleteCholeskyFactorization}).
+         */
+        public T incompleteCholeskyDropTolerance(double incompleteCholeskyDropTolerance) {
+            this.incompleteCholeskyDropTolerance = incompleteCholeskyDropTolerance;
+            return self();
+        }
+
+        /** Sets the maximum fill per row of the ICT factorization used by the incomplete Cholesky preconditioning
+         * method. This is ignored if the drop tolerance is zero. */
+        public T incompleteCholeskyMaximumFillPerRow(int incompleteCholeskyMaximumFillPerRow) {
+            this.incompleteCholeskyMaximumFillPerRow = incompleteCholeskyMaximumFillPerRow;
+            return self();
+        }
+
         public ConjugateGradientSolver build() {
             try {
                 return new ConjugateGradientSolver(this);
@@ -93,56 +147,81 @@ public final class ConjugateGradientSolver extends AbstractIterativeSolver {
     private ConjugateGradientSolver(AbstractBuilder<?> builder)
             throws NonPositiveDefiniteMatrixException {
         super(builder);
+        if (currentPoint.type() != VectorType.DENSE)
+            currentPoint = currentPoint.toDenseVector();
         currentObjectiveValue = objective.getValue(currentPoint);
         problemConversionMethod = builder.problemConversionMethod;
 
-        Matrix temporaryA;
         Vector b;
         if (objective instanceof LinearLeastSquaresFunction) {
-            Matrix J = ((LinearLeastSquaresFunction) objective).getJ();
+            LinearOperator J = ((LinearLeastSquaresFunction) objective).getJ();
             Vector y = ((LinearLeastSquaresFunction) objective).getY();
-            temporaryA = J.transpose().multiply(J);
-            b = J.transpose().multiply(y);
+            originalA = new NormalEquationsOperator(J, false);
+            b = J.applyTranspose(y);
         } else {
-            temporaryA = ((QuadraticFunction) objective).getA();
+            originalA = ((QuadraticFunction) objective).getA();
             b = ((QuadraticFunction) objective).getB();
         }
 
         // Check if A is symmetric and positive definite and if it is not make the appropriate changes to the algorithm.
-        CholeskyDecomposition choleskyDecomposition = new CholeskyDecomposition(temporaryA);
-        if (!choleskyDecomposition.isSymmetricAndPositiveDefinite()) {
+        if (originalA instanceof Matrix
+                && !new CholeskyDecomposition((Matrix) originalA).isSymmetricAndPositiveDefinite()) {
             System.err.println("WARNING: Matrix A is not symmetric.");
-            convertedProblem = true;
-            A = problemConversionMethod.computeNewA(temporaryA);
-            b = problemConversionMethod.computeNewB(temporaryA, b);
-            choleskyDecomposition = new CholeskyDecomposition(A);
-            if (!choleskyDecomposition.isSymmetricAndPositiveDefinite()) {
+            // Both A^TA and AA^T are positive definite if and only if A is nonsingular.
+            if (!new LUDecomposition((Matrix) originalA).isNonSingular()) {
                 throw new NonPositiveDefiniteMatrixException(
                         "Non positive definite matrix after trying changing the conjugate gradient problem to avoid it!"
                 );
             }
+            convertedProblem = true;
+            A = problemConversionMethod.computeNewA(originalA);
+            b = problemConversionMethod.computeNewB(originalA, b);
         } else {
             convertedProblem = false;
-            A = temporaryA;
+            A = originalA;
         }
 
-        currentGradient = A.multiply(currentPoint).sub(b);
+        currentGradient = A.apply(currentPoint).sub(b);
+        currentADirection = Vectors.build(A.getRowDimension(), currentGradient.type());
 
         // Initialization for the preconditioning method.
         PreconditioningMethod temporaryPreconditioningMethod;
-        Matrix temporaryPreconditionerMatrixInverse;
         try {
             temporaryPreconditioningMethod = builder.preconditioningMethod;
-            temporaryPreconditionerMatrixInverse = builder.preconditioningMethod.initializeMethod(this, builder);
-        } catch (SingularMatrixException e) {
-            System.err.println("WARNING: Singular matrix in conjugate gradient problem. " +
-                                       "Trying the Jacobi preconditioning method instead of the " +
-                                       "symmetric successive over-relaxation preconditioning method!");
+            // The normal equations operators (used for linear least squares problems and by the problem conversion
+            // methods) are never formed explicitly, but their diagonals are cheap to compute. The Jacobi
+            // preconditioning method is therefore used for them, without a warning, when a method that requires a
+            // matrix is selected.
+            if (!(A instanceof AbstractMatrix)
+                    && temporaryPreconditioningMethod == PreconditioningMethod.SYMMETRIC_SUCCESSIVE_OVER_RELAXATION) {
+                if (!(A instanceof NormalEquationsOperator))
+                    System.err.println("WARNING: The symmetric successive over-relaxation preconditioning method " +
+                                               "requires a matrix. Trying the Jacobi preconditioning method instead " +
+                                               "for the linear operator in the conjugate gradient problem!");
+                temporaryPreconditioningMethod = PreconditioningMethod.JACOBI;
+            }
+            if (!(A instanceof AbstractMatrix)
+                    && temporaryPreconditioningMethod == PreconditioningMethod.INCOMPLETE_CHOLESKY) {
+                if (!(A instanceof NormalEquationsOperator))
+                    System.err.println("WARNING: The incomplete Cholesky preconditioning method requires a matrix. " +
+                                               "Trying the Jacobi preconditioning method instead for the linear " +
+                                               "operator in the conjugate gradient problem!");
+                temporaryPreconditioningMethod = PreconditioningMethod.JACOBI;
+            }
+            temporaryPreconditioningMethod.initializeMethod(this, builder);
+        } catch (NonPositiveDefiniteMatrixException e) {
+            System.err.println("WARNING: " + e.getMessage() + " Trying the Jacobi preconditioning method instead for " +
+                                       "the conjugate gradient problem!");
             temporaryPreconditioningMethod = PreconditioningMethod.JACOBI;
-            temporaryPreconditionerMatrixInverse = null;
+            preconditionerDiagonal = PreconditioningMethod.computeDiagonal(A);
+        }
+        if (temporaryPreconditioningMethod == PreconditioningMethod.JACOBI && preconditionerDiagonal == null) {
+            System.err.println("WARNING: The diagonal of the linear operator in the conjugate gradient problem is not " +
+                                       "available. Using no preconditioning instead of the Jacobi preconditioning " +
+                                       "method!");
+            temporaryPreconditioningMethod = PreconditioningMethod.IDENTITY;
         }
         preconditioningMethod = temporaryPreconditioningMethod;
-        preconditionerMatrixInverse = temporaryPreconditionerMatrixInverse;
 
         preconditioningMethod.computePreconditioningSystemSolution(this);
         currentDirection = currentY.mult(-1);
@@ -152,7 +231,7 @@ public final class ConjugateGradientSolver extends AbstractIterativeSolver {
     public Vector solve() {
         currentPoint = super.solve();
         if (convertedProblem)
-            currentPoint = problemConversionMethod.transformPoint(currentPoint);
+            currentPoint = problemConversionMethod.transformPoint(originalA, currentPoint);
         return currentPoint;
     }
 
@@ -162,15 +241,16 @@ public final class ConjugateGradientSolver extends AbstractIterativeSolver {
         previousGradient = currentGradient;
         Vector previousDirection = currentDirection;
         Vector previousY = currentY;
-        // This procedure can be sped up for the linear least squares case by using Jacobian vector products.
-        double currentStepSize = previousGradient.inner(previousY)
-                / previousDirection.transMult(A).inner(previousDirection);
-        currentPoint = previousPoint.add(previousDirection.mult(currentStepSize));
-        currentGradient = previousGradient.add(A.multiply(previousDirection).mult(currentStepSize));
+        A.apply(previousDirection, currentADirection);
+        double previousGradientInnerY = previousGradient.inner(previousY);
+        double currentStepSize = previousGradientInnerY / currentADirection.inner(previousDirection);
+        currentPoint = previousPoint.saxpy(currentStepSize, previousDirection);
+        currentGradient = previousGradient.saxpy(currentStepSize, currentADirection);
         preconditioningMethod.computePreconditioningSystemSolution(this);
-        currentDirection = currentY
-                .mult(-1)
-                .add(previousDirection.mult(currentGradient.inner(currentY) / previousGradient.inner(previousY)));
+        // The previous direction is not referenced anywhere else and so it can be overwritten by the new direction.
+        currentDirection = previousDirection.axpbyInPlace(
+                -1, currentY, currentGradient.inner(currentY) / previousGradientInnerY
+        );
         if (checkForObjectiveConvergence || logObjectiveValue) {
             previousObjectiveValue = currentObjectiveValue;
             currentObjectiveValue = objective.getValue(currentPoint);
@@ -182,10 +262,7 @@ public final class ConjugateGradientSolver extends AbstractIterativeSolver {
          * is, there is no preconditioning). */
         IDENTITY {
             @Override
-            protected Matrix initializeMethod(ConjugateGradientSolver solver,
-                                              AbstractBuilder builder) {
-                return null;
-            }
+            protected void initializeMethod(ConjugateGradientSolver solver, AbstractBuilder builder) { }
 
             @Override
             protected void computePreconditioningSystemSolution(ConjugateGradientSolver solver) {
@@ -196,48 +273,84 @@ public final class ConjugateGradientSolver extends AbstractIterativeSolver {
          * preconditioner matrix. */
         JACOBI {
             @Override
-            protected Matrix initializeMethod(ConjugateGradientSolver solver,
-                                              AbstractBuilder builder) {
-                return null;
+            protected void initializeMethod(ConjugateGradientSolver solver, AbstractBuilder builder) {
+                solver.preconditionerDiagonal = computeDiagonal(solver.A);
             }
 
             @Override
             protected void computePreconditioningSystemSolution(ConjugateGradientSolver solver) {
                 double[] tempY = new double[solver.currentGradient.size()];
                 for (int i = 0; i < tempY.length; i++) {
-                    tempY[i] = solver.currentGradient.get(i) / solver.A.getElement(i, i);
+                    tempY[i] = solver.currentGradient.get(i) / solver.preconditionerDiagonal[i];
                 }
                 solver.currentY = Vectors.dense(tempY);
             }
         },
+        /** Use the symmetric successive over-relaxation (SSOR) preconditioner of A. The preconditioner matrix is never
+         * formed and each application of it costs a forward and a backward Gauss-Seidel sweep over the elements of A
+         * (i.e., time proportional to the number of nonzero elements of A). */
         SYMMETRIC_SUCCESSIVE_OVER_RELAXATION {
             @Override
-            protected Matrix initializeMethod(ConjugateGradientSolver solver,
-                                              AbstractBuilder builder) throws SingularMatrixException {
-                double[] diagonal = new double[solver.A.getRowDimension()];
-                double[][] lowerDiagonalMatrix = new double[solver.A.getRowDimension()][solver.A.getColumnDimension()];
-                for (int i = 0; i < solver.A.getRowDimension(); i++) {
-                    diagonal[i] = solver.A.getElement(i, i);
-                    for (int j = 0; j < i; j++) {
-                        lowerDiagonalMatrix[i][j] = solver.A.getElement(i, j);
-                    }
-                }
-                Matrix D = Matrix.diagonal(diagonal);
-                Matrix DMinusL = D.subtract(
-                        (new Matrix(lowerDiagonalMatrix)).multiply(builder.symmetricSuccessiveOverRelaxationOmega)
+            protected void initializeMethod(ConjugateGradientSolver solver,
+                                            AbstractBuilder builder) throws NonPositiveDefiniteMatrixException {
+                solver.preconditionerSweeps = new SymmetricSuccessiveOverRelaxationPreconditioner(
+                        (AbstractMatrix) solver.A,
+                        builder.symmetricSuccessiveOverRelaxationOmega,
+                        builder.symmetricSuccessiveOverRelaxationMulticolorOrdering,
+                        MatrixMultiplyOptions.DEFAULT
                 );
-                return DMinusL.multiply(D.computeInverse()).multiply(DMinusL.transpose()).computeInverse();
             }
 
             @Override
             protected void computePreconditioningSystemSolution(ConjugateGradientSolver solver) {
-                solver.currentY = solver.preconditionerMatrixInverse.multiply(solver.currentGradient);
+                solver.currentY = solver.preconditionerSweeps.solve(solver.currentGradient);
+            }
+        },
+        /** Use \(LL^T\) as the preconditioner matrix, where \(L\) is the sparse incomplete Cholesky factor of A. The
+         * factor is computed once and each application of the preconditioner costs a sparse forward and a sparse
+         * backward substitution (i.e., time proportional to the number of nonzero elements of \(L\)). */
+        INCOMPLETE_CHOLESKY {
+            @Override
+            protected void initializeMethod(ConjugateGradientSolver solver,
+                                            AbstractBuilder builder) throws NonPositiveDefiniteMatrixException {
+                AbstractMatrix A = (AbstractMatrix) solver.A;
+                if (builder.incompleteCholeskyDropTolerance > 0)
+                    solver.preconditionerFactorization = new IncompleteCholeskyFactorization(
+                            A,
+                            builder.incompleteCholeskyDropTolerance,
+                            builder.incompleteCholeskyMaximumFillPerRow
+                    );
+                else
+                    solver.preconditionerFactorization = new IncompleteCholeskyFactorization(A);
+            }
+
+            @Override
+            protected void computePreconditioningSystemSolution(ConjugateGradientSolver solver) {
+                solver.currentY = solver.preconditionerFactorization.solve(solver.currentGradient);
             }
         };
 
-        protected abstract Matrix initializeMethod(ConjugateGradientSolver solver,
-                                                   AbstractBuilder builder) throws SingularMatrixException;
+        protected abstract void initializeMethod(ConjugateGradientSolver solver, AbstractBuilder builder)
+                throws NonPositiveDefiniteMatrixException;
         protected abstract void computePreconditioningSystemSolution(ConjugateGradientSolver solver);
+
+        /**
+         * Computes the diagonal elements of the provided operator, if they are available without applying the operator
+         * to each of the standard basis vectors.
+         *
+         * @param   A   The operator.
+         * @return      The diagonal elements of the provided operator, or null if they are not available.
+         */
+        private static double[] computeDiagonal(LinearOperator A) {
+            if (A instanceof NormalEquationsOperator)
+                return ((NormalEquationsOperator) A).computeDiagonal();
+            if (!(A instanceof AbstractMatrix))
+                return null;
+            double[] diagonal = new double[Math.min(A.getRowDimension(), A.getColumnDimension())];
+            for (int i = 0; i < diagonal.length; i++)
+                diagonal[i] = ((AbstractMatrix) A).getElement(i, i);
+            return diagonal;
+        }
     }
 
     /**
@@ -247,53 +360,109 @@ public final class ConjugateGradientSolver extends AbstractIterativeSolver {
      * */
     public enum ProblemConversionMethod {
         CONJUGATE_GRADIENT_NORMAL_EQUATION_RESIDUAL {
-            Matrix initialATranspose;
-
             @Override
-            protected Matrix computeNewA(Matrix A) {
-                if (initialATranspose == null) {
-                    initialATranspose = A.transpose();
-                }
-                return initialATranspose.multiply(A);
+            protected LinearOperator computeNewA(LinearOperator A) {
+                return new NormalEquationsOperator(A, false);
             }
 
             @Override
-            protected Vector computeNewB(Matrix A, Vector b) {
-                if (initialATranspose == null) {
-                    initialATranspose = A.transpose();
-                }
-                return initialATranspose.multiply(b);
+            protected Vector computeNewB(LinearOperator A, Vector b) {
+                return A.applyTranspose(b);
             }
 
             @Override
-            protected Vector transformPoint(Vector point) {
+            protected Vector transformPoint(LinearOperator A, Vector point) {
                 return point;
             }
         },
         CONJUGATE_GRADIENT_NORMAL_EQUATION_ERROR {
-            Matrix initialATranspose;
-
             @Override
-            protected Matrix computeNewA(Matrix A) {
-                if (initialATranspose == null) {
-                    initialATranspose = A.transpose();
-                }
-                return A.multiply(initialATranspose);
+            protected LinearOperator computeNewA(LinearOperator A) {
+                return new NormalEquationsOperator(A, true);
             }
 
             @Override
-            protected Vector computeNewB(Matrix A, Vector b) {
+            protected Vector computeNewB(LinearOperator A, Vector b) {
                 return b;
             }
 
             @Override
-            protected Vector transformPoint(Vector point) {
-                return initialATranspose.multiply(point);
+            protected Vector transformPoint(LinearOperator A, Vector point) {
+                return A.applyTranspose(point);
             }
         };
 
-        protected abstract Matrix computeNewA(Matrix A);
-        protected abstract Vector computeNewB(Matrix A, Vector b);
-        protected abstract Vector transformPoint(Vector point);
+        protected abstract LinearOperator computeNewA(LinearOperator A);
+        protected abstract Vector computeNewB(LinearOperator A, Vector b);
+        protected abstract Vector transformPoint(LinearOperator A, Vector point);
+    }
+
+    /**
+     * The symmetric positive semi-definite operator \(A^TA\) (or \(AA^T\)), applied as \(A^T(Ax)\) (or
+     * \(A(A^Tx)\)) without forming the product of \(A\) with its transpose. This takes two applications of \(A\)
+     * and no more memory than a single vector of intermediate results.
+     */
+    private static final class NormalEquationsOperator implements LinearOperator {
+        private final LinearOperator operator;
+        /** Whether this operator represents \(AA^T\), instead of \(A^TA\). */
+        private final boolean transposeFirst;
+        /** Buffer holding the intermediate result (i.e., \(Ax\) or \(A^Tx\)), which is reused across applications. */
+        private final Vector intermediateVector;
+
+        private NormalEquationsOperator(LinearOperator operator, boolean transposeFirst) {
+            this.operator = operator;
+            this.transposeFirst = transposeFirst;
+            intermediateVector = Vectors.dense(transposeFirst
+                                                       ? operator.getColumnDimension()
+                                                       : operator.getRowDimension());
+        }
+
+        @Override
+        public int getRowDimension() {
+            return transposeFirst ? operator.getRowDimension() : operator.getColumnDimension();
+        }
+
+        @Override
+        public int getColumnDimension() {
+            return getRowDimension();
+        }
+
+        @Override
+        public Vector apply(Vector vector) {
+            if (transposeFirst)
+                return operator.apply(operator.applyTranspose(vector));
+            return operator.applyTranspose(operator.apply(vector));
+        }
+
+        @Override
+        public Vector apply(Vector vector, Vector resultVector) {
+            if (transposeFirst)
+                return operator.apply(operator.applyTranspose(vector, intermediateVector), resultVector);
+            return operator.applyTranspose(operator.apply(vector, intermediateVector), resultVector);
+        }
+
+        @Override
+        public Vector applyTranspose(Vector vector) {
+            return apply(vector);
+        }
+
+        @Override
+        public Vector applyTranspose(Vector vector, Vector resultVector) {
+            return apply(vector, resultVector);
+        }
+
+        /**
+         * Computes the diagonal elements of this operator, which are the squared norms of the columns (or rows) of the
+         * underlying operator, if it is a matrix.
+         *
+         * @return  The diagonal elements of this operator, or null if the underlying operator is not a matrix.
+         */
+        private double[] computeDiagonal() {
+            if (!(operator instanceof AbstractMatrix))
+                return null;
+            if (transposeFirst)
+                return ((AbstractMatrix) operator).computeSquaredRowNorms();
+            return ((AbstractMatrix) operator).computeSquaredColumnNorms();
+        }
     }
 }
@@ -50,6 +50,8 @@ public final class ConsensusADMMSolver extends AbstractIterativeSolver {
     private final List<AbstractConstraint> constraints;
 
     private Vector variableCopiesSum = Vectors.build(currentPoint.size(), currentPoint.type());
+    /** Lazily evaluated expression computing the new consensus point from the variable copies sums and counts. */
+    private VectorExpression consensusUpdateExpression;
     private int numberOfIterationsWithNoPointChange = 0;
     private boolean primalResidualConverged = false;
     private boolean dualResidualConverged = false;
@@ -197,6 +199,8 @@ public final class ConsensusADMMSolver extends AbstractIterativeSolver {
 
     private ConsensusADMMSolver(AbstractBuilder<?> builder) {
         super(builder);
+        // The consensus update is evaluated in place and so the initial point provided by the caller must not be used.
+        currentPoint = currentPoint.copy();
         objective = (SumFunction) builder.objective;
         constraintsVariablesIndexes = builder.constraintsVariablesIndexes;
         constraints = builder.constraints;
@@ -217,17 +221,20 @@ public final class ConsensusADMMSolver extends AbstractIterativeSolver {
         numberOfThreads = builder.numberOfThreads;
         variableCopiesCounts = Vectors.dense(currentPoint.size());
         for (int[] variableIndexes : Iterables.concat(objective.getTermVariables(), constraintsVariablesIndexes)) {
-            Vector termPoint = Vectors.build(variableIndexes.length, currentPoint.type());
-            termPoint.set(currentPoint.get(variableIndexes));
-            variableCopies.add(termPoint);
+            variableCopies.add(currentPoint.get(variableIndexes));
             lagrangeMultipliers.add(Vectors.build(variableIndexes.length, currentPoint.type()));
             for (int variableIndex : variableIndexes)
                 variableCopiesCounts.set(variableIndex, variableCopiesCounts.get(variableIndex) + 1);
         }
-        for (Vector.Element element : variableCopiesCounts) // TODO: Find better way to deal with "useless" variables in the future.
-            if (element.value() == 0)
-                variableCopiesCounts.set(element.index(), 1);
+        Vector.Cursor variableCopiesCountsCursor = variableCopiesCounts.cursor();
+        while (variableCopiesCountsCursor.advance()) // TODO: Find better way to deal with "useless" variables in the future.
+            if (variableCopiesCountsCursor.value() == 0)
+                variableCopiesCountsCursor.setValue(1);
         variableCopiesSum = currentPoint.multElementwise(variableCopiesCounts);
+        consensusUpdateExpression = variableCopiesSum.expression()
+                .divElementwise(variableCopiesCounts)
+                .maxElementwise(0)
+                .minElementwise(1);
         if (checkForGradientConvergence || logGradientNorm) {
             try {
                 currentGradient = objective.getGradient(currentPoint);
@@ -363,8 +370,9 @@ public final class ConsensusADMMSolver extends AbstractIterativeSolver {
                 final int currentSubProblemIndex = subProblemIndex;
                 Vector variables = variableCopies.get(subProblemIndex);
                 Vector multipliers = lagrangeMultipliers.get(subProblemIndex);
-                Vector consensusVariables = Vectors.build(variableIndexes.length, currentPoint.type());
-                consensusVariables.set(currentPoint.get(variableIndexes));
+                // The consensus variables must be a snapshot (rather than a view) of the current point, because the
+                // residuals are computed after the current point has been updated.
+                Vector consensusVariables = currentPoint.get(variableIndexes);
                 if (currentIteration > 1 && subProblemSelectionMethod != SubProblemSelectionMethod.ALL)
                     for (int variableIndex : variableIndexes)
                         affectedConsensusVariables.add(variableIndex);
@@ -402,8 +410,7 @@ public final class ConsensusADMMSolver extends AbstractIterativeSolver {
             int subProblemIndex = objective.getNumberOfTerms() + constraintIndex;
             Vector variables = variableCopies.get(subProblemIndex);
             Vector multipliers = lagrangeMultipliers.get(subProblemIndex);
-            Vector consensusVariables = Vectors.build(variableIndexes.length, currentPoint.type());
-            consensusVariables.set(currentPoint.get(variableIndexes));
+            Vector consensusVariables = currentPoint.get(variableIndexes);
             subProblemTasks.add(Executors.callable(
                     () -> processConstraint(currentConstraintIndex,
                                             variableIndexes,
@@ -437,16 +444,9 @@ public final class ConsensusADMMSolver extends AbstractIterativeSolver {
             int[] affectedConsensusVariablesIndexes =
                     ArrayUtils.toPrimitive(affectedConsensusVariables
                                                    .toArray(new Integer[affectedConsensusVariables.size()]));
-            currentPoint.set(affectedConsensusVariablesIndexes,
-                             variableCopiesSum.get(affectedConsensusVariablesIndexes)
-                                     .divElementwise(variableCopiesCounts.get(affectedConsensusVariablesIndexes))
-                                     .maxElementwiseInPlace(0)
-                                     .minElementwiseInPlace(1));
+            consensusUpdateExpression.evaluateInto(currentPoint, affectedConsensusVariablesIndexes);
         } else {
-            currentPoint = variableCopiesSum
-                    .divElementwise(variableCopiesCounts)
-                    .maxElementwiseInPlace(0)
-                    .minElementwiseInPlace(1);
+            consensusUpdateExpression.evaluateInto(currentPoint);
         }
         if (penaltyParameterSettingMethod == PenaltyParameterSettingMethod.ADAPTIVE
                 || subProblemSelectionMethod == SubProblemSelectionMethod.CONSENSUS_FOCUSED_SAMPLING
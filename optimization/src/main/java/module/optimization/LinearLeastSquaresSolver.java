@@ -61,7 +61,7 @@ public final class LinearLeastSquaresSolver implements Solver {
         CHOLESKY_DECOMPOSITION {
             @Override
             protected Vector solve(LinearLeastSquaresSolver solver) {
-                Matrix J = solver.objective.getJ();
+                Matrix J = solver.objective.getJ().toDenseMatrix();
                 Vector y = solver.objective.getY();
                 CholeskyDecomposition choleskyDecomposition = new CholeskyDecomposition(J.transpose().multiply(J));
                 try {
@@ -88,7 +88,7 @@ public final class LinearLeastSquaresSolver implements Solver {
         QR_DECOMPOSITION {
             @Override
             protected Vector solve(LinearLeastSquaresSolver solver) {
-                Matrix J = solver.objective.getJ();
+                Matrix J = solver.objective.getJ().toDenseMatrix();
                 Vector y = solver.objective.getY();
                 try {
                     QRDecomposition qrDecomposition = new QRDecomposition(J);
@@ -110,7 +110,7 @@ public final class LinearLeastSquaresSolver implements Solver {
         SINGULAR_VALUE_DECOMPOSITION {
             @Override
             protected Vector solve(LinearLeastSquaresSolver solver) {
-                Matrix J = solver.objective.getJ();
+                Matrix J = solver.objective.getJ().toDenseMatrix();
                 Vector y = solver.objective.getY();
                 SingularValueDecomposition singularValueDecomposition = new SingularValueDecomposition(J);
                 return singularValueDecomposition.solve(y);
@@ -118,19 +118,19 @@ public final class LinearLeastSquaresSolver implements Solver {
         },
         /** This method uses the (iterative) conjugate gradient numerical optimization solver. It is better than the
          * matrix decomposition based methods when dealing with large-scale problems (in those cases it should be much
-         * faster). In this case, the matrix \(J^TJ\) has to be symmetric and positive definite. */
+         * faster). In this case, the matrix \(J^TJ\) has to be symmetric and positive definite. It is never formed
+         * explicitly though, and so this method also works with sparse matrices and other linear operators. */
         CONJUGATE_GRADIENT {
             @Override
             protected Vector solve(LinearLeastSquaresSolver solver) {
-                Matrix J = solver.objective.getJ();
+                LinearOperator J = solver.objective.getJ();
                 Vector y = solver.objective.getY();
                 try {
                     LinearLeastSquaresFunction objective = new LinearLeastSquaresFunction(J, y);
                     ConjugateGradientSolver conjugateGradientSolver =
                             new ConjugateGradientSolver.Builder(objective,
                                                                 Vectors.build(J.getColumnDimension(), y.type()))
-                                    .preconditioningMethod(ConjugateGradientSolver.PreconditioningMethod
-                                                                   .SYMMETRIC_SUCCESSIVE_OVER_RELAXATION)
+                                    .preconditioningMethod(ConjugateGradientSolver.PreconditioningMethod.JACOBI)
                                     .buildWithChecking();
                     return conjugateGradientSolver.solve();
                 } catch (NonPositiveDefiniteMatrixException e) {
@@ -1,8 +1,10 @@
 package module.optimization;
 
+import module.math.matrix.DenseVector;
 import module.math.matrix.Matrix;
 import module.math.matrix.SingularMatrixException;
 import module.math.matrix.Vector;
+import module.math.matrix.VectorType;
 import module.math.matrix.Vectors;
 import module.optimization.function.AbstractFunction;
 import module.optimization.function.NonSmoothFunctionException;
@@ -95,10 +97,11 @@ public final class NewtonSolver extends AbstractLineSearchSolver {
             if (linearEqualityConstraint == null) {
                 currentDirection = hessian.solve(currentGradient).mult(-1);
             } else {
-                int numberOfConstraints = linearEqualityConstraint.getA().getRowDimension();
+                Matrix A = linearEqualityConstraint.getA().toDenseMatrix();
+                int numberOfConstraints = A.getRowDimension();
                 Matrix linearSystemMatrix = new Matrix(
                         hessian.getRowDimension() + numberOfConstraints,
-                        hessian.getColumnDimension() + linearEqualityConstraint.getA().getRowDimension()
+                        hessian.getColumnDimension() + numberOfConstraints
                 );
                 linearSystemMatrix.setSubMatrix(0,
                                                 hessian.getRowDimension() - 1,
@@ -109,18 +112,23 @@ public final class NewtonSolver extends AbstractLineSearchSolver {
                                                 hessian.getRowDimension() - 1,
                                                 hessian.getColumnDimension(),
                                                 linearSystemMatrix.getColumnDimension() - 1,
-                                                linearEqualityConstraint.getA().transpose());
+                                                A.transpose());
                 linearSystemMatrix.setSubMatrix(hessian.getRowDimension(),
                                                 linearSystemMatrix.getRowDimension() - 1,
                                                 0,
                                                 hessian.getColumnDimension() - 1,
-                                                linearEqualityConstraint.getA());
+                                                A);
                 Vector linearSystemVector = Vectors.build(currentGradient.size() + numberOfConstraints,
                                                           currentGradient.type());
                 linearSystemVector.set(0,
                                        currentGradient.size() - 1,
                                        currentGradient.mult(-1));
-                currentDirection = linearSystemMatrix.solve(linearSystemVector).get(0, currentGradient.size() - 1);
+                Vector solution = linearSystemMatrix.solve(linearSystemVector);
+                // The solution is a temporary vector and so, when possible, a view is used instead of a copy.
+                if (solution.type() == VectorType.DENSE)
+                    currentDirection = ((DenseVector) solution).getView(0, currentGradient.size() - 1);
+                else
+                    currentDirection = solution.get(0, currentGradient.size() - 1);
             }
         } catch (SingularMatrixException e) {
             e.printStackTrace();
@@ -1,6 +1,8 @@
 package module.optimization;
 
+import module.math.matrix.AbstractMatrix;
 import module.math.matrix.Matrix;
+import module.math.matrix.SymmetricMatrix;
 import module.math.matrix.Vector;
 import module.math.matrix.Vectors;
 import module.math.matrix.VectorNorm;
@@ -12,12 +14,13 @@ import module.optimization.linesearch.StrongWolfeInterpolationLineSearch;
  * @author Andriy Chekhovych
  */
 public final class QuasiNewtonSolver extends AbstractLineSearchSolver {
-    private final Matrix identityMatrix;
     private final Method method;
     private final int m;
 
-    private Matrix currentH;
-    private Matrix previousH;
+    /** The Hessian inverse approximation, which is a {@link SymmetricMatrix} for all methods except from the Broyden
+     * method (whose updates do not preserve symmetry) and which is not used by the limited memory BFGS method. */
+    private AbstractMatrix currentH;
+    private AbstractMatrix previousH;
     Vector[] s;
     Vector[] y;
     private Vector initialHessianInverseDiagonal = Vectors.dense(currentPoint.size(), 1);
@@ -91,8 +94,10 @@ public final class QuasiNewtonSolver extends AbstractLineSearchSolver {
         method = builder.method;
         m = builder.m;
         symmetricRankOneSkippingParameter = builder.symmetricRankOneSkippingParameter;
-        identityMatrix = Matrix.identity(builder.initialPoint.size());
-        currentH = identityMatrix;
+        if (method == Method.BROYDEN)
+            currentH = Matrix.identity(builder.initialPoint.size());
+        else if (method != Method.LIMITED_MEMORY_BROYDEN_FLETCHER_GOLDFARB_SHANNO)
+            currentH = SymmetricMatrix.identity(builder.initialPoint.size());
         s = new Vector[m];
         y = new Vector[m];
     }
@@ -133,11 +138,12 @@ public final class QuasiNewtonSolver extends AbstractLineSearchSolver {
             protected void updateDirection(QuasiNewtonSolver solver) {
                 if (solver.currentIteration > 0) {
                     updatePreviousH(solver);
-                    solver.currentH = solver.previousH.subtract(solver.previousH.multiply(
-                            solver.y[0].mult(1 / solver.y[0].transMult(solver.previousH).inner(solver.y[0]))
-                                    .outer(solver.y[0])
-                                    .multiply(solver.previousH)
-                    )).add(solver.s[0].mult(1 / solver.y[0].inner(solver.s[0])).outer(solver.s[0]));
+                    // H = H - (Hy)(Hy)^T / (y^THy) + ss^T / (y^Ts), computed in place using two rank-1 updates.
+                    SymmetricMatrix H = (SymmetricMatrix) solver.previousH;
+                    Vector Hy = H.multiply(solver.y[0]);
+                    double yInnerHy = solver.y[0].inner(Hy);
+                    double yInnerS = solver.y[0].inner(solver.s[0]);
+                    solver.currentH = H.syr(-1 / yInnerHy, Hy).syr(1 / yInnerS, solver.s[0]);
                 }
                 solver.currentDirection = solver.currentH.multiply(solver.currentGradient).mult(-1);
             }
@@ -149,13 +155,13 @@ public final class QuasiNewtonSolver extends AbstractLineSearchSolver {
             protected void updateDirection(QuasiNewtonSolver solver) {
                 if (solver.currentIteration > 0) {
                     updatePreviousH(solver);
+                    // The update H = (I - rho sy^T) H (I - rho ys^T) + rho ss^T is expanded to
+                    // H = H - rho (s(Hy)^T + (Hy)s^T) + (rho^2 y^THy + rho) ss^T and computed in place.
+                    SymmetricMatrix H = (SymmetricMatrix) solver.previousH;
                     double rho = 1 / solver.y[0].inner(solver.s[0]);
-                    solver.currentH = solver.identityMatrix
-                            .subtract(solver.s[0].mult(rho).outer(solver.y[0]))
-                            .multiply(solver.previousH)
-                            .multiply(solver.identityMatrix
-                                              .subtract(solver.y[0].mult(rho).outer(solver.s[0])))
-                            .add(solver.s[0].mult(rho).outer(solver.s[0]));
+                    Vector Hy = H.multiply(solver.y[0]);
+                    double yInnerHy = solver.y[0].inner(Hy);
+                    solver.currentH = H.syr2(-rho, solver.s[0], Hy).syr(rho * rho * yInnerHy + rho, solver.s[0]);
                 }
                 solver.currentDirection = solver.currentH.multiply(solver.currentGradient).mult(-1);
             }
@@ -164,32 +170,28 @@ public final class QuasiNewtonSolver extends AbstractLineSearchSolver {
             @Override
             protected void updateDirection(QuasiNewtonSolver solver) {
                 if (solver.currentIteration > 0) {
+                    double[] yInnerSAndNormSquared = solver.y[0].innerAndNormSquared(solver.s[0]);
                     solver.initialHessianInverseDiagonal =
-                            Vectors.dense(solver.currentPoint.size(), 1)
-                                    .mult(solver.s[0].inner(solver.y[0])
-                                                  / solver.y[0].inner(solver.y[0]));
+                            Vectors.dense(solver.currentPoint.size(),
+                                          yInnerSAndNormSquared[0] / yInnerSAndNormSquared[1]);
                 }
                 solver.currentDirection =
-                        approximateHessianInverseVectorProduct(solver, solver.currentGradient).mult(-1);
+                        approximateHessianInverseVectorProduct(solver, solver.currentGradient).multInPlace(-1);
             }
 
             private Vector approximateHessianInverseVectorProduct(QuasiNewtonSolver solver, Vector q) {
                 double[] a = new double[solver.m];
                 double[] rho = new double[solver.m];
-                for (int i = 0; i < Math.min(solver.m, solver.currentIteration); i++) {
+                int numberOfCorrections = Math.min(solver.m, solver.currentIteration);
+                q = q.copy();
+                for (int i = 0; i < numberOfCorrections; i++) {
                     rho[i] = 1 / solver.y[i].inner(solver.s[i]);
                     a[i] = rho[i] * solver.s[i].inner(q);
-                    q = q.sub(solver.y[i].mult(a[i]));
-                }
-                Vector result = q.multElementwise(solver.initialHessianInverseDiagonal);
-                double temp0 = solver.y[0].inner(result);
-                double temp1 = rho[0] * temp0;
-                double temp2 = a[0] - temp1;
-                Vector temp3 = solver.s[0].mult(temp2);
-                Vector temp4 = (result.mult(-1.0)).add(temp3);
-                for (int i = Math.min(solver.m, solver.currentIteration) - 1; i >= 0; i--) {
-                    result = result.add(solver.s[i].mult(a[i] - rho[i] * solver.y[i].inner(result)));
+                    q.saxpyInPlace(-a[i], solver.y[i]);
                 }
+                Vector result = q.multElementwiseInPlace(solver.initialHessianInverseDiagonal);
+                for (int i = numberOfCorrections - 1; i >= 0; i--)
+                    result.saxpyInPlace(a[i] - rho[i] * solver.y[i].inner(result), solver.s[i]);
                 return result;
             }
         },
@@ -201,14 +203,13 @@ public final class QuasiNewtonSolver extends AbstractLineSearchSolver {
             protected void updateDirection(QuasiNewtonSolver solver) {
                 if (solver.currentIteration > 0) {
                     updatePreviousH(solver);
-                    Vector tempVector = solver.s[0].sub(solver.previousH.multiply(solver.y[0]));
+                    SymmetricMatrix H = (SymmetricMatrix) solver.previousH;
+                    Vector tempVector = solver.s[0].sub(H.multiply(solver.y[0]));
                     if (Math.abs(tempVector.inner(solver.y[0]))
                             >= solver.symmetricRankOneSkippingParameter
                             * solver.y[0].norm(VectorNorm.L2)
                             *  tempVector.norm(VectorNorm.L2)) {
-                        solver.currentH = solver.previousH.add(
-                                tempVector.mult(1 / tempVector.inner(solver.y[0])).outer(tempVector)
-                        );
+                        solver.currentH = H.syr(1 / tempVector.inner(solver.y[0]), tempVector);
                     } else {
                         solver.currentH = solver.previousH;
                     }
@@ -221,11 +222,11 @@ public final class QuasiNewtonSolver extends AbstractLineSearchSolver {
             protected void updateDirection(QuasiNewtonSolver solver) {
                 if (solver.currentIteration > 0) {
                     updatePreviousH(solver);
-                    solver.currentH = solver.previousH.add(
-                            solver.s[0].sub(solver.previousH.multiply(solver.y[0]))
-                                    .outer(solver.s[0].transMult(solver.previousH))
-                                    .multiply(1 / solver.s[0].transMult(solver.previousH).inner(solver.y[0]))
-                    );
+                    Matrix H = (Matrix) solver.previousH;
+                    Vector HTransposeS = H.transMult(solver.s[0]);
+                    solver.currentH = H.rankOneUpdateInPlace(1 / HTransposeS.inner(solver.y[0]),
+                                                             solver.s[0].sub(H.multiply(solver.y[0])),
+                                                             HTransposeS);
                 }
                 solver.currentDirection = solver.currentH.multiply(solver.currentGradient).mult(-1);
             }
@@ -234,15 +235,19 @@ public final class QuasiNewtonSolver extends AbstractLineSearchSolver {
         protected abstract void updateDirection(QuasiNewtonSolver solver);
 
         /**
-         * Used by all methods except from the limited memory Broyden-Fletcher-Goldfarb-Shanno method.
+         * Used by all methods except from the limited memory Broyden-Fletcher-Goldfarb-Shanno method. The previous
+         * Hessian inverse approximation is the current one and so it can be updated in place, except for the first
+         * iteration, in which a scaled copy of the initial approximation is used.
          *
          * @param   solver  The actual solver object whose {@code previousH} variable is updated.
          */
         private static void updatePreviousH(QuasiNewtonSolver solver) {
             if (solver.currentIteration == 1) {
-                solver.previousH = solver.currentH
-                        .multiply(solver.y[0].inner(solver.s[0])
-                                          / solver.y[0].inner(solver.y[0]));
+                double scale = solver.y[0].inner(solver.s[0]) / solver.y[0].inner(solver.y[0]);
+                if (solver.currentH instanceof SymmetricMatrix)
+                    solver.previousH = ((SymmetricMatrix) solver.currentH).multiply(scale);
+                else
+                    solver.previousH = ((Matrix) solver.currentH).multiply(scale);
             } else {
                 solver.previousH = solver.currentH;
             }
@@ -3,17 +3,18 @@ package module.optimization.constraint;
 import module.math.matrix.*;
 
 /**
- * A linear equality constraint of the form \(Ax=b\).
+ * A linear equality constraint of the form \(Ax=b\). Matrix \(A\) can be either dense or sparse, but note that the
+ * projection onto the constraint set uses a dense factorization.
  *
  * @author Andriy Chekhovych
  */
 public final class LinearEqualityConstraint extends AbstractEqualityConstraint {
-    private final Matrix A;
+    private final AbstractMatrix A;
     private final Vector b;
 
     private QRDecomposition linearSystemMatrixQRDecomposition;
 
-    public LinearEqualityConstraint(Matrix A, Vector b) {
+    public LinearEqualityConstraint(AbstractMatrix A, Vector b) {
         this.A = A;
         this.b = b;
     }
@@ -30,13 +31,16 @@ public final class LinearEqualityConstraint extends AbstractEqualityConstraint {
 
     @Override
     public Matrix computeJacobian(Vector point) {
-        return A.copy();
+        if (A instanceof Matrix)
+            return ((Matrix) A).copy();
+        return A.toDenseMatrix();
     }
 
     @Override
     public Vector project(Vector point) throws SingularMatrixException {
         if (computeValue(point).norm(VectorNorm.L2_FAST) > epsilon) {
             if (linearSystemMatrixQRDecomposition == null) {
+                Matrix A = this.A.toDenseMatrix();
                 Matrix linearSystemMatrix = new Matrix(A.getRowDimension() + A.getColumnDimension(),
                                                        A.getRowDimension() + A.getColumnDimension());
                 linearSystemMatrix.setSubMatrix(0,
@@ -59,7 +63,11 @@ public final class LinearEqualityConstraint extends AbstractEqualityConstraint {
             Vector linearSystemVector = Vectors.build(point.size() + A.getRowDimension(), point.type());
             linearSystemVector.set(0, point.size() - 1, point);
             linearSystemVector.set(point.size(), linearSystemVector.size() - 1, b);
-            return linearSystemMatrixQRDecomposition.solve(linearSystemVector).get(0, point.size() - 1);
+            Vector solution = linearSystemMatrixQRDecomposition.solve(linearSystemVector);
+            // The solution is a temporary vector and so, when possible, a view is returned instead of a copy.
+            if (solution.type() == VectorType.DENSE)
+                return ((DenseVector) solution).getView(0, point.size() - 1);
+            return solution.get(0, point.size() - 1);
         } else {
             return point;
         }
@@ -72,15 +80,19 @@ public final class LinearEqualityConstraint extends AbstractEqualityConstraint {
             );
 
         Matrix newA = new Matrix(A.getRowDimension() + constraint.A.getRowDimension(), A.getColumnDimension());
-        newA.setSubMatrix(0, A.getRowDimension() - 1, 0, A.getColumnDimension() - 1, A);
-        newA.setSubMatrix(A.getRowDimension(), newA.getRowDimension() - 1, 0, A.getColumnDimension() - 1, constraint.A);
+        newA.setSubMatrix(0, A.getRowDimension() - 1, 0, A.getColumnDimension() - 1, A.toDenseMatrix());
+        newA.setSubMatrix(A.getRowDimension(),
+                          newA.getRowDimension() - 1,
+                          0,
+                          A.getColumnDimension() - 1,
+                          constraint.A.toDenseMatrix());
         Vector newB = Vectors.build(b.size() + constraint.b.size(), b.type());
         newB.set(0, b.size() - 1, b);
         newB.set(b.size(), newB.size() - 1, constraint.b);
         return new LinearEqualityConstraint(newA, newB);
     }
 
-    public Matrix getA() {
+    public AbstractMatrix getA() {
         return A;
     }
 
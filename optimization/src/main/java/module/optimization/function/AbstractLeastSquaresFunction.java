@@ -14,10 +14,10 @@ public abstract class AbstractLeastSquaresFunction extends AbstractFunction {
     }
 
     @Override
-    public final Vector computeGradient(Vector point) {
+    public Vector computeGradient(Vector point) {
         Vector residuals = computeResiduals(point);
         Matrix jacobian = computeJacobian(point);
-        return jacobian.transpose().multiply(residuals);
+        return jacobian.transMult(residuals);
     }
 
     @Override
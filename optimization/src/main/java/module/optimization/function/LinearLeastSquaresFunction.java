@@ -1,31 +1,39 @@
 package module.optimization.function;
 
+import module.math.matrix.LinearOperator;
 import module.math.matrix.Matrix;
 import module.math.matrix.Vector;
 
 /**
- * A linear least squares function of the form \(f(x)=\frac{1}{2}\|Jx-y\|^2\).
+ * A linear least squares function of the form \(f(x)=\frac{1}{2}\|Jx-y\|^2\). \(J\) can be any linear operator (e.g.,
+ * a dense or a sparse matrix), since the value and the gradient of the function are computed using only products of
+ * \(J\) and of its transpose with vectors.
  *
  * @author Andriy Chekhovych
  */
 public final class LinearLeastSquaresFunction extends AbstractLeastSquaresFunction {
-    private final Matrix J;
+    private final LinearOperator J;
     private final Vector y;
 
-    public LinearLeastSquaresFunction(Matrix J, Vector y) {
+    public LinearLeastSquaresFunction(LinearOperator J, Vector y) {
         this.J = J;
         this.y = y;
     }
 
     public Vector computeResiduals(Vector point) {
-        return J.multiply(point).sub(y);
+        return J.apply(point).sub(y);
+    }
+
+    @Override
+    public Vector computeGradient(Vector point) {
+        return J.applyTranspose(computeResiduals(point));
     }
 
     public Matrix computeJacobian(Vector point) {
-        return J;
+        return J.toDenseMatrix();
     }
 
-    public Matrix getJ() {
+    public LinearOperator getJ() {
         return J;
     }
 
@@ -1,38 +1,41 @@
 package module.optimization.function;
 
+import module.math.matrix.LinearOperator;
 import module.math.matrix.Matrix;
 import module.math.matrix.Vector;
 
 /**
- * A quadratic function of the form \(f(x)=\frac{1}{2}x^TAx-b^Tx\).
+ * A quadratic function of the form \(f(x)=\frac{1}{2}x^TAx-b^Tx\). \(A\) can be any linear operator (e.g., a dense or
+ * a sparse matrix), since the value and the gradient of the function are computed using only products of \(A\) with
+ * vectors.
  *
  * @author Andriy Chekhovych
  */
 public final class QuadraticFunction extends AbstractFunction {
-    private final Matrix A;
+    private final LinearOperator A;
     private final Vector b;
 
-    public QuadraticFunction(Matrix A, Vector b) {
+    public QuadraticFunction(LinearOperator A, Vector b) {
         this.A = A;
         this.b = b;
     }
 
     @Override
     public double computeValue(Vector point) {
-        return 0.5 * point.transMult(A).inner(point) - b.inner(point);
+        return 0.5 * A.apply(point).inner(point) - b.inner(point);
     }
 
     @Override
     public Vector computeGradient(Vector point) {
-        return A.multiply(point).sub(b);
+        return A.apply(point).subInPlace(b);
     }
 
     @Override
     public Matrix computeHessian(Vector point) {
-        return A;
+        return A.toDenseMatrix();
     }
 
-    public Matrix getA() {
+    public LinearOperator getA() {
         return A;
     }
 
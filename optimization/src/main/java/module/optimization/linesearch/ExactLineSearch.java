@@ -33,6 +33,6 @@ public final class ExactLineSearch implements LineSearch {
                                   double previousStepSize)
             throws NonSmoothFunctionException {
         return -objective.getGradient(point).inner(direction)
-                / direction.transMult(objective.getA()).inner(direction);
+                / objective.getA().apply(direction).inner(direction);
     }
 }
@@ -0,0 +1,108 @@
+package module.optimization;
+
+import module.math.matrix.*;
+import module.optimization.function.LinearLeastSquaresFunction;
+import module.optimization.function.QuadraticFunction;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Andriy Chekhovych
+ */
+public class ConjugateGradientSolverTest {
+    private static final int DIMENSION = 50;
+    private static final double TOLERANCE = 1e-5;
+
+    /** Builds the symmetric positive definite tridiagonal matrix with 4 on its diagonal and -1 next to it. */
+    private static SparseMatrix buildTridiagonalMatrix() {
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(DIMENSION, DIMENSION);
+        for (int i = 0; i < DIMENSION; i++) {
+            builder.addElement(i, i, 4);
+            if (i > 0)
+                builder.addElement(i, i - 1, -1);
+            if (i < DIMENSION - 1)
+                builder.addElement(i, i + 1, -1);
+        }
+        return builder.build();
+    }
+
+    private static Vector buildSparseStartingPoint(VectorType type) {
+        Vector initialPoint = Vectors.build(DIMENSION, type);
+        initialPoint.set(3, 1.5);
+        initialPoint.set(17, -2);
+        return initialPoint;
+    }
+
+    @Test
+    public void testSparseStartingPointQuadratic() throws Exception {
+        SparseMatrix A = buildTridiagonalMatrix();
+        double[] bArray = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++)
+            bArray[i] = Math.sin(i + 1);
+        DenseVector b = Vectors.dense(bArray);
+        Vector expectedSolution = A.toDenseMatrix().solve(b);
+        for (VectorType type : new VectorType[] { VectorType.SPARSE, VectorType.HASH }) {
+            for (Vector objectiveB : new Vector[] { b, Vectors.sparse(b) }) {
+                for (ConjugateGradientSolver.PreconditioningMethod method
+                        : ConjugateGradientSolver.PreconditioningMethod.values()) {
+                    Vector initialPoint = buildSparseStartingPoint(type);
+                    Vector solution = new ConjugateGradientSolver.Builder(new QuadraticFunction(A, objectiveB),
+                                                                          initialPoint)
+                            .preconditioningMethod(method)
+                            .loggingLevel(0)
+                            .buildWithChecking()
+                            .solve();
+                    assertEquals(0, solution.sub(expectedSolution).norm(VectorNorm.L2), TOLERANCE);
+                    assertEquals(1.5, initialPoint.get(3), 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSparseStartingPointLinearLeastSquares() throws Exception {
+        SparseMatrix J = buildTridiagonalMatrix();
+        double[] yArray = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++)
+            yArray[i] = Math.cos(i + 1);
+        DenseVector y = Vectors.dense(yArray);
+        Vector expectedSolution = J.toDenseMatrix().solve(y);
+        for (VectorType type : new VectorType[] { VectorType.SPARSE, VectorType.HASH }) {
+            Vector solution = new ConjugateGradientSolver.Builder(new LinearLeastSquaresFunction(J, y),
+                                                                  buildSparseStartingPoint(type))
+                    .loggingLevel(0)
+                    .buildWithChecking()
+                    .solve();
+            assertEquals(0, solution.sub(expectedSolution).norm(VectorNorm.L2), TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testLinearLeastSquaresDefaultPreconditioningIsSilent() throws Exception {
+        SparseMatrix J = buildTridiagonalMatrix();
+        double[] yArray = new double[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++)
+            yArray[i] = Math.cos(i + 1);
+        DenseVector y = Vectors.dense(yArray);
+        Vector expectedSolution = J.toDenseMatrix().solve(y);
+        PrintStream standardError = System.err;
+        ByteArrayOutputStream errorOutput = new ByteArrayOutputStream();
+        Vector solution;
+        try {
+            System.setErr(new PrintStream(errorOutput));
+            solution = new ConjugateGradientSolver.Builder(new LinearLeastSquaresFunction(J, y),
+                                                           Vectors.dense(DIMENSION))
+                    .loggingLevel(0)
+                    .buildWithChecking()
+                    .solve();
+        } finally {
+            System.setErr(standardError);
+        }
+        assertEquals("", errorOutput.toString());
+        assertEquals(0, solution.sub(expectedSolution).norm(VectorNorm.L2), TOLERANCE);
+    }
+}
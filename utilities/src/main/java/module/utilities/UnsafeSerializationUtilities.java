@@ -236,8 +236,27 @@ public class UnsafeSerializationUtilities {
      * @throws  IOException
      */
     public static void writeDoubleArray(OutputStream outputStream, double[] array, int length) throws IOException {
+        writeDoubleArray(outputStream, array, 0, length);
+    }
+
+    /**
+     * Writes a subarray of the provided double array to the provided output stream byte by byte. The subarray starts
+     * at index {@code offset} of the provided double array and has {@code length} elements. Note that the size of the
+     * array is not stored and so the user of this method must make sure to store that as well somewhere, so that the
+     * array can be serialized later on.
+     *
+     * @param   outputStream    The output stream to write the provided double array to.
+     * @param   array           The double array whose subarray to write to the provided output stream.
+     * @param   offset          The index of the first element of the subarray.
+     * @param   length          The length of the double array to write to the provided output stream.
+     * @throws  IOException
+     */
+    public static void writeDoubleArray(OutputStream outputStream,
+                                        double[] array,
+                                        int offset,
+                                        int length) throws IOException {
         byte[] buffer = new byte[length << 3];
-        UNSAFE.copyMemory(array, DOUBLE_ARRAY_OFFSET, buffer, BYTE_ARRAY_OFFSET, length << 3);
+        UNSAFE.copyMemory(array, DOUBLE_ARRAY_OFFSET + ((long) offset << 3), buffer, BYTE_ARRAY_OFFSET, length << 3);
         outputStream.write(buffer);
     }
 